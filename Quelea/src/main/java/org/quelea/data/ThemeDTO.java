@@ -20,6 +20,7 @@ package org.quelea.data;
 import java.io.File;
 import java.io.Serializable;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javafx.scene.paint.Color;
@@ -49,6 +50,7 @@ public class ThemeDTO implements Serializable {
     public static final SerializableDropShadow DEFAULT_SHADOW = new SerializableDropShadow(Color.BLACK, 0, 0, 2, 0, true);
     public static final ColourBackground DEFAULT_BACKGROUND = new ColourBackground(Color.BLACK);
     public static final ThemeDTO DEFAULT_THEME = new ThemeDTO(DEFAULT_FONT, DEFAULT_FONT_COLOR, DEFAULT_FONT, DEFAULT_TRANSLATE_FONT_COLOR, DEFAULT_BACKGROUND, DEFAULT_SHADOW, DEFAULT_FONT.getFont().getStyle().toLowerCase().contains("bold"), DEFAULT_FONT.getFont().getStyle().toLowerCase().contains("italic"), DEFAULT_FONT.getFont().getStyle().toLowerCase().contains("bold"), true, -1, 0);
+    private static final Map<String, ThemeDTO> SHARED_THEMES = new ConcurrentHashMap<>();
     private final SerializableFont font;
     private final SerializableColor fontColor;
     private final SerializableFont translateFont;
@@ -93,16 +95,33 @@ public class ThemeDTO implements Serializable {
         return textPosition;
     }
 
-    public void setTextPosition(int textPosition) {
-        this.textPosition = textPosition;
+    /**
+     * Get a copy of this theme with a different text position. Themes may be
+     * shared, so they're never changed in place.
+     * <p/>
+     * @param textPosition the text position.
+     * @return the new theme.
+     */
+    public ThemeDTO withTextPosition(int textPosition) {
+        ThemeDTO ret = copy();
+        ret.textPosition = textPosition;
+        return ret;
     }
 
     public int getTextAlignment() {
         return textAlignment;
     }
 
-    public void setTextAlignment(int textAlignment) {
-        this.textAlignment = textAlignment;
+    /**
+     * Get a copy of this theme with a different text alignment.
+     * <p/>
+     * @param textAlignment the text alignment.
+     * @return the new theme.
+     */
+    public ThemeDTO withTextAlignment(int textAlignment) {
+        ThemeDTO ret = copy();
+        ret.textAlignment = textAlignment;
+        return ret;
     }
 
     /**
@@ -115,12 +134,15 @@ public class ThemeDTO implements Serializable {
     }
 
     /**
-     * Set the file associated with this theme.
+     * Get a copy of this theme associated with a different file.
      * <p/>
-     * @param file the file to set as the theme file.
+     * @param file the theme file.
+     * @return the new theme.
      */
-    public void setFile(File file) {
-        this.file = file;
+    public ThemeDTO withFile(File file) {
+        ThemeDTO ret = copy();
+        ret.file = file;
+        return ret;
     }
 
     /**
@@ -133,12 +155,23 @@ public class ThemeDTO implements Serializable {
     }
 
     /**
-     * Set the theme name.
+     * Get a copy of this theme with a different name.
      * <p/>
      * @param themeName the theme name.
+     * @return the new theme.
      */
-    public void setThemeName(String themeName) {
-        this.themeName = themeName;
+    public ThemeDTO withThemeName(String themeName) {
+        ThemeDTO ret = copy();
+        ret.themeName = themeName;
+        return ret;
+    }
+
+    private ThemeDTO copy() {
+        ThemeDTO ret = new ThemeDTO(font, getFontPaint(), translateFont, getTranslateFontPaint(), background, textShadow,
+                isFontBold, isFontItalic, isTranslateFontBold, isTranslateFontItalic, textPosition, textAlignment);
+        ret.themeName = themeName;
+        ret.file = file;
+        return ret;
     }
 
     /**
@@ -323,6 +356,55 @@ public class ThemeDTO implements Serializable {
         return ret;
     }
 
+    /**
+     * Get a shared themeDTO for a Theme which is DB table mapping. Themes with
+     * the same content are given the same DTO, so songs that use the same
+     * theme don't each hold their own copy of its fonts and background (and
+     * image backgrounds aren't resolved again for every song.) The returned
+     * DTO is shared, so use the with methods to get a changed copy of it.
+     * <p/>
+     * @param theme the theme to get the DTO for.
+     * @return the shared DTO for the theme.
+     */
+    public static ThemeDTO getSharedDTO(Theme theme) {
+        return SHARED_THEMES.computeIfAbsent(getKey(theme), key -> getDTO(theme));
+    }
+
+    /**
+     * Get a key that's equal for two Themes only if they'd give the same DTO.
+     * <p/>
+     * @param theme the theme to get the key for.
+     * @return the key.
+     */
+    private static String getKey(Theme theme) {
+        TextShadow shadow = theme.getTextShadow();
+        StringBuilder ret = new StringBuilder();
+        ret.append(QueleaProperties.get().getMaxFontSize());
+        ret.append('\u0000').append(theme.getName());
+        ret.append('\u0000').append(theme.getFontname());
+        ret.append('\u0000').append(theme.getFontcolour());
+        ret.append('\u0000').append(theme.getTranslateFontname());
+        ret.append('\u0000').append(theme.getTranslateFontcolour());
+        ret.append('\u0000').append(theme.getBackgroundcolour());
+        ret.append('\u0000').append(theme.getBackgroundimage());
+        ret.append('\u0000').append(theme.getBackgroundvid());
+        ret.append('\u0000').append(theme.getVideoHue());
+        ret.append('\u0000').append(theme.getVideoStretch());
+        ret.append('\u0000').append(theme.isFontBold());
+        ret.append('\u0000').append(theme.isFontItalic());
+        ret.append('\u0000').append(theme.isTranslateFontBold());
+        ret.append('\u0000').append(theme.isTranslateFontItalic());
+        ret.append('\u0000').append(theme.getTextPosition());
+        ret.append('\u0000').append(theme.getTextAlignment());
+        ret.append('\u0000').append(shadow.getShadowColor());
+        ret.append('\u0000').append(shadow.getOffsetX());
+        ret.append('\u0000').append(shadow.getOffsetY());
+        ret.append('\u0000').append(shadow.getRadius());
+        ret.append('\u0000').append(shadow.getSpread());
+        ret.append('\u0000').append(shadow.getUse());
+        return ret.toString();
+    }
+
     public SerializableDropShadow getShadow() {
         return textShadow;
     }
@@ -20,15 +20,13 @@ package org.quelea.data.bible;
 import org.quelea.services.utils.LoggerUtils;
 import org.quelea.services.utils.UnicodeReader;
 import org.quelea.services.utils.Utils;
-import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
-import org.xml.sax.InputSource;
-import org.xml.sax.SAXException;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
@@ -59,7 +57,7 @@ public final class Bible implements BibleInterface, Serializable {
      * <p/>
      * @param name the name of the bible.
      */
-    private Bible(String name) {
+    Bible(String name) {
         books = new ArrayList<>();
         this.name = name;
     }
@@ -113,38 +111,110 @@ public final class Bible implements BibleInterface, Serializable {
      */
     public static Bible parseBible(final File file) {
         LOGGER.log(Level.INFO, "Parsing bible: " + file.getAbsolutePath());
-        try {
-            if (file.exists()) {
-                DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-                DocumentBuilder builder = factory.newDocumentBuilder();
-                Document doc = builder.parse(new InputSource(new UnicodeReader(new FileInputStream(file), Utils.getEncoding(file))));
-                NodeList list = doc.getChildNodes();
-                for (int i = 0; i < list.getLength(); i++) {
-                    if (list.item(i).getNodeName().equalsIgnoreCase("xmlbible")
-                            || list.item(i).getNodeName().equalsIgnoreCase("bible")) {
-                        return parseXML(list.item(i), Utils.getFileNameWithoutExtension(file.getName()));
+        if (!file.exists()) {
+            LOGGER.log(Level.WARNING, "Couldn''t parse the bible {0} because the file doesn''t exist!", file);
+            return null;
+        }
+        try (UnicodeReader in = new UnicodeReader(new FileInputStream(file), Utils.getEncoding(file))) {
+            XMLInputFactory factory = XMLInputFactory.newInstance();
+            factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+            XMLStreamReader reader = factory.createXMLStreamReader(in);
+            try {
+                String defaultName = Utils.getFileNameWithoutExtension(file.getName());
+                while (reader.hasNext()) {
+                    if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                        continue;
+                    }
+                    String name = BibleStreamUtils.getName(reader);
+                    if (name.equalsIgnoreCase("xmlbible")
+                            || name.equalsIgnoreCase("bible")) {
+                        return parseXML(reader, defaultName);
                     }
-                    else if (list.item(i).getNodeName().equalsIgnoreCase("osis")) {
-                        NodeList innerList = list.item(i).getChildNodes();
-                        for (int j = 0; j < innerList.getLength(); j++) {
-                            if (innerList.item(j).getNodeName().equalsIgnoreCase("osisText")) {
-                                return parseXML(innerList.item(j), Utils.getFileNameWithoutExtension(file.getName()));
+                    else if (name.equalsIgnoreCase("osis")) {
+                        while (reader.next() != XMLStreamConstants.END_ELEMENT) {
+                            if (reader.getEventType() != XMLStreamConstants.START_ELEMENT) {
+                                continue;
                             }
+                            if (BibleStreamUtils.getName(reader).equalsIgnoreCase("osisText")) {
+                                return parseXML(reader, defaultName);
+                            }
+                            BibleStreamUtils.skipElement(reader);
                         }
                     }
+                    else {
+                        BibleStreamUtils.skipElement(reader);
+                    }
                 }
-                LOGGER.log(Level.WARNING, "Couldn''t parse the bible {0} because I couldn''t find any <bible> or <xmlbible> root tags :-(", file);
-                return null;
-            } else {
-                LOGGER.log(Level.WARNING, "Couldn''t parse the bible {0} because the file doesn''t exist!", file);
-                return null;
+            } finally {
+                reader.close();
             }
-        } catch (ParserConfigurationException | SAXException | IOException ex) {
+            LOGGER.log(Level.WARNING, "Couldn''t parse the bible {0} because I couldn''t find any <bible> or <xmlbible> root tags :-(", file);
+            return null;
+        } catch (XMLStreamException | IOException ex) {
             LOGGER.log(Level.WARNING, "Couldn't parse the bible " + file, ex);
             return null;
         }
     }
 
+    /**
+     * Parse a bible element from a streaming XML reader. This reads the same
+     * information as parseXML(Node, String), but builds the books as it goes
+     * rather than needing the whole document in memory first.
+     * <p/>
+     * @param reader the reader, positioned on the bible's start tag.
+     * @param defaultName the name of the bible if none is specified in the XML
+     * file.
+     * @return the object as defined by the XML.
+     * @throws XMLStreamException if the XML is malformed.
+     */
+    static Bible parseXML(XMLStreamReader reader, String defaultName) throws XMLStreamException {
+        String name = BibleStreamUtils.getAttribute(reader, "biblename");
+        if (name == null) {
+            name = BibleStreamUtils.getAttribute(reader, "name");
+        }
+        if (name == null) {
+            name = defaultName;
+        }
+        Bible ret = new Bible(name);
+        while (reader.next() != XMLStreamConstants.END_ELEMENT) {
+            if (reader.getEventType() != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+            if (BibleStreamUtils.getName(reader).equalsIgnoreCase("testament")) {
+                while (reader.next() != XMLStreamConstants.END_ELEMENT) {
+                    if (reader.getEventType() == XMLStreamConstants.START_ELEMENT) {
+                        ret.parseBookElement(reader);
+                    }
+                }
+            } else {
+                ret.parseBookElement(reader);
+            }
+        }
+        LOGGER.log(Level.INFO, "Parsed bible: {0}. Contains {1} books.", new Object[]{ret.getName(), ret.books.size()});
+        return ret;
+    }
+
+    /**
+     * Add the book the reader is on to this bible, or skip over the element if
+     * it isn't a book.
+     * <p/>
+     * @param reader the reader, positioned on a start tag.
+     * @throws XMLStreamException if the XML is malformed.
+     */
+    private void parseBookElement(XMLStreamReader reader) throws XMLStreamException {
+        String name = BibleStreamUtils.getName(reader);
+        if (name.equalsIgnoreCase("biblebook")
+                || name.equalsIgnoreCase("b")
+                || name.equalsIgnoreCase("book")
+                || (name.equalsIgnoreCase("div") && "book".equals(BibleStreamUtils.getAttribute(reader, "type")))) {
+            BibleBook book = BibleBook.parseXML(reader, books.size());
+            book.setBible(this);
+            addBook(book);
+        } else {
+            BibleStreamUtils.skipElement(reader);
+        }
+    }
+
     /**
      * Parse some XML representing this object and return the object it
      * represents.
@@ -23,6 +23,9 @@ import java.util.List;
 import java.util.Objects;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import org.quelea.services.utils.LoggerUtils;
 import org.quelea.services.utils.Utils;
 import org.w3c.dom.Node;
@@ -52,6 +55,21 @@ public final class BibleBook implements BibleInterface, Serializable {
         caretPosList = new ArrayList<>();
     }
 
+    /**
+     * Create a new book with the given details, for loading from a bible
+     * cache.
+     *
+     * @param bookNumber the number of the book.
+     * @param bookName the name of the book.
+     * @param bsname the short name of the book.
+     */
+    BibleBook(int bookNumber, String bookName, String bsname) {
+        this();
+        this.bookNumber = bookNumber;
+        this.bookName = bookName;
+        this.bsname = bsname;
+    }
+
     @Override
     public int hashCode() {
         int hash = 7;
@@ -192,6 +210,94 @@ public final class BibleBook implements BibleInterface, Serializable {
         return ret;
     }
 
+    /**
+     * Parse a book element from a streaming XML reader. This reads the same
+     * information as parseXML(Node, int, String), without needing the whole
+     * document in memory. Afterwards the reader is left on the book's end tag.
+     *
+     * @param reader the reader, positioned on the book's start tag.
+     * @param defaultBookNum the default book number if none is available on the
+     * XML file.
+     * @return the book.
+     * @throws XMLStreamException if the XML is malformed.
+     */
+    static BibleBook parseXML(XMLStreamReader reader, int defaultBookNum) throws XMLStreamException {
+        BibleBook ret = new BibleBook();
+        String bnumber = BibleStreamUtils.getAttribute(reader, "bnumber");
+        String number = BibleStreamUtils.getAttribute(reader, "number");
+        String id = BibleStreamUtils.getAttribute(reader, "id");
+        String bname = BibleStreamUtils.getAttribute(reader, "bname");
+        String n = BibleStreamUtils.getAttribute(reader, "n");
+        String name = BibleStreamUtils.getAttribute(reader, "name");
+        String osisId = BibleStreamUtils.getAttribute(reader, "osisID");
+        String bsname = BibleStreamUtils.getAttribute(reader, "bsname");
+
+        /*
+         * The default chapter number is the position of the chapter among all
+         * the child nodes of the book (text included), as with the DOM parsing.
+         */
+        int childIndex = -1;
+        boolean inText = false;
+        while (reader.next() != XMLStreamConstants.END_ELEMENT) {
+            switch (reader.getEventType()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    childIndex++;
+                    inText = false;
+                    String childName = BibleStreamUtils.getName(reader);
+                    if (childName.equalsIgnoreCase("chapter") || childName.equalsIgnoreCase("c")) {
+                        BibleChapter chapter = BibleChapter.parseXML(reader, childIndex);
+                        chapter.setBook(ret);
+                        ret.addChapter(chapter);
+                    } else {
+                        BibleStreamUtils.skipElement(reader);
+                    }
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    if (!inText) {
+                        childIndex++;
+                        inText = true;
+                    }
+                    break;
+                case XMLStreamConstants.COMMENT:
+                case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                    childIndex++;
+                    inText = false;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        if (bnumber != null) {
+            ret.bookNumber = Integer.parseInt(bnumber.trim());
+        } else if (number != null) {
+            ret.bookNumber = Integer.parseInt(number.trim());
+        } else if (id != null) {
+            ret.bookNumber = Integer.parseInt(id.trim());
+        } else {
+            ret.bookNumber = defaultBookNum;
+        }
+
+        if (bname != null) {
+            ret.bookName = bname;
+        } else if (n != null) {
+            ret.bookName = n;
+        } else if (name != null) {
+            ret.bookName = name;
+        } else if (osisId != null) {
+            ret.bookName = osisId;
+        } else if (ret.getChapters().length > 0 && ret.getChapter(0).getCaptions().length > 0) {
+            ret.bookName = ret.getChapter(0).getCaptions()[0];
+        }
+
+        ret.bsname = bsname != null ? bsname : ret.bookName;
+
+        LOGGER.log(Level.INFO, "Parsed " + ret.getChapters().length + " chapters in " + ret.bookName);
+        return ret;
+    }
+
     /**
      * Generate an XML representation of this book.
      *
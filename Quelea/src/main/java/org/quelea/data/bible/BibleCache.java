@@ -0,0 +1,277 @@
+/*
+ * This file is part of Quelea, free projection software for churches.
+ *
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.quelea.data.bible;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.quelea.services.utils.LoggerUtils;
+
+/**
+ * A compiled binary form of a bible, stored next to its XML file. Loading a
+ * bible from its cache doesn't need any XML parsing, and the verse text stays
+ * in the memory mapped cache file until a chapter's verses are asked for, so
+ * installed bibles take up very little heap.
+ * <p/>
+ * The cache records the length and modification time of the XML it was built
+ * from, and is rebuilt whenever either changes.
+ * <p/>
+ * The file is laid out as a fixed header, then the structure of the bible
+ * (books and chapters, with the offset of each chapter's verses), then the
+ * verse text itself. Strings are stored as their UTF-8 length followed by the
+ * UTF-8 bytes, with a length of -1 for null.
+ * <p/>
+ * @author Michael
+ */
+final class BibleCache {
+
+    /**
+     * The extension added to a bible's file name to get its cache file.
+     */
+    static final String EXTENSION = ".qbc";
+    private static final Logger LOGGER = LoggerUtils.getLogger();
+    private static final int MAGIC = 0x51424331;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 4;
+
+    /**
+     * Don't make me...
+     */
+    private BibleCache() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Load a bible, from its cache if there's an up to date one, otherwise
+     * by parsing the XML and then building the cache for next time.
+     * <p/>
+     * @param file the bible's XML file.
+     * @return the bible, or null if it couldn't be loaded.
+     */
+    static Bible load(File file) {
+        File cacheFile = getCacheFile(file);
+        Bible ret = read(file, cacheFile);
+        if (ret != null) {
+            return ret;
+        }
+        Bible parsed = Bible.parseBible(file);
+        if (parsed == null) {
+            return null;
+        }
+        try {
+            write(parsed, file, cacheFile);
+        } catch (IOException ex) {
+            LOGGER.log(Level.WARNING, "Couldn't write bible cache " + cacheFile, ex);
+            return parsed;
+        }
+        ret = read(file, cacheFile);
+        return ret != null ? ret : parsed;
+    }
+
+    /**
+     * Get the cache file for a bible.
+     * <p/>
+     * @param file the bible's XML file.
+     * @return the file its cache is stored in.
+     */
+    static File getCacheFile(File file) {
+        return new File(file.getParentFile(), file.getName() + EXTENSION);
+    }
+
+    /**
+     * Determine if a file is a bible cache whose XML file no longer exists.
+     * <p/>
+     * @param file the file to check.
+     * @return true if the file is an orphaned cache, false otherwise.
+     */
+    static boolean isOrphan(File file) {
+        String name = file.getName();
+        if (!name.endsWith(EXTENSION)) {
+            return false;
+        }
+        return !new File(file.getParentFile(), name.substring(0, name.length() - EXTENSION.length())).exists();
+    }
+
+    /**
+     * Read a bible from its cache.
+     * <p/>
+     * @param file the bible's XML file.
+     * @param cacheFile the cache file.
+     * @return the bible, or null if the cache doesn't exist, is out of date or
+     * can't be read.
+     */
+    private static Bible read(File file, File cacheFile) {
+        if (!cacheFile.exists()) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(cacheFile.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC
+                    || buffer.getInt() != FORMAT_VERSION
+                    || buffer.getLong() != file.length()
+                    || buffer.getLong() != file.lastModified()) {
+                LOGGER.log(Level.INFO, "Bible cache {0} is out of date", cacheFile);
+                return null;
+            }
+            int textStart = buffer.getInt();
+            Bible bible = new Bible(readString(buffer));
+            int bookCount = buffer.getInt();
+            for (int i = 0; i < bookCount; i++) {
+                int bookNumber = buffer.getInt();
+                String bookName = readString(buffer);
+                String bsname = readString(buffer);
+                BibleBook book = new BibleBook(bookNumber, bookName, bsname);
+                int chapterCount = buffer.getInt();
+                for (int j = 0; j < chapterCount; j++) {
+                    int num = buffer.getInt();
+                    int captionCount = buffer.getInt();
+                    String[] captions = new String[captionCount];
+                    for (int k = 0; k < captionCount; k++) {
+                        captions[k] = readString(buffer);
+                    }
+                    BibleChapter chapter = new BibleChapter(num, captions, buffer, textStart + buffer.getInt());
+                    chapter.setBook(book);
+                    book.addChapter(chapter);
+                }
+                book.setBible(bible);
+                bible.addBook(book);
+            }
+            LOGGER.log(Level.INFO, "Loaded bible {0} from cache", bible.getName());
+            return bible;
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException ex) {
+            LOGGER.log(Level.WARNING, "Couldn't read bible cache " + cacheFile, ex);
+            return null;
+        }
+    }
+
+    /**
+     * Read the verses of a chapter from a cache.
+     * <p/>
+     * @param buffer the mapped cache file.
+     * @param offset the position of the chapter's verses in the file.
+     * @param chapter the chapter the verses are part of.
+     * @return the verses, keyed by their number.
+     */
+    static Map<Integer, BibleVerse> readVerses(ByteBuffer buffer, int offset, BibleChapter chapter) {
+        ByteBuffer in = buffer.duplicate();
+        in.position(offset);
+        int count = in.getInt();
+        Map<Integer, BibleVerse> ret = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            BibleVerse verse = new BibleVerse(in.getInt(), readString(in));
+            verse.setChapter(chapter);
+            ret.put(verse.getNum(), verse);
+        }
+        return ret;
+    }
+
+    /**
+     * Write the cache for a bible. The cache is written to a temporary file
+     * first, so a half written cache is never left in place.
+     * <p/>
+     * @param bible the bible to write.
+     * @param file the bible's XML file.
+     * @param cacheFile the cache file to write.
+     * @throws IOException if the cache couldn't be written.
+     */
+    private static void write(Bible bible, File file, File cacheFile) throws IOException {
+        ByteArrayOutputStream text = new ByteArrayOutputStream();
+        DataOutputStream textOut = new DataOutputStream(text);
+        ByteArrayOutputStream structure = new ByteArrayOutputStream();
+        DataOutputStream structureOut = new DataOutputStream(structure);
+
+        writeString(structureOut, bible.getName());
+        structureOut.writeInt(bible.getBooks().length);
+        for (BibleBook book : bible.getBooks()) {
+            structureOut.writeInt(book.getBookNumber());
+            writeString(structureOut, book.getBookName());
+            writeString(structureOut, book.getBSName());
+            structureOut.writeInt(book.getChapters().length);
+            for (BibleChapter chapter : book.getChapters()) {
+                structureOut.writeInt(chapter.getNum());
+                structureOut.writeInt(chapter.getCaptions().length);
+                for (String caption : chapter.getCaptions()) {
+                    writeString(structureOut, caption);
+                }
+                structureOut.writeInt(textOut.size());
+                BibleVerse[] verses = chapter.getVerses();
+                textOut.writeInt(verses.length);
+                for (BibleVerse verse : verses) {
+                    textOut.writeInt(verse.getNum());
+                    writeString(textOut, verse.getVerseText());
+                }
+            }
+        }
+
+        File tempFile = File.createTempFile("bible", EXTENSION, cacheFile.getParentFile());
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeLong(file.length());
+                out.writeLong(file.lastModified());
+                out.writeInt(HEADER_SIZE + structure.size());
+                structure.writeTo(out);
+                text.writeTo(out);
+            }
+            try {
+                Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile.toPath());
+        }
+        LOGGER.log(Level.INFO, "Wrote bible cache {0}", cacheFile);
+    }
+
+    private static void writeString(DataOutputStream out, String str) throws IOException {
+        if (str == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
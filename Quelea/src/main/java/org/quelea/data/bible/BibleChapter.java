@@ -17,13 +17,21 @@
  */
 package org.quelea.data.bible;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import org.quelea.services.utils.Utils;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
@@ -35,12 +43,15 @@ import org.w3c.dom.NodeList;
  */
 public final class BibleChapter implements BibleInterface, Serializable {
 
-    private static int statId = 0;
+    private static final AtomicInteger statId = new AtomicInteger();
     private final int num;
-    private final Map<Integer, BibleVerse> verses;
+    private Map<Integer, BibleVerse> verses;
     private final List<String> captions;
     private transient SoftReference<String> softRefText;
-    private final int id = statId++;
+    private transient ByteBuffer cache;
+    private transient int cacheOffset;
+    private transient SoftReference<Map<Integer, BibleVerse>> softRefVerses;
+    private final int id = statId.getAndIncrement();
     private BibleBook book;
 
     /**
@@ -54,11 +65,28 @@ public final class BibleChapter implements BibleInterface, Serializable {
         captions = new ArrayList<>();
     }
 
+    /**
+     * Create a new bible chapter whose verses are held in a bible cache. The
+     * verses are only read from the cache when they're needed, and may be
+     * read again if memory runs low.
+     * <p/>
+     * @param num the chapter number (or -1 if it's unknown.)
+     * @param captions the captions of the chapter.
+     * @param cache the mapped cache file.
+     * @param cacheOffset the position of this chapter's verses in the cache.
+     */
+    BibleChapter(int num, String[] captions, ByteBuffer cache, int cacheOffset) {
+        this.num = num;
+        this.captions = new ArrayList<>(Arrays.asList(captions));
+        this.cache = cache;
+        this.cacheOffset = cacheOffset;
+    }
+
     @Override
     public int hashCode() {
         int hash = 3;
         hash = 67 * hash + this.num;
-        hash = 67 * hash + Objects.hashCode(this.verses);
+        hash = 67 * hash + Objects.hashCode(getVerseMap());
         return hash;
     }
 
@@ -74,7 +102,7 @@ public final class BibleChapter implements BibleInterface, Serializable {
         if (this.num != other.num) {
             return false;
         }
-        if (!Objects.equals(this.verses, other.verses)) {
+        if (!Objects.equals(getVerseMap(), other.getVerseMap())) {
             return false;
         }
         return true;
@@ -155,6 +183,59 @@ public final class BibleChapter implements BibleInterface, Serializable {
         return ret;
     }
 
+    /**
+     * Parse a chapter element from a streaming XML reader. This reads the
+     * same information as parseXML(Node, int), without needing the whole
+     * document in memory. Afterwards the reader is left on the chapter's end
+     * tag.
+     * <p/>
+     * @param reader the reader, positioned on the chapter's start tag.
+     * @param defaultNum the default chapter number if no other information is
+     * available.
+     * @return the chapter.
+     * @throws XMLStreamException if the XML is malformed.
+     */
+    static BibleChapter parseXML(XMLStreamReader reader, int defaultNum) throws XMLStreamException {
+        int num = -1;
+        String cnumber = BibleStreamUtils.getAttribute(reader, "cnumber");
+        String number = BibleStreamUtils.getAttribute(reader, "number");
+        String n = BibleStreamUtils.getAttribute(reader, "n");
+        String id = BibleStreamUtils.getAttribute(reader, "id");
+        String numStr = cnumber != null ? cnumber : number != null ? number : n != null ? n : id;
+        if (numStr != null) {
+            try {
+                num = Integer.parseInt(numStr.trim());
+            } catch (NumberFormatException ex) {
+            }
+        }
+        if (num == -1) {
+            num = defaultNum;
+        }
+        BibleChapter ret = new BibleChapter(num);
+        while (reader.next() != XMLStreamConstants.END_ELEMENT) {
+            if (reader.getEventType() != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+            String name = BibleStreamUtils.getName(reader);
+            if (name.equalsIgnoreCase("verse")
+                    || name.equalsIgnoreCase("vers")
+                    || name.equalsIgnoreCase("v")) {
+                BibleVerse verse = BibleVerse.parseXML(reader);
+                if (verse != null) {
+                    verse.setChapter(ret);
+                    ret.addVerse(verse);
+                }
+            }
+            else if (name.equalsIgnoreCase("caption")) {
+                ret.addCaption(BibleStreamUtils.getTextContent(reader));
+            }
+            else {
+                BibleStreamUtils.skipElement(reader);
+            }
+        }
+        return ret;
+    }
+
     /**
      * Generate an XML representation of this chapter.
      * <p/>
@@ -169,7 +250,7 @@ public final class BibleChapter implements BibleInterface, Serializable {
             ret.append('\"');
         }
         ret.append(">");
-        for (BibleVerse verse : verses.values()) {
+        for (BibleVerse verse : getVerseMap().values()) {
             ret.append(Utils.escapeXML(verse.toXML()));
         }
         ret.append("</chapter>");
@@ -211,7 +292,8 @@ public final class BibleChapter implements BibleInterface, Serializable {
      * @return all the verses in the chapter.
      */
     public BibleVerse[] getVerses() {
-        return verses.values().toArray(new BibleVerse[verses.size()]);
+        Map<Integer, BibleVerse> map = getVerseMap();
+        return map.values().toArray(new BibleVerse[map.size()]);
     }
 
     /**
@@ -230,7 +312,37 @@ public final class BibleChapter implements BibleInterface, Serializable {
      * @return the verse at the specified number, or null if it doesn't exist.
      */
     public BibleVerse getVerse(int i) {
-        return verses.get(i);
+        return getVerseMap().get(i);
+    }
+
+    /**
+     * Get the verses in this chapter, reading them from the bible cache if
+     * this chapter was loaded from one.
+     * <p/>
+     * @return the verses in this chapter, keyed by their number.
+     */
+    private Map<Integer, BibleVerse> getVerseMap() {
+        if (verses != null) {
+            return verses;
+        }
+        Map<Integer, BibleVerse> ret = softRefVerses == null ? null : softRefVerses.get();
+        if (ret == null) {
+            ret = BibleCache.readVerses(cache, cacheOffset, this);
+            softRefVerses = new SoftReference<>(ret);
+        }
+        return ret;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        //Written as the default fields would be, but without pinning verses
+        //read from the cache in memory
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("num", num);
+        fields.put("verses", getVerseMap());
+        fields.put("captions", captions);
+        fields.put("id", id);
+        fields.put("book", book);
+        out.writeFields();
     }
 
     /**
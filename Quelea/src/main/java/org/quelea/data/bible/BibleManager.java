@@ -18,9 +18,14 @@
 package org.quelea.data.bible;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javafx.application.Platform;
@@ -44,7 +49,7 @@ public final class BibleManager {
     private static final BibleManager INSTANCE = new BibleManager();
     private final List<Bible> bibles;
     private final List<BibleChangeListener> listeners;
-    private final SearchIndex<BibleChapter> index;
+    private final BibleSearchIndex index;
     private boolean indexInit;
     private final List<Runnable> onIndexInit;
 
@@ -149,6 +154,10 @@ public final class BibleManager {
 
     /**
      * Reload all the bibles from the bibles directory into this bible manager.
+     * The bible files are loaded in parallel, but are added in the same order
+     * as they're listed in the directory. Each bible is loaded from its binary
+     * cache if that's up to date, otherwise its XML is parsed and the cache is
+     * rebuilt.
      * <p/>
      * @param updateIndex update the search index with new bible structure
      */
@@ -161,14 +170,35 @@ public final class BibleManager {
         if(!biblesFile.exists()) {
             biblesFile.mkdir();
         }
+        List<File> files = new ArrayList<>();
         for(File file : biblesFile.listFiles()) {
             if(file.getName().toLowerCase().endsWith(".xml") || file.getName().toLowerCase().endsWith(".xmm")) {
-                final Bible bible = Bible.parseBible(file);
-                if(bible != null) {
-                    bible.setFilePath(file.getAbsolutePath());
-                    bibles.add(bible);
+                files.add(file);
+            }
+            else if(BibleCache.isOrphan(file) && !file.delete()) {
+                LOGGER.log(Level.INFO, "Couldn''t delete old bible cache {0}", file);
+            }
+        }
+        if(!files.isEmpty()) {
+            int threads = Math.min(files.size(), Runtime.getRuntime().availableProcessors());
+            ExecutorService parseService = Executors.newFixedThreadPool(threads);
+            List<Future<Bible>> futures = new ArrayList<>();
+            for(File file : files) {
+                futures.add(parseService.submit(() -> BibleCache.load(file)));
+            }
+            for(int i = 0; i < files.size(); i++) {
+                try {
+                    final Bible bible = futures.get(i).get();
+                    if(bible != null) {
+                        bible.setFilePath(files.get(i).getAbsolutePath());
+                        bibles.add(bible);
+                    }
+                }
+                catch(InterruptedException | ExecutionException ex) {
+                    LOGGER.log(Level.WARNING, "Couldn't load bible " + files.get(i), ex);
                 }
             }
+            parseService.shutdown();
         }
         if(updateIndex) {
             buildIndex();
@@ -185,30 +215,56 @@ public final class BibleManager {
     }
 
     /**
-     * Builds the search index from the current bibles.
+     * Builds the search index from the current bibles. Each bible is indexed
+     * on its own thread (up to the number of available processors), and the
+     * status panel shows how many bibles have been done so far.
      */
     public void buildIndex() {
         indexInit = false;
+        final List<Bible> toIndex = new ArrayList<>(bibles);
+        final String label = LabelGrabber.INSTANCE.getLabel("building.bible.index");
         final StatusPanel[] panel = new StatusPanel[1];
         if(QueleaApp.get().getMainWindow() != null) {
             Utils.fxRunAndWait(() -> {
-                panel[0] = QueleaApp.get().getStatusGroup().addPanel(LabelGrabber.INSTANCE.getLabel("building.bible.index"));
+                panel[0] = QueleaApp.get().getStatusGroup().addPanel(label);
                 panel[0].removeCancelButton();
-                panel[0].getProgressBar().setProgress(-1);
+                panel[0].getProgressBar().setProgress(toIndex.isEmpty() ? -1 : 0);
             });
         }
         new Thread(() -> {
             LOGGER.log(Level.INFO, "Adding bibles to index");
-            List<BibleChapter> chapters = new ArrayList<>(bibles.size() * 66);
-            for(Bible bible : bibles) {
-                LOGGER.log(Level.FINE, "Adding {0} bible to index", bible.getName());
-                index.clear();
-                for(BibleBook book : bible.getBooks()) {
-                    chapters.addAll(Arrays.asList(book.getChapters()));
+            index.retainBibles(toIndex);
+            int threads = Math.max(1, Math.min(toIndex.size(), Runtime.getRuntime().availableProcessors()));
+            ExecutorService indexService = Executors.newFixedThreadPool(threads);
+            AtomicInteger done = new AtomicInteger();
+            List<Future<?>> futures = new ArrayList<>();
+            for(Bible bible : toIndex) {
+                futures.add(indexService.submit(() -> {
+                    LOGGER.log(Level.FINE, "Adding {0} bible to index", bible.getName());
+                    index.addBible(bible);
+                    LOGGER.log(Level.FINE, "Added {0}.", bible.getName());
+                    int count = done.incrementAndGet();
+                    if(panel[0] != null) {
+                        panel[0].setProgress((double) count / toIndex.size());
+                        Platform.runLater(() -> panel[0].setLabelText(label + " (" + count + "/" + toIndex.size() + ")"));
+                    }
+                }));
+            }
+            for(Future<?> future : futures) {
+                try {
+                    future.get();
+                }
+                catch(InterruptedException | ExecutionException ex) {
+                    LOGGER.log(Level.WARNING, "Error adding bible to index", ex);
                 }
-                LOGGER.log(Level.FINE, "Added {0}.", bible.getName());
             }
-            index.addAll(chapters);
+            indexService.shutdown();
+            try {
+                index.commit();
+            }
+            catch(IOException ex) {
+                LOGGER.log(Level.SEVERE, "Couldn't commit bible index", ex);
+            }
             LOGGER.log(Level.INFO, "Finished Adding bibles to index");
             indexInit = true;
             for(Runnable r : onIndexInit) {
@@ -0,0 +1,123 @@
+/*
+ * This file is part of Quelea, free projection software for churches.
+ *
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.quelea.data.bible;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Helpers for streaming bible XML with a StAX reader. Element and attribute
+ * names are matched on their qualified names (prefix included), the same way
+ * the DOM based parsing matches node names, so both accept the same files.
+ * <p/>
+ * @author Michael
+ */
+final class BibleStreamUtils {
+
+    /**
+     * Don't make me...
+     */
+    private BibleStreamUtils() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Get the qualified name of the element the reader is on.
+     * <p/>
+     * @param reader the reader, positioned on a start or end element.
+     * @return the element's name, including any prefix.
+     */
+    static String getName(XMLStreamReader reader) {
+        String prefix = reader.getPrefix();
+        if(prefix == null || prefix.isEmpty()) {
+            return reader.getLocalName();
+        }
+        return prefix + ":" + reader.getLocalName();
+    }
+
+    /**
+     * Get the value of an attribute on the element the reader is on.
+     * <p/>
+     * @param reader the reader, positioned on a start element.
+     * @param name the qualified name of the attribute.
+     * @return the attribute's value, or null if it isn't present.
+     */
+    static String getAttribute(XMLStreamReader reader, String name) {
+        for(int i = 0; i < reader.getAttributeCount(); i++) {
+            String prefix = reader.getAttributePrefix(i);
+            String attrName = (prefix == null || prefix.isEmpty()) ? reader.getAttributeLocalName(i) : prefix + ":" + reader.getAttributeLocalName(i);
+            if(attrName.equals(name)) {
+                return reader.getAttributeValue(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Read all the text inside the element the reader is on, including the
+     * text of any nested elements. Afterwards the reader is left on the
+     * element's end tag.
+     * <p/>
+     * @param reader the reader, positioned on a start element.
+     * @return the text content of the element.
+     * @throws XMLStreamException if the XML is malformed.
+     */
+    static String getTextContent(XMLStreamReader reader) throws XMLStreamException {
+        StringBuilder ret = new StringBuilder();
+        int depth = 1;
+        while(depth > 0) {
+            switch(reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    depth++;
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    depth--;
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    ret.append(reader.getText());
+                    break;
+                default:
+                    break;
+            }
+        }
+        return ret.toString();
+    }
+
+    /**
+     * Skip over the element the reader is on, along with everything inside
+     * it. Afterwards the reader is left on the element's end tag.
+     * <p/>
+     * @param reader the reader, positioned on a start element.
+     * @throws XMLStreamException if the XML is malformed.
+     */
+    static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while(depth > 0) {
+            int event = reader.next();
+            if(event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            }
+            else if(event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+}
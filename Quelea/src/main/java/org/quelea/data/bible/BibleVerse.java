@@ -19,6 +19,8 @@ package org.quelea.data.bible;
 
 import java.io.Serializable;
 import java.util.Objects;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import org.quelea.services.utils.Utils;
 import org.w3c.dom.Node;
 
@@ -41,6 +43,17 @@ public final class BibleVerse implements BibleInterface, Serializable {
         //For internal use
     }
 
+    /**
+     * Create a new verse, for loading from a bible cache.
+     *
+     * @param num the verse number.
+     * @param verse the text of the verse.
+     */
+    BibleVerse(int num, String verse) {
+        this.num = num;
+        this.verse = verse;
+    }
+
     @Override
     public int hashCode() {
         int hash = 5;
@@ -119,6 +132,43 @@ public final class BibleVerse implements BibleInterface, Serializable {
         }
     }
 
+    /**
+     * Parse a verse element from a streaming XML reader. This reads the same
+     * information as parseXML(Node), without needing the whole document in
+     * memory. Afterwards the reader is left on the verse's end tag.
+     *
+     * @param reader the reader, positioned on the verse's start tag.
+     * @return the verse, or null if its number couldn't be parsed.
+     * @throws XMLStreamException if the XML is malformed.
+     */
+    static BibleVerse parseXML(XMLStreamReader reader) throws XMLStreamException {
+        BibleVerse ret = new BibleVerse();
+        String vnumber = BibleStreamUtils.getAttribute(reader, "vnumber");
+        String number = BibleStreamUtils.getAttribute(reader, "number");
+        String n = BibleStreamUtils.getAttribute(reader, "n");
+        String id = BibleStreamUtils.getAttribute(reader, "id");
+        String osisId = BibleStreamUtils.getAttribute(reader, "osisID");
+        String text = BibleStreamUtils.getTextContent(reader);
+        try {
+            if (vnumber != null) {
+                ret.num = Integer.parseInt(vnumber.trim());
+            } else if (number != null) {
+                ret.num = Integer.parseInt(number.trim());
+            } else if (n != null) {
+                ret.num = Integer.parseInt(n.trim());
+            } else if (id != null) {
+                ret.num = Integer.parseInt(id.trim());
+            } else if (osisId != null) {
+                String[] osisIdParts = osisId.trim().split("\\.");
+                ret.num = Integer.parseInt(osisIdParts[osisIdParts.length-1]);
+            }
+            ret.verse = text.replace("\n", " ").trim();
+            return ret;
+        } catch (NumberFormatException nfe) {
+            return null;
+        }
+    }
+
     /**
      * Generate an XML representation of this verse.
      *
@@ -23,6 +23,7 @@ public class HibernateUtil {
     private static SessionFactory sessionFactory;
     private static ServiceRegistry serviceRegistry;
     private static boolean init = false;
+    private static int batchSize;
     private static final Logger LOGGER = LoggerUtils.getLogger();
 
     public interface SessionCallback {
@@ -42,6 +43,9 @@ public class HibernateUtil {
             cfg.setProperty("hibernate.hbm2ddl.auto", "update");
             cfg.setProperty("hibernate.implicit_naming_strategy", "legacy-hbm");
             cfg.setProperty("hibernate.connection.characterEncoding", "utf8");
+            batchSize = Math.max(1, QueleaProperties.get().getDatabaseBatchSize());
+            cfg.setProperty("hibernate.jdbc.batch_size", Integer.toString(batchSize));
+            cfg.setProperty("hibernate.order_inserts", "true");
             cfg.setImplicitNamingStrategy(new EJB3ImplicitNamingStrategy());
             cfg.addAnnotatedClass(org.quelea.data.db.model.Song.class);
             cfg.addAnnotatedClass(org.quelea.data.db.model.Theme.class);
@@ -59,6 +63,18 @@ public class HibernateUtil {
         }
     }
 
+    /**
+     * Get the JDBC batch size. When writing a lot of entities in one session,
+     * the session should be flushed and cleared after this many, so the
+     * inserts go to the database in full batches and the session doesn't
+     * keep growing.
+     * <p/>
+     * @return the batch size.
+     */
+    public static int getBatchSize() {
+        return batchSize;
+    }
+
     /**
      * Encapsulate session management operations. All db operation code should
      * be implemented in callback execute method implementation.
@@ -1,6 +1,8 @@
 package org.quelea.data.db;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import org.hibernate.Query;
@@ -41,4 +43,41 @@ public class SongDao {
         return ret;
     }
 
+    /**
+     * Get the songs with the given IDs with a single query.
+     *
+     * @param ids the IDs of the songs, which shouldn't be empty.
+     * @return the songs that were found, in no particular order.
+     */
+    @SuppressWarnings("unchecked")
+    public List<Song> getSongsById(Collection<Long> ids) {
+        return session.createQuery("from Song s where s.id in (:ids)").setParameterList("ids", ids).list();
+    }
+
+    /**
+     * Get the ID, title, author and CCLI number of every song with a single
+     * query, without loading the lyrics or themes.
+     *
+     * @return a row of {id, title, author, ccli} for each song.
+     */
+    @SuppressWarnings("unchecked")
+    public List<Object[]> getSongSummaries() {
+        return session.createQuery("select s.id, s.title, s.author, s.ccli from Song s").list();
+    }
+
+    /**
+     * Get a version of the songs' searchable content with a single query,
+     * made from the number of songs, their IDs and the lengths of their
+     * titles, authors and lyrics. It changes whenever a song is added or
+     * removed, and whenever one is edited in a way that changes the length of
+     * anything that's searched.
+     *
+     * @return the version.
+     */
+    public String getVersion() {
+        Object[] row = (Object[]) session.createQuery("select count(s.id), sum(s.id), max(s.id), "
+                + "sum(length(s.title)), sum(length(s.author)), sum(length(s.lyrics)) from Song s").uniqueResult();
+        return Arrays.toString(row);
+    }
+
 }
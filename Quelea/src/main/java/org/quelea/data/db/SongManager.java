@@ -17,13 +17,19 @@
  */
 package org.quelea.data.db;
 
-import java.lang.ref.SoftReference;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -44,16 +50,25 @@ import org.quelea.windows.main.widgets.LoadingPane;
 /**
  * Manage songs persistent operations.
  * <p/>
+ * The songs are read from the database once, and then kept in memory (sorted,
+ * and keyed by ID). Adding, updating and removing songs applies just that
+ * change to the in memory songs and the search index, rather than reloading
+ * everything from the database.
+ * <p/>
  *
  * @author Michael
  */
 public final class SongManager {
 
     private static final Logger LOGGER = LoggerUtils.getLogger();
+    private static final int READ_CHUNK_SIZE = 500;
     private static volatile SongManager INSTANCE;
     private final SongSearchIndex index;
-    private boolean indexIsClear;
-    private SoftReference<SongDisplayable[]> cacheSongs = new SoftReference<>(null);
+    private boolean indexIsStale;
+    private boolean loaded;
+    private final Map<Long, SongDisplayable> songsById;
+    private final List<SongDisplayable> sortedSongs;
+    private SongDisplayable[] songArray;
     private final Set<DatabaseListener> listeners;
 
     /**
@@ -61,7 +76,9 @@ public final class SongManager {
      */
     private SongManager() {
         listeners = new HashSet<>();
-        indexIsClear = true;
+        songsById = new HashMap<>();
+        sortedSongs = new ArrayList<>();
+        indexIsStale = true;
         index = new SongSearchIndex();
     }
 
@@ -112,6 +129,42 @@ public final class SongManager {
         }
     }
 
+    /**
+     * Tell the database listeners that some songs have been added.
+     * <p/>
+     *
+     * @param songs the songs that were added.
+     */
+    private synchronized void fireSongsAdded(Collection<SongDisplayable> songs) {
+        for (DatabaseListener listener : listeners) {
+            listener.songsAdded(songs);
+        }
+    }
+
+    /**
+     * Tell the database listeners that some songs have been updated.
+     * <p/>
+     *
+     * @param songs the songs that were updated.
+     */
+    private synchronized void fireSongsUpdated(Collection<SongDisplayable> songs) {
+        for (DatabaseListener listener : listeners) {
+            listener.songsUpdated(songs);
+        }
+    }
+
+    /**
+     * Tell the database listeners that some songs have been removed.
+     * <p/>
+     *
+     * @param songs the songs that were removed.
+     */
+    private synchronized void fireSongsRemoved(Collection<SongDisplayable> songs) {
+        for (DatabaseListener listener : listeners) {
+            listener.songsRemoved(songs);
+        }
+    }
+
     public synchronized SongDisplayable[] getSongs() {
         return getSongs(null);
     }
@@ -123,10 +176,187 @@ public final class SongManager {
      * @return an array of all the songs in the database.
      */
     public synchronized SongDisplayable[] getSongs(LoadingPane loadingPane) {
-        if (cacheSongs.get() != null) {
-            return cacheSongs.get();
+        if (!loaded) {
+            loadSongs(loadingPane);
+        }
+        if (songArray == null) {
+            songArray = sortedSongs.toArray(new SongDisplayable[sortedSongs.size()]);
         }
+        return songArray;
+    }
+
+    /**
+     * Read all the songs from the database into memory, and bring the search
+     * index up to date with them if needed. Only a summary of each song (ID,
+     * title, author and ccli number) is read here, the rest of each song is
+     * loaded the first time it's needed.
+     * <p/>
+     *
+     * @param loadingPane the loading pane to show progress on, or null.
+     */
+    private void loadSongs(LoadingPane loadingPane) {
         final Set<SongDisplayable> songs = new TreeSet<>();
+        final String version = getDatabaseVersion();
+        if (indexIsStale && version != null && !version.equals(index.getDatabaseVersion())) {
+            LOGGER.log(Level.INFO, "Song index doesn''t match the database, rebuilding it");
+            index.clear();
+        }
+        try {
+            HibernateUtil.execute((Session session) -> {
+                SongDao dao = new SongDao(session);
+                List<Object[]> summaries = dao.getSongSummaries();
+                Map<Long, SongDisplayable> full = readSongs(dao, getIdsToRead(summaries));
+                for (int si = 0; si < summaries.size(); si++) {
+                    final int finalSi = si;
+                    if (loadingPane != null) {
+                        Platform.runLater(() -> {
+                            loadingPane.setProgress((double) finalSi / summaries.size());
+                        });
+                    }
+                    Object[] summary = summaries.get(si);
+                    final long id = (Long) summary[0];
+                    if (full.containsKey(id)) {
+                        songs.add(full.get(id));
+                        continue;
+                    }
+                    songs.add(new SongDisplayable.Builder((String) summary[1], (String) summary[2])
+                            .ccli((String) summary[3])
+                            .id(id)
+                            .loader(() -> loadSong(id))
+                            .get());
+                }
+            });
+        } catch (IllegalStateException ex) {
+            LOGGER.log(Level.WARNING, "Couldn't load song summaries, loading full songs instead", ex);
+            songs.clear();
+            loadFullSongs(songs, loadingPane);
+        }
+        if (loadingPane != null) {
+            Platform.runLater(() -> {
+                loadingPane.setProgress(-1);
+            });
+        }
+
+        if (indexIsStale) {
+            indexIsStale = false;
+            LOGGER.log(Level.INFO, "Syncing {0} songs with index", songs.size());
+            index.sync(songs);
+            index.setDatabaseVersion(version);
+        }
+        songsById.clear();
+        sortedSongs.clear();
+        for (SongDisplayable song : songs) {
+            songsById.put(song.getID(), song);
+            sortedSongs.add(song);
+        }
+        songArray = null;
+        loaded = true;
+    }
+
+    /**
+     * Get the IDs of the songs that should be read in full when the library is
+     * loaded, rather than as summaries. These are the songs that aren't in the
+     * search index yet (all of them on the first run), so they can be indexed,
+     * and songs with the same title and author as another, since sorting them
+     * compares their lyrics.
+     * <p/>
+     *
+     * @param summaries the summaries of every song in the database.
+     * @return the IDs of the songs to read in full.
+     */
+    private List<Long> getIdsToRead(List<Object[]> summaries) {
+        Map<List<Object>, Long> firstIds = new HashMap<>();
+        Set<Long> ids = new LinkedHashSet<>();
+        for (Object[] summary : summaries) {
+            Long id = (Long) summary[0];
+            if (indexIsStale && !index.isIndexed(id)) {
+                ids.add(id);
+            }
+            Long firstId = firstIds.putIfAbsent(Arrays.asList(summary[1], summary[2]), id);
+            if (firstId != null) {
+                ids.add(firstId);
+                ids.add(id);
+            }
+        }
+        return new ArrayList<>(ids);
+    }
+
+    /**
+     * Read the given songs in full. They're read in chunks with one query
+     * each, rather than one query per song.
+     * <p/>
+     *
+     * @param dao the song DAO to read the songs with.
+     * @param ids the IDs of the songs to read.
+     * @return the full songs, by ID. Songs that couldn't be found or read are
+     * left out.
+     */
+    private static Map<Long, SongDisplayable> readSongs(SongDao dao, List<Long> ids) {
+        Map<Long, SongDisplayable> ret = new HashMap<>();
+        for (int i = 0; i < ids.size(); i += READ_CHUNK_SIZE) {
+            for (Song song : dao.getSongsById(ids.subList(i, Math.min(ids.size(), i + READ_CHUNK_SIZE)))) {
+                try {
+                    ret.put(song.getId(), toDisplayable(song));
+                } catch (Exception ex) {
+                    //Left out, so a corrupt song doesn't stop the rest loading
+                    LOGGER.log(Level.WARNING, "Song with id " + song.getId() + " is corrupt, skipping...", ex);
+                }
+            }
+        }
+        if (!ids.isEmpty()) {
+            LOGGER.log(Level.INFO, "Read {0} songs in full", ret.size());
+        }
+        return ret;
+    }
+
+    /**
+     * Load any of the given songs that are only summaries, reading them from
+     * the database in chunks rather than one at a time. Call this before going
+     * through a lot of songs that need more than their titles and authors, such
+     * as the whole library. Songs that can't be found are left as summaries.
+     * This isn't synchronized, so it doesn't hold up other database
+     * operations.
+     * <p/>
+     *
+     * @param songs the songs to load.
+     */
+    public void loadAll(Collection<SongDisplayable> songs) {
+        Map<Long, List<SongDisplayable>> summaries = new HashMap<>();
+        for (SongDisplayable song : songs) {
+            if (!song.isLoaded()) {
+                summaries.computeIfAbsent(song.getID(), id -> new ArrayList<>()).add(song);
+            }
+        }
+        if (summaries.isEmpty()) {
+            return;
+        }
+        try {
+            HibernateUtil.execute((Session session) -> {
+                Map<Long, SongDisplayable> full = readSongs(new SongDao(session), new ArrayList<>(summaries.keySet()));
+                for (Map.Entry<Long, List<SongDisplayable>> entry : summaries.entrySet()) {
+                    SongDisplayable song = full.get(entry.getKey());
+                    if (song != null) {
+                        for (SongDisplayable summary : entry.getValue()) {
+                            summary.load(song);
+                        }
+                    }
+                }
+            });
+        } catch (IllegalStateException ex) {
+            LOGGER.log(Level.WARNING, "Couldn't load songs, loading them one at a time instead", ex);
+        }
+    }
+
+    /**
+     * Read every song from the database in full, one at a time. This is slower
+     * than reading the summaries, but skips over any corrupt songs rather than
+     * failing.
+     * <p/>
+     *
+     * @param songs the set to add the songs to.
+     * @param loadingPane the loading pane to show progress on, or null.
+     */
+    private void loadFullSongs(Set<SongDisplayable> songs, LoadingPane loadingPane) {
         HibernateUtil.execute((Session session) -> {
             List<Song> songsList = new SongDao(session).getSongs();
             for (int si = 0; si < songsList.size(); si++) {
@@ -148,42 +378,134 @@ public final class SongManager {
                     LOGGER.log(Level.WARNING, "Song with id " + song.getId() + " is corrupt, skipping...", ex);
                     continue;
                 }
-                final SongDisplayable songDisplayable = new SongDisplayable.Builder(song.getTitle(),
-                        song.getAuthor())
-                        .ccli(song.getCcli())
-                        .year(song.getYear())
-                        .publisher(song.getPublisher())
-                        .copyright(song.getCopyright())
-                        .key(song.getKey())
-                        .info(song.getInfo())
-                        .capo(song.getCapo())
-                        .translations(song.getTranslations())
-                        .sequence(song.getSequence())
-                        .lyrics(song.getLyrics())
-                        .id(song.getId()).get();
-                final Theme theme = song.getTheme();
-                final ThemeDTO themedto = ThemeDTO.getDTO(theme);
-                for (TextSection section : songDisplayable.getSections()) {
-                    section.setTheme(themedto);
-                }
-                songDisplayable.setTheme(themedto);
-                songs.add(songDisplayable);
-            }
-            if (loadingPane != null) {
-                Platform.runLater(() -> {
-                    loadingPane.setProgress(-1);
-                });
+                songs.add(toDisplayable(song));
             }
         });
+    }
+
+    /**
+     * Load a single song in full from the database. This isn't synchronized,
+     * so songs can be loaded on demand without waiting for other database
+     * operations to finish.
+     * <p/>
+     *
+     * @param id the ID of the song.
+     * @return the song, or null if it couldn't be loaded.
+     */
+    private SongDisplayable loadSong(long id) {
+        final AtomicReference<SongDisplayable> ret = new AtomicReference<>();
+        try {
+            HibernateUtil.execute((Session session) -> {
+                ret.set(toDisplayable(new SongDao(session).getSongById(id)));
+            });
+        } catch (IllegalStateException ex) {
+            LOGGER.log(Level.WARNING, "Couldn't load song " + id, ex);
+        }
+        return ret.get();
+    }
 
-        if (indexIsClear) {
-            indexIsClear = false;
-            LOGGER.log(Level.INFO, "Adding {0} songs to index", songs.size());
-            index.addAll(songs);
+    /**
+     * Get the current version of the songs in the database, which the search
+     * index records once it's caught up with them. It's read in its own
+     * session, so if it fails it doesn't stop anything else.
+     * <p/>
+     *
+     * @return the version, or null if it couldn't be read.
+     */
+    private String getDatabaseVersion() {
+        final AtomicReference<String> ret = new AtomicReference<>();
+        try {
+            HibernateUtil.execute((Session session) -> {
+                ret.set(new SongDao(session).getVersion());
+            });
+        } catch (IllegalStateException ex) {
+            LOGGER.log(Level.WARNING, "Couldn't read the version of the songs", ex);
+        }
+        return ret.get();
+    }
+
+    /**
+     * Create a song displayable from a song in the database.
+     * <p/>
+     *
+     * @param song the song entity.
+     * @return the song displayable.
+     */
+    private static SongDisplayable toDisplayable(Song song) {
+        final SongDisplayable songDisplayable = new SongDisplayable.Builder(song.getTitle(),
+                song.getAuthor())
+                .ccli(song.getCcli())
+                .year(song.getYear())
+                .publisher(song.getPublisher())
+                .copyright(song.getCopyright())
+                .key(song.getKey())
+                .info(song.getInfo())
+                .capo(song.getCapo())
+                .translations(song.getTranslations())
+                .sequence(song.getSequence())
+                .lyrics(song.getLyrics())
+                .id(song.getId()).get();
+        final Theme theme = song.getTheme();
+        final ThemeDTO themedto = ThemeDTO.getSharedDTO(theme);
+        for (TextSection section : songDisplayable.getSections()) {
+            section.setTheme(themedto);
+        }
+        songDisplayable.setTheme(themedto);
+        return songDisplayable;
+    }
+
+    /**
+     * Put a song into the in memory songs, replacing any song with the same
+     * ID, and keeping them sorted.
+     * <p/>
+     *
+     * @param song the song to put.
+     */
+    private void putSong(SongDisplayable song) {
+        if (!loaded) {
+            return;
+        }
+        SongDisplayable old = songsById.put(song.getID(), song);
+        if (old != null) {
+            removeSorted(old);
+        }
+        int idx = Collections.binarySearch(sortedSongs, song);
+        sortedSongs.add(idx < 0 ? -idx - 1 : idx, song);
+        songArray = null;
+    }
+
+    /**
+     * Remove a song from the in memory songs.
+     * <p/>
+     *
+     * @param id the ID of the song to remove.
+     */
+    private void forgetSong(long id) {
+        if (!loaded) {
+            return;
+        }
+        SongDisplayable old = songsById.remove(id);
+        if (old != null) {
+            removeSorted(old);
+            songArray = null;
+        }
+    }
+
+    /**
+     * Remove a song from the sorted songs. This looks for the exact object
+     * rather than searching, since the song may have been edited (and so
+     * changed its place in the order) since it was added.
+     * <p/>
+     *
+     * @param song the song to remove.
+     */
+    private void removeSorted(SongDisplayable song) {
+        for (int i = 0; i < sortedSongs.size(); i++) {
+            if (sortedSongs.get(i) == song) {
+                sortedSongs.remove(i);
+                return;
+            }
         }
-        SongDisplayable[] songArr = songs.toArray(new SongDisplayable[songs.size()]);
-        cacheSongs = new SoftReference<>(songArr);
-        return songArr;
     }
 
     public boolean addSong(final SongDisplayable song, final boolean fireUpdate) {
@@ -195,7 +517,9 @@ public final class SongManager {
     }
 
     /**
-     * Add a song to the database.
+     * Add a song to the database. The songs are written in JDBC batches, with
+     * the session flushed and cleared after each batch, and the search index
+     * is updated once at the end - so this is also the route for bulk imports.
      * <p/>
      *
      * @param songs      the songs to add.
@@ -204,8 +528,6 @@ public final class SongManager {
      * @return true if the operation succeeded, false otherwise.
      */
     public synchronized boolean addSong(final SongDisplayable[] songs, final boolean fireUpdate) {
-        cacheSongs.clear();
-        clearIndex();
         final List<SongDisplayable> adjustedSongs = new ArrayList<>();
         for (SongDisplayable song : songs) {
             if (song.getSectionsWithoutSequence().length > 0) {
@@ -215,6 +537,9 @@ public final class SongManager {
         if (adjustedSongs.isEmpty()) {
             return false;
         }
+        final List<SongDisplayable> addedSongs = new ArrayList<>();
+        final int batchSize = HibernateUtil.getBatchSize();
+        final long start = System.nanoTime();
         try {
             HibernateUtil.execute((Session session) -> {
                 for (SongDisplayable song : adjustedSongs) {
@@ -233,14 +558,29 @@ public final class SongManager {
                             song.getTranslations(),
                             song.getSequence());
                     session.save(newSong);
+                    addedSongs.add(toDisplayable(newSong));
+                    if (addedSongs.size() % batchSize == 0) {
+                        session.flush();
+                        session.clear();
+                    }
                 }
             });
         } catch (IllegalStateException ex) {
             LOGGER.log(Level.WARNING, "Couldn't add song", ex);
+            reload();
+            if (fireUpdate) {
+                fireUpdate();
+            }
+            return true;
         }
-        getSongs();
+        LOGGER.log(Level.INFO, "Added {0} songs in {1} ms", new Object[]{addedSongs.size(), (System.nanoTime() - start) / 1000000});
+        for (SongDisplayable song : addedSongs) {
+            putSong(song);
+        }
+        index.addAll(addedSongs);
+        index.setDatabaseVersion(getDatabaseVersion());
         if (fireUpdate) {
-            fireUpdate();
+            fireSongsAdded(addedSongs);
         }
         return true;
     }
@@ -266,7 +606,7 @@ public final class SongManager {
      * @return true if the operation succeeded, false otherwise.
      */
     public synchronized boolean updateSong(final SongDisplayable song, boolean addIfNotFound) {
-        index.remove(song);
+        final AtomicBoolean found = new AtomicBoolean(true);
         try {
             HibernateUtil.execute((Session session) -> {
                 Song updatedSong;
@@ -287,9 +627,9 @@ public final class SongManager {
                     updatedSong.setTranslations(song.getTranslations());
                     updatedSong.setTheme(nullTheme ? ThemeDTO.DEFAULT_THEME.getTheme() : new Theme(song.getSections()[0].getTheme().getTheme()));
                     session.update(updatedSong);
-                    index.add(song);
                 } catch (ObjectNotFoundException e) {
                     LOGGER.log(Level.INFO, "Updating song that doesn't exist, adding instead");
+                    found.set(false);
                     addSong(song, true);
                 }
             });
@@ -305,7 +645,12 @@ public final class SongManager {
                 return false;
             }
         }
-
+        if (found.get()) {
+            putSong(song);
+            index.add(song);
+            index.setDatabaseVersion(getDatabaseVersion());
+            fireSongsUpdated(List.of(song));
+        }
         return true;
     }
 
@@ -330,7 +675,6 @@ public final class SongManager {
     public synchronized boolean removeSongs(final List<SongDisplayable> songs) {
         List<Long> ids = songs.stream().map(SongDisplayable::getID).collect(Collectors.toList());
         LOGGER.log(Level.INFO, "Removing songs {0}", ids);
-        cacheSongs.clear();
         try {
             HibernateUtil.execute((Session session) -> {
                 for (SongDisplayable song : songs) {
@@ -342,16 +686,26 @@ public final class SongManager {
             LOGGER.log(Level.WARNING, "Couldn't remove songs " + ids, ex);
             return false;
         }
-        for (SongDisplayable song : songs) {
-            index.remove(song);
+        for (long id : ids) {
+            forgetSong(id);
         }
-        fireUpdate();
+        index.removeAll(songs);
+        index.setDatabaseVersion(getDatabaseVersion());
+        fireSongsRemoved(songs);
         LOGGER.log(Level.INFO, "Removed song {0}", ids);
         return true;
     }
 
-    private void clearIndex() {
-        index.clear();
-        indexIsClear = true;
+    /**
+     * Drop the in memory songs, so they're read from the database again the
+     * next time they're needed. The index is then synced with them, which only
+     * re-indexes songs that have changed.
+     */
+    private void reload() {
+        loaded = false;
+        indexIsStale = true;
+        songsById.clear();
+        sortedSongs.clear();
+        songArray = null;
     }
 }
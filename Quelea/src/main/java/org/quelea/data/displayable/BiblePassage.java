@@ -24,9 +24,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import org.javafx.dialog.Dialog;
@@ -109,7 +109,7 @@ public class BiblePassage implements TextDisplayable, Serializable {
      * @param highlightedVerseNum the verse number to highlight, or -1 for no highlighting.
      */
     public BiblePassage(String summary, BibleVerse[] verses, ThemeDTO theme, boolean multi, int highlightedVerseNum) {
-        fontSizeCache = new HashMap<>();
+        fontSizeCache = new ConcurrentHashMap<>();
         this.summary = summary;
         this.multi = multi;
         this.highlightedVerseNum = highlightedVerseNum;
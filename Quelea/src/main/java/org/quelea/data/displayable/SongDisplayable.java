@@ -22,6 +22,7 @@ import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.text.Collator;
 import java.util.ArrayList;
@@ -34,6 +35,9 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -76,6 +80,11 @@ public class SongDisplayable implements TextDisplayable, Comparable<SongDisplaya
     public int count = 0;
     public static final DataFormat SONG_DISPLAYABLE_FORMAT = new DataFormat("songdisplayable");
     private static final Logger LOGGER = LoggerUtils.getLogger();
+    private static final Pattern MULTIPLE_BLANK_LINES = Pattern.compile("\n\n+");
+    private static final Pattern WHITESPACE_LINE_N = Pattern.compile("\\n\\s+\\n");
+    private static final Pattern WHITESPACE_LINE_R = Pattern.compile("\\r\\s+\\r");
+    private static final Pattern WHITESPACE_LINE_RN = Pattern.compile("\\r\\n\\s+\\r\\n");
+    private static final Pattern SECTION_SPLIT = Pattern.compile("(\n\n)|(\r\r)|(\r\n\r\n)");
     private boolean updateInDB = true;
     private String title = "";
     private String author = "";
@@ -97,6 +106,9 @@ public class SongDisplayable implements TextDisplayable, Comparable<SongDisplaya
     private String lastSearch = "";
     private String sequence = "";
     private Map<Dimension, Double> fontSizeCache;
+    private transient volatile Supplier<SongDisplayable> loader;
+    private transient volatile boolean broken;
+    private transient volatile String[] lyricsCache;
 
     /**
      * The builder responsible for building this song.
@@ -274,6 +286,21 @@ public class SongDisplayable implements TextDisplayable, Comparable<SongDisplaya
             return this;
         }
 
+        /**
+         * Make this song a summary, with only the title, author, ID and ccli
+         * number set. Everything else is fetched from the given loader the
+         * first time it's needed.
+         * <p/>
+         *
+         * @param loader the loader that returns the full song, or null if it
+         *               can't be loaded.
+         * @return this builder.
+         */
+        public Builder loader(Supplier<SongDisplayable> loader) {
+            song.loader = loader;
+            return this;
+        }
+
         /**
          * Get the song from this builder with all the fields set appropriately.
          * <p/>
@@ -292,7 +319,8 @@ public class SongDisplayable implements TextDisplayable, Comparable<SongDisplaya
      * @param song the song to copy to create the new song.
      */
     public SongDisplayable(SongDisplayable song) {
-        this.fontSizeCache = new HashMap<>();
+        song.ensureLoaded();
+        this.fontSizeCache = new ConcurrentHashMap<>();
         this.title = song.title;
         this.author = song.author;
         this.sectionsInSequence = new ArrayList<>();
@@ -337,7 +365,7 @@ public class SongDisplayable implements TextDisplayable, Comparable<SongDisplaya
      * @param theme  the theme of the song.
      */
     public SongDisplayable(String title, String author, ThemeDTO theme) {
-        this.fontSizeCache = new HashMap<>();
+        this.fontSizeCache = new ConcurrentHashMap<>();
         id = -1;
         this.title = title;
         this.author = author;
@@ -347,6 +375,88 @@ public class SongDisplayable implements TextDisplayable, Comparable<SongDisplaya
         sequence = "";
     }
 
+    /**
+     * Determine whether this song has been fully loaded, or is still just a
+     * summary of the song in the database.
+     * <p/>
+     *
+     * @return true if the song is fully loaded, false otherwise.
+     */
+    public boolean isLoaded() {
+        return loader == null;
+    }
+
+    /**
+     * Determine whether this song is a summary that couldn't be loaded, because
+     * it's gone from the database or the database couldn't be read. A broken
+     * song has no lyrics, so things that need them should skip it.
+     * <p/>
+     *
+     * @return true if the song couldn't be loaded, false otherwise.
+     */
+    public boolean isBroken() {
+        return broken;
+    }
+
+    /**
+     * If this song is only a summary, fill in the rest of it from the full
+     * song. This is used to load many summaries at once, rather than each
+     * loading itself the first time it's needed. Does nothing if this song is
+     * already loaded.
+     * <p/>
+     *
+     * @param song the full song, read from the database.
+     */
+    public synchronized void load(SongDisplayable song) {
+        if (loader == null) {
+            return;
+        }
+        year = song.year;
+        publisher = song.publisher;
+        copyright = song.copyright;
+        key = song.key;
+        capo = song.capo;
+        info = song.info;
+        sequence = song.sequence;
+        translations = song.translations;
+        theme = song.theme;
+        sectionsWithoutSequence = song.sectionsWithoutSequence;
+        sectionsInSequence = song.sectionsInSequence;
+        fontSizeCache.clear();
+        lyricsChanged();
+        broken = false;
+        loader = null;
+    }
+
+    /**
+     * If this song is only a summary, load the rest of it. If it can't be
+     * loaded it's left as a summary and marked as broken, and isn't tried
+     * again unless it's loaded along with others.
+     */
+    private void ensureLoaded() {
+        if (loader == null || broken) {
+            return;
+        }
+        synchronized (this) {
+            Supplier<SongDisplayable> songLoader = loader;
+            if (songLoader == null || broken) {
+                return;
+            }
+            SongDisplayable song = null;
+            try {
+                song = songLoader.get();
+            } catch (RuntimeException ex) {
+                LOGGER.log(Level.WARNING, "Couldn't load song " + id, ex);
+            }
+            if (song == null) {
+                LOGGER.log(Level.WARNING, "Song {0} ({1}) couldn''t be loaded, leaving it as a summary", new Object[]{id, title});
+                broken = true;
+                return;
+            }
+            load(song);
+        }
+    }
+
     @Override
     public Double getCachedUniformFontSize(Dimension dimension) {
         return fontSizeCache.get(dimension);
@@ -401,6 +511,7 @@ public class SongDisplayable implements TextDisplayable, Comparable<SongDisplaya
      * and section.
      */
     public String getCurrentTranslationSection(int index) {
+        ensureLoaded();
         String val = getCurrentTranslationLyrics();
         if (val == null) {
             return null;
@@ -432,6 +543,7 @@ public class SongDisplayable implements TextDisplayable, Comparable<SongDisplaya
      * translation is selected.
      */
     public String getCurrentTranslationLyrics() {
+        ensureLoaded();
         if (translations == null) {
             return null;
         }
@@ -476,9 +588,9 @@ public class SongDisplayable implements TextDisplayable, Comparable<SongDisplaya
      * @return true if it contains chords, false otherwise.
      */
     public boolean hasChords() {
-        String[] lyrics = getLyrics(true, true, false).split("\n");
-        for (String line : lyrics) {
-            if (new LineTypeChecker(line).getLineType() == LineTypeChecker.Type.CHORDS) {
+        ensureLoaded();
+        for (TextSection section : sectionsWithoutSequence) {
+            if (section.containsLineType(LineTypeChecker.Type.CHORDS)) {
                 return true;
             }
         }
@@ -522,11 +634,13 @@ public class SongDisplayable implements TextDisplayable, Comparable<SongDisplaya
      * @param title the new song title.
      */
     public void setTitle(String title) {
+        ensureLoaded();
         this.title = title;
         refreshLyrics();
     }
 
     public void setTranslations(HashMap<String, String> translations) {
+        ensureLoaded();
         fontSizeCache.clear();
         this.translations = translations;
     }
@@ -548,6 +662,7 @@ public class SongDisplayable implements TextDisplayable, Comparable<SongDisplaya
      * @param author the new song author.
      */
     public void setAuthor(String author) {
+        ensureLoaded();
         this.author = author;
         refreshLyrics();
     }
@@ -580,6 +695,7 @@ public class SongDisplayable implements TextDisplayable, Comparable<SongDisplaya
      * @return the publisher of this song.
      */
     public String getPublisher() {
+        ensureLoaded();
         return publisher;
     }
 
@@ -590,6 +706,7 @@ public class SongDisplayable implements TextDisplayable, Comparable<SongDisplaya
      * @return the year of this song.
      */
     public String getYear() {
+        ensureLoaded();
         return year;
     }
 
@@ -600,6 +717,7 @@ public class SongDisplayable implements TextDisplayable, Comparable<SongDisplaya
      * @return assigned theme
      */
     public ThemeDTO getTheme() {
+        ensureLoaded();
         return this.theme;
     }
 
@@ -610,6 +728,7 @@ public class SongDisplayable implements TextDisplayable, Comparable<SongDisplaya
      * @return the copyright information of this song.
      */
     public String getCopyright() {
+        ensureLoaded();
         return copyright;
     }
 
@@ -620,6 +739,7 @@ public class SongDisplayable implements TextDisplayable, Comparable<SongDisplaya
      * @return the key of this song.
      */
     public String getKey() {
+        ensureLoaded();
         return key;
     }
 
@@ -630,6 +750,7 @@ public class SongDisplayable implements TextDisplayable, Comparable<SongDisplaya
      * @return the general information about this song.
      */
     public String getInfo() {
+        ensureLoaded();
         return info;
     }
 
@@ -640,6 +761,7 @@ public class SongDisplayable implements TextDisplayable, Comparable<SongDisplaya
      * @return the capo of this song.
      */
     public String getCapo() {
+        ensureLoaded();
         return capo;
     }
 
@@ -650,6 +772,7 @@ public class SongDisplayable implements TextDisplayable, Comparable<SongDisplaya
      * @param capo the capo of this song.
      */
     public void setCapo(String capo) {
+        ensureLoaded();
         this.capo = capo;
     }
 
@@ -671,6 +794,7 @@ public class SongDisplayable implements TextDisplayable, Comparable<SongDisplaya
      * @param info the info of this song.
      */
     public void setInfo(String info) {
+        ensureLoaded();
         this.info = info;
     }
 
@@ -681,6 +805,7 @@ public class SongDisplayable implements TextDisplayable, Comparable<SongDisplaya
      * @param key the key of this song.
      */
     public void setKey(String key) {
+        ensureLoaded();
         this.key = key;
     }
 
@@ -701,6 +826,7 @@ public class SongDisplayable implements TextDisplayable, Comparable<SongDisplaya
      * @param publisher the publisher of this song.
      */
     public void setPublisher(String publisher) {
+        ensureLoaded();
         this.publisher = publisher;
     }
 
@@ -711,6 +837,7 @@ public class SongDisplayable implements TextDisplayable, Comparable<SongDisplaya
      * @param year the year of this song.
      */
     public void setYear(String year) {
+        ensureLoaded();
         this.year = year;
     }
 
@@ -721,6 +848,7 @@ public class SongDisplayable implements TextDisplayable, Comparable<SongDisplaya
      * @param copyright the copyright field of this song.
      */
     public void setCopyright(String copyright) {
+        ensureLoaded();
         this.copyright = copyright;
         refreshLyrics();
     }
@@ -732,6 +860,7 @@ public class SongDisplayable implements TextDisplayable, Comparable<SongDisplaya
      * @param sequence the copyright field of this song.
      */
     public void setSequence(String sequence) {
+        ensureLoaded();
         this.sequence = sequence;
     }
 
@@ -742,19 +871,83 @@ public class SongDisplayable implements TextDisplayable, Comparable<SongDisplaya
      * @return the song sequence order
      */
     public String getSequence() {
+        ensureLoaded();
         return sequence;
     }
 
+    /**
+     * Rebuild the sections of this song after a change to the details shown
+     * in their small text (the title, author or copyright.) The lines of each
+     * section are kept as they are, so the lyrics don't have to be turned
+     * back into a string and parsed again. A song without a title still goes
+     * through setLyrics(), since that's what picks a title out of the lyrics.
+     */
     private void refreshLyrics() {
         fontSizeCache.clear();
         ThemeDTO theme = ThemeDTO.DEFAULT_THEME;
         for (TextSection section : sectionsInSequence) {
             theme = section.getTheme();
         }
-        setLyrics(getLyrics(true, true, false));
-        for (TextSection section : sectionsInSequence) {
-            section.setTheme(theme);
+        if (title == null || title.isEmpty()) {
+            setLyrics(getLyrics(true, true, false));
+            for (TextSection section : sectionsInSequence) {
+                section.setTheme(theme);
+            }
+            return;
+        }
+        String[] smallLines = getSmallLines();
+        List<TextSection> newSections = new ArrayList<>(sectionsWithoutSequence.size());
+        for (TextSection section : sectionsWithoutSequence) {
+            String sectionTitle = section.getTitle() == null ? "" : section.getTitle();
+            newSections.add(new TextSection(sectionTitle, section.getText(true, true), smallLines, true, theme));
         }
+        sectionsWithoutSequence.clear();
+        sectionsWithoutSequence.addAll(newSections);
+        lyricsChanged();
+        setSectionsInSequence(sectionsWithoutSequence);
+    }
+
+    /**
+     * Get the small lines that should be shown with each section of this
+     * song.
+     * <p/>
+     *
+     * @return the small lines.
+     */
+    private String[] getSmallLines() {
+        String churchCcliNum = QueleaProperties.get().getChurchCcliNum();
+        if (churchCcliNum == null || churchCcliNum.isEmpty()) {
+            return new String[]{
+                    title,
+                    author + ((ccli.equals("")) ? " " : (" (" + ccli + ")"))
+            };
+        }
+        String cpText = null;
+        if (copyright != null) {
+            cpText = copyright.trim();
+        }
+        if (cpText != null && !cpText.trim().isEmpty() && !cpText.startsWith("©")) {
+            cpText = "©" + cpText;
+        }
+        String firstLine = "\"" + title + "\"";
+        if (author != null && !author.trim().isEmpty()) {
+            firstLine += " by " + author;
+        }
+        List<String> smallLinesList = new ArrayList<>();
+        smallLinesList.add(firstLine);
+        if (cpText != null && !cpText.isEmpty()) {
+            smallLinesList.add(cpText);
+        }
+        smallLinesList.add(LabelGrabber.INSTANCE.getLabel("ccli.licence") + " #" + churchCcliNum);
+        return smallLinesList.toArray(new String[smallLinesList.size()]);
+    }
+
+    /**
+     * Forget any cached text of this song's lyrics. This must be called
+     * whenever the sections of the song change.
+     */
+    private void lyricsChanged() {
+        lyricsCache = null;
     }
 
     /**
@@ -768,6 +961,31 @@ public class SongDisplayable implements TextDisplayable, Comparable<SongDisplaya
      * @return the lyrics to this song.
      */
     public String getLyrics(boolean chords, boolean comments, boolean inSequence) {
+        ensureLoaded();
+        String[] cache = lyricsCache;
+        if (cache == null) {
+            cache = new String[8];
+            lyricsCache = cache;
+        }
+        int cacheIdx = (chords ? 1 : 0) | (comments ? 2 : 0) | (inSequence ? 4 : 0);
+        String ret = cache[cacheIdx];
+        if (ret == null) {
+            ret = buildLyrics(chords, comments, inSequence);
+            cache[cacheIdx] = ret;
+        }
+        return ret;
+    }
+
+    /**
+     * Build the lyrics string returned by getLyrics().
+     * <p/>
+     *
+     * @param chords     true if any chords should be included, false otherwise.
+     * @param comments   true if any comments should be included, false otherwise.
+     * @param inSequence true if lyrics should be returned according to stored sequence, false otherwise.
+     * @return the lyrics to this song.
+     */
+    private String buildLyrics(boolean chords, boolean comments, boolean inSequence) {
         StringBuilder ret = new StringBuilder();
         for (TextSection section : inSequence ? sectionsInSequence : sectionsWithoutSequence) {
             if (section.getTitle() != null && !section.getTitle().equals("")) {
@@ -778,15 +996,33 @@ public class SongDisplayable implements TextDisplayable, Comparable<SongDisplaya
             }
             ret.append("\n");
         }
-        return ret.toString().replaceAll("\\s+$", "").replace(" ", "<>");
+        int end = ret.length();
+        while (end > 0 && isRegexWhitespace(ret.charAt(end - 1))) {
+            end--;
+        }
+        ret.setLength(end);
+        return ret.toString().replace("\u00A0", "<>");
+    }
+
+    /**
+     * Determine whether a character matches "\\s" in a regex.
+     * <p/>
+     *
+     * @param c the character to check.
+     * @return true if it's whitespace, false otherwise.
+     */
+    private static boolean isRegexWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\013' || c == '\f' || c == '\r';
     }
 
     public void addTranslation(String translationName, String translationText) {
+        ensureLoaded();
         fontSizeCache.clear();
         translations.put(translationName, translationText.trim());
     }
 
     public HashMap<String, String> getTranslations() {
+        ensureLoaded();
         return translations;
     }
 
@@ -799,66 +1035,46 @@ public class SongDisplayable implements TextDisplayable, Comparable<SongDisplaya
      * @param lyrics the lyrics to set as this song's lyrics.
      */
     public void setLyrics(String lyrics) {
+        ensureLoaded();
         sectionsWithoutSequence.clear();
         sectionsInSequence.clear();
         fontSizeCache.clear();
+        lyricsChanged();
         boolean foundTitle = !(title == null || title.isEmpty());
-        lyrics = lyrics.replaceAll("\n\n+", "\n\n");
+        lyrics = MULTIPLE_BLANK_LINES.matcher(lyrics).replaceAll("\n\n");
         lyrics = lyrics.replace("<>", " ");
 
         // Remove lines that contain only whitespace characers
         // so they are used as e section-split
-        lyrics = lyrics.replaceAll("\\n\\s+\\n", "\n\n");
-        lyrics = lyrics.replaceAll("\\r\\s+\\r", "\r\r");
-        lyrics = lyrics.replaceAll("\\r\\n\\s+\\r\\n", "\r\n\r\n");
+        lyrics = WHITESPACE_LINE_N.matcher(lyrics).replaceAll("\n\n");
+        lyrics = WHITESPACE_LINE_R.matcher(lyrics).replaceAll("\r\r");
+        lyrics = WHITESPACE_LINE_RN.matcher(lyrics).replaceAll("\r\n\r\n");
         
-        for (String section : lyrics.split("(\n\n)|(\r\r)|(\r\n\r\n)")) {
+        String[] smallLines = null;
+        for (String section : SECTION_SPLIT.split(lyrics)) {
             String[] sectionLines = section.split("\n");
-            String[] newLyrics = section.split("\n");
+            String[] newLyrics = sectionLines;
             String sectionTitle = "";
             if (sectionLines.length == 0) {
                 continue;
             }
-            if (new LineTypeChecker(sectionLines[0]).getLineType() == LineTypeChecker.Type.TITLE) {
+            if (LineTypeChecker.getLineType(sectionLines[0]) == LineTypeChecker.Type.TITLE) {
                 sectionTitle = sectionLines[0];
                 newLyrics = new String[sectionLines.length - 1];
                 System.arraycopy(sectionLines, 1, newLyrics, 0, newLyrics.length);
             }
             if (!foundTitle) {
                 for (String line : sectionLines) {
-                    if (new LineTypeChecker(line).getLineType() == LineTypeChecker.Type.NORMAL) {
+                    if (LineTypeChecker.getLineType(line) == LineTypeChecker.Type.NORMAL) {
                         title = line;
                         foundTitle = true;
+                        smallLines = null;
                         break;
                     }
                 }
             }
-            String churchCcliNum = QueleaProperties.get().getChurchCcliNum();
-            String[] smallLines;
-            if (churchCcliNum == null || churchCcliNum.isEmpty()) {
-                smallLines = new String[]{
-                        title,
-                        author + ((ccli.equals("")) ? " " : (" (" + ccli + ")"))
-                };
-            } else {
-                String cpText = null;
-                if (copyright != null) {
-                    cpText = copyright.trim();
-                }
-                if (cpText != null && !cpText.trim().isEmpty() && !cpText.startsWith("©")) {
-                    cpText = "©" + cpText;
-                }
-                String firstLine = "\"" + title + "\"";
-                if (author != null && !author.trim().isEmpty()) {
-                    firstLine += " by " + author;
-                }
-                List<String> smallLinesList = new ArrayList<>();
-                smallLinesList.add(firstLine);
-                if (cpText != null && !cpText.isEmpty()) {
-                    smallLinesList.add(cpText);
-                }
-                smallLinesList.add(LabelGrabber.INSTANCE.getLabel("ccli.licence") + " #" + churchCcliNum);
-                smallLines = smallLinesList.toArray(new String[smallLinesList.size()]);
+            if (smallLines == null) {
+                smallLines = getSmallLines();
             }
             sectionsWithoutSequence.add(new TextSection(sectionTitle, newLyrics, smallLines, true));
         }
@@ -867,6 +1083,7 @@ public class SongDisplayable implements TextDisplayable, Comparable<SongDisplaya
 
     private void setSectionsInSequence(List<TextSection> sectionsWithoutSequence) {
         sectionsInSequence.clear();
+        lyricsChanged();
         if (sequence != null && !sequence.equals("")) {
             for (String s : sequence.split(" ")) {
                 for (TextSection ts : sectionsWithoutSequence) {
@@ -894,7 +1111,9 @@ public class SongDisplayable implements TextDisplayable, Comparable<SongDisplaya
      * @param section the section to add.
      */
     public void addSection(TextSection section) {
+        ensureLoaded();
         fontSizeCache.clear();
+        lyricsChanged();
         if (section.getTheme() == null) {
             section.setTheme(theme);
         }
@@ -909,8 +1128,10 @@ public class SongDisplayable implements TextDisplayable, Comparable<SongDisplaya
      * @param section the section to add.
      */
     public void addSection(int index, TextSection section) {
+        ensureLoaded();
         sectionsInSequence.clear();
         fontSizeCache.clear();
+        lyricsChanged();
         if (section.getTheme() == null) {
             section.setTheme(theme);
         }
@@ -939,9 +1160,11 @@ public class SongDisplayable implements TextDisplayable, Comparable<SongDisplaya
      * @param index      the index of the section to replace.
      */
     public void replaceSection(TextSection newSection, int index) {
+        ensureLoaded();
         sectionsInSequence.clear();
         sectionsWithoutSequence.set(index, newSection);
         fontSizeCache.clear();
+        lyricsChanged();
     }
 
     /**
@@ -951,9 +1174,11 @@ public class SongDisplayable implements TextDisplayable, Comparable<SongDisplaya
      * @param index the index of the text section to remove.
      */
     public void removeSection(int index) {
+        ensureLoaded();
         sectionsInSequence.clear();
         sectionsWithoutSequence.remove(index);
         fontSizeCache.clear();
+        lyricsChanged();
     }
 
     /**
@@ -964,6 +1189,7 @@ public class SongDisplayable implements TextDisplayable, Comparable<SongDisplaya
      */
     @Override
     public TextSection[] getSections() {
+        ensureLoaded();
         if (sectionsInSequence.isEmpty()) {
             setSectionsInSequence(sectionsWithoutSequence);
         }
@@ -977,6 +1203,7 @@ public class SongDisplayable implements TextDisplayable, Comparable<SongDisplaya
      * @return the song sections.
      */
     public TextSection[] getSectionsWithoutSequence() {
+        ensureLoaded();
         return sectionsWithoutSequence.toArray(new TextSection[sectionsWithoutSequence.size()]);
     }
 
@@ -1014,6 +1241,7 @@ public class SongDisplayable implements TextDisplayable, Comparable<SongDisplaya
      */
     @Override
     public String getXML() {
+        ensureLoaded();
         StringBuilder xml = new StringBuilder();
         xml.append("<song>");
         xml.append("<updateInDB>");
@@ -1095,6 +1323,7 @@ public class SongDisplayable implements TextDisplayable, Comparable<SongDisplaya
      * @return the XML used to print the song.
      */
     public String getPrintXML(boolean includeTranslations) {
+        ensureLoaded();
         StringBuilder xml = new StringBuilder();
         Map<String, String> lyricsMap = new TreeMap<>((String o1, String o2) -> { //Ensure "Default" translation is first
             if (o1.equals("Default")) {
@@ -1296,7 +1525,8 @@ public class SongDisplayable implements TextDisplayable, Comparable<SongDisplaya
     }
 
     /**
-     * Generate a hashcode for this song.
+     * Generate a hashcode for this song. This only uses the title and author,
+     * so it's the same whether or not the rest of the song has been loaded.
      * <p/>
      *
      * @return the hashcode.
@@ -1306,14 +1536,14 @@ public class SongDisplayable implements TextDisplayable, Comparable<SongDisplaya
         int hash = 7;
         hash = 29 * hash + (this.title != null ? this.title.hashCode() : 0);
         hash = 29 * hash + (this.author != null ? this.author.hashCode() : 0);
-        hash = 29 * hash + (this.sectionsWithoutSequence != null ? this.sectionsWithoutSequence.hashCode() : 0);
-        hash = 29 * hash + (this.theme != null ? this.theme.hashCode() : 0);
         hash = hash + count;
         return hash;
     }
 
     /**
-     * Determine whether this song equals another object.
+     * Determine whether this song equals another object. Two summaries are
+     * equal if they're of the same song in the database. Otherwise the rest
+     * of a song is only loaded to compare it if the titles and authors match.
      * <p/>
      *
      * @param obj the other object.
@@ -1321,6 +1551,9 @@ public class SongDisplayable implements TextDisplayable, Comparable<SongDisplaya
      */
     @Override
     public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
         if (obj == null) {
             return false;
         }
@@ -1334,6 +1567,11 @@ public class SongDisplayable implements TextDisplayable, Comparable<SongDisplaya
         if ((this.author == null) ? (other.author != null) : !this.author.equals(other.author)) {
             return false;
         }
+        if (!isLoaded() && !other.isLoaded()) {
+            return id == other.id;
+        }
+        ensureLoaded();
+        other.ensureLoaded();
         if (this.sectionsWithoutSequence != other.sectionsWithoutSequence && (this.sectionsWithoutSequence == null || !this.sectionsWithoutSequence.equals(other.sectionsWithoutSequence))) {
             return false;
         }
@@ -1437,8 +1675,10 @@ public class SongDisplayable implements TextDisplayable, Comparable<SongDisplaya
      * Remove any duplicate sections in this song.
      */
     public void removeDuplicateSections() {
+        ensureLoaded();
         Utils.removeDuplicateWithOrder(sectionsWithoutSequence);
         fontSizeCache.clear();
+        lyricsChanged();
     }
 
     /**
@@ -1461,6 +1701,7 @@ public class SongDisplayable implements TextDisplayable, Comparable<SongDisplaya
     }
 
     public void setTheme(ThemeDTO theme) {
+        ensureLoaded();
         fontSizeCache.clear();
         this.theme = theme;
     }
@@ -1469,4 +1710,9 @@ public class SongDisplayable implements TextDisplayable, Comparable<SongDisplaya
     public void dispose() {
         //Nothing needed here.
     }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ensureLoaded();
+        out.defaultWriteObject();
+    }
 }
@@ -42,6 +42,7 @@ public class TextSection implements Serializable {
     private final String title;
     private final String[] lines;
     private final String[] smallLines;
+    private transient LineTypeChecker.Type[] lineTypes;
     private ThemeDTO theme;
     private final boolean capitaliseFirst;
 
@@ -49,6 +50,7 @@ public class TextSection implements Serializable {
         this.title = orig.title;
         this.lines = orig.lines;
         this.smallLines = orig.smallLines;
+        this.lineTypes = orig.lineTypes;
         this.theme = orig.theme;
         this.capitaliseFirst = orig.capitaliseFirst;
     }
@@ -82,6 +84,7 @@ public class TextSection implements Serializable {
         this.capitaliseFirst = capitaliseFirst;
         this.title = title;
         this.lines = Arrays.copyOf(lines, lines.length);
+        this.lineTypes = getLineTypes(this.lines);
         if (smallLines == null) { //Guard against NPE
             smallLines = new String[0];
         }
@@ -210,7 +213,9 @@ public class TextSection implements Serializable {
      */
     public String[] getText(boolean chords, boolean comments) {
         List<String> ret = new ArrayList<>(lines.length);
-        for (String str : lines) {
+        LineTypeChecker.Type[] types = getLineTypes();
+        for (int i = 0; i < lines.length; i++) {
+            String str = lines[i];
             String toAdd = null;
             if (chords) {
                 if (comments) {
@@ -219,7 +224,7 @@ public class TextSection implements Serializable {
                     toAdd = removeComments(str);
                 }
             } else {
-                if (new LineTypeChecker(str).getLineType() != LineTypeChecker.Type.CHORDS) {
+                if (types[i] != LineTypeChecker.Type.CHORDS) {
                     if (comments) {
                         toAdd = str;
                     } else {
@@ -235,6 +240,44 @@ public class TextSection implements Serializable {
         return ret.toArray(new String[ret.size()]);
     }
 
+    /**
+     * Determine whether any of the lines in this section are of a given type.
+     *
+     * @param type the type of line to look for.
+     * @return true if at least one line is of that type, false otherwise.
+     */
+    public boolean containsLineType(LineTypeChecker.Type type) {
+        for (LineTypeChecker.Type lineType : getLineTypes()) {
+            if (lineType == type) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the types of the lines in this section. These are worked out when
+     * the section is created, so the lines don't need checking again every
+     * time the section's text is asked for (sections are only missing them
+     * after they've been deserialised.)
+     *
+     * @return the type of each line in this section.
+     */
+    private LineTypeChecker.Type[] getLineTypes() {
+        if (lineTypes == null) {
+            lineTypes = getLineTypes(lines);
+        }
+        return lineTypes;
+    }
+
+    private static LineTypeChecker.Type[] getLineTypes(String[] lines) {
+        LineTypeChecker.Type[] ret = new LineTypeChecker.Type[lines.length];
+        for (int i = 0; i < lines.length; i++) {
+            ret[i] = LineTypeChecker.getLineType(lines[i]);
+        }
+        return ret;
+    }
+
     /**
      * Remove comments from a string.
      *
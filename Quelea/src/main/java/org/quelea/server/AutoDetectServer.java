@@ -17,12 +17,14 @@
  */
 package org.quelea.server;
 
+import com.sun.net.httpserver.HttpContext;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
 import org.quelea.windows.main.QueleaApp;
 
 /**
@@ -34,6 +36,8 @@ import org.quelea.windows.main.QueleaApp;
 public class AutoDetectServer {
 
     private final HttpServer server;
+    private final ExecutorService executor;
+    private final RequestLimiter limiter;
     private boolean running;
 
     /**
@@ -44,8 +48,11 @@ public class AutoDetectServer {
      * @throws IOException if something goes wrong.
      */
     public AutoDetectServer(int port) throws IOException {
+        executor = ServerExecutors.create("Auto detect");
+        limiter = new RequestLimiter("autodetect");
         server = HttpServer.create(new InetSocketAddress(port), 0);
-        server.createContext("/", new RootHandler());
+        createContext("/", new RootHandler());
+        server.setExecutor(executor);
     }
 
     /**
@@ -66,6 +73,7 @@ public class AutoDetectServer {
         if (server != null) {
             running = false;
             server.stop(0);
+            executor.shutdown();
         }
     }
 
@@ -78,6 +86,19 @@ public class AutoDetectServer {
         return running;
     }
 
+    /**
+     * Create a context on the server, with requests to it limited and timed.
+     * <p>
+     * @param path the path of the context.
+     * @param handler the handler for the context.
+     * @return the context.
+     */
+    private HttpContext createContext(String path, HttpHandler handler) {
+        HttpContext context = server.createContext(path, handler);
+        context.getFilters().add(limiter);
+        return context;
+    }
+
     private class RootHandler implements HttpHandler {
 
         @Override
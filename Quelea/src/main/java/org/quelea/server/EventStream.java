@@ -0,0 +1,186 @@
+/*
+ * This file is part of Quelea, free projection software for churches.
+ *
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.quelea.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.quelea.services.utils.LoggerUtils;
+
+/**
+ * A stream of server-sent events. Clients connect with an EventSource and
+ * the connection is kept open; each event is encoded once when it's
+ * published and the same bytes are queued for every client. A client that
+ * connects is sent the last event straight away, so it doesn't have to wait
+ * for the next change to show anything.
+ * <p/>
+ * Each client has its own small queue and its own thread writing it out, so
+ * publishing never blocks the caller (usually the FX thread) and a client
+ * that's stopped reading can't hold up the others. A client whose queue fills
+ * up is dropped. A comment is sent every so often to keep connections open
+ * and find clients that have gone away.
+ * <p/>
+ * @author Michael
+ */
+public class EventStream implements HttpHandler {
+
+    private static final Logger LOGGER = LoggerUtils.getLogger();
+    private static final int HEARTBEAT_SECONDS = 15;
+    private static final int RETRY_MILLIS = 2000;
+    private static final int QUEUE_SIZE = 16;
+    private static final byte[] HEARTBEAT = ":\n\n".getBytes(StandardCharsets.UTF_8);
+    private final List<Client> clients = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService heartbeat;
+    private final ExecutorService writers;
+    private volatile byte[] lastEvent;
+
+    /**
+     * Create a new event stream.
+     * <p/>
+     * @param name the name of the stream, used to name its threads.
+     */
+    public EventStream(String name) {
+        heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, name + " heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writers = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, name + " events");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeat.scheduleWithFixedDelay(() -> sendToAll(HEARTBEAT), HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void handle(HttpExchange he) throws IOException {
+        he.getResponseHeaders().add("Content-Type", "text/event-stream; charset=UTF-8");
+        he.getResponseHeaders().add("Cache-Control", "no-cache");
+        he.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
+        he.sendResponseHeaders(200, 0);
+        Client client = new Client(he);
+        client.queue.add(("retry: " + RETRY_MILLIS + "\n\n").getBytes(StandardCharsets.UTF_8));
+        byte[] event = lastEvent;
+        if (event != null) {
+            client.queue.add(event);
+        }
+        clients.add(client);
+        writers.execute(client.writer);
+    }
+
+    /**
+     * Publish an event to every connected client.
+     * <p/>
+     * @param name the name of the event.
+     * @param data the event data.
+     */
+    public void publish(String name, String data) {
+        StringBuilder event = new StringBuilder();
+        event.append("event: ").append(name).append('\n');
+        for (String line : data.split("\n", -1)) {
+            event.append("data: ").append(line).append('\n');
+        }
+        event.append('\n');
+        byte[] bytes = event.toString().getBytes(StandardCharsets.UTF_8);
+        lastEvent = bytes;
+        sendToAll(bytes);
+    }
+
+    /**
+     * Get the number of clients currently connected.
+     * <p/>
+     * @return the number of connected clients.
+     */
+    public int getClientCount() {
+        return clients.size();
+    }
+
+    /**
+     * Disconnect every client and stop the stream.
+     */
+    public void close() {
+        heartbeat.shutdownNow();
+        writers.shutdownNow();
+        clients.clear();
+    }
+
+    /**
+     * Queue some bytes for every client, dropping any client that's too far
+     * behind to take them.
+     */
+    private void sendToAll(byte[] bytes) {
+        for (Client client : clients) {
+            if (!client.queue.offer(bytes)) {
+                LOGGER.log(Level.FINE, "Event stream client fell behind, dropping it");
+                clients.remove(client);
+                client.writer.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Write out a client's queue until it goes away or is dropped. Dropping a
+     * client interrupts this, which also aborts a write that's blocked on it.
+     */
+    private void write(Client client) {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                byte[] bytes = client.queue.take();
+                client.out.write(bytes);
+                client.out.flush();
+            }
+        } catch (IOException ex) {
+            LOGGER.log(Level.FINE, "Event stream client gone", ex);
+        } catch (InterruptedException ex) {
+            // Dropped, or the stream was closed
+        } finally {
+            clients.remove(client);
+            client.exchange.close();
+        }
+    }
+
+    /**
+     * A connected client.
+     */
+    private final class Client {
+
+        private final HttpExchange exchange;
+        private final OutputStream out;
+        private final BlockingQueue<byte[]> queue = new ArrayBlockingQueue<>(QUEUE_SIZE);
+        private final FutureTask<Void> writer = new FutureTask<>(() -> write(this), null);
+
+        private Client(HttpExchange exchange) {
+            this.exchange = exchange;
+            this.out = exchange.getResponseBody();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * This file is part of Quelea, free projection software for churches.
+ *
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.quelea.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An immutable snapshot of the responses a server gives about what's live.
+ * The responses are rendered and encoded once, on the FX thread, whenever
+ * what's live changes, so serving them is just a matter of writing out the
+ * bytes no matter how many clients are polling.
+ * <p/>
+ * Each snapshot has a version one higher than the snapshot it replaced. Each
+ * response is tagged with the version it last changed in, so a client asking
+ * for a response it already has (with If-None-Match) is sent a 304 with no
+ * body.
+ * <p/>
+ * @author Michael
+ */
+public final class LiveSnapshot {
+
+    /**
+     * A snapshot with no responses, for before anything has been rendered.
+     */
+    public static final LiveSnapshot EMPTY = new LiveSnapshot(0, Collections.emptyMap());
+    /**
+     * Distinguishes the tags given out by this run of Quelea from those given
+     * out by the last, since versions start again from 0 each time.
+     */
+    private static final String EPOCH = Long.toString(System.currentTimeMillis(), 36);
+    private static final byte[] NO_BYTES = new byte[0];
+    private final long version;
+    private final Map<String, Response> responses;
+
+    private LiveSnapshot(long version, Map<String, Response> responses) {
+        this.version = version;
+        this.responses = responses;
+    }
+
+    /**
+     * Get the snapshot that follows this one. Responses that are the same as
+     * they were in this snapshot keep their tag, so clients polling them
+     * aren't sent them again.
+     * <p/>
+     * @param bodies the body of each response, by name.
+     * @return the next snapshot.
+     */
+    public LiveSnapshot next(Map<String, String> bodies) {
+        long nextVersion = version + 1;
+        Map<String, Response> nextResponses = new HashMap<>();
+        for (Map.Entry<String, String> body : bodies.entrySet()) {
+            byte[] bytes = body.getValue().getBytes(StandardCharsets.UTF_8);
+            Response previous = responses.get(body.getKey());
+            if (previous != null && Arrays.equals(previous.bytes, bytes)) {
+                nextResponses.put(body.getKey(), previous);
+            } else {
+                nextResponses.put(body.getKey(), new Response(bytes, "\"" + EPOCH + "-" + nextVersion + "\""));
+            }
+        }
+        return new LiveSnapshot(nextVersion, Collections.unmodifiableMap(nextResponses));
+    }
+
+    /**
+     * Get the version of this snapshot.
+     * <p/>
+     * @return the version, which goes up by one with each new snapshot.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Send a response from this snapshot, or a 304 if the client already has
+     * it. Any other headers the response needs should be set before calling
+     * this.
+     * <p/>
+     * @param he the exchange to send the response on.
+     * @param name the name of the response to send.
+     * @throws IOException if the response couldn't be sent.
+     */
+    public void send(HttpExchange he, String name) throws IOException {
+        Response response = responses.get(name);
+        byte[] bytes = response == null ? NO_BYTES : response.bytes;
+        String tag = response == null ? "\"" + EPOCH + "-0\"" : response.tag;
+        he.getResponseHeaders().set("Cache-Control", "no-cache");
+        he.getResponseHeaders().set("ETag", tag);
+        if (matches(he.getRequestHeaders().getFirst("If-None-Match"), tag)) {
+            he.sendResponseHeaders(304, -1);
+            he.close();
+            return;
+        }
+        he.sendResponseHeaders(200, bytes.length);
+        try (OutputStream os = he.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+
+    private static boolean matches(String ifNoneMatch, String tag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals(tag) || candidate.equals("*")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A single encoded response and its tag.
+     */
+    private static final class Response {
+
+        private final byte[] bytes;
+        private final String tag;
+
+        private Response(byte[] bytes, String tag) {
+            this.bytes = bytes;
+            this.tag = tag;
+        }
+    }
+}
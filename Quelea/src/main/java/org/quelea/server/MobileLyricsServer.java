@@ -17,6 +17,8 @@
  */
 package org.quelea.server;
 
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpContext;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
@@ -31,10 +33,14 @@ import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import javafx.application.Platform;
 import org.quelea.data.bible.BibleBook;
 import org.quelea.data.displayable.BiblePassage;
 import org.quelea.data.displayable.SongDisplayable;
@@ -44,6 +50,7 @@ import org.quelea.services.languages.LabelGrabber;
 import org.quelea.services.utils.LineTypeChecker;
 import org.quelea.services.utils.LineTypeChecker.Type;
 import org.quelea.services.utils.LoggerUtils;
+import org.quelea.services.utils.Utils;
 import org.quelea.utils.Chord;
 import org.quelea.windows.library.LibraryBiblePanel;
 import org.quelea.windows.main.LivePanel;
@@ -54,6 +61,12 @@ import org.quelea.windows.main.QueleaApp;
  * The mobile lyrics server, responsible for handling the mobile HTTP calls and
  * pushing out the correct content.
  * <p>
+ * Whenever what's live changes, the lyrics, chords, title and so on are
+ * rendered once and pushed to every client listening on /events. Clients that
+ * can't use server-sent events can still poll the individual endpoints, which
+ * serve the same rendered snapshot and answer with a 304 when nothing has
+ * changed.
+ * <p>
  * @author Michael
  */
 public class MobileLyricsServer {
@@ -61,10 +74,16 @@ public class MobileLyricsServer {
     private static final boolean USE_CACHE = true;
     private static final Logger LOGGER = LoggerUtils.getLogger();
     private final HttpServer server;
+    private final ExecutorService executor;
+    private final RequestLimiter limiter;
+    private final RequestLimiter assetTimer;
     private boolean running;
     private String pageContent;
     private final Map<String, byte[]> fileCache;
-    private String text = "";
+    private final EventStream liveEvents;
+    private String livePayload;
+    private volatile LiveSnapshot snapshot = LiveSnapshot.EMPTY;
+    private volatile String text = "";
 
     /**
      * Create a new mobile lyrics server on a specified port. The port must not
@@ -74,24 +93,29 @@ public class MobileLyricsServer {
      * @throws IOException if something goes wrong.
      */
     public MobileLyricsServer(int port) throws IOException {
-        fileCache = new HashMap<>();
+        fileCache = new ConcurrentHashMap<>();
+        liveEvents = new EventStream("Mobile lyrics");
+        executor = ServerExecutors.create("Mobile lyrics");
+        limiter = new RequestLimiter("mobile");
+        assetTimer = new RequestLimiter("mobile", 0);
         server = HttpServer.create(new InetSocketAddress(port), 0);
-        server.createContext("/", new RootHandler());
-        server.createContext("/lyrics", new LyricsHandler());
-        server.createContext("/chords", new ChordsHandler());
-        server.createContext("/chordsv2", new ChordsHandlerv2());
-        server.createContext("/title", new TitleHandler());
-        server.createContext("/songtranslations", new SongTranslationsHandler());
-        server.createContext("/gettranslation", new SongTranslationsHandler());
-        server.createContext("/livetext", new LiveTextHandler());
-        server.createContext("/jscolor.js", new FileHandler("icons/jscolor.js"));
-        server.createContext("/arrow.gif", new FileHandler("icons/arrow.gif"));
-        server.createContext("/gear.png", new FileHandler("icons/gear.png"));
-        server.createContext("/translate.png", new FileHandler("icons/translate_on.png"));
-        server.createContext("/cross.gif", new FileHandler("icons/cross.gif"));
-        server.createContext("/hs.png", new FileHandler("icons/hs.png"));
-        server.createContext("/hv.png", new FileHandler("icons/hv.png"));
-        server.setExecutor(null);
+        createContext("/", new RootHandler());
+        createContext("/events", liveEvents);
+        createContext("/lyrics", new LyricsHandler());
+        createContext("/chords", new ChordsHandler());
+        createContext("/chordsv2", new ChordsHandlerv2());
+        createContext("/title", new TitleHandler());
+        createContext("/songtranslations", new SongTranslationsHandler());
+        createContext("/gettranslation", new SongTranslationsHandler());
+        createContext("/livetext", new LiveTextHandler());
+        createAssetContext("/jscolor.js", new FileHandler("icons/jscolor.js"));
+        createAssetContext("/arrow.gif", new FileHandler("icons/arrow.gif"));
+        createAssetContext("/gear.png", new FileHandler("icons/gear.png"));
+        createAssetContext("/translate.png", new FileHandler("icons/translate_on.png"));
+        createAssetContext("/cross.gif", new FileHandler("icons/cross.gif"));
+        createAssetContext("/hs.png", new FileHandler("icons/hs.png"));
+        createAssetContext("/hv.png", new FileHandler("icons/hv.png"));
+        server.setExecutor(executor);
     }
 
     /**
@@ -101,6 +125,7 @@ public class MobileLyricsServer {
         if (server != null) {
             server.start();
             running = true;
+            Platform.runLater(this::liveChanged);
         }
     }
 
@@ -111,7 +136,43 @@ public class MobileLyricsServer {
     public void stop() {
         if (server != null) {
             running = false;
+            liveEvents.close();
             server.stop(0);
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Render what's live into a new snapshot for the polled endpoints, and
+     * push it to the clients listening for changes if it's different to what
+     * they were last sent. Must be called on the FX thread whenever what's
+     * live might have changed.
+     */
+    public void liveChanged() {
+        Utils.checkFXThread();
+        if (!running) {
+            return;
+        }
+        Map<String, String> responses = new HashMap<>();
+        responses.put("lyrics", getLyrics(false));
+        responses.put("alllyrics", allLyrics());
+        responses.put("chords", getLyrics(true));
+        responses.put("chordsv2", getChordsHtml());
+        responses.put("title", getTitle());
+        responses.put("songtranslations", getTranslationsList());
+        responses.put("livetext", text);
+        snapshot = snapshot.next(responses);
+
+        Map<String, String> payload = new LinkedHashMap<>();
+        payload.put("lyrics", responses.get("lyrics"));
+        payload.put("chords", responses.get("chordsv2"));
+        payload.put("title", responses.get("title"));
+        payload.put("translations", responses.get("songtranslations"));
+        payload.put("livetext", text);
+        String json = new Gson().toJson(payload);
+        if (!json.equals(livePayload)) {
+            livePayload = json;
+            liveEvents.publish("live", json);
         }
     }
 
@@ -124,6 +185,34 @@ public class MobileLyricsServer {
         return running;
     }
 
+    /**
+     * Create a context on the server, with requests to it limited and timed.
+     * <p>
+     * @param path the path of the context.
+     * @param handler the handler for the context.
+     * @return the context.
+     */
+    private HttpContext createContext(String path, HttpHandler handler) {
+        HttpContext context = server.createContext(path, handler);
+        context.getFilters().add(limiter);
+        return context;
+    }
+
+    /**
+     * Create a context for images or other static files on the server, with
+     * requests to it timed but not limited, since one page can ask for a lot
+     * of these at once.
+     * <p>
+     * @param path the path of the context.
+     * @param handler the handler for the context.
+     * @return the context.
+     */
+    private HttpContext createAssetContext(String path, HttpHandler handler) {
+        HttpContext context = server.createContext(path, handler);
+        context.getFilters().add(assetTimer);
+        return context;
+    }
+
     private String sortLabels(String content) {
         content = content.replace("[loading.text]", LabelGrabber.INSTANCE.getLabel("loading.text"));
         content = content.replace("[font.colour.label]", LabelGrabber.INSTANCE.getLabel("font.colour.label"));
@@ -183,18 +272,11 @@ public class MobileLyricsServer {
 
         @Override
         public void handle(HttpExchange t) throws IOException {
-            String response;
+            t.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
             if (t.getRequestURI().toString().contains("all")) {
-                response = allLyrics();
+                snapshot.send(t, "alllyrics");
             } else {
-                response = getLyrics(false);
-            }
-            byte[] bytes = response.getBytes("UTF-8");
-            t.getResponseHeaders().add("Cache-Control", "no-cache, no-store, must-revalidate");
-            t.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
-            t.sendResponseHeaders(200, bytes.length);
-            try (OutputStream os = t.getResponseBody()) {
-                os.write(bytes);
+                snapshot.send(t, "lyrics");
             }
         }
     }
@@ -203,78 +285,70 @@ public class MobileLyricsServer {
 
         @Override
         public void handle(HttpExchange t) throws IOException {
-            String[] arr = getRawLiveLyrics();
-            List<Chord> chords = new ArrayList<>();
-            StringBuilder html = new StringBuilder();
-            for (int i = 0; i < arr.length; i++) {
-                String line = arr[i];
-                if (new LineTypeChecker(line).getLineType() == Type.CHORDS && i < arr.length - 1) {
-                    chords = Chord.getChordsFromLine(line);
-                } else {
-                    html.append(mergeChords(line, chords));
-                    html.append("\n");
-                    chords = null;
-                }
-            }
-            
-            byte[] bytes = html.toString().getBytes("UTF-8");
-            t.getResponseHeaders().add("Cache-Control", "no-cache, no-store, must-revalidate");
             t.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
-            t.sendResponseHeaders(200, bytes.length);
-            try (OutputStream os = t.getResponseBody()) {
-                os.write(bytes);
-            }
+            snapshot.send(t, "chordsv2");
         }
-        
-        private String mergeChords(String line, List<Chord> chords) {
-            if (chords == null || chords.isEmpty()) {
-                return line;
+    }
+
+    private String getChordsHtml() {
+        String[] arr = getRawLiveLyrics();
+        List<Chord> chords = new ArrayList<>();
+        StringBuilder html = new StringBuilder();
+        for (int i = 0; i < arr.length; i++) {
+            String line = arr[i];
+            if (LineTypeChecker.getLineType(line) == Type.CHORDS && i < arr.length - 1) {
+                chords = Chord.getChordsFromLine(line);
+            } else {
+                html.append(mergeChords(line, chords));
+                html.append("\n");
+                chords = null;
             }
+        }
+        return html.toString();
+    }
 
-            String ret = "<div class=\"line\">";
-            int chordidx = 0;
-            boolean initialWhitespace = true;
-            Chord chord = chords.get(chordidx);
-            for (int i = 0; i < line.length(); i++) {
-                if (line.charAt(i) != ' ') {
-                    initialWhitespace = false;
-                }
-                if (chord != null && i == chord.getIdx()) {
-                    ret += "<span class=\"chord\">" + chord.getChord() + "</span>";
-                    chordidx++;
-                    if (chordidx < chords.size()) {
-                        chord = chords.get(chordidx);
-                    } else {
-                        chord = null;
-                    }
-                }
-                if(initialWhitespace && line.charAt(i)==' ') {
-                    ret += "\u2000";
-                }
-                else {
-                    ret += line.charAt(i);                    
+    private static String mergeChords(String line, List<Chord> chords) {
+        if (chords == null || chords.isEmpty()) {
+            return line;
+        }
+
+        String ret = "<div class=\"line\">";
+        int chordidx = 0;
+        boolean initialWhitespace = true;
+        Chord chord = chords.get(chordidx);
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) != ' ') {
+                initialWhitespace = false;
+            }
+            if (chord != null && i == chord.getIdx()) {
+                ret += "<span class=\"chord\">" + chord.getChord() + "</span>";
+                chordidx++;
+                if (chordidx < chords.size()) {
+                    chord = chords.get(chordidx);
+                } else {
+                    chord = null;
                 }
             }
-            while (chordidx < chords.size()) {
-                ret += "<span class=\"chord\">" + chords.get(chordidx++).getChord() + "</span>";
+            if(initialWhitespace && line.charAt(i)==' ') {
+                ret += "\u2000";
             }
-            ret += "</div>";
-            return ret;
+            else {
+                ret += line.charAt(i);                    
+            }
+        }
+        while (chordidx < chords.size()) {
+            ret += "<span class=\"chord\">" + chords.get(chordidx++).getChord() + "</span>";
         }
+        ret += "</div>";
+        return ret;
     }
 
     private class ChordsHandler implements HttpHandler {
 
         @Override
         public void handle(HttpExchange t) throws IOException {
-            String response = getLyrics(true);
-            byte[] bytes = response.getBytes("UTF-8");
-            t.getResponseHeaders().add("Cache-Control", "no-cache, no-store, must-revalidate");
             t.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
-            t.sendResponseHeaders(200, bytes.length);
-            try (OutputStream os = t.getResponseBody()) {
-                os.write(bytes);
-            }
+            snapshot.send(t, "chords");
         }
     }
 
@@ -282,14 +356,8 @@ public class MobileLyricsServer {
 
         @Override
         public void handle(HttpExchange t) throws IOException {
-            String response = getText();
-            byte[] bytes = response.getBytes("UTF-8");
-            t.getResponseHeaders().add("Cache-Control", "no-cache, no-store, must-revalidate");
             t.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
-            t.sendResponseHeaders(200, bytes.length);
-            try (OutputStream os = t.getResponseBody()) {
-                os.write(bytes);
-            }
+            snapshot.send(t, "livetext");
         }
     }
 
@@ -297,14 +365,8 @@ public class MobileLyricsServer {
 
         @Override
         public void handle(HttpExchange t) throws IOException {
-            String response = getTitle();
-            byte[] bytes = response.getBytes("UTF-8");
-            t.getResponseHeaders().add("Cache-Control", "no-cache, no-store, must-revalidate");
             t.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
-            t.sendResponseHeaders(200, bytes.length);
-            try (OutputStream os = t.getResponseBody()) {
-                os.write(bytes);
-            }
+            snapshot.send(t, "title");
         }
     }
 
@@ -312,14 +374,15 @@ public class MobileLyricsServer {
 
         @Override
         public void handle(HttpExchange he) throws IOException {
+            if (he.getRequestURI().toString().contains("/songtranslations")) {
+                he.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
+                snapshot.send(he, "songtranslations");
+                return;
+            }
             String response = "";
             LivePanel lp = QueleaApp.get().getMainWindow().getMainPanel().getLivePanel();
             if (running && lp.getDisplayable() instanceof TextDisplayable) {
-                if (he.getRequestURI().toString().contains("/songtranslations")) {
-                    response = listSongTranslations(he);
-                } else {
-                    response = getSongTranslation(he);
-                }
+                response = getSongTranslation(he);
                 if (getLyrics(false).equals("")) {
                     response = "";
                 }
@@ -361,11 +424,12 @@ public class MobileLyricsServer {
                 TextSection currentSection = lp.getLyricsPanel().getLyricsList().getSelectionModel().getSelectedItem();
                 StringBuilder ret = new StringBuilder();
                 for (String line : currentSection.getText(chords, false)) {
+                    LineTypeChecker.Type type = LineTypeChecker.getLineType(line);
                     if (lp.getDisplayable() instanceof BiblePassage) {
                         ret.append("<span class=\"bible\">").append(line);
-                    } else if (new LineTypeChecker(line).getLineType() == LineTypeChecker.Type.CHORDS) {
+                    } else if (type == LineTypeChecker.Type.CHORDS) {
                         ret.append("<span class=\"chord\">").append(line.replace(" ", "&#160;"));
-                    } else if (new LineTypeChecker(line).getLineType() == LineTypeChecker.Type.TITLE) {
+                    } else if (type == LineTypeChecker.Type.TITLE) {
                         ret.append("<span class=\"title\">").append(line);
                     } else {
                         ret.append("<span class=\"lyric\">").append(line);
@@ -432,7 +496,7 @@ public class MobileLyricsServer {
             }
         } catch (Exception ex) {
             LOGGER.log(Level.WARNING, "Error getting lyrics", ex);
-            return null;
+            return new ArrayList<>();
         }
     }
 
@@ -485,6 +549,29 @@ public class MobileLyricsServer {
         }
     }
 
+    /**
+     * Get the translations available for the live song, in the same form as
+     * /songtranslations gives them.
+     * <p>
+     * @return the available translations, or an empty string if there isn't
+     * a live song.
+     */
+    private String getTranslationsList() {
+        try {
+            if (!checkInitialised()) {
+                return "";
+            }
+            LivePanel lp = QueleaApp.get().getMainWindow().getMainPanel().getLivePanel();
+            if (running && lp.getDisplayable() instanceof SongDisplayable && !getLyrics(false).equals("")) {
+                return listSongTranslations(null);
+            }
+            return "";
+        } catch (Exception ex) {
+            LOGGER.log(Level.WARNING, "Error getting translations", ex);
+            return "";
+        }
+    }
+
     public static String listSongTranslations(HttpExchange he) {
         StringBuilder ret = new StringBuilder();
         final MainPanel p = QueleaApp.get().getMainWindow().getMainPanel();
@@ -535,6 +622,7 @@ public class MobileLyricsServer {
     
     public void setText(String text) {
         this.text = text;
+        Platform.runLater(this::liveChanged);
     }
 
     /**
@@ -24,15 +24,17 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
-import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.List;
 import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
 
 import javafx.application.Platform;
 import javafx.embed.swing.SwingFXUtils;
+import javafx.scene.image.Image;
 
 import javax.imageio.ImageIO;
 
@@ -47,6 +49,7 @@ import org.quelea.data.displayable.PresentationDisplayable;
 import org.quelea.data.displayable.SongDisplayable;
 import org.quelea.data.displayable.TimerDisplayable;
 import org.quelea.services.languages.LabelGrabber;
+import org.quelea.services.lucene.SongSearchHit;
 import org.quelea.services.lucene.SongSearchIndex;
 import org.quelea.services.utils.LoggerUtils;
 import org.quelea.services.utils.QueleaProperties;
@@ -69,7 +72,7 @@ import org.quelea.windows.newsong.SongEntryWindow;
  */
 public class RCHandler {
 
-    private static final ArrayList<String> devices = new ArrayList<>();
+    private static final List<String> devices = new CopyOnWriteArrayList<>();
     private static final Logger LOGGER = LoggerUtils.getLogger();
 
     public static void logo() {
@@ -289,20 +292,15 @@ public class RCHandler {
             if (searchString == null || searchString.trim().isEmpty() || Pattern.compile("[^\\w ]", Pattern.UNICODE_CHARACTER_CLASS).matcher(searchString).replaceAll("").isEmpty()) {
                 return LabelGrabber.INSTANCE.getLabel("invalid.search");
             } else {
-                SongDisplayable[] titleSongs = SongManager.get().getIndex().filter(searchString, SongSearchIndex.FilterType.TITLE);
-                for (SongDisplayable song : titleSongs) {
-                    song.setLastSearch(searchString);
-                    songs.add(song);
-                }
-
-                SongDisplayable[] lyricSongs = SongManager.get().getIndex().filter(searchString, SongSearchIndex.FilterType.BODY);
-                for (SongDisplayable song : lyricSongs) {
-                    song.setLastSearch(null);
+                for (SongSearchHit hit : SongManager.get().getIndex().search(searchString)) {
+                    SongDisplayable song = hit.getSong();
+                    if (hit.getField() == SongSearchIndex.FilterType.TITLE) {
+                        song.setLastSearch(searchString);
+                    } else if (hit.getField() == SongSearchIndex.FilterType.BODY) {
+                        song.setLastSearch(null);
+                    }
                     songs.add(song);
                 }
-
-                SongDisplayable[] authorSongs = SongManager.get().getIndex().filter(searchString, SongSearchIndex.FilterType.AUTHOR);
-                songs.addAll(Arrays.asList(authorSongs));
             }
 
             StringBuilder response = new StringBuilder();
@@ -474,50 +472,63 @@ public class RCHandler {
         return "";
     }
 
-    public static byte[] getPresentationSlides(HttpExchange he) {
-        String targetPath = he.getRequestURI().getPath().replace("/slides", "");
+    /**
+     * Get the image of a slide of the live presentation, PDF or image group,
+     * by its number. The encoded image is used if it's ready, otherwise the
+     * slide is encoded as a PNG.
+     *
+     * @param he the exchange, with a path of the form /slides/slideN.png.
+     * @return the image, or an empty array if there's no such slide.
+     */
+    public static byte[] getPresentationSlide(HttpExchange he) {
         Displayable d = QueleaApp.get().getMainWindow().getMainPanel().getLivePanel().getDisplayable();
-        if (d instanceof PresentationDisplayable || d instanceof PdfDisplayable || d instanceof ImageGroupDisplayable) {
-            if (targetPath.contains("/")) {
-                try {
-                    BufferedImage image;
-                    int slide = Integer.parseInt(targetPath.replace("/slide", "").replace(".png", ""));
-                    if (d instanceof PresentationDisplayable) {
-                        image = SwingFXUtils.fromFXImage(((PresentationDisplayable) d).getPresentation().getSlide(slide - 1).getImage(), null);
-                    } else if (d instanceof PdfDisplayable) {
-                        image = SwingFXUtils.fromFXImage(((PdfDisplayable) d).getPresentation().getSlide(slide - 1).getImage(), null);
-                    } else {
-                        image = SwingFXUtils.fromFXImage(((ImageGroupDisplayable) d).getPresentation().getSlide(slide - 1).getImage(), null);
-                    }
-                    ByteArrayOutputStream output = new ByteArrayOutputStream();
-                    ImageIO.write(image, "png", output);
-                    return output.toByteArray();
-                } catch (IOException ex) {
-                    LOGGER.log(Level.WARNING, "Error getting PowerPoint slides", ex);
-                }
-            } else {
-                StringBuilder sb = new StringBuilder();
-                sb.append("\n<html>");
-                int numberOfFiles;
-                if (d instanceof PresentationDisplayable)
-                    numberOfFiles = ((PresentationDisplayable) d).getPresentation().getSlides().length;
-                else if (d instanceof PdfDisplayable)
-                    numberOfFiles = ((PdfDisplayable) d).getPresentation().getSlides().length;
-                else
-                    numberOfFiles = ((ImageGroupDisplayable) d).getPresentation().getSlides().length;
-                for (int i = 0; i < numberOfFiles; i++) {
-                    if (currentLyricSection() == i) {
-                        sb.append("<div class=\"inner current\">");
-                    }
-                    sb.append("<p class=\"empty\" onclick=\"section(").append(i).append(");\">");
-                    sb.append("<a href='").append("/").append("slides/slide").append(i).append("'>").append("</a>");
-                    sb.append("</p>");
-                }
-                sb.append("\n</html>");
-                return sb.toString().getBytes();
+        try {
+            int slide = Integer.parseInt(he.getRequestURI().getPath().replace("/slides/slide", "").replace(".png", ""));
+            String path = SlideImages.INSTANCE.getFullPath(d, slide - 1);
+            byte[] encoded = path == null ? null : SlideImages.INSTANCE.getImage(path);
+            if (encoded != null) {
+                he.getResponseHeaders().set("Content-Type", "image/jpeg");
+                return encoded;
+            }
+            List<Supplier<Image>> slides = SlideImages.getSlides(d);
+            if (slide >= 1 && slide <= slides.size()) {
+                BufferedImage image = SwingFXUtils.fromFXImage(slides.get(slide - 1).get(), null);
+                ByteArrayOutputStream output = new ByteArrayOutputStream();
+                ImageIO.write(image, "png", output);
+                he.getResponseHeaders().set("Content-Type", "image/png");
+                return output.toByteArray();
+            }
+        } catch (IOException | NumberFormatException ex) {
+            LOGGER.log(Level.WARNING, "Error getting PowerPoint slides", ex);
+        }
+        return new byte[0];
+    }
+
+    /**
+     * Get the page linking to the full size images of the slides of the live
+     * presentation, PDF or image group.
+     *
+     * @return the page, or an empty string if what's live doesn't have slides.
+     */
+    public static String slides() {
+        Displayable d = QueleaApp.get().getMainWindow().getMainPanel().getLivePanel().getDisplayable();
+        if (!SlideImages.hasSlides(d)) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append("\n<html>");
+        int numberOfFiles = SlideImages.getSlides(d).size();
+        for (int i = 0; i < numberOfFiles; i++) {
+            if (currentLyricSection() == i) {
+                sb.append("<div class=\"inner current\">");
             }
+            String path = SlideImages.INSTANCE.getFullPath(d, i);
+            sb.append("<p class=\"empty\" onclick=\"section(").append(i).append(");\">");
+            sb.append("<a href='").append(path == null ? "/slides/slide" + (i + 1) + ".png" : path).append("'>").append("</a>");
+            sb.append("</p>");
         }
-        return "".getBytes();
+        sb.append("\n</html>");
+        return sb.toString();
     }
 
     public static String listBibleTranslations(HttpExchange he) {
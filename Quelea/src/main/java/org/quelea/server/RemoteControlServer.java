@@ -23,17 +23,13 @@ import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
 
-import java.awt.image.BufferedImage;
 import java.io.BufferedReader;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
-import java.net.FileNameMap;
 import java.net.InetSocketAddress;
 import java.net.URI;
-import java.net.URLConnection;
 import java.net.URLDecoder;
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
@@ -43,12 +39,12 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import javafx.embed.swing.SwingFXUtils;
-
-import javax.imageio.ImageIO;
+import javafx.application.Platform;
 
 import org.quelea.data.displayable.Displayable;
 import org.quelea.data.displayable.ImageGroupDisplayable;
@@ -61,11 +57,10 @@ import org.quelea.services.languages.LabelGrabber;
 import org.quelea.services.utils.LineTypeChecker;
 import org.quelea.services.utils.LoggerUtils;
 import org.quelea.services.utils.Utils;
+import org.quelea.utils.RenderMetrics;
 import org.quelea.windows.main.LivePanel;
 import org.quelea.windows.main.QueleaApp;
-import org.quelea.windows.main.ThemePreviewPanel;
 import org.quelea.windows.main.actionhandlers.RecordingsHandler;
-import org.quelea.windows.main.schedule.ScheduleThemeNode;
 import org.quelea.windows.main.toolbars.MainToolbar;
 
 /**
@@ -80,9 +75,13 @@ public class RemoteControlServer {
     private static final boolean USE_CACHE = true;
     private static final Logger LOGGER = LoggerUtils.getLogger();
     private final HttpServer server;
+    private final ExecutorService executor;
+    private final RequestLimiter limiter;
+    private final RequestLimiter assetTimer;
     private boolean running;
     private String pageContent;
     private final Map<String, byte[]> fileCache;
+    private volatile LiveSnapshot snapshot = LiveSnapshot.EMPTY;
     public int count = 0;
 
     /**
@@ -94,47 +93,53 @@ public class RemoteControlServer {
      * @throws IOException if something goes wrong.
      */
     public RemoteControlServer(int port) throws IOException {
-        fileCache = new HashMap<>();
+        fileCache = new ConcurrentHashMap<>();
+        executor = ServerExecutors.create("Remote control");
+        limiter = new RequestLimiter("remote");
+        assetTimer = new RequestLimiter("remote", 0);
         server = HttpServer.create(new InetSocketAddress(port), 0);
-        HttpContext rootcontext = server.createContext("/", new RootHandler());
-        server.createContext("/logout", new LogoutHandler());
-        server.createContext("/tlogo", new LogoToggleHandler());
-        server.createContext("/black", new BlackToggleHandler());
-        server.createContext("/clear", new ClearToggleHandler());
-        server.createContext("/next", new NextSlideHandler());
-        server.createContext("/prev", new PreviousSlideHandler());
-        server.createContext("/nextitem", new NextItemHandler());
-        server.createContext("/previtem", new PreviousItemHandler());
-        server.createContext("/play", new PlayHandler());
-        server.createContext("/lyrics", new LyricsHandler());
-        server.createContext("/chords", new ChordsHandler());
-        server.createContext("/status", new StatusHandler());
-        server.createContext("/schedule", new ScheduleHandler());
-        server.createContext("/songsearch", new SongSearchHandler());
-        server.createContext("/search", new DatabaseSearchHandler());
-        server.createContext("/song", new SongDisplayHandler());
-        server.createContext("/add", new AddSongHandler());
-        server.createContext("/addbible", new AddBibleHandler());
-        server.createContext("/translations", new ListBibleTranslationsHandler());
-        server.createContext("/books", new ListBibleBooksHandler());
-        server.createContext("/passage", new PassageSelecterHandler());
-        server.createContext("/sidebar.png", new FileHandler("icons/sidebar.png"));
-        server.createContext("/logo.png", new FileHandler("icons/logo-square.png"));
-        server.createContext("/section", new SectionHandler());
-        server.createContext("/songtranslations", new SongTranslationsHandler());
-        server.createContext("/gettranslation", new SongTranslationsHandler());
-        server.createContext("/record", new RecordToggleHandler());
-        server.createContext("/gotoitem", new GotoItemHandler());
-        server.createContext("/remove", new RemoveItemHandler());
-        server.createContext("/getthemes", new GetThemesHandler());
-        server.createContext("/settheme", new SetThemeHandler());
-        server.createContext("/moveup", new MoveItemUpHandler());
-        server.createContext("/movedown", new MoveItemDownHandler());
-        server.createContext("/themethumb", new ThemeThumbnailsHandler());
-        server.createContext("/slides", new PresentationSlidesHandler());
-        server.createContext("/transpose", new TransposeSongHandler());
+        HttpContext rootcontext = createContext("/", new RootHandler());
+        createContext("/logout", new LogoutHandler());
+        createContext("/tlogo", new LogoToggleHandler());
+        createContext("/black", new BlackToggleHandler());
+        createContext("/clear", new ClearToggleHandler());
+        createContext("/next", new NextSlideHandler());
+        createContext("/prev", new PreviousSlideHandler());
+        createContext("/nextitem", new NextItemHandler());
+        createContext("/previtem", new PreviousItemHandler());
+        createContext("/play", new PlayHandler());
+        createContext("/lyrics", new LyricsHandler());
+        createContext("/chords", new ChordsHandler());
+        createContext("/status", new StatusHandler());
+        createContext("/schedule", new ScheduleHandler());
+        createContext("/songsearch", new SongSearchHandler());
+        createContext("/search", new DatabaseSearchHandler());
+        createContext("/song", new SongDisplayHandler());
+        createContext("/add", new AddSongHandler());
+        createContext("/addbible", new AddBibleHandler());
+        createContext("/translations", new ListBibleTranslationsHandler());
+        createContext("/books", new ListBibleBooksHandler());
+        createContext("/passage", new PassageSelecterHandler());
+        createAssetContext("/sidebar.png", new FileHandler("icons/sidebar.png"));
+        createAssetContext("/logo.png", new FileHandler("icons/logo-square.png"));
+        createContext("/section", new SectionHandler());
+        createContext("/songtranslations", new SongTranslationsHandler());
+        createContext("/gettranslation", new SongTranslationsHandler());
+        createContext("/record", new RecordToggleHandler());
+        createContext("/gotoitem", new GotoItemHandler());
+        createContext("/remove", new RemoveItemHandler());
+        createContext("/getthemes", new GetThemesHandler());
+        createContext("/settheme", new SetThemeHandler());
+        createContext("/moveup", new MoveItemUpHandler());
+        createContext("/movedown", new MoveItemDownHandler());
+        createAssetContext("/themethumb", new ThemeThumbnailsHandler());
+        PresentationSlidesHandler slidesHandler = new PresentationSlidesHandler();
+        createContext("/slides", slidesHandler);
+        createAssetContext("/slides/", slidesHandler);
+        createContext("/transpose", new TransposeSongHandler());
+        createContext("/metrics", new MetricsHandler());
         rootcontext.getFilters().add(new ParameterFilter());
-        server.setExecutor(null);
+        server.setExecutor(executor);
     }
 
     /**
@@ -144,6 +149,7 @@ public class RemoteControlServer {
         if (server != null) {
             server.start();
             running = true;
+            Platform.runLater(this::liveChanged);
         }
     }
 
@@ -155,6 +161,7 @@ public class RemoteControlServer {
         if (server != null) {
             running = false;
             server.stop(0);
+            executor.shutdown();
         }
     }
 
@@ -168,6 +175,59 @@ public class RemoteControlServer {
         return running;
     }
 
+    /**
+     * Create a context on the server, with requests to it limited and timed.
+     * <p/>
+     *
+     * @param path the path of the context.
+     * @param handler the handler for the context.
+     * @return the context.
+     */
+    private HttpContext createContext(String path, HttpHandler handler) {
+        HttpContext context = server.createContext(path, handler);
+        context.getFilters().add(limiter);
+        return context;
+    }
+
+    /**
+     * Create a context for images or other static files on the server, with
+     * requests to it timed but not limited, since one page can ask for a lot
+     * of these at once.
+     * <p/>
+     *
+     * @param path the path of the context.
+     * @param handler the handler for the context.
+     * @return the context.
+     */
+    private HttpContext createAssetContext(String path, HttpHandler handler) {
+        HttpContext context = server.createContext(path, handler);
+        context.getFilters().add(assetTimer);
+        return context;
+    }
+
+    /**
+     * Render the lyrics, chords, schedule, slides and button status into a
+     * new snapshot, so polling them doesn't have to touch the UI, and start
+     * encoding the slides of what's live or in preview. Must be called on the
+     * FX thread whenever what's live, the schedule or the status might have
+     * changed.
+     */
+    public void liveChanged() {
+        Utils.checkFXThread();
+        if (!running) {
+            return;
+        }
+        SlideImages.INSTANCE.prepare(QueleaApp.get().getMainWindow().getMainPanel().getLivePanel().getDisplayable());
+        SlideImages.INSTANCE.prepare(QueleaApp.get().getMainWindow().getMainPanel().getPreviewPanel().getDisplayable());
+        Map<String, String> responses = new HashMap<>();
+        responses.put("lyrics", getLyricsResponse());
+        responses.put("chords", getChordsResponse());
+        responses.put("schedule", RCHandler.schedule());
+        responses.put("status", getStatus());
+        responses.put("slides", RCHandler.slides());
+        snapshot = snapshot.next(responses);
+    }
+
     private class SongSearchHandler implements HttpHandler {
 
         @Override
@@ -308,28 +368,33 @@ public class RemoteControlServer {
 
     private class ThemeThumbnailsHandler implements HttpHandler {
 
-        FileNameMap fileNameMap = URLConnection.getFileNameMap();
-
-        public void handle(HttpExchange t) {
-            Utils.fxRunAndWait(() -> {
-                try {
-                    ScheduleThemeNode stn = QueleaApp.get().getMainWindow().getMainPanel().getSchedulePanel().getThemeNode();
-                    int themeNum = Integer.parseInt(t.getRequestURI().getPath().replace("/themethumb", ""));
-                    BufferedImage image = SwingFXUtils.fromFXImage(((ThemePreviewPanel) stn.getThemePreviews().getChildren().get(themeNum)).getThemePreviewImage(), null);
-                    ByteArrayOutputStream output = new ByteArrayOutputStream();
-                    ImageIO.write(image, "png", output);
-                    byte[] byteArray = output.toByteArray();
-                    t.sendResponseHeaders(200, byteArray.length);
-                    try (OutputStream out = t.getResponseBody()) {
-                        out.write(byteArray);
-                    }
-
-                } catch (IOException e) {
-                    System.out.println("Failed saving");
-                } catch (Exception e) {
-                    System.out.println("Exception " + e);
-                }
-            });
+        @Override
+        public void handle(HttpExchange t) throws IOException {
+            String key;
+            try {
+                key = ThemeThumbnails.INSTANCE.getKey(Integer.parseInt(t.getRequestURI().getPath().replace("/themethumb", "")));
+            } catch (NumberFormatException ex) {
+                key = null;
+            }
+            byte[] byteArray = ThemeThumbnails.INSTANCE.getThumbnail(key);
+            if (byteArray == null) {
+                t.sendResponseHeaders(404, -1);
+                t.getResponseBody().close();
+                return;
+            }
+            String tag = "\"" + key + "\"";
+            t.getResponseHeaders().set("Content-Type", "image/png");
+            t.getResponseHeaders().set("Cache-Control", "no-cache");
+            t.getResponseHeaders().set("ETag", tag);
+            if (tag.equals(t.getRequestHeaders().getFirst("If-None-Match"))) {
+                t.sendResponseHeaders(304, -1);
+                t.getResponseBody().close();
+                return;
+            }
+            t.sendResponseHeaders(200, byteArray.length);
+            try (OutputStream out = t.getResponseBody()) {
+                out.write(byteArray);
+            }
         }
     }
 
@@ -337,15 +402,40 @@ public class RemoteControlServer {
 
         @Override
         public void handle(HttpExchange t) throws IOException {
-            if (RCHandler.isLoggedOn(t.getRemoteAddress().getAddress().toString())) {
-                byte[] byteArray = RCHandler.getPresentationSlides(t);
-                t.getResponseHeaders().add("Cache-Control", "no-cache, no-store, must-revalidate");
-                t.sendResponseHeaders(200, byteArray.length);
-                try (OutputStream out = t.getResponseBody()) {
-                    out.write(byteArray);
+            if (!RCHandler.isLoggedOn(t.getRemoteAddress().getAddress().toString())) {
+                passwordPage(t);
+                return;
+            }
+            String path = t.getRequestURI().getPath();
+            if (!path.startsWith("/slides/")) {
+                snapshot.send(t, "slides");
+                return;
+            }
+            byte[] byteArray;
+            if (SlideImages.isImagePath(path)) {
+                //Named by their content, so they never change
+                byteArray = SlideImages.INSTANCE.getImage(path);
+                if (byteArray == null) {
+                    t.sendResponseHeaders(404, -1);
+                    t.getResponseBody().close();
+                    return;
+                }
+                String tag = "\"" + path.substring("/slides/".length()) + "\"";
+                t.getResponseHeaders().set("Content-Type", "image/jpeg");
+                t.getResponseHeaders().set("Cache-Control", "private, max-age=31536000, immutable");
+                t.getResponseHeaders().set("ETag", tag);
+                if (tag.equals(t.getRequestHeaders().getFirst("If-None-Match"))) {
+                    t.sendResponseHeaders(304, -1);
+                    t.getResponseBody().close();
+                    return;
                 }
             } else {
-                passwordPage(t);
+                byteArray = RCHandler.getPresentationSlide(t);
+                t.getResponseHeaders().add("Cache-Control", "no-cache, no-store, must-revalidate");
+            }
+            t.sendResponseHeaders(200, byteArray.length);
+            try (OutputStream out = t.getResponseBody()) {
+                out.write(byteArray);
             }
         }
     }
@@ -449,12 +539,7 @@ public class RemoteControlServer {
 
         @Override
         public void handle(HttpExchange he) throws IOException {
-            byte[] bytes = RCHandler.schedule().getBytes(Charset.forName("UTF-8"));
-            he.getResponseHeaders().set("Cache-Control", "no-cache, no-store, must-revalidate");
-            he.sendResponseHeaders(200, bytes.length);
-            try (OutputStream os = he.getResponseBody()) {
-                os.write(bytes);
-            }
+            snapshot.send(he, "schedule");
         }
     }
 
@@ -621,31 +706,37 @@ public class RemoteControlServer {
 
         @Override
         public void handle(HttpExchange he) throws IOException {
-            MainToolbar toolbar = QueleaApp.get().getMainWindow().getMainToolbar();
-            RecordingsHandler recHandler = toolbar.getRecordButtonHandler().getRecordingsHandler();
             if (RCHandler.isLoggedOn(he.getRemoteAddress().getAddress().toString())) {
-                StringBuilder sb = new StringBuilder();
-                sb.append(RCHandler.getLogo()).append(",");
-                sb.append(RCHandler.getBlack()).append(",");
-                sb.append(RCHandler.getClear()).append(",");
-                sb.append(RCHandler.videoStatus()).append(",");
-                if (toolbar.getRecordButtonHandler() != null && recHandler != null) {
-                    sb.append(recHandler.getIsRecording());
-                } else {
-                    sb.append("false");
-                }
-                byte[] bytes = sb.toString().getBytes(Charset.forName("UTF-8"));
-                he.getResponseHeaders().add("Cache-Control", "no-cache, no-store, must-revalidate");
-                he.sendResponseHeaders(200, bytes.length);
-                try (OutputStream os = he.getResponseBody()) {
-                    os.write(bytes);
-                }
+                snapshot.send(he, "status");
             } else {
                 reload(he);
             }
         }
     }
 
+    /**
+     * Get the status of the logo, black, clear, play and record buttons, as
+     * a comma separated list.
+     * <p/>
+     *
+     * @return the button status.
+     */
+    private String getStatus() {
+        MainToolbar toolbar = QueleaApp.get().getMainWindow().getMainToolbar();
+        StringBuilder sb = new StringBuilder();
+        sb.append(RCHandler.getLogo()).append(",");
+        sb.append(RCHandler.getBlack()).append(",");
+        sb.append(RCHandler.getClear()).append(",");
+        sb.append(RCHandler.videoStatus()).append(",");
+        if (toolbar.getRecordButtonHandler() != null && toolbar.getRecordButtonHandler().getRecordingsHandler() != null) {
+            RecordingsHandler recHandler = toolbar.getRecordButtonHandler().getRecordingsHandler();
+            sb.append(recHandler.getIsRecording());
+        } else {
+            sb.append("false");
+        }
+        return sb.toString();
+    }
+
     //Handles clicking on a section
     private class SectionHandler implements HttpHandler {
 
@@ -691,6 +782,29 @@ public class RemoteControlServer {
         }
     }
 
+    //Handles the render metrics, for requests from this machine or a logged in remote
+    private class MetricsHandler implements HttpHandler {
+
+        @Override
+        public void handle(HttpExchange he) throws IOException {
+            if (he.getRemoteAddress().getAddress().isLoopbackAddress()
+                    || RCHandler.isLoggedOn(he.getRemoteAddress().getAddress().toString())) {
+                if (he.getRequestURI().getQuery() != null && he.getRequestURI().getQuery().contains("reset")) {
+                    RenderMetrics.get().reset();
+                }
+                byte[] bytes = RenderMetrics.get().toText().getBytes(Charset.forName("UTF-8"));
+                he.getResponseHeaders().add("Content-Type", "text/plain; charset=utf-8");
+                he.getResponseHeaders().add("Cache-Control", "no-cache, no-store, must-revalidate");
+                he.sendResponseHeaders(200, bytes.length);
+                try (OutputStream os = he.getResponseBody()) {
+                    os.write(bytes);
+                }
+            } else {
+                passwordPage(he);
+            }
+        }
+    }
+
     //Handles logo display
     private class LogoutHandler implements HttpHandler {
 
@@ -791,55 +905,7 @@ public class RemoteControlServer {
 
         @Override
         public void handle(HttpExchange t) throws IOException {
-            String response = "<i>" + LabelGrabber.INSTANCE.getLabel("remote.empty.lyrics") + "</i>";
-            Displayable d = QueleaApp.get().getMainWindow().getMainPanel().getLivePanel().getDisplayable();
-            if (d instanceof TextDisplayable) {
-                response = "<i>" + LabelGrabber.INSTANCE.getLabel("currently.displaying.text") + ": " + d.getPreviewText() + "<br/>" + "</i>";
-                response += lyrics(false);
-            } else if (d instanceof MultimediaDisplayable) {
-                response = "<i>" + LabelGrabber.INSTANCE.getLabel("currently.displaying.text") + ": " + d.getPreviewText() + "<br/>" + "</i>";
-                response += "<button type=\"button\" onclick=\"play();\" id=\"playbutton\">" + LabelGrabber.INSTANCE.getLabel("play") + "</button><br/><br/>";
-                response += "<i>" + LabelGrabber.INSTANCE.getLabel("remote.empty.lyrics") + "</i>";
-            } else if (d instanceof PresentationDisplayable || d instanceof PdfDisplayable || d instanceof ImageGroupDisplayable) {
-                StringBuilder sb = new StringBuilder();
-                sb.append("\n<html><i>").append(LabelGrabber.INSTANCE.getLabel("currently.displaying.text")).append(": ").append(d.getPreviewText()).append("<br/>" + "</i>");
-                int numberOfImages;
-                if (d instanceof PresentationDisplayable) {
-                    numberOfImages = ((PresentationDisplayable) d).getPresentation().getSlides().length;
-                } else if (d instanceof PdfDisplayable) {
-                    numberOfImages = ((PdfDisplayable) d).getPresentation().getSlides().length;
-                } else {
-                    numberOfImages = ((ImageGroupDisplayable) d).getPresentation().getSlides().length;
-                }
-                for (int i = 0; i < numberOfImages; i++) {
-                    int currentIndex;
-                    if (d instanceof PresentationDisplayable) {
-                        currentIndex = QueleaApp.get().getMainWindow().getMainPanel().getLivePanel().getPresentationPanel().getCurrentIndex() - 1;
-                    } else if (d instanceof PdfDisplayable) {
-                        currentIndex = QueleaApp.get().getMainWindow().getMainPanel().getLivePanel().getPdfPanel().getCurrentIndex() - 1;
-                    } else {
-                        currentIndex = QueleaApp.get().getMainWindow().getMainPanel().getLivePanel().getImageGroupPanel().getCurrentIndex() - 1;
-                    }
-                    if (i == currentIndex) {
-                        sb.append("<div class=\"inner current\">");
-                    } else {
-                        sb.append("<div class=\"inner\">");
-                    }
-                    sb.append("<p class=\"empty\" onclick=\"section(").append(i).append(");\"><img src=\"/slides/slide").append(i + 1).append(".png\" style=\"width:192px;height:108px;\">");
-                    sb.append("<br/>Slide ").append(i + 1).append("</p></div><br/><br/>");
-                }
-                response = sb.append("\n</html>").toString();
-            } else if (d != null) {
-                response = "<i>" + LabelGrabber.INSTANCE.getLabel("currently.displaying.text") + ": " + d.getPreviewText() + "<br/><br/>" + "</i>";
-                response += "<i>" + LabelGrabber.INSTANCE.getLabel("remote.empty.lyrics") + "</i>";
-            }
-            byte[] bytes = response.getBytes("UTF-8");
-
-            t.getResponseHeaders().add("Cache-Control", "no-cache, no-store, must-revalidate");
-            t.sendResponseHeaders(200, bytes.length);
-            try (OutputStream os = t.getResponseBody()) {
-                os.write(bytes);
-            }
+            snapshot.send(t, "lyrics");
         }
     }
 
@@ -848,27 +914,77 @@ public class RemoteControlServer {
 
         @Override
         public void handle(HttpExchange t) throws IOException {
-            String response = "<i>" + LabelGrabber.INSTANCE.getLabel("remote.empty.lyrics") + "</i>";
-            LivePanel lp = QueleaApp.get().getMainWindow().getMainPanel().getLivePanel();
-            if (lp.getDisplayable() instanceof TextDisplayable) {
-                response = "<i>" + LabelGrabber.INSTANCE.getLabel("currently.displaying.text") + ": " + lp.getDisplayable().getPreviewText() + "<br/>" + "</i>";
-                response += lyrics(true);
-            } else if (lp.getDisplayable() instanceof MultimediaDisplayable) {
-                response = "<i>" + LabelGrabber.INSTANCE.getLabel("currently.displaying.text") + ": " + lp.getDisplayable().getPreviewText() + "<br/>" + "</i>";
-                response += "<button type=\"button\" onclick=\"play();\" id=\"playbutton\">" + LabelGrabber.INSTANCE.getLabel("play") + "</button><br/><br/>";
-                response += "<i>" + LabelGrabber.INSTANCE.getLabel("remote.empty.lyrics") + "</i>";
-            } else if (lp.getDisplayable() != null) {
-                response = "<i>" + LabelGrabber.INSTANCE.getLabel("currently.displaying.text") + ": " + lp.getDisplayable().getPreviewText() + "<br/><br/>" + "</i>";
-                response += "<i>" + LabelGrabber.INSTANCE.getLabel("remote.empty.lyrics") + "</i>";
-            }
-            byte[] bytes = response.getBytes("UTF-8");
+            snapshot.send(t, "chords");
+        }
+    }
 
-            t.getResponseHeaders().add("Cache-Control", "no-cache, no-store, must-revalidate");
-            t.sendResponseHeaders(200, bytes.length);
-            try (OutputStream os = t.getResponseBody()) {
-                os.write(bytes);
+    //Gets the lyrics, or the slides of a presentation, of the live item
+    private String getLyricsResponse() {
+        String response = "<i>" + LabelGrabber.INSTANCE.getLabel("remote.empty.lyrics") + "</i>";
+        Displayable d = QueleaApp.get().getMainWindow().getMainPanel().getLivePanel().getDisplayable();
+        if (d instanceof TextDisplayable) {
+            response = "<i>" + LabelGrabber.INSTANCE.getLabel("currently.displaying.text") + ": " + d.getPreviewText() + "<br/>" + "</i>";
+            response += lyrics(false);
+        } else if (d instanceof MultimediaDisplayable) {
+            response = "<i>" + LabelGrabber.INSTANCE.getLabel("currently.displaying.text") + ": " + d.getPreviewText() + "<br/>" + "</i>";
+            response += "<button type=\"button\" onclick=\"play();\" id=\"playbutton\">" + LabelGrabber.INSTANCE.getLabel("play") + "</button><br/><br/>";
+            response += "<i>" + LabelGrabber.INSTANCE.getLabel("remote.empty.lyrics") + "</i>";
+        } else if (d instanceof PresentationDisplayable || d instanceof PdfDisplayable || d instanceof ImageGroupDisplayable) {
+            StringBuilder sb = new StringBuilder();
+            sb.append("\n<html><i>").append(LabelGrabber.INSTANCE.getLabel("currently.displaying.text")).append(": ").append(d.getPreviewText()).append("<br/>" + "</i>");
+            int numberOfImages;
+            if (d instanceof PresentationDisplayable) {
+                numberOfImages = ((PresentationDisplayable) d).getPresentation().getSlides().length;
+            } else if (d instanceof PdfDisplayable) {
+                numberOfImages = ((PdfDisplayable) d).getPresentation().getSlides().length;
+            } else {
+                numberOfImages = ((ImageGroupDisplayable) d).getPresentation().getSlides().length;
             }
+            for (int i = 0; i < numberOfImages; i++) {
+                int currentIndex;
+                if (d instanceof PresentationDisplayable) {
+                    currentIndex = QueleaApp.get().getMainWindow().getMainPanel().getLivePanel().getPresentationPanel().getCurrentIndex() - 1;
+                } else if (d instanceof PdfDisplayable) {
+                    currentIndex = QueleaApp.get().getMainWindow().getMainPanel().getLivePanel().getPdfPanel().getCurrentIndex() - 1;
+                } else {
+                    currentIndex = QueleaApp.get().getMainWindow().getMainPanel().getLivePanel().getImageGroupPanel().getCurrentIndex() - 1;
+                }
+                if (i == currentIndex) {
+                    sb.append("<div class=\"inner current\">");
+                } else {
+                    sb.append("<div class=\"inner\">");
+                }
+                String thumbnail = SlideImages.INSTANCE.getThumbnailPath(d, i);
+                if (thumbnail == null) {
+                    thumbnail = "/slides/slide" + (i + 1) + ".png";
+                }
+                sb.append("<p class=\"empty\" onclick=\"section(").append(i).append(");\"><img src=\"").append(thumbnail).append("\" style=\"width:192px;height:108px;\">");
+                sb.append("<br/>Slide ").append(i + 1).append("</p></div><br/><br/>");
+            }
+            response = sb.append("\n</html>").toString();
+        } else if (d != null) {
+            response = "<i>" + LabelGrabber.INSTANCE.getLabel("currently.displaying.text") + ": " + d.getPreviewText() + "<br/><br/>" + "</i>";
+            response += "<i>" + LabelGrabber.INSTANCE.getLabel("remote.empty.lyrics") + "</i>";
+        }
+        return response;
+    }
+
+    //Gets the chords of the live item
+    private String getChordsResponse() {
+        String response = "<i>" + LabelGrabber.INSTANCE.getLabel("remote.empty.lyrics") + "</i>";
+        LivePanel lp = QueleaApp.get().getMainWindow().getMainPanel().getLivePanel();
+        if (lp.getDisplayable() instanceof TextDisplayable) {
+            response = "<i>" + LabelGrabber.INSTANCE.getLabel("currently.displaying.text") + ": " + lp.getDisplayable().getPreviewText() + "<br/>" + "</i>";
+            response += lyrics(true);
+        } else if (lp.getDisplayable() instanceof MultimediaDisplayable) {
+            response = "<i>" + LabelGrabber.INSTANCE.getLabel("currently.displaying.text") + ": " + lp.getDisplayable().getPreviewText() + "<br/>" + "</i>";
+            response += "<button type=\"button\" onclick=\"play();\" id=\"playbutton\">" + LabelGrabber.INSTANCE.getLabel("play") + "</button><br/><br/>";
+            response += "<i>" + LabelGrabber.INSTANCE.getLabel("remote.empty.lyrics") + "</i>";
+        } else if (lp.getDisplayable() != null) {
+            response = "<i>" + LabelGrabber.INSTANCE.getLabel("currently.displaying.text") + ": " + lp.getDisplayable().getPreviewText() + "<br/><br/>" + "</i>";
+            response += "<i>" + LabelGrabber.INSTANCE.getLabel("remote.empty.lyrics") + "</i>";
         }
+        return response;
     }
 
     /**
@@ -918,7 +1034,7 @@ public class RemoteControlServer {
                     StringBuilder ret = new StringBuilder();
                     for (String line : currentSection.getText(chords, false)) {
                         if (chords) {
-                            if (new LineTypeChecker(line).getLineType() == LineTypeChecker.Type.CHORDS) {
+                            if (LineTypeChecker.getLineType(line) == LineTypeChecker.Type.CHORDS) {
                                 ret.append("<span class=\"chord\">").append(line.replace(" ", "&#160;"));
                             } else {
                                 ret.append("<span class=\"lyric\">").append(line.replaceAll("\\s", "&#160;"));
@@ -939,7 +1055,7 @@ public class RemoteControlServer {
             }
         } catch (Exception ex) {
             LOGGER.log(Level.WARNING, "Error getting lyrics", ex);
-            return null;
+            return new ArrayList<>();
         }
     }
 
@@ -0,0 +1,135 @@
+/*
+ * This file is part of Quelea, free projection software for churches.
+ *
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.quelea.server;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.quelea.services.utils.QueleaProperties;
+import org.quelea.utils.RenderMetrics;
+
+/**
+ * Stops any one client sending a server more requests than it can sensibly
+ * need, and records how long each request takes. Each client (by address) may
+ * make a burst of requests, and then a steady number each second; any more
+ * than that are answered with a 429 straight away, without reaching the
+ * handler.
+ * <p/>
+ * Timings are recorded in the render metrics as "http.[server][path]", with
+ * counters of the requests that were limited and that were answered with a
+ * 304.
+ * <p/>
+ * @author Michael
+ */
+public class RequestLimiter extends Filter {
+
+    private static final long IDLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private final String name;
+    private final double perSecond;
+    private final double burst;
+    private final Map<InetAddress, Bucket> buckets = new ConcurrentHashMap<>();
+    private volatile long lastPurge = System.nanoTime();
+
+    /**
+     * Create a new request limiter, configured from the properties.
+     * <p/>
+     * @param name the name of the server, used to name its metrics.
+     */
+    public RequestLimiter(String name) {
+        this(name, QueleaProperties.get().getServerRequestsPerSecond());
+    }
+
+    /**
+     * Create a new request limiter.
+     * <p/>
+     * @param name the name of the server, used to name its metrics.
+     * @param perSecond the number of requests each client may make each
+     * second, with bursts of up to twice this. 0 or less means there's no
+     * limit.
+     */
+    public RequestLimiter(String name, int perSecond) {
+        this.name = name;
+        this.perSecond = perSecond;
+        this.burst = perSecond * 2.0;
+    }
+
+    @Override
+    public String description() {
+        return "Limits the requests each client can make, and times them";
+    }
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        long startTime = System.nanoTime();
+        if (perSecond > 0 && !acquire(exchange.getRemoteAddress().getAddress(), startTime)) {
+            RenderMetrics.get().increment("http." + name + ".limited");
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            exchange.sendResponseHeaders(429, -1);
+            exchange.getResponseBody().close();
+            return;
+        }
+        try {
+            chain.doFilter(exchange);
+        } finally {
+            RenderMetrics.get().recordSince("http." + name + exchange.getHttpContext().getPath(), startTime);
+            if (exchange.getResponseCode() == 304) {
+                RenderMetrics.get().increment("http." + name + ".notmodified");
+            }
+        }
+    }
+
+    private boolean acquire(InetAddress address, long now) {
+        if (now - lastPurge > IDLE_NANOS) {
+            lastPurge = now;
+            buckets.values().removeIf(bucket -> bucket.isIdle(now));
+        }
+        return buckets.computeIfAbsent(address, a -> new Bucket(burst, now)).tryAcquire(now, perSecond, burst);
+    }
+
+    /**
+     * The requests a single client has left.
+     */
+    private static final class Bucket {
+
+        private double tokens;
+        private long lastRefill;
+
+        private Bucket(double tokens, long now) {
+            this.tokens = tokens;
+            this.lastRefill = now;
+        }
+
+        private synchronized boolean tryAcquire(long now, double perSecond, double burst) {
+            tokens = Math.min(burst, tokens + (now - lastRefill) * perSecond / 1e9);
+            lastRefill = now;
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+
+        private synchronized boolean isIdle(long now) {
+            return now - lastRefill > IDLE_NANOS;
+        }
+    }
+}
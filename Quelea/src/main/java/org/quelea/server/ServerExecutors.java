@@ -0,0 +1,108 @@
+/*
+ * This file is part of Quelea, free projection software for churches.
+ *
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.quelea.server;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.quelea.services.utils.LoggerUtils;
+import org.quelea.services.utils.QueleaProperties;
+
+/**
+ * Makes the executors the embedded HTTP servers handle their requests on.
+ * Without one, the JDK server handles every request on its single dispatcher
+ * thread, so one slow request (encoding a slide, or waiting on the FX thread)
+ * holds up every other client.
+ * <p/>
+ * Where the JDK supports them each request gets its own virtual thread,
+ * otherwise requests are handled on a bounded pool of daemon threads. If the
+ * pool's queue fills up, the dispatcher thread handles the request itself,
+ * which stops it accepting any more until it's caught up.
+ * <p/>
+ * @author Michael
+ */
+public final class ServerExecutors {
+
+    private static final Logger LOGGER = LoggerUtils.getLogger();
+    private static final int QUEUE_PER_THREAD = 64;
+
+    private ServerExecutors() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Create an executor for a server, configured from the properties.
+     * <p/>
+     * @param name the name of the server, used to name its threads.
+     * @return the executor.
+     */
+    public static ExecutorService create(String name) {
+        return create(name, QueleaProperties.get().getServerThreads(), QueleaProperties.get().getUseServerVirtualThreads());
+    }
+
+    /**
+     * Create an executor for a server.
+     * <p/>
+     * @param name the name of the server, used to name its threads.
+     * @param threads the number of threads to use if virtual threads aren't
+     * used.
+     * @param virtual true to use virtual threads if the JDK supports them.
+     * @return the executor.
+     */
+    public static ExecutorService create(String name, int threads, boolean virtual) {
+        if (virtual) {
+            ExecutorService executor = createVirtual();
+            if (executor != null) {
+                LOGGER.log(Level.INFO, "{0} server using virtual threads", name);
+                return executor;
+            }
+        }
+        threads = Math.max(1, threads);
+        LOGGER.log(Level.INFO, "{0} server using {1} threads", new Object[]{name, threads});
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(threads * QUEUE_PER_THREAD), r -> {
+                    Thread thread = new Thread(r, name + " server " + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Create an executor that runs each task on a new virtual thread. This is
+     * looked up reflectively, since we're built for JDKs that don't have
+     * them.
+     * <p/>
+     * @return the executor, or null if virtual threads aren't supported.
+     */
+    private static ExecutorService createVirtual() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            LOGGER.log(Level.FINE, "Virtual threads not supported", ex);
+            return null;
+        }
+    }
+}
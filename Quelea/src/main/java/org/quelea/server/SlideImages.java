@@ -0,0 +1,339 @@
+/*
+ * This file is part of Quelea, free projection software for churches.
+ *
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.quelea.server;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javafx.application.Platform;
+import javafx.embed.swing.SwingFXUtils;
+import javafx.scene.image.Image;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import org.quelea.data.displayable.Displayable;
+import org.quelea.data.displayable.ImageGroupDisplayable;
+import org.quelea.data.displayable.PdfDisplayable;
+import org.quelea.data.displayable.PresentationDisplayable;
+import org.quelea.data.imagegroup.ImageGroupSlide;
+import org.quelea.data.pdf.PdfSlide;
+import org.quelea.data.powerpoint.PresentationSlide;
+import org.quelea.services.utils.LoggerUtils;
+import org.quelea.utils.RenderMetrics;
+import org.quelea.windows.main.QueleaApp;
+
+/**
+ * The encoded images of the slides of presentations, PDFs and image groups,
+ * as served to the remote control. Each slide is encoded once, in the
+ * background, as a thumbnail and at full size, and then served from memory
+ * however many times it's asked for.
+ * <p/>
+ * Each encoded image has a path named by a hash of its content, so it never
+ * changes and clients can cache it for as long as they like. The images of
+ * the last few presentations are kept, so going back to one doesn't encode it
+ * again.
+ * <p/>
+ * @author Michael
+ */
+public final class SlideImages {
+
+    public static final SlideImages INSTANCE = new SlideImages();
+    public static final int THUMBNAIL_WIDTH = 384;
+    public static final int THUMBNAIL_HEIGHT = 216;
+    private static final int MAX_WIDTH = 1920;
+    private static final int MAX_HEIGHT = 1080;
+    private static final float QUALITY = 0.85f;
+    private static final int MAX_PRESENTATIONS = 4;
+    private static final String PATH = "/slides/";
+    private static final String EXTENSION = ".jpg";
+    private static final Logger LOGGER = LoggerUtils.getLogger();
+    private final Map<Displayable, Slides> presentations;
+    private final ExecutorService service;
+
+    private SlideImages() {
+        presentations = new LinkedHashMap<Displayable, Slides>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Displayable, Slides> eldest) {
+                if (size() > MAX_PRESENTATIONS) {
+                    eldest.getValue().cancelled = true;
+                    return true;
+                }
+                return false;
+            }
+        };
+        service = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "Slide images");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    /**
+     * Start encoding the slides of a displayable in the background, if it has
+     * slides and they haven't been encoded already. Once they're all done
+     * what's live is rendered again, so the pages served use their paths.
+     * <p/>
+     * @param displayable the displayable, which may be null or something
+     * without slides.
+     */
+    public void prepare(Displayable displayable) {
+        if (!hasSlides(displayable)) {
+            return;
+        }
+        Slides slides;
+        synchronized (presentations) {
+            if (presentations.get(displayable) != null) {
+                return;
+            }
+            slides = new Slides(getSlides(displayable));
+            presentations.put(displayable, slides);
+        }
+        service.submit(() -> {
+            long startTime = System.nanoTime();
+            for (int i = 0; i < slides.sources.size() && !slides.cancelled; i++) {
+                try {
+                    BufferedImage image = SwingFXUtils.fromFXImage(slides.sources.get(i).get(), null);
+                    slides.encoded.set(i, new Slide(encode(scale(image, THUMBNAIL_WIDTH, THUMBNAIL_HEIGHT)),
+                            encode(scale(image, MAX_WIDTH, MAX_HEIGHT))));
+                } catch (IOException | RuntimeException ex) {
+                    LOGGER.log(Level.WARNING, "Couldn't encode slide " + (i + 1), ex);
+                }
+            }
+            if (!slides.cancelled) {
+                RenderMetrics.get().recordSince("slides.encode", startTime);
+                Platform.runLater(() -> QueleaApp.get().liveChanged());
+            }
+        });
+    }
+
+    /**
+     * Get the path of the thumbnail of a slide.
+     * <p/>
+     * @param displayable the displayable the slide is in.
+     * @param index the index of the slide, from 0.
+     * @return the path, or null if the slide hasn't been encoded yet.
+     */
+    public String getThumbnailPath(Displayable displayable, int index) {
+        Slide slide = getSlide(displayable, index);
+        return slide == null ? null : slide.thumbnail.path;
+    }
+
+    /**
+     * Get the path of the full size image of a slide.
+     * <p/>
+     * @param displayable the displayable the slide is in.
+     * @param index the index of the slide, from 0.
+     * @return the path, or null if the slide hasn't been encoded yet.
+     */
+    public String getFullPath(Displayable displayable, int index) {
+        Slide slide = getSlide(displayable, index);
+        return slide == null ? null : slide.full.path;
+    }
+
+    /**
+     * Get an encoded image by its path.
+     * <p/>
+     * @param path the path of the image, as given out by this class.
+     * @return the encoded JPEG, or null if there isn't one with this path
+     * (any more).
+     */
+    public byte[] getImage(String path) {
+        synchronized (presentations) {
+            for (Slides slides : presentations.values()) {
+                for (int i = 0; i < slides.encoded.length(); i++) {
+                    Slide slide = slides.encoded.get(i);
+                    if (slide != null && slide.thumbnail.path.equals(path)) {
+                        return slide.thumbnail.bytes;
+                    }
+                    if (slide != null && slide.full.path.equals(path)) {
+                        return slide.full.bytes;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Determine whether a path is one of the paths given out by this class.
+     * <p/>
+     * @param path the path.
+     * @return true if it's the path of an encoded image, false otherwise.
+     */
+    public static boolean isImagePath(String path) {
+        return path.startsWith(PATH) && path.endsWith(EXTENSION);
+    }
+
+    /**
+     * Determine whether a displayable is made up of slides.
+     * <p/>
+     * @param displayable the displayable.
+     * @return true if it's a presentation, PDF or image group.
+     */
+    public static boolean hasSlides(Displayable displayable) {
+        return displayable instanceof PresentationDisplayable || displayable instanceof PdfDisplayable
+                || displayable instanceof ImageGroupDisplayable;
+    }
+
+    /**
+     * Get the images of the slides in a displayable. The images aren't loaded
+     * until they're asked for, since some of them are read from disk.
+     * <p/>
+     * @param displayable the displayable.
+     * @return the images of its slides, in order.
+     */
+    public static List<Supplier<Image>> getSlides(Displayable displayable) {
+        List<Supplier<Image>> ret = new ArrayList<>();
+        if (displayable instanceof PresentationDisplayable) {
+            for (PresentationSlide slide : ((PresentationDisplayable) displayable).getPresentation().getSlides()) {
+                ret.add(slide::getImage);
+            }
+        } else if (displayable instanceof PdfDisplayable) {
+            for (PdfSlide slide : ((PdfDisplayable) displayable).getPresentation().getSlides()) {
+                ret.add(slide::getImage);
+            }
+        } else if (displayable instanceof ImageGroupDisplayable) {
+            for (ImageGroupSlide slide : ((ImageGroupDisplayable) displayable).getPresentation().getSlides()) {
+                ret.add(slide::getImage);
+            }
+        }
+        return ret;
+    }
+
+    private Slide getSlide(Displayable displayable, int index) {
+        Slides slides;
+        synchronized (presentations) {
+            slides = presentations.get(displayable);
+        }
+        if (slides == null || index < 0 || index >= slides.encoded.length()) {
+            return null;
+        }
+        return slides.encoded.get(index);
+    }
+
+    /**
+     * Scale an image down to fit in the given size, keeping its aspect ratio,
+     * onto a black background since JPEGs can't be transparent.
+     * <p/>
+     * @param image the image to scale.
+     * @param maxWidth the maximum width.
+     * @param maxHeight the maximum height.
+     * @return the scaled image.
+     */
+    private static BufferedImage scale(BufferedImage image, int maxWidth, int maxHeight) {
+        double factor = Math.min(1, Math.min((double) maxWidth / image.getWidth(), (double) maxHeight / image.getHeight()));
+        int width = Math.max(1, (int) Math.round(image.getWidth() * factor));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * factor));
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2 = scaled.createGraphics();
+        g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g2.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g2.drawImage(image, 0, 0, width, height, Color.BLACK, null);
+        g2.dispose();
+        return scaled;
+    }
+
+    private static Encoded encode(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(output)) {
+            writer.setOutput(stream);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(QUALITY);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        byte[] bytes = output.toByteArray();
+        return new Encoded(bytes, PATH + hash(bytes) + EXTENSION);
+    }
+
+    private static String hash(byte[] bytes) {
+        try {
+            StringBuilder sb = new StringBuilder();
+            for (byte b : MessageDigest.getInstance("SHA-1").digest(bytes)) {
+                sb.append(Integer.toString((b & 0xff) + 0x100, 16).substring(1));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException ex) {
+            throw new AssertionError("SHA-1 should always be available", ex);
+        }
+    }
+
+    /**
+     * The slides of one displayable, filled in as they're encoded.
+     */
+    private static final class Slides {
+
+        private final List<Supplier<Image>> sources;
+        private final AtomicReferenceArray<Slide> encoded;
+        private volatile boolean cancelled;
+
+        private Slides(List<Supplier<Image>> sources) {
+            this.sources = sources;
+            this.encoded = new AtomicReferenceArray<>(sources.size());
+        }
+    }
+
+    /**
+     * The encoded images of a single slide.
+     */
+    private static final class Slide {
+
+        private final Encoded thumbnail;
+        private final Encoded full;
+
+        private Slide(Encoded thumbnail, Encoded full) {
+            this.thumbnail = thumbnail;
+            this.full = full;
+        }
+    }
+
+    /**
+     * A single encoded image and its path.
+     */
+    private static final class Encoded {
+
+        private final byte[] bytes;
+        private final String path;
+
+        private Encoded(byte[] bytes, String path) {
+            this.bytes = bytes;
+            this.path = path;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * This file is part of Quelea, free projection software for churches.
+ *
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.quelea.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javafx.embed.swing.SwingFXUtils;
+import javafx.scene.Node;
+import javafx.scene.image.Image;
+import javax.imageio.ImageIO;
+import org.quelea.data.ThemeDTO;
+import org.quelea.services.lucene.SearchIndexUtils;
+import org.quelea.services.utils.LoggerUtils;
+import org.quelea.services.utils.Utils;
+import org.quelea.utils.RenderMetrics;
+import org.quelea.windows.main.ThemePreviewPanel;
+
+/**
+ * The encoded thumbnails of the themes, as served to the remote control. Each
+ * theme's preview is rendered once whenever the themes change, and encoded in
+ * the background, so serving a thumbnail never has to wait on the FX thread.
+ * If a thumbnail's asked for before it's been encoded, it's encoded there and
+ * then from the rendered preview, so it's never missing.
+ * <p/>
+ * Thumbnails are keyed by a fingerprint of their theme's content, so themes
+ * that haven't changed since the last time aren't rendered again.
+ * <p/>
+ * @author Michael
+ */
+public final class ThemeThumbnails {
+
+    public static final ThemeThumbnails INSTANCE = new ThemeThumbnails();
+    private static final String DEFAULT_KEY = "default";
+    private static final Logger LOGGER = LoggerUtils.getLogger();
+    private final Map<String, byte[]> thumbnails = new ConcurrentHashMap<>();
+    private final Map<String, Image> previews = new ConcurrentHashMap<>();
+    private final ExecutorService service;
+    private volatile List<String> keys = Collections.emptyList();
+
+    private ThemeThumbnails() {
+        service = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "Theme thumbnails");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Update the thumbnails from the theme previews. The previews of any
+     * themes that are new or have changed are rendered, and the thumbnails of
+     * themes that have gone are forgotten. Must be called on the FX thread.
+     * <p/>
+     * @param previews the theme previews, in the order the remote control
+     * lists them.
+     */
+    public void update(List<Node> previews) {
+        Utils.checkFXThread();
+        List<String> oldKeys = keys;
+        List<String> newKeys = new ArrayList<>();
+        List<String> changed = new ArrayList<>();
+        for (Node node : previews) {
+            if (node instanceof ThemePreviewPanel) {
+                ThemePreviewPanel panel = (ThemePreviewPanel) node;
+                String key = getKey(panel.getTheme());
+                newKeys.add(key);
+                if (!oldKeys.contains(key) && !this.previews.containsKey(key)) {
+                    long startTime = System.nanoTime();
+                    this.previews.put(key, panel.getThemePreviewImage());
+                    RenderMetrics.get().recordSince("themes.thumbnail", startTime);
+                    changed.add(key);
+                }
+            }
+        }
+        //Only give out the new keys once their previews are ready to encode
+        keys = Collections.unmodifiableList(newKeys);
+        thumbnails.keySet().retainAll(newKeys);
+        this.previews.keySet().retainAll(newKeys);
+        for (String key : changed) {
+            service.submit(() -> getThumbnail(key));
+        }
+    }
+
+    /**
+     * Get the key of a theme's thumbnail, which changes whenever the theme
+     * does.
+     * <p/>
+     * @param index the index of the theme, in the order the remote control
+     * lists them.
+     * @return the key, or null if there's no theme with this index.
+     */
+    public String getKey(int index) {
+        List<String> current = keys;
+        return index < 0 || index >= current.size() ? null : current.get(index);
+    }
+
+    /**
+     * Get the thumbnail of a theme, encoding it now if it hasn't been encoded
+     * in the background yet.
+     * <p/>
+     * @param key the key of the theme's thumbnail.
+     * @return the encoded PNG, or null if there's no theme with this key or
+     * its thumbnail couldn't be encoded.
+     */
+    public byte[] getThumbnail(String key) {
+        if (key == null) {
+            return null;
+        }
+        byte[] ret = thumbnails.computeIfAbsent(key, k -> {
+            Image image = previews.get(k);
+            return image == null ? null : encode(image);
+        });
+        previews.remove(key);
+        if (!keys.contains(key)) {
+            //The themes changed while it was being encoded
+            thumbnails.remove(key);
+        }
+        return ret;
+    }
+
+    private static byte[] encode(Image image) {
+        try {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            ImageIO.write(SwingFXUtils.fromFXImage(image, null), "png", output);
+            return output.toByteArray();
+        } catch (IOException | RuntimeException ex) {
+            LOGGER.log(Level.WARNING, "Couldn't encode theme thumbnail", ex);
+            return null;
+        }
+    }
+
+    private static String getKey(ThemeDTO theme) {
+        if (theme == null || theme == ThemeDTO.DEFAULT_THEME) {
+            return DEFAULT_KEY;
+        }
+        return SearchIndexUtils.fingerprint(theme.asString());
+    }
+}
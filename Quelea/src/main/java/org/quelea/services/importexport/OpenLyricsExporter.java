@@ -38,6 +38,7 @@ import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
+import org.quelea.data.db.SongManager;
 import org.quelea.data.displayable.SongDisplayable;
 import org.quelea.data.displayable.TextSection;
 import org.quelea.services.languages.LabelGrabber;
@@ -84,6 +85,7 @@ public class OpenLyricsExporter implements Exporter {
         new Thread() {
             public void run() {
                 try {
+                    SongManager.get().loadAll(songDisplayablesThreadSafe);
                     final HashSet<String> names = new HashSet<>();
                     try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(file), Charset.forName("UTF-8"))) {
                         for (int i = 0; i < songDisplayablesThreadSafe.size(); i++) {
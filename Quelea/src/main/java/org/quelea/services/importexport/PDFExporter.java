@@ -33,6 +33,7 @@ import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
 import javafx.stage.FileChooser;
 import org.javafx.dialog.Dialog;
+import org.quelea.data.db.SongManager;
 import org.quelea.data.displayable.SongDisplayable;
 import org.quelea.services.languages.LabelGrabber;
 import org.quelea.services.print.SongPDFPrinter;
@@ -89,6 +90,7 @@ public class PDFExporter implements Exporter {
         final List<SongDisplayable> songDisplayablesThreadSafe = new ArrayList<>(songDisplayables);
         new Thread() {
             public void run() {
+                SongManager.get().loadAll(songDisplayablesThreadSafe);
                 final HashSet<String> names = new HashSet<>();
                 try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(file), Charset.forName("UTF-8"))) {
                     for (int i = 0; i < songDisplayablesThreadSafe.size(); i++) {
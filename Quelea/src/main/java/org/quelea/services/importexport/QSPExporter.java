@@ -20,6 +20,7 @@ package org.quelea.services.importexport;
 import java.io.File;
 import java.util.List;
 import javafx.stage.FileChooser;
+import org.quelea.data.db.SongManager;
 import org.quelea.data.displayable.SongDisplayable;
 import org.quelea.services.utils.FileFilters;
 import org.quelea.services.utils.SongPack;
@@ -49,6 +50,7 @@ public class QSPExporter implements Exporter {
      */
     @Override
     public void exportSongs(final File file, final List<SongDisplayable> songDisplayables) {
+        SongManager.get().loadAll(songDisplayables);
         final SongPack pack = new SongPack();
         pack.addSongs(songDisplayables);
         pack.writeToFile(file);
@@ -89,7 +89,7 @@ public class SongBeamerParser implements SongParser {
         for (String section : rawLines.split("---")) {
             if (!section.isEmpty()) {
                 section = section.trim();
-                boolean title = new LineTypeChecker(section.split("\n")[0]).getLineType() == Type.TITLE;
+                boolean title = LineTypeChecker.getLineType(section.split("\n")[0]) == Type.TITLE;
                 int translationNum = 0;
                 for (String line : section.split("\n")) {
                     if (line.trim().isEmpty()) {
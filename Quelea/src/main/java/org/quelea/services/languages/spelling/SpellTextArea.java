@@ -206,7 +206,7 @@ public class SpellTextArea extends StackPane {
         String[] lines = area.getTextArea().getText().split("\n");
         StringBuilder ret = new StringBuilder();
         for (String line : lines) {
-            if (new LineTypeChecker(line).getLineType() != Type.CHORDS) {
+            if (LineTypeChecker.getLineType(line) != Type.CHORDS) {
                 ret.append(line).append("\n");
             }
         }
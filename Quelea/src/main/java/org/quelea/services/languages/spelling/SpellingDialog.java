@@ -103,7 +103,7 @@ public class SpellingDialog {
                 correctedWords.put(replaceWord, suggestions.getSelectionModel().getSelectedItem());
                 StringBuilder replaceText = new StringBuilder();
                 for(String line : area.getArea().getTextArea().getText().split("\n")) {
-                    if(new LineTypeChecker(line).getLineType() != Type.CHORDS) {
+                    if(LineTypeChecker.getLineType(line) != Type.CHORDS) {
                         line = line.replace(replaceWord, suggestions.getSelectionModel().getSelectedItem());
                     }
                     replaceText.append(line).append("\n");
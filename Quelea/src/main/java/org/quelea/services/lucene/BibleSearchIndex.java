@@ -18,13 +18,18 @@
  */
 package org.quelea.services.lucene;
 
+import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.apache.lucene.analysis.Analyzer;
@@ -34,10 +39,9 @@ import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilterFactory;
 import org.apache.lucene.analysis.standard.StandardTokenizerFactory;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
-import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexWriter;
-import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.queryparser.classic.ParseException;
 import org.apache.lucene.queryparser.complexPhrase.ComplexPhraseQueryParser;
@@ -45,38 +49,63 @@ import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
 import org.apache.lucene.search.TopScoreDocCollector;
-import org.apache.lucene.store.Directory;
-import org.apache.lucene.store.MMapDirectory;
+import org.quelea.data.bible.Bible;
+import org.quelea.data.bible.BibleBook;
 import org.quelea.data.bible.BibleChapter;
 import org.quelea.services.utils.LoggerUtils;
 
 /**
  * Search index used for indexing the bibles.
+ * <p/>
+ * The index is kept on disk between runs. Chapters are indexed a whole bible
+ * at a time, and each commit records the version (modification time and
+ * size) of every bible file that's completely indexed, so a bible that hasn't
+ * changed since it was last indexed isn't analysed again. Several bibles can
+ * be added at once from different threads; each ends up in its own segments
+ * and they're all searched together.
  * @author Michael
  */
 public class BibleSearchIndex implements SearchIndex<BibleChapter> {
 
     private static final Logger LOGGER = LoggerUtils.getLogger();
-    private Analyzer analyzer;
-    private Directory index;
-    private Map<Integer, BibleChapter> chapters;
+    /*
+     * Bump this whenever the way chapters are indexed changes, so existing
+     * on-disk documents no longer match and are rebuilt.
+     */
+    private static final String INDEX_VERSION = "1";
+    private final Analyzer analyzer;
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+    private final Map<String, BibleChapter> chapters;
+    private final Map<String, String> indexedVersions;
 
     /**
-     * Create a new empty search index.
+     * Create a new search index, backed by the persistent bible index in the
+     * Quelea user directory.
      */
     public BibleSearchIndex() {
-        chapters = new HashMap<>();
+        chapters = new ConcurrentHashMap<>();
+        indexedVersions = new ConcurrentHashMap<>();
         try {
             analyzer = CustomAnalyzer.builder()
                     .withTokenizer(StandardTokenizerFactory.class)
                     .addTokenFilter(LowerCaseFilterFactory.class)
                     .addTokenFilter(ASCIIFoldingFilterFactory.class)
                     .build();
-            index = new MMapDirectory(Files.createTempDirectory("quelea-mmap-bible").toAbsolutePath());
+            writer = SearchIndexUtils.openPersistentWriter("bibles", analyzer);
+            searcherManager = new SearcherManager(writer, null);
+            Iterable<Map.Entry<String, String>> commitData = writer.getLiveCommitData();
+            if(commitData != null) {
+                for(Map.Entry<String, String> entry : commitData) {
+                    indexedVersions.put(entry.getKey(), entry.getValue());
+                }
+            }
+            LOGGER.log(Level.INFO, "Opened bible index with {0} existing bibles", indexedVersions.size());
         } catch (IOException ex) {
-            LOGGER.log(Level.SEVERE, "Couldn't create song search index");
-            throw new RuntimeException("Couldn't create song search index", ex);
+            LOGGER.log(Level.SEVERE, "Couldn't create bible search index");
+            throw new RuntimeException("Couldn't create bible search index", ex);
         }
     }
     
@@ -86,7 +115,7 @@ public class BibleSearchIndex implements SearchIndex<BibleChapter> {
     }
 
     /**
-     * Add a bible chapter to the index.
+     * Add the bible this chapter is part of to the index.
      *
      * @param chapter the chapter to add.
      */
@@ -98,22 +127,68 @@ public class BibleSearchIndex implements SearchIndex<BibleChapter> {
     }
 
     /**
-     * Add a number of chapters to the index. This is much more efficient than
-     * calling add() repeatedly because it just uses one writer rather than
-     * opening and closing one for each individual operation.
+     * Add the bibles these chapters are part of to the index. Bibles are
+     * always indexed whole, and any that are already in the index and haven't
+     * changed are just registered rather than being analysed again.
      *
      * @param bibleList the list of chapters to add.
      */
     @Override
     public void addAll(Collection<? extends BibleChapter> bibleList) {
-        try (IndexWriter writer = new IndexWriter(index, new IndexWriterConfig(analyzer))) {
-            for(BibleChapter chapter : bibleList) {
-                Document doc = new Document();
-                doc.add(new TextField("text", chapter.getText(), Field.Store.NO));
-                doc.add(new TextField("number", Integer.toString(chapter.getID()), Field.Store.YES));
-                writer.addDocument(doc);
-                chapters.put(chapter.getID(), chapter);
-                LOGGER.log(Level.FINE, "Added bible chapter to index: {0}", chapter.getID());
+        // Compare bibles by identity, hashing them would read every verse
+        Set<Bible> bibles = Collections.newSetFromMap(new IdentityHashMap<>());
+        for(BibleChapter chapter : bibleList) {
+            bibles.add(chapter.getBook().getBible());
+        }
+        for(Bible bible : bibles) {
+            addBible(bible);
+        }
+        try {
+            commit();
+        }
+        catch (IOException ex) {
+            LOGGER.log(Level.SEVERE, "Couldn't commit index", ex);
+        }
+    }
+
+    /**
+     * Add a whole bible to the index, unless an identical version of it is
+     * already there. This may be called for different bibles from several
+     * threads at once. The changes aren't visible to searches until commit()
+     * is called.
+     *
+     * @param bible the bible to add.
+     */
+    public void addBible(Bible bible) {
+        String bibleKey = getBibleKey(bible);
+        String version = getBibleVersion(bible);
+        boolean upToDate = version.equals(indexedVersions.get(bibleKey));
+        try {
+            if(!upToDate) {
+                writer.deleteDocuments(new Term("bible", bibleKey));
+            }
+            BibleBook[] books = bible.getBooks();
+            for(int b = 0; b < books.length; b++) {
+                BibleChapter[] bookChapters = books[b].getChapters();
+                for(int c = 0; c < bookChapters.length; c++) {
+                    String key = bibleKey + "/" + b + "/" + c;
+                    chapters.put(key, bookChapters[c]);
+                    if(upToDate) {
+                        continue;
+                    }
+                    Document doc = new Document();
+                    doc.add(new TextField("text", bookChapters[c].getText(), Field.Store.NO));
+                    doc.add(new StringField("key", key, Field.Store.YES));
+                    doc.add(new StringField("bible", bibleKey, Field.Store.YES));
+                    writer.addDocument(doc);
+                }
+            }
+            if(upToDate) {
+                LOGGER.log(Level.INFO, "Bible {0} already indexed", bible.getName());
+            }
+            else {
+                indexedVersions.put(bibleKey, version);
+                LOGGER.log(Level.INFO, "Indexed bible {0}", bible.getName());
             }
         }
         catch (IOException ex) {
@@ -121,15 +196,52 @@ public class BibleSearchIndex implements SearchIndex<BibleChapter> {
         }
     }
 
+    /**
+     * Remove any bibles from the index that aren't in the given collection.
+     *
+     * @param bibles the bibles that should be kept.
+     */
+    public synchronized void retainBibles(Collection<Bible> bibles) {
+        Set<String> keep = new LinkedHashSet<>();
+        for(Bible bible : bibles) {
+            keep.add(getBibleKey(bible));
+        }
+        chapters.keySet().removeIf(key -> !keep.contains(key.substring(0, key.indexOf('/'))));
+        List<String> stale = new ArrayList<>(indexedVersions.keySet());
+        stale.removeAll(keep);
+        if(stale.isEmpty()) {
+            return;
+        }
+        try {
+            for(String bibleKey : stale) {
+                LOGGER.log(Level.INFO, "Removing bible {0} from index", bibleKey);
+                writer.deleteDocuments(new Term("bible", bibleKey));
+                indexedVersions.remove(bibleKey);
+            }
+            commit();
+        }
+        catch (IOException ex) {
+            LOGGER.log(Level.SEVERE, "Couldn't remove bibles from index", ex);
+        }
+    }
+
     /**
      * Remove the given bible chapter from the index.
      *
      * @param chapter the chapter to remove.
      */
     @Override
-    public void remove(BibleChapter chapter) {
-        try (IndexWriter writer = new IndexWriter(index, new IndexWriterConfig(analyzer))) {
-            writer.deleteDocuments(new Term("number", Integer.toString(chapter.getID())));
+    public synchronized void remove(BibleChapter chapter) {
+        String key = getChapterKey(chapter);
+        if(key == null) {
+            return;
+        }
+        try {
+            writer.deleteDocuments(new Term("key", key));
+            chapters.remove(key);
+            //The bible's no longer completely indexed, so force a rebuild next time
+            indexedVersions.remove(getBibleKey(chapter.getBook().getBible()));
+            commit();
         }
         catch (IOException ex) {
             LOGGER.log(Level.SEVERE, "Couldn't remove value from index", ex);
@@ -158,11 +270,12 @@ public class BibleSearchIndex implements SearchIndex<BibleChapter> {
     public BibleChapter[] filter(String queryString, FilterType type) {
         String sanctifyQueryString = SearchIndexUtils.makeLuceneQuery(queryString);
         if(chapters.isEmpty() || sanctifyQueryString.isEmpty()) {
-            return chapters.values().toArray(new BibleChapter[chapters.size()]);
+            return chapters.values().toArray(new BibleChapter[0]);
         }
         List<BibleChapter> ret;
-        try (DirectoryReader dr = DirectoryReader.open(index)) {
-            IndexSearcher searcher = new IndexSearcher(dr);
+        IndexSearcher searcher = null;
+        try {
+            searcher = searcherManager.acquire();
             BooleanQuery.setMaxClauseCount(Integer.MAX_VALUE);
             Query q = new ComplexPhraseQueryParser("text", analyzer).parse(sanctifyQueryString);
             TopScoreDocCollector collector = TopScoreDocCollector.create(10000,10000);
@@ -172,8 +285,10 @@ public class BibleSearchIndex implements SearchIndex<BibleChapter> {
             for(int i = 0; i < hits.length; ++i) {
                 int docId = hits[i].doc;
                 Document d = searcher.doc(docId);
-                BibleChapter chapter = chapters.get(Integer.parseInt(d.get("number")));
-                ret.add(chapter);
+                BibleChapter chapter = chapters.get(d.get("key"));
+                if(chapter != null) {
+                    ret.add(chapter);
+                }
             }
             return ret.toArray(new BibleChapter[ret.size()]);
         }
@@ -181,13 +296,96 @@ public class BibleSearchIndex implements SearchIndex<BibleChapter> {
             LOGGER.log(Level.WARNING, "Invalid query string: " + sanctifyQueryString, ex);
             return new BibleChapter[0];
         }
+        finally {
+            if(searcher != null) {
+                try {
+                    searcherManager.release(searcher);
+                }
+                catch (IOException ex) {
+                    LOGGER.log(Level.WARNING, "Couldn't release searcher", ex);
+                }
+            }
+        }
     }
     
     /**
      * Remove everything from this index.
      */
     @Override
-    public void clear() {
-        SearchIndexUtils.clearIndex(index);
+    public synchronized void clear() {
+        try {
+            writer.deleteAll();
+            chapters.clear();
+            indexedVersions.clear();
+            commit();
+        }
+        catch (IOException ex) {
+            LOGGER.log(Level.SEVERE, "Couldn't clear the index", ex);
+        }
+    }
+
+    /**
+     * Commit any pending changes, along with the versions of the bibles that
+     * are now completely indexed, and refresh the searcher so subsequent
+     * searches see them.
+     *
+     * @throws IOException if something goes wrong writing to the index.
+     */
+    public synchronized void commit() throws IOException {
+        writer.setLiveCommitData(new HashMap<>(indexedVersions).entrySet());
+        writer.commit();
+        searcherManager.maybeRefresh();
+    }
+
+    /**
+     * Get the key identifying the given bible in the index - the name of the
+     * file it was loaded from.
+     *
+     * @param bible the bible.
+     * @return the bible's key.
+     */
+    private static String getBibleKey(Bible bible) {
+        if(bible.getFilePath() == null) {
+            return bible.getName().replace('/', '_');
+        }
+        return new File(bible.getFilePath()).getName().replace('/', '_');
+    }
+
+    /**
+     * Get the version of the given bible, which changes whenever its file
+     * does.
+     *
+     * @param bible the bible.
+     * @return the bible's version.
+     */
+    private static String getBibleVersion(Bible bible) {
+        if(bible.getFilePath() == null) {
+            return INDEX_VERSION + ":" + Integer.toHexString(bible.hashCode());
+        }
+        File file = new File(bible.getFilePath());
+        return INDEX_VERSION + ":" + file.lastModified() + ":" + file.length();
+    }
+
+    /**
+     * Get the key identifying the given chapter in the index.
+     *
+     * @param chapter the chapter.
+     * @return the chapter's key, or null if it can't be found in its bible.
+     */
+    private static String getChapterKey(BibleChapter chapter) {
+        BibleBook book = chapter.getBook();
+        BibleBook[] books = book.getBible().getBooks();
+        for(int b = 0; b < books.length; b++) {
+            if(books[b] != book) {
+                continue;
+            }
+            BibleChapter[] bookChapters = books[b].getChapters();
+            for(int c = 0; c < bookChapters.length; c++) {
+                if(bookChapters[c] == chapter) {
+                    return getBibleKey(book.getBible()) + "/" + b + "/" + c;
+                }
+            }
+        }
+        return null;
     }
 }
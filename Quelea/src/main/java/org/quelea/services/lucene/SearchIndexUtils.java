@@ -18,16 +18,36 @@
  */
 package org.quelea.services.lucene;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
+import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.CharArraySet;
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.CorruptIndexException;
+import org.apache.lucene.index.IndexFormatTooNewException;
+import org.apache.lucene.index.IndexFormatTooOldException;
+import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.MultiBits;
 import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.LockObtainFailedException;
+import org.apache.lucene.store.MMapDirectory;
+import org.apache.lucene.util.Bits;
 import org.quelea.services.utils.LoggerUtils;
+import org.quelea.services.utils.QueleaProperties;
 
 /**
  * General utility methods for search indexes.
@@ -60,6 +80,107 @@ public class SearchIndexUtils {
         }
     }
 
+    /**
+     * Open a writer on the persistent index with the given name, which lives
+     * in the index directory under the Quelea user home so it survives
+     * restarts. If the index there is unreadable it's recreated from scratch,
+     * and if it can't be used at all (it's locked or the directory can't be
+     * created) a throwaway index in a temporary directory is used instead.
+     * <p/>
+     * @param name the name of the index.
+     * @param analyzer the analyzer the index should use.
+     * @return the index writer.
+     * @throws IOException if no index could be opened at all.
+     */
+    public static IndexWriter openPersistentWriter(String name, Analyzer analyzer) throws IOException {
+        try {
+            Path path = new File(QueleaProperties.get().getIndexDir(), name).toPath();
+            Files.createDirectories(path);
+            return openWriter(new MMapDirectory(path), analyzer);
+        }
+        catch(LockObtainFailedException ex) {
+            LOGGER.log(Level.WARNING, "Search index " + name + " is locked, using a temporary index", ex);
+        }
+        catch(IOException ex) {
+            LOGGER.log(Level.WARNING, "Couldn't open search index " + name + ", using a temporary index", ex);
+        }
+        return openWriter(new MMapDirectory(Files.createTempDirectory("quelea-mmap-" + name).toAbsolutePath()), analyzer);
+    }
+
+    /**
+     * Open a writer on the given directory, recreating the index if the
+     * existing one is corrupt or in a format we can't read.
+     * <p/>
+     * @param directory the directory holding the index.
+     * @param analyzer the analyzer the index should use.
+     * @return the index writer.
+     * @throws IOException if the index couldn't be opened or created.
+     */
+    public static IndexWriter openWriter(Directory directory, Analyzer analyzer) throws IOException {
+        try {
+            return new IndexWriter(directory, new IndexWriterConfig(analyzer));
+        }
+        catch(CorruptIndexException | IndexFormatTooOldException | IndexFormatTooNewException ex) {
+            LOGGER.log(Level.WARNING, "Search index is unreadable, recreating it", ex);
+            return new IndexWriter(directory, new IndexWriterConfig(analyzer).setOpenMode(IndexWriterConfig.OpenMode.CREATE));
+        }
+    }
+
+    /**
+     * Read a stored value out of every live document in the given index.
+     * <p/>
+     * @param reader the reader to use.
+     * @param keyField the stored field to use as the key.
+     * @param valueField the stored field to use as the value.
+     * @return a map of key field to value field for every document that has
+     * both.
+     * @throws IOException if the index couldn't be read.
+     */
+    public static Map<String, String> getStoredValues(IndexReader reader, String keyField, String valueField) throws IOException {
+        Map<String, String> ret = new HashMap<>();
+        Bits liveDocs = MultiBits.getLiveDocs(reader);
+        Set<String> fields = Set.of(keyField, valueField);
+        for(int i = 0; i < reader.maxDoc(); i++) {
+            if(liveDocs != null && !liveDocs.get(i)) {
+                continue;
+            }
+            Document d = reader.document(i, fields);
+            String key = d.get(keyField);
+            String value = d.get(valueField);
+            if(key != null && value != null) {
+                ret.put(key, value);
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Get a fingerprint of the given strings, used to tell whether the content
+     * of an indexed document has changed since it was written.
+     * <p/>
+     * @param parts the strings to fingerprint, nulls are allowed.
+     * @return a hex fingerprint of the given strings.
+     */
+    public static String fingerprint(String... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            for(String part : parts) {
+                if(part != null) {
+                    digest.update(part.getBytes(StandardCharsets.UTF_8));
+                }
+                digest.update((byte) 0);
+            }
+            StringBuilder sb = new StringBuilder();
+            for(byte b : digest.digest()) {
+                sb.append(Integer.toString((b & 0xff) + 0x100, 16).substring(1));
+            }
+            return sb.toString();
+        }
+        catch(NoSuchAlgorithmException ex) {
+            throw new AssertionError("SHA-1 should always be available", ex);
+        }
+    }
+
     /**
      * Sanitise the given query so it's "lucene-safe". Make sure it's what we
      * want as well - treat as a phrase with a partial match for the last word.
@@ -0,0 +1,63 @@
+/*
+ * This file is part of Quelea, free projection software for churches.
+ *
+ *
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.quelea.services.lucene;
+
+import org.quelea.data.displayable.SongDisplayable;
+
+/**
+ * A single result of a multi-field song search, tagged with the field it
+ * matched on.
+ *
+ * @author Michael
+ */
+public class SongSearchHit {
+
+    private final SongDisplayable song;
+    private final SearchIndex.FilterType field;
+
+    /**
+     * Create a new search hit.
+     *
+     * @param song the song that matched.
+     * @param field the most significant field that matched (title, then
+     * lyrics, then author), or null if no query was applied.
+     */
+    public SongSearchHit(SongDisplayable song, SearchIndex.FilterType field) {
+        this.song = song;
+        this.field = field;
+    }
+
+    /**
+     * Get the song that matched.
+     *
+     * @return the song.
+     */
+    public SongDisplayable getSong() {
+        return song;
+    }
+
+    /**
+     * Get the most significant field this song matched on.
+     *
+     * @return TITLE, BODY or AUTHOR, or null if no query was applied.
+     */
+    public SearchIndex.FilterType getField() {
+        return field;
+    }
+}
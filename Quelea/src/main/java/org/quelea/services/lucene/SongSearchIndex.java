@@ -20,12 +20,15 @@ package org.quelea.services.lucene;
 
 import java.io.IOException;
 import java.nio.channels.ClosedByInterruptException;
-import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
@@ -36,47 +39,114 @@ import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilterFactory;
 import org.apache.lucene.analysis.standard.StandardTokenizerFactory;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
-import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexWriter;
-import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.ReaderUtil;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.queryparser.classic.ParseException;
 import org.apache.lucene.queryparser.complexPhrase.ComplexPhraseQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.SearcherManager;
 import org.apache.lucene.search.TopScoreDocCollector;
+import org.apache.lucene.search.Weight;
 import org.apache.lucene.store.Directory;
-import org.apache.lucene.store.MMapDirectory;
 import org.apache.lucene.util.ThreadInterruptedException;
 import org.quelea.data.displayable.SongDisplayable;
 import org.quelea.services.utils.LoggerUtils;
 
 /**
- * The search index of songs.
+ * The search index of songs. A single writer is kept open for the lifetime of
+ * the index, and searches are served from a near real time searcher that's
+ * only refreshed when the index changes, so typing in the search box doesn't
+ * reopen the index on every keystroke.
+ * <p/>
+ * The index is kept on disk between runs. Each document stores a fingerprint
+ * of the song content it was built from, so when the songs are loaded from the
+ * database only those that have actually changed are analysed again. Each
+ * commit also records the version of the database the index last caught up
+ * with, so an index left behind by a crash, or by the database being restored
+ * or edited elsewhere, can be noticed and rebuilt.
  *
  * @author Michael
  */
 public class SongSearchIndex implements SearchIndex<SongDisplayable> {
 
     private static final Logger LOGGER = LoggerUtils.getLogger();
+    /*
+     * Boosts given to a match in each field by search(), so a song that
+     * matches in several fields ranks by the most important of them.
+     */
+    private static final float TITLE_BOOST = 4;
+    private static final float LYRICS_BOOST = 2;
+    private static final float AUTHOR_BOOST = 1;
+    /*
+     * Bump this whenever the way songs are indexed changes, so existing
+     * on-disk documents no longer match and are rebuilt.
+     */
+    private static final String INDEX_VERSION = "1";
+    private static final String DATABASE_VERSION = "database";
     private final Analyzer analyzer;
-    private final Directory index;
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
     private final Map<Long, SongDisplayable> songs;
+    private final Map<Long, String> indexed;
+    private String databaseVersion;
 
     /**
-     * Create a new empty search index.
+     * Create a new search index, backed by the persistent song index in the
+     * Quelea user directory.
      */
     public SongSearchIndex() {
-        songs = new HashMap<>();
+        this(null);
+    }
+
+    /**
+     * Create a new search index in the given directory.
+     *
+     * @param directory the directory to hold the index, or null to use the
+     * persistent song index in the Quelea user directory.
+     */
+    SongSearchIndex(Directory directory) {
+        songs = new ConcurrentHashMap<>();
+        indexed = new HashMap<>();
         try {
             analyzer = CustomAnalyzer.builder()
                     .withTokenizer(StandardTokenizerFactory.class)
                     .addTokenFilter(LowerCaseFilterFactory.class)
                     .addTokenFilter(ASCIIFoldingFilterFactory.class)
                     .build();
-            index = new MMapDirectory(Files.createTempDirectory("quelea-mmap-song").toAbsolutePath());
+            if (directory == null) {
+                writer = SearchIndexUtils.openPersistentWriter("songs", analyzer);
+            } else {
+                writer = SearchIndexUtils.openWriter(directory, analyzer);
+            }
+            searcherManager = new SearcherManager(writer, null);
+            Iterable<Map.Entry<String, String>> commitData = writer.getLiveCommitData();
+            if (commitData != null) {
+                for (Map.Entry<String, String> entry : commitData) {
+                    if (entry.getKey().equals(DATABASE_VERSION)) {
+                        databaseVersion = entry.getValue();
+                    }
+                }
+            }
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                for (Map.Entry<String, String> entry : SearchIndexUtils.getStoredValues(searcher.getIndexReader(), "number", "hash").entrySet()) {
+                    indexed.put(Long.parseLong(entry.getKey()), entry.getValue());
+                }
+            } finally {
+                searcherManager.release(searcher);
+            }
+            LOGGER.log(Level.INFO, "Opened song index with {0} existing songs", indexed.size());
         }
         catch(IOException ex) {
             LOGGER.log(Level.SEVERE, "Couldn't create song search index");
@@ -103,16 +173,24 @@ public class SongSearchIndex implements SearchIndex<SongDisplayable> {
 
     /**
      * Add a number of songs to the index. This is much more efficient than
-     * calling add() repeatedly because it just uses one writer rather than
-     * opening and closing one for each individual operation.
+     * calling add() repeatedly because the changes are committed (and the
+     * searcher refreshed) once for the whole collection. Songs already in the
+     * index with identical content aren't analysed again.
      *
      * @param songList the song list to add.
      */
     @Override
     public synchronized void addAll(Collection<? extends SongDisplayable> songList) {
         Pattern p = Pattern.compile("[^\\w\\s]", Pattern.UNICODE_CHARACTER_CLASS);
-        try (IndexWriter writer = new IndexWriter(index, new IndexWriterConfig(analyzer))) {
+        try {
+            boolean changed = false;
             for (SongDisplayable song : songList) {
+                songs.put(song.getID(), song);
+                String lyrics = song.getLyrics(false, false, false);
+                String hash = SearchIndexUtils.fingerprint(INDEX_VERSION, song.getTitle(), song.getAuthor(), lyrics);
+                if (hash.equals(indexed.get(song.getID()))) {
+                    continue;
+                }
                 Document doc = new Document();
                 if (song.getTitle() != null) {
                     doc.add(new TextField("title", p.matcher(song.getTitle()).replaceAll(""), Field.Store.NO));
@@ -120,41 +198,148 @@ public class SongSearchIndex implements SearchIndex<SongDisplayable> {
                 if (song.getAuthor() != null) {
                     doc.add(new TextField("author", p.matcher(song.getAuthor()).replaceAll(""), Field.Store.NO));
                 }
-                if (song.getLyrics(false, false, false) != null) {
-                    doc.add(new TextField("lyrics", p.matcher(song.getLyrics(false, false, false)).replaceAll(""), Field.Store.NO));
+                if (lyrics != null) {
+                    doc.add(new TextField("lyrics", p.matcher(lyrics).replaceAll(""), Field.Store.NO));
                 }
-                doc.add(new TextField("number", p.matcher(Long.toString(song.getID())).replaceAll(""), Field.Store.YES));
-                writer.addDocument(doc);
-                songs.put(song.getID(), song);
+                doc.add(new StringField("number", Long.toString(song.getID()), Field.Store.YES));
+                doc.add(new StoredField("hash", hash));
+                writer.updateDocument(new Term("number", Long.toString(song.getID())), doc);
+                indexed.put(song.getID(), hash);
+                changed = true;
                 LOGGER.log(Level.FINE, "Added song to index: {0}", song.getTitle());
             }
+            if (changed) {
+                commit();
+            }
         } catch (IOException ex) {
             LOGGER.log(Level.SEVERE, "Couldn't add value to index", ex);
         }
     }
 
+    /**
+     * Bring the index in line with the given songs, which should be every song
+     * in the database. New and changed songs are (re)indexed, and any songs in
+     * the index that aren't in the given collection are removed. Songs that
+     * are only summaries (not loaded yet) and are already in the index are
+     * trusted to be up to date, since every change to a song goes through
+     * add() - so they don't have to be loaded just to check. If the index
+     * might not be up to date (its database version doesn't match) it should
+     * be cleared first.
+     *
+     * @param songList all the songs that should be in the index.
+     */
+    public synchronized void sync(Collection<? extends SongDisplayable> songList) {
+        Set<Long> ids = new HashSet<>();
+        for (SongDisplayable song : songList) {
+            ids.add(song.getID());
+        }
+        List<Long> stale = new ArrayList<>();
+        for (Long id : indexed.keySet()) {
+            if (!ids.contains(id)) {
+                stale.add(id);
+            }
+        }
+        songs.keySet().retainAll(ids);
+        if (!stale.isEmpty()) {
+            LOGGER.log(Level.INFO, "Removing {0} stale songs from index", stale.size());
+            try {
+                for (Long id : stale) {
+                    writer.deleteDocuments(new Term("number", Long.toString(id)));
+                    indexed.remove(id);
+                }
+                commit();
+            } catch (IOException ex) {
+                LOGGER.log(Level.SEVERE, "Couldn't remove stale songs from index", ex);
+            }
+        }
+        List<SongDisplayable> toAdd = new ArrayList<>();
+        for (SongDisplayable song : songList) {
+            if (!song.isLoaded() && indexed.containsKey(song.getID())) {
+                songs.put(song.getID(), song);
+            } else {
+                toAdd.add(song);
+            }
+        }
+        addAll(toAdd);
+    }
+
+    /**
+     * Get the version of the database this index last caught up with.
+     *
+     * @return the version, as given to setDatabaseVersion(), or null if
+     * there isn't one.
+     */
+    public synchronized String getDatabaseVersion() {
+        return databaseVersion;
+    }
+
+    /**
+     * Record that this index has caught up with the given version of the
+     * database. This should be called after every change to the songs in the
+     * database has been applied to the index, so if the two ever don't match
+     * when the songs are next loaded, the index can be rebuilt.
+     *
+     * @param version the version of the database, or null if it isn't known
+     * (in which case the index won't match any version).
+     */
+    public synchronized void setDatabaseVersion(String version) {
+        if (Objects.equals(version, databaseVersion)) {
+            return;
+        }
+        databaseVersion = version;
+        try {
+            commit();
+        } catch (IOException ex) {
+            LOGGER.log(Level.SEVERE, "Couldn't record the database version in the index", ex);
+        }
+    }
+
+    /**
+     * Determine whether a song is in the index, as it was last added.
+     *
+     * @param id the ID of the song.
+     * @return true if the song is in the index, false otherwise.
+     */
+    public synchronized boolean isIndexed(long id) {
+        return indexed.containsKey(id);
+    }
+
     /**
      * Remove the given song from the index.
      *
      * @param song the song to remove.
      */
     @Override
-    public synchronized void remove(SongDisplayable song) {
-        try (IndexWriter writer = new IndexWriter(index, new IndexWriterConfig(analyzer))) {
-            writer.deleteDocuments(new Term("number", Long.toString(song.getID())));
+    public void remove(SongDisplayable song) {
+        removeAll(List.of(song));
+    }
+
+    /**
+     * Remove the given songs from the index, committing once at the end.
+     *
+     * @param songList the songs to remove.
+     */
+    public synchronized void removeAll(Collection<? extends SongDisplayable> songList) {
+        try {
+            for (SongDisplayable song : songList) {
+                writer.deleteDocuments(new Term("number", Long.toString(song.getID())));
+                indexed.remove(song.getID());
+                songs.remove(song.getID());
+            }
+            commit();
         } catch (IOException ex) {
             LOGGER.log(Level.SEVERE, "Couldn't remove value from index", ex);
         }
     }
 
     /**
-     * Update the given song in the index.
+     * Update the given song in the index. Its old document is replaced in a
+     * single commit, so there's no moment where searches miss the song.
      *
      * @param song the song to update.
      */
     @Override
     public void update(SongDisplayable song) {
-        remove(song);
         add(song);
     }
 
@@ -164,12 +349,14 @@ public class SongSearchIndex implements SearchIndex<SongDisplayable> {
      * @param id the id of the song.
      * @return the song with the given id.
      */
-    public synchronized SongDisplayable getByID(long id) {
+    public SongDisplayable getByID(long id) {
         return songs.get(id);
     }
 
     /**
-     * Search for songs that match the given filter.
+     * Search for songs that match the given filter. This isn't synchronized;
+     * searches run against the most recently refreshed searcher and can
+     * happen alongside each other and alongside updates.
      *
      * @param queryString the query to use to search.
      * @param type TITLE or BODY, depending on what to search in. BODY is
@@ -177,10 +364,10 @@ public class SongSearchIndex implements SearchIndex<SongDisplayable> {
      * @return an array of songs that match the filter.
      */
     @Override
-    public synchronized SongDisplayable[] filter(String queryString, FilterType type) {
+    public SongDisplayable[] filter(String queryString, FilterType type) {
         String sanctifyQueryString = SearchIndexUtils.makeLuceneQuery(queryString);
         if (songs.isEmpty() || sanctifyQueryString.trim().isEmpty()) {
-            return songs.values().toArray(new SongDisplayable[songs.size()]);
+            return songs.values().toArray(new SongDisplayable[0]);
         }
         String typeStr;
         if (type == FilterType.BODY) {
@@ -193,25 +380,12 @@ public class SongSearchIndex implements SearchIndex<SongDisplayable> {
             LOGGER.log(Level.SEVERE, "Unknown type: {0}", type);
             return new SongDisplayable[0];
         }
-        List<SongDisplayable> ret;
-        try (DirectoryReader dr = DirectoryReader.open(index)) {
-            IndexSearcher searcher = new IndexSearcher(dr);
-            Query q = new ComplexPhraseQueryParser(typeStr, analyzer).parse(sanctifyQueryString);
-            TopScoreDocCollector collector = TopScoreDocCollector.create(1000,10000);
-            searcher.search(q, collector);
-            ScoreDoc[] hits = collector.topDocs().scoreDocs;
-            ret = new ArrayList<>();
-            for (int i = 0; i < hits.length; ++i) {
-                int docId = hits[i].doc;
-                Document d = searcher.doc(docId);
-                final Long songNumber = Long.parseLong(d.get("number"));
-                SongDisplayable song = songs.get(songNumber);
-                ret.add(song);
-            }
+        IndexSearcher searcher = null;
+        try {
+            searcher = searcherManager.acquire();
+            List<SongDisplayable> ret = search(searcher, typeStr, sanctifyQueryString);
             if (type == FilterType.BODY) {
-                for (SongDisplayable song : filter(queryString, FilterType.TITLE)) {
-                    ret.remove(song);
-                }
+                ret.removeAll(search(searcher, "title", sanctifyQueryString));
             }
             return ret.toArray(new SongDisplayable[ret.size()]);
         }
@@ -223,6 +397,147 @@ public class SongSearchIndex implements SearchIndex<SongDisplayable> {
             LOGGER.log(Level.WARNING, "Invalid query string: " + sanctifyQueryString, ex);
             return new SongDisplayable[0];
         }
+        finally {
+            release(searcher);
+        }
+    }
+
+    /**
+     * Search the title, lyrics and author of every song in one pass. Each song
+     * appears at most once, tagged with the most significant field it matched
+     * on. Title matches come first, then lyric matches, then author matches,
+     * and within each of those the best matches come first.
+     *
+     * @param queryString the query to use to search.
+     * @return the matching songs, or every song (untagged) if the query is
+     * empty.
+     */
+    public List<SongSearchHit> search(String queryString) {
+        String sanctifyQueryString = SearchIndexUtils.makeLuceneQuery(queryString);
+        List<SongSearchHit> ret = new ArrayList<>();
+        if (songs.isEmpty() || sanctifyQueryString.trim().isEmpty()) {
+            for (SongDisplayable song : songs.values()) {
+                ret.add(new SongSearchHit(song, null));
+            }
+            return ret;
+        }
+        IndexSearcher searcher = null;
+        try {
+            searcher = searcherManager.acquire();
+            Query title = parse("title", sanctifyQueryString);
+            Query lyrics = parse("lyrics", sanctifyQueryString);
+            Query q = new BooleanQuery.Builder()
+                    .add(new BoostQuery(title, TITLE_BOOST), BooleanClause.Occur.SHOULD)
+                    .add(new BoostQuery(lyrics, LYRICS_BOOST), BooleanClause.Occur.SHOULD)
+                    .add(new BoostQuery(parse("author", sanctifyQueryString), AUTHOR_BOOST), BooleanClause.Occur.SHOULD)
+                    .build();
+            TopScoreDocCollector collector = TopScoreDocCollector.create(3000, 10000);
+            searcher.search(q, collector);
+            //Only used to check which fields each hit matched, not to search again
+            Weight titleWeight = searcher.createWeight(searcher.rewrite(title), ScoreMode.COMPLETE_NO_SCORES, 1);
+            Weight lyricsWeight = searcher.createWeight(searcher.rewrite(lyrics), ScoreMode.COMPLETE_NO_SCORES, 1);
+            List<LeafReaderContext> leaves = searcher.getIndexReader().leaves();
+            List<SongSearchHit> lyricHits = new ArrayList<>();
+            List<SongSearchHit> authorHits = new ArrayList<>();
+            for (ScoreDoc hit : collector.topDocs().scoreDocs) {
+                Document d = searcher.doc(hit.doc);
+                SongDisplayable song = songs.get(Long.parseLong(d.get("number")));
+                if (song == null) {
+                    continue;
+                }
+                LeafReaderContext leaf = leaves.get(ReaderUtil.subIndex(hit.doc, leaves));
+                int doc = hit.doc - leaf.docBase;
+                if (titleWeight.matches(leaf, doc) != null) {
+                    ret.add(new SongSearchHit(song, FilterType.TITLE));
+                } else if (lyricsWeight.matches(leaf, doc) != null) {
+                    lyricHits.add(new SongSearchHit(song, FilterType.BODY));
+                } else {
+                    authorHits.add(new SongSearchHit(song, FilterType.AUTHOR));
+                }
+            }
+            ret.addAll(lyricHits);
+            ret.addAll(authorHits);
+            return ret;
+        }
+        catch(ClosedByInterruptException|ThreadInterruptedException ex) {
+            //Ignore, thread is being shut down by other character being typed
+            return new ArrayList<>();
+        }
+        catch (ParseException | IOException ex) {
+            LOGGER.log(Level.WARNING, "Invalid query string: " + sanctifyQueryString, ex);
+            return new ArrayList<>();
+        }
+        finally {
+            release(searcher);
+        }
+    }
+
+    /**
+     * Parse a query against a single field.
+     *
+     * @param field the field to search in.
+     * @param queryString the lucene query string.
+     * @return the query.
+     */
+    private Query parse(String field, String queryString) throws ParseException {
+        return new ComplexPhraseQueryParser(field, analyzer).parse(queryString);
+    }
+
+    /**
+     * Run the given (already sanitised) query against a single field.
+     *
+     * @param searcher the searcher to use.
+     * @param field the field to search in.
+     * @param queryString the lucene query string.
+     * @return the matching songs, best match first.
+     */
+    private List<SongDisplayable> search(IndexSearcher searcher, String field, String queryString) throws ParseException, IOException {
+        Query q = parse(field, queryString);
+        TopScoreDocCollector collector = TopScoreDocCollector.create(1000, 10000);
+        searcher.search(q, collector);
+        ScoreDoc[] hits = collector.topDocs().scoreDocs;
+        List<SongDisplayable> ret = new ArrayList<>();
+        for (int i = 0; i < hits.length; ++i) {
+            Document d = searcher.doc(hits[i].doc);
+            SongDisplayable song = songs.get(Long.parseLong(d.get("number")));
+            if (song != null) {
+                ret.add(song);
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Hand a searcher back to the searcher manager.
+     *
+     * @param searcher the searcher to release, may be null.
+     */
+    private void release(IndexSearcher searcher) {
+        if (searcher == null) {
+            return;
+        }
+        try {
+            searcherManager.release(searcher);
+        } catch (IOException ex) {
+            LOGGER.log(Level.WARNING, "Couldn't release searcher", ex);
+        }
+    }
+
+    /**
+     * Commit any pending changes, along with the version of the database the
+     * index has caught up with, and refresh the searcher so subsequent
+     * searches see them.
+     *
+     * @throws IOException if something goes wrong writing to the index.
+     */
+    private void commit() throws IOException {
+        Map<String, String> commitData = new HashMap<>();
+        if (databaseVersion != null) {
+            commitData.put(DATABASE_VERSION, databaseVersion);
+        }
+        writer.setLiveCommitData(commitData.entrySet());
+        writer.commit();
+        searcherManager.maybeRefresh();
     }
 
     /**
@@ -230,6 +545,14 @@ public class SongSearchIndex implements SearchIndex<SongDisplayable> {
      */
     @Override
     public synchronized void clear() {
-        SearchIndexUtils.clearIndex(index);
+        try {
+            writer.deleteAll();
+            indexed.clear();
+            songs.clear();
+            databaseVersion = null;
+            commit();
+        } catch (IOException ex) {
+            LOGGER.log(Level.SEVERE, "Couldn't clear the index", ex);
+        }
     }
 }
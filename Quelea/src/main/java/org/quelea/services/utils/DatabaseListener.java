@@ -17,8 +17,13 @@
  */
 package org.quelea.services.utils;
 
+import java.util.Collection;
+import org.quelea.data.displayable.SongDisplayable;
+
 /**
  * The update method on this interface should be called whenever the database has updated.
+ * Listeners that can apply individual changes may also override the more
+ * specific methods, which otherwise just call databaseChanged().
  * @author Michael
  */
 public interface DatabaseListener {
@@ -27,4 +32,28 @@ public interface DatabaseListener {
      * Signifies that the database has been updated.
      */
     void databaseChanged();
+
+    /**
+     * Signifies that some songs have been added to the database.
+     * @param songs the songs that were added.
+     */
+    default void songsAdded(Collection<SongDisplayable> songs) {
+        databaseChanged();
+    }
+
+    /**
+     * Signifies that some songs in the database have been updated.
+     * @param songs the songs that were updated.
+     */
+    default void songsUpdated(Collection<SongDisplayable> songs) {
+        databaseChanged();
+    }
+
+    /**
+     * Signifies that some songs have been removed from the database.
+     * @param songs the songs that were removed.
+     */
+    default void songsRemoved(Collection<SongDisplayable> songs) {
+        databaseChanged();
+    }
 }
@@ -0,0 +1,149 @@
+/*
+ * This file is part of Quelea, free projection software for churches.
+ *
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.quelea.services.utils;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javafx.application.Platform;
+import javafx.embed.swing.SwingFXUtils;
+import javafx.scene.image.Image;
+
+/**
+ * Makes the thumbnails shown for images in the library. Images are decoded
+ * in the background on a small pool of threads, straight to thumbnail size,
+ * and the thumbnails are cached on disk so each image only has to be decoded
+ * the first time it's shown. The most recently used thumbnails are also kept
+ * in memory, so scrolling back over images doesn't load them again.
+ * <p/>
+ * Thumbnails must be requested on the FX thread.
+ * <p/>
+ * @author Michael
+ */
+public final class ImageThumbnails {
+
+    public static final ImageThumbnails INSTANCE = new ImageThumbnails();
+    public static final int WIDTH = 160;
+    public static final int HEIGHT = 90;
+    private static final int MAX_LOADED = 500;
+    private static final Logger LOGGER = LoggerUtils.getLogger();
+    private final ThumbnailCache cache = new ThumbnailCache("img", WIDTH, HEIGHT);
+    private final Map<File, Image> loaded;
+    private final Map<File, List<Consumer<Image>>> pending = new HashMap<>();
+    private final ExecutorService service;
+
+    private ImageThumbnails() {
+        loaded = new LinkedHashMap<File, Image>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<File, Image> eldest) {
+                return size() > MAX_LOADED;
+            }
+        };
+        int threads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+        AtomicInteger threadCount = new AtomicInteger();
+        service = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "Image thumbnails " + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Get the thumbnail of an image. If it's already in memory the callback
+     * is called straight away, otherwise it's loaded in the background and
+     * the callback is called on the FX thread once it's ready.
+     * <p/>
+     * @param file the image.
+     * @param callback the callback that's given the thumbnail, or null if the
+     * image couldn't be loaded.
+     */
+    public void getThumbnail(File file, Consumer<Image> callback) {
+        Utils.checkFXThread();
+        Image image = loaded.get(file);
+        if(image != null) {
+            callback.accept(image);
+            return;
+        }
+        List<Consumer<Image>> callbacks = pending.get(file);
+        if(callbacks != null) {
+            callbacks.add(callback);
+            return;
+        }
+        callbacks = new ArrayList<>();
+        callbacks.add(callback);
+        pending.put(file, callbacks);
+        service.submit(() -> {
+            Image thumbnail = null;
+            try {
+                thumbnail = loadThumbnail(file);
+            } catch(RuntimeException ex) {
+                LOGGER.log(Level.WARNING, "Couldn't load thumbnail of " + file, ex);
+            } finally {
+                //Always finish, so the file isn't left pending for good
+                final Image result = thumbnail;
+                Platform.runLater(() -> {
+                    if(result != null) {
+                        loaded.put(file, result);
+                    }
+                    for(Consumer<Image> waiting : pending.remove(file)) {
+                        waiting.accept(result);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Forget the thumbnails held in memory, so they're loaded again (from the
+     * disk cache if they're still up to date) next time they're needed.
+     */
+    public void clearLoaded() {
+        Utils.checkFXThread();
+        loaded.clear();
+    }
+
+    /**
+     * Get the thumbnail of an image from the disk cache, or decode the image
+     * and cache its thumbnail if it isn't there.
+     * <p/>
+     * @param file the image.
+     * @return the thumbnail, or null if the image couldn't be loaded.
+     */
+    private Image loadThumbnail(File file) {
+        Image cached = cache.get(file);
+        if(cached != null) {
+            return cached;
+        }
+        Image image = new Image(file.toURI().toString(), WIDTH, HEIGHT, false, true);
+        if(image.isError()) {
+            LOGGER.log(Level.WARNING, "Couldn't load thumbnail of " + file, image.getException());
+            return null;
+        }
+        cache.put(file, SwingFXUtils.fromFXImage(image, null));
+        return image;
+    }
+}
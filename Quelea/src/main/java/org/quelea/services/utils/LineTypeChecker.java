@@ -19,6 +19,7 @@ package org.quelea.services.utils;
 
 import java.util.Comparator;
 import java.util.TreeMap;
+import java.util.regex.Pattern;
 
 /**
  * Checks the type of the line.
@@ -38,6 +39,12 @@ public class LineTypeChecker {
 
     }
 
+    private static final Pattern TIMES_BEFORE_PATTERN = Pattern.compile("[xX][0-9]+");
+    private static final Pattern TIMES_AFTER_PATTERN = Pattern.compile("[0-9]+[xX]");
+    private static final String[] CHORD_WORDS = {"sus", "dim", "maj", "dom", "min", "aug"};
+    private static final String[] TITLE_PREFIXES = {"verse", "chorus", "tag", "pre-chorus", "pre chorus", "coda",
+        "bridge", "intro", "outro", "interlude", "ending"};
+
     private final String line;
 
     /**
@@ -55,83 +62,162 @@ public class LineTypeChecker {
      * @return the type of the line.
      */
     public Type getLineType() {
+        return getLineType(line);
+    }
+
+    /**
+     * Get the type of a line. This is the same as creating a checker for the
+     * line and asking it for its type, without creating the checker.
+     *
+     * @param line the line to check.
+     * @return the type of the line.
+     */
+    public static Type getLineType(String line) {
         if(line==null) {
             return null;
         }
-        if (checkTitle()) {
+        if (checkTitle(line)) {
             return Type.TITLE;
-        } else if (checkChords()) {
+        } else if (checkChords(line)) {
             return Type.CHORDS;
-        } else if (checkNonBreak()) {
+        } else if (checkNonBreak(line)) {
             return Type.NONBREAK;
         } else {
             return Type.NORMAL;
         }
     }
 
-    private boolean checkNonBreak() {
-        return line.trim().equals("<>")
-                || line.trim().equals("\\u00A0")
+    private static boolean checkNonBreak(String line) {
+        String trimmed = line.trim();
+        return trimmed.equals("<>")
+                || trimmed.equals("\\u00A0")
                 || (line.length() == 1 && line.charAt(0) == 160);
     }
 
     /**
-     * Check whether this line is a line containing only chords.
+     * Check whether a line is a line containing only chords.
      *
+     * @param line the line to check.
      * @return true if it's a chord line, false otherwise.
      */
-    private boolean checkChords() {
+    private static boolean checkChords(String line) {
         if (line.trim().isEmpty()) {
             return false;
         }
-        if (line.toLowerCase().endsWith("//chords")) {
+        if (endsWithIgnoreCase(line, "//chords")) {
             return true;
         }
-        if (line.toLowerCase().endsWith("//lyrics")) {
+        if (endsWithIgnoreCase(line, "//lyrics")) {
             return false;
         }
         String checkLine = line.replace('-', ' ');
         checkLine = checkLine.replace('(', ' ');
         checkLine = checkLine.replace(')', ' ');
-        checkLine = checkLine.replaceAll("[xX][0-9]+", "");
-        checkLine = checkLine.replaceAll("[0-9]+[xX]", "");
-        for (String s : checkLine.split("\\s")) {
-            if (s.trim().isEmpty()) {
-                continue;
+        if (checkLine.indexOf('x') >= 0 || checkLine.indexOf('X') >= 0) {
+            checkLine = TIMES_BEFORE_PATTERN.matcher(checkLine).replaceAll("");
+            checkLine = TIMES_AFTER_PATTERN.matcher(checkLine).replaceAll("");
+        }
+        int start = 0;
+        for (int i = 0; i <= checkLine.length(); i++) {
+            if (i == checkLine.length() || isWhitespace(checkLine.charAt(i))) {
+                if (!isChord(checkLine, start, i)) {
+                    return false;
+                }
+                start = i + 1;
             }
-            if (!s.matches("^" + CHORD_REGEX + "$")) {
+        }
+        return true;
+    }
+
+    /**
+     * Determine whether part of a string is a chord, without any whitespace.
+     * This accepts exactly the same words as CHORD_REGEX, without compiling or
+     * running it. Any run of note letters, accidentals, numbers, slashes and
+     * chord qualities (such as "sus", "maj" or "m") matches the regex, and
+     * each quality that's longer than a letter contains a letter that can't
+     * appear anywhere else, so the word can be checked left to right without
+     * backtracking.
+     *
+     * @param str the string.
+     * @param start the start of the word (inclusive.)
+     * @param end the end of the word (exclusive.)
+     * @return true if the word is a chord (or empty), false otherwise.
+     */
+    private static boolean isChord(String str, int start, int end) {
+        int i = start;
+        outer:
+        while (i < end) {
+            for (String word : CHORD_WORDS) {
+                if (i + word.length() <= end && str.startsWith(word, i)) {
+                    i += word.length();
+                    continue outer;
+                }
+            }
+            if (!isChordChar(str.charAt(i))) {
                 return false;
             }
+            i++;
         }
-
         return true;
     }
 
     /**
-     * Check whether this line is the title of a section.
+     * Determine whether a character can be a chord on its own, or part of one.
+     *
+     * @param c the character to check.
+     * @return true if it can, false otherwise.
+     */
+    private static boolean isChordChar(char c) {
+        return (c >= 'a' && c <= 'h')
+                || (c >= 'A' && c <= 'H')
+                || (c >= '0' && c <= '9')
+                || c == '#' || c == '♯' || c == '♭'
+                || c == '/' || c == '+' || c == 'º' || c == 'ø'
+                || c == 'm' || c == 'M';
+    }
+
+    /**
+     * Determine whether a character is whitespace in the sense of the regex
+     * "\\s", which is what lines have always been split on.
+     *
+     * @param c the character to check.
+     * @return true if it's whitespace, false otherwise.
+     */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\013' || c == '\f' || c == '\r';
+    }
+
+    private static boolean endsWithIgnoreCase(String str, String suffix) {
+        return str.regionMatches(true, str.length() - suffix.length(), suffix, 0, suffix.length());
+    }
+
+    /**
+     * Check whether a line is the title of a section.
      *
+     * @param line the line to check.
      * @return true if it's the title of a section, false otherwise.
      */
-    private boolean checkTitle() {
-        String processedLine = line.toLowerCase().trim()
-                .replace("{", "").replace("}", "")
-                .replace("[", "").replace("]", "")
-                .replace("<", "").replace(">", "")
-                .replace("(", "").replace(")", "");
+    private static boolean checkTitle(String line) {
+        String processedLine = line.toLowerCase().trim();
+        if (processedLine.indexOf('{') >= 0 || processedLine.indexOf('}') >= 0
+                || processedLine.indexOf('[') >= 0 || processedLine.indexOf(']') >= 0
+                || processedLine.indexOf('<') >= 0 || processedLine.indexOf('>') >= 0
+                || processedLine.indexOf('(') >= 0 || processedLine.indexOf(')') >= 0) {
+            processedLine = processedLine
+                    .replace("{", "").replace("}", "")
+                    .replace("[", "").replace("]", "")
+                    .replace("<", "").replace(">", "")
+                    .replace("(", "").replace(")", "");
+        }
         if (processedLine.endsWith("//title")) {
             return true;
         }
-        return processedLine.toLowerCase().startsWith("verse")
-                || processedLine.toLowerCase().startsWith("chorus")
-                || processedLine.toLowerCase().startsWith("tag")
-                || processedLine.toLowerCase().startsWith("pre-chorus")
-                || processedLine.toLowerCase().startsWith("pre chorus")
-                || processedLine.toLowerCase().startsWith("coda")
-                || processedLine.toLowerCase().startsWith("bridge")
-                || processedLine.toLowerCase().startsWith("intro")
-                || processedLine.toLowerCase().startsWith("outro")
-                || processedLine.toLowerCase().startsWith("interlude")
-                || processedLine.toLowerCase().startsWith("ending");
+        for (String prefix : TITLE_PREFIXES) {
+            if (processedLine.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     private static final TreeMap<String, String> titleMap = new TreeMap<>();
@@ -153,7 +239,7 @@ public class LineTypeChecker {
         String[] ret = new String[toEncode.length];
         for (int i = 0; i < ret.length; i++) {
             String line = toEncode[i];
-            if (new LineTypeChecker(line).getLineType() != Type.NORMAL) {
+            if (getLineType(line) != Type.NORMAL) {
                 if (!titleMap.containsKey(line)) {
                     String hash = nextHash();
                     titleMap.put(line, hash);
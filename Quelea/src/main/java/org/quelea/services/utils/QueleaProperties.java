@@ -53,6 +53,7 @@ import static org.quelea.services.utils.QueleaPropertyKeys.clearStageviewWithMai
 import static org.quelea.services.utils.QueleaPropertyKeys.controlScreenKey;
 import static org.quelea.services.utils.QueleaPropertyKeys.convertMp3Key;
 import static org.quelea.services.utils.QueleaPropertyKeys.darkThemeKey;
+import static org.quelea.services.utils.QueleaPropertyKeys.databaseBatchSizeKey;
 import static org.quelea.services.utils.QueleaPropertyKeys.dbSongPreviewKey;
 import static org.quelea.services.utils.QueleaPropertyKeys.defaultBibleKey;
 import static org.quelea.services.utils.QueleaPropertyKeys.defaultSongDbUpdateKey;
@@ -117,9 +118,12 @@ import static org.quelea.services.utils.QueleaPropertyKeys.remoteControlPassword
 import static org.quelea.services.utils.QueleaPropertyKeys.remoteControlPortKey;
 import static org.quelea.services.utils.QueleaPropertyKeys.sceneInfoKey;
 import static org.quelea.services.utils.QueleaPropertyKeys.scheduleEmbedMediaKey;
+import static org.quelea.services.utils.QueleaPropertyKeys.serverRequestsPerSecondKey;
+import static org.quelea.services.utils.QueleaPropertyKeys.serverThreadsKey;
 import static org.quelea.services.utils.QueleaPropertyKeys.showExtraLivePanelToolbarOptionsKey;
 import static org.quelea.services.utils.QueleaPropertyKeys.showSmallBibleTextKey;
 import static org.quelea.services.utils.QueleaPropertyKeys.showSmallSongTextKey;
+import static org.quelea.services.utils.QueleaPropertyKeys.showRenderMetricsKey;
 import static org.quelea.services.utils.QueleaPropertyKeys.showVerseNumbersKey;
 import static org.quelea.services.utils.QueleaPropertyKeys.singleMonitorWarningKey;
 import static org.quelea.services.utils.QueleaPropertyKeys.slideTransitionInDurationKey;
@@ -157,6 +161,7 @@ import static org.quelea.services.utils.QueleaPropertyKeys.useMobLyricsKey;
 import static org.quelea.services.utils.QueleaPropertyKeys.useOoKey;
 import static org.quelea.services.utils.QueleaPropertyKeys.usePpKey;
 import static org.quelea.services.utils.QueleaPropertyKeys.useRemoteControlKey;
+import static org.quelea.services.utils.QueleaPropertyKeys.useServerVirtualThreadsKey;
 import static org.quelea.services.utils.QueleaPropertyKeys.useSlideTransitionKey;
 import static org.quelea.services.utils.QueleaPropertyKeys.useVlcJavafxRenderingKey;
 import static org.quelea.services.utils.QueleaPropertyKeys.videoTabKey;
@@ -888,6 +893,63 @@ public final class QueleaProperties extends SortedProperties {
         setProperty(thumbnailSizeKey, Integer.toString(thumbnailSize));
     }
 
+    /**
+     * Get the number of songs written to the database in each batch when
+     * importing.
+     * <p>
+     *
+     * @return the database batch size.
+     */
+    public int getDatabaseBatchSize() {
+        return Integer.parseInt(getProperty(databaseBatchSizeKey, "50"));
+    }
+
+    /**
+     * Determine whether the render metrics should be shown over the projection
+     * and stage windows, for tracking down stutters. This is only checked when
+     * the windows are created.
+     * <p>
+     *
+     * @return true if the render metrics should be shown, false otherwise.
+     */
+    public boolean getShowRenderMetrics() {
+        return Boolean.parseBoolean(getProperty(showRenderMetricsKey, "false"));
+    }
+
+    /**
+     * Get the number of threads each of the mobile lyrics, remote control
+     * and auto detect servers handles requests on, when it isn't using
+     * virtual threads.
+     * <p>
+     *
+     * @return the number of server threads.
+     */
+    public int getServerThreads() {
+        return Integer.parseInt(getProperty(serverThreadsKey, "16"));
+    }
+
+    /**
+     * Determine whether the servers should handle each request on its own
+     * virtual thread, if the JDK supports them.
+     * <p>
+     *
+     * @return true if virtual threads should be used, false otherwise.
+     */
+    public boolean getUseServerVirtualThreads() {
+        return Boolean.parseBoolean(getProperty(useServerVirtualThreadsKey, "true"));
+    }
+
+    /**
+     * Get the number of requests each client may make to a server each
+     * second. 0 means there's no limit.
+     * <p>
+     *
+     * @return the number of requests allowed per second.
+     */
+    public int getServerRequestsPerSecond() {
+        return Integer.parseInt(getProperty(serverRequestsPerSecondKey, "20"));
+    }
+
     public int getPlanningCentrePrevDays() {
         return Integer.parseInt(getProperty(planningCentrePrevDaysKey, "31"));
     }
@@ -1139,6 +1201,26 @@ public final class QueleaProperties extends SortedProperties {
         return new File(getQueleaUserHome(), "temp");
     }
 
+    /**
+     * Get the directory used for storing the song and bible search indexes.
+     * <p>
+     *
+     * @return the index directory
+     */
+    public File getIndexDir() {
+        return new File(getQueleaUserHome(), "index");
+    }
+
+    /**
+     * Get the directory used for caching library thumbnails.
+     * <p>
+     *
+     * @return the thumbnail directory
+     */
+    public File getThumbnailDir() {
+        return new File(getQueleaUserHome(), "thumbnails");
+    }
+
     /**
      * Get the extension used for quelea schedules.
      * <p>
@@ -142,5 +142,10 @@ public class QueleaPropertyKeys {
     public static final String useDefaultTranslation = "use.default.translation";
     public static final String defaultTranslationName = "default.translation.name";
     public static final String disableDirectShowForWVC1Key = "disable.directshow.for.wvc1";
+    public static final String databaseBatchSizeKey = "database.batch.size";
+    public static final String showRenderMetricsKey = "show.render.metrics";
+    public static final String serverThreadsKey = "server.threads";
+    public static final String useServerVirtualThreadsKey = "server.virtual.threads";
+    public static final String serverRequestsPerSecondKey = "server.requests.per.second";
 
 }
@@ -17,6 +17,7 @@
  */
 package org.quelea.services.utils;
 
+import java.util.Arrays;
 import org.apache.commons.text.similarity.LevenshteinDistance;
 import org.quelea.data.db.SongManager;
 import org.quelea.data.displayable.SongDisplayable;
@@ -35,6 +36,7 @@ public class SongDuplicateChecker {
 
     public boolean[] checkSongs(SongDisplayable[] newSongs) {
         final SongDisplayable[] songs = SongManager.get().getSongs();
+        SongManager.get().loadAll(Arrays.asList(songs));
         final String[] songLyrics = new String[songs.length];
         for (int i = 0; i < songLyrics.length; i++) {
             songLyrics[i] = songs[i].getLyrics(false, false, false).replaceAll("[^\\p{L}]", "");
@@ -64,7 +66,12 @@ public class SongDuplicateChecker {
      * false otherwise.
      */
     public boolean checkSong(SongDisplayable newSong) {
-        for(SongDisplayable databaseSong : SongManager.get().getSongs()) {
+        SongDisplayable[] songs = SongManager.get().getSongs();
+        SongManager.get().loadAll(Arrays.asList(songs));
+        for(SongDisplayable databaseSong : songs) {
+            if(databaseSong.isBroken()) {
+                continue;
+            }
             String databaseLyrics = databaseSong.getLyrics(false, false, false).replaceAll("[^\\p{L}]", "");
             String newLyrics = newSong.getLyrics(false, false, false).replaceAll("[^\\p{L}]", "");
             int maxDistance;
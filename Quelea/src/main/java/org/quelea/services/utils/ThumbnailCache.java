@@ -0,0 +1,117 @@
+/*
+ * This file is part of Quelea, free projection software for churches.
+ *
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.quelea.services.utils;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javafx.scene.image.Image;
+import javax.imageio.ImageIO;
+import org.quelea.services.lucene.SearchIndexUtils;
+
+/**
+ * A cache of thumbnails on disk, so thumbnails that are slow to make (such as
+ * a frame grabbed from a video) only have to be made once. Thumbnails are
+ * stored as PNGs named after the path, size and modification time of the file
+ * they're a thumbnail of, so a file that's changed or replaced simply misses
+ * the cache rather than showing an out of date thumbnail.
+ * <p/>
+ * The cache is safe to use from any thread.
+ * <p/>
+ * @author Michael
+ */
+public class ThumbnailCache {
+
+    private static final Logger LOGGER = LoggerUtils.getLogger();
+    private final File dir;
+    private final int width;
+    private final int height;
+
+    /**
+     * Create a new thumbnail cache.
+     * <p/>
+     * @param name the name of the cache, used as the name of its directory
+     * within the thumbnail directory.
+     * @param width the width of the thumbnails.
+     * @param height the height of the thumbnails.
+     */
+    public ThumbnailCache(String name, int width, int height) {
+        this.dir = new File(QueleaProperties.get().getThumbnailDir(), name);
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Get the cached thumbnail of a file. This reads the thumbnail from disk,
+     * so is best not called on the FX thread.
+     * <p/>
+     * @param file the file to get the thumbnail of.
+     * @return the thumbnail, or null if there isn't an up to date thumbnail of
+     * the file in the cache.
+     */
+    public Image get(File file) {
+        File cacheFile = getCacheFile(file);
+        if (!cacheFile.isFile()) {
+            return null;
+        }
+        Image image = new Image(cacheFile.toURI().toString());
+        if (image.isError()) {
+            LOGGER.log(Level.WARNING, "Couldn't read cached thumbnail " + cacheFile, image.getException());
+            return null;
+        }
+        return image;
+    }
+
+    /**
+     * Put the thumbnail of a file in the cache, replacing any thumbnail
+     * that's already there.
+     * <p/>
+     * @param file the file the thumbnail is of.
+     * @param thumbnail the thumbnail.
+     */
+    public void put(File file, BufferedImage thumbnail) {
+        File cacheFile = getCacheFile(file);
+        File tempFile = new File(dir, cacheFile.getName() + ".tmp" + Thread.currentThread().getId());
+        try {
+            Files.createDirectories(dir.toPath());
+            ImageIO.write(thumbnail, "png", tempFile);
+            Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            LOGGER.log(Level.WARNING, "Couldn't cache thumbnail of " + file, ex);
+            tempFile.delete();
+        }
+    }
+
+    /**
+     * Get the file that the thumbnail of a file is cached in.
+     * <p/>
+     * @param file the file to get the thumbnail of.
+     * @return the file its thumbnail is (or would be) cached in.
+     */
+    private File getCacheFile(File file) {
+        String key = SearchIndexUtils.fingerprint(file.getAbsolutePath(),
+                Long.toString(file.length()),
+                Long.toString(file.lastModified()),
+                width + "x" + height);
+        return new File(dir, key + ".png");
+    }
+}
@@ -65,7 +65,6 @@ import java.util.zip.ZipFile;
 import javafx.application.Platform;
 import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
-import javafx.collections.ObservableList;
 import javafx.embed.swing.SwingFXUtils;
 import javafx.event.EventHandler;
 import javafx.geometry.BoundingBox;
@@ -395,26 +394,6 @@ public final class Utils {
 			@Override
 			public void run() {
 				boolean result = SongManager.get().updateSong(song);
-				if (result && song.checkDBUpdate()) {
-					ObservableList<SongDisplayable> songs = QueleaApp.get().getMainWindow().getMainPanel().getLibraryPanel().getLibrarySongPanel().getSongList().getListView().getItems();
-					int replaceIdx = -1;
-					for (int i = 0; i < songs.size(); i++) {
-						if (song.getID() == songs.get(i).getID()) {
-							replaceIdx = i;
-							break;
-						}
-					}
-					final int replaceIdxFi = replaceIdx;
-					if (replaceIdx != -1) {
-						Platform.runLater(new Runnable() {
-							@Override
-							public void run() {
-								songs.remove(replaceIdxFi);
-								songs.add(replaceIdxFi, song);
-							}
-						});
-					}
-				}
 				if (!result && showError) {
 					Platform.runLater(new Runnable() {
 						@Override
@@ -1,30 +1,29 @@
 package org.quelea.utils;
 
 import javafx.scene.text.Font;
-import javafx.scene.text.Text;
 
 /**
  * A replacement for the deprecated / removed Fontmetrics class in JavaFX.
+ * Measurements come from the shared TextMeasurer for the font's face, so
+ * creating one of these is cheap.
  * @author Michael
  */
 public class FXFontMetrics {
 
-    private final Text uiText;
-    private final double lineHeight;
+    private final TextMeasurer measurer;
+    private final double size;
 
     public FXFontMetrics(Font fnt) {
-        uiText = new Text();
-        uiText.setFont(fnt);
-        lineHeight = uiText.getLayoutBounds().getHeight();
+        measurer = TextMeasurer.get(fnt);
+        size = fnt.getSize();
     }
 
     public double getLineHeight() {
-        return lineHeight;
+        return measurer.getLineHeight(size);
     }
 
     public double computeStringWidth(String txt) {
-        uiText.setText(txt);
-        return uiText.getLayoutBounds().getWidth();
+        return measurer.getWidth(txt, size);
     }
 
 }
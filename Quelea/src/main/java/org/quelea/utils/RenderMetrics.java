@@ -0,0 +1,236 @@
+/*
+ * This file is part of Quelea, free projection software for churches.
+ *
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.quelea.utils;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javafx.scene.Scene;
+
+/**
+ * Keeps track of how long drawing things takes, how often the FX thread
+ * manages to produce a frame, and how many video frames get delivered and
+ * dropped. Times are kept as histograms, so occasional slow frames show up
+ * rather than being averaged away, and everything can be read out as text
+ * (for the remote control server) or as a short summary (for the debug
+ * overlay.)
+ * <p/>
+ * All the methods here are safe to call from any thread, and recording is
+ * cheap enough to leave on all the time.
+ * <p/>
+ * @author Michael
+ */
+public final class RenderMetrics {
+
+    /**
+     * The upper bound of each histogram bucket, in microseconds. The last
+     * bucket holds everything slower than this.
+     */
+    private static final long[] BUCKET_BOUNDS = {1_000, 2_000, 4_000, 8_000, 16_667, 33_333, 50_000, 100_000, 250_000, 500_000, 1_000_000};
+    /**
+     * Pulses further apart than this are taken to be the FX thread idling
+     * rather than struggling, so aren't counted as frame intervals.
+     */
+    private static final long MAX_PULSE_INTERVAL = 250_000_000;
+    private static final RenderMetrics INSTANCE = new RenderMetrics();
+    private final Map<String, Histogram> histograms = new ConcurrentSkipListMap<>();
+    private final Map<String, AtomicLong> counters = new ConcurrentSkipListMap<>();
+
+    private RenderMetrics() {
+    }
+
+    /**
+     * Get the render metrics.
+     * <p/>
+     * @return the render metrics.
+     */
+    public static RenderMetrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Record how long something took.
+     * <p/>
+     * @param name the name of the thing that was timed.
+     * @param nanos how long it took, in nanoseconds.
+     */
+    public void record(String name, long nanos) {
+        histograms.computeIfAbsent(name, n -> new Histogram()).add(nanos / 1000);
+    }
+
+    /**
+     * Record how long something took, from a given start time until now.
+     * <p/>
+     * @param name the name of the thing that was timed.
+     * @param startTime the value of System.nanoTime() when it started.
+     */
+    public void recordSince(String name, long startTime) {
+        record(name, System.nanoTime() - startTime);
+    }
+
+    /**
+     * Add one to a counter.
+     * <p/>
+     * @param name the name of the counter.
+     */
+    public void increment(String name) {
+        counters.computeIfAbsent(name, n -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * Get the current value of a counter.
+     * <p/>
+     * @param name the name of the counter.
+     * @return the value of the counter, or 0 if it's never been incremented.
+     */
+    public long getCount(String name) {
+        AtomicLong counter = counters.get(name);
+        return counter == null ? 0 : counter.get();
+    }
+
+    /**
+     * Keep track of the pulses that lay out and render a scene: how long the
+     * CSS and layout part of each pulse takes, and how long it is between one
+     * pulse and the next while the scene is busy. Must be called on the FX
+     * thread.
+     * <p/>
+     * @param name the name to record the scene's pulses under.
+     * @param scene the scene.
+     */
+    public void watchPulses(String name, Scene scene) {
+        String layoutName = "pulse." + name + ".layout";
+        String intervalName = "pulse." + name + ".interval";
+        long[] pulseStart = new long[1];
+        scene.addPreLayoutPulseListener(() -> {
+            long now = System.nanoTime();
+            long interval = now - pulseStart[0];
+            if (pulseStart[0] != 0 && interval < MAX_PULSE_INTERVAL) {
+                record(intervalName, interval);
+            }
+            pulseStart[0] = now;
+        });
+        scene.addPostLayoutPulseListener(() -> recordSince(layoutName, pulseStart[0]));
+    }
+
+    /**
+     * Get all the metrics as text, one metric per line. Timings give their
+     * count, mean, maximum and approximate percentiles in milliseconds,
+     * followed by the count in each histogram bucket.
+     * <p/>
+     * @return the metrics as text.
+     */
+    public String toText() {
+        StringBuilder ret = new StringBuilder();
+        for (Map.Entry<String, AtomicLong> entry : counters.entrySet()) {
+            ret.append(entry.getKey()).append(" count=").append(entry.getValue().get()).append('\n');
+        }
+        for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+            Histogram histogram = entry.getValue();
+            ret.append(entry.getKey()).append(' ').append(histogram.getSummary());
+            ret.append(" buckets=");
+            for (int i = 0; i <= BUCKET_BOUNDS.length; i++) {
+                if (i > 0) {
+                    ret.append(',');
+                }
+                ret.append(i < BUCKET_BOUNDS.length ? "le" + formatMillis(BUCKET_BOUNDS[i]) : "inf").append(':').append(histogram.buckets.get(i));
+            }
+            ret.append('\n');
+        }
+        return ret.toString();
+    }
+
+    /**
+     * Get a short summary of the metrics, for showing on screen.
+     * <p/>
+     * @return the summary.
+     */
+    public String getSummary() {
+        StringBuilder ret = new StringBuilder();
+        for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+            ret.append(entry.getKey()).append(": ").append(entry.getValue().getSummary()).append('\n');
+        }
+        for (Map.Entry<String, AtomicLong> entry : counters.entrySet()) {
+            ret.append(entry.getKey()).append(": ").append(entry.getValue().get()).append('\n');
+        }
+        return ret.toString();
+    }
+
+    /**
+     * Forget everything recorded so far.
+     */
+    public void reset() {
+        histograms.clear();
+        counters.clear();
+    }
+
+    private static String formatMillis(long micros) {
+        return String.format(Locale.ROOT, "%.1f", micros / 1000.0);
+    }
+
+    /**
+     * A histogram of timings, in microseconds.
+     */
+    private static final class Histogram {
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_BOUNDS.length + 1);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong total = new AtomicLong();
+        private final AtomicLong max = new AtomicLong();
+
+        private void add(long micros) {
+            int bucket = 0;
+            while (bucket < BUCKET_BOUNDS.length && micros > BUCKET_BOUNDS[bucket]) {
+                bucket++;
+            }
+            buckets.incrementAndGet(bucket);
+            count.incrementAndGet();
+            total.addAndGet(micros);
+            max.accumulateAndGet(micros, Math::max);
+        }
+
+        /**
+         * Get the upper bound of the bucket a percentile falls into.
+         */
+        private String getPercentile(long count, double percentile) {
+            long target = (long) Math.ceil(count * percentile);
+            long seen = 0;
+            for (int i = 0; i < BUCKET_BOUNDS.length; i++) {
+                seen += buckets.get(i);
+                if (seen >= target) {
+                    return formatMillis(BUCKET_BOUNDS[i]);
+                }
+            }
+            return ">" + formatMillis(BUCKET_BOUNDS[BUCKET_BOUNDS.length - 1]);
+        }
+
+        private String getSummary() {
+            long n = count.get();
+            if (n == 0) {
+                return "count=0";
+            }
+            return "count=" + n
+                    + " mean=" + formatMillis(total.get() / n)
+                    + " max=" + formatMillis(max.get())
+                    + " p50<=" + getPercentile(n, 0.5)
+                    + " p95<=" + getPercentile(n, 0.95)
+                    + " p99<=" + getPercentile(n, 0.99);
+        }
+    }
+}
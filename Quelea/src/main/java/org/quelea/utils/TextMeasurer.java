@@ -0,0 +1,175 @@
+/*
+ * This file is part of Quelea, free projection software for churches.
+ *
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.quelea.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+
+/**
+ * Measures text in a particular font face at any size. Text is only ever
+ * measured at a single reference size, and the width of each string is cached;
+ * widths and line heights at other sizes are scaled from those, since both
+ * grow linearly with the font size. This means picking a font size to fit some
+ * text doesn't need a new font or text node for every size that's tried, and
+ * the same lines aren't measured again and again. Hinting means text doesn't
+ * quite scale linearly though, so a size picked this way can be checked by
+ * measuring the text again at exactly that size.
+ * <p/>
+ * Measurers are shared between everything that uses the same font face, and
+ * are safe to use from any thread.
+ * <p/>
+ * @author Michael
+ */
+public final class TextMeasurer {
+
+    private static final double REFERENCE_SIZE = 100;
+    private static final int MAX_CACHED_WIDTHS = 5000;
+    private static final Map<String, TextMeasurer> MEASURERS = new ConcurrentHashMap<>();
+    private final String fontName;
+    private final Text uiText;
+    private final Text exactText;
+    private double exactSize = Double.NaN;
+    private final double lineHeight;
+    private final Map<String, Double> widths;
+
+    /**
+     * Create a new measurer for a font face.
+     * <p/>
+     * @param fontName the name of the font face.
+     */
+    private TextMeasurer(String fontName) {
+        this.fontName = fontName;
+        exactText = new Text();
+        uiText = new Text();
+        uiText.setFont(new Font(fontName, REFERENCE_SIZE));
+        lineHeight = uiText.getLayoutBounds().getHeight();
+        widths = new LinkedHashMap<String, Double>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Double> eldest) {
+                return size() > MAX_CACHED_WIDTHS;
+            }
+        };
+    }
+
+    /**
+     * Get the measurer for the face of a font. The size of the font doesn't
+     * matter.
+     * <p/>
+     * @param font the font.
+     * @return the measurer for the font's face.
+     */
+    public static TextMeasurer get(Font font) {
+        return MEASURERS.computeIfAbsent(font.getName(), TextMeasurer::new);
+    }
+
+    /**
+     * Get the height of a line of text.
+     * <p/>
+     * @param size the font size.
+     * @return the line height at that size.
+     */
+    public double getLineHeight(double size) {
+        return lineHeight * size / REFERENCE_SIZE;
+    }
+
+    /**
+     * Get the width of a string.
+     * <p/>
+     * @param str the string to measure.
+     * @param size the font size.
+     * @return the width of the string at that size.
+     */
+    public double getWidth(String str, double size) {
+        return getReferenceWidth(str) * size / REFERENCE_SIZE;
+    }
+
+    /**
+     * Measure the width of a string at exactly the given size, rather than
+     * scaling it from the reference size. This isn't cached, so should only be
+     * used to check a size that's already been picked.
+     * <p/>
+     * @param str the string to measure.
+     * @param size the font size.
+     * @return the width of the string at that size.
+     */
+    public synchronized double measureWidth(String str, double size) {
+        setExactSize(size);
+        exactText.setText(str);
+        return exactText.getLayoutBounds().getWidth();
+    }
+
+    /**
+     * Measure the height of a line of text at exactly the given size, rather
+     * than scaling it from the reference size.
+     * <p/>
+     * @param size the font size.
+     * @return the line height at that size.
+     */
+    public synchronized double measureLineHeight(double size) {
+        setExactSize(size);
+        exactText.setText("");
+        return exactText.getLayoutBounds().getHeight();
+    }
+
+    private void setExactSize(double size) {
+        if (size != exactSize) {
+            exactText.setFont(new Font(fontName, size));
+            exactSize = size;
+        }
+    }
+
+    /**
+     * Get the width of a string at the reference size, measuring it if it
+     * isn't already cached.
+     * <p/>
+     * @param str the string to measure.
+     * @return the width of the string at the reference size.
+     */
+    private synchronized double getReferenceWidth(String str) {
+        Double ret = widths.get(str);
+        if (ret == null) {
+            uiText.setText(str);
+            ret = uiText.getLayoutBounds().getWidth();
+            widths.put(str, ret);
+        }
+        return ret;
+    }
+
+    /**
+     * Get the largest font size, no bigger than a starting size and going
+     * down in half point steps, for which something that measures a given
+     * amount at a size of 1 fits into a given space. This is the size that
+     * repeatedly trying smaller fonts would find, worked out directly.
+     * <p/>
+     * @param startSize the starting font size.
+     * @param amountPerPoint the amount (width or height) at a size of 1.
+     * @param available the space available.
+     * @return the largest size that fits, or a size of less than 1 if even
+     * that doesn't fit.
+     */
+    public static double fitSize(double startSize, double amountPerPoint, double available) {
+        if (amountPerPoint <= 0 || amountPerPoint * startSize <= available) {
+            return startSize;
+        }
+        double fit = available / amountPerPoint;
+        return startSize - Math.ceil((startSize - fit) * 2) / 2;
+    }
+}
@@ -48,8 +48,7 @@ public class ThemeUtils {
                     LOGGER.log(Level.WARNING, "Error parsing theme file: {0}", fileText);
                     continue;  //error
                 }
-                theme.setFile(file);
-                themesList.add(theme);
+                themesList.add(theme.withFile(file));
             }
         }
         return FXCollections.observableArrayList(themesList);
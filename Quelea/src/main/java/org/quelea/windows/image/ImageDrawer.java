@@ -24,6 +24,7 @@ import org.quelea.data.displayable.Displayable;
 import org.quelea.data.displayable.ImageDisplayable;
 import org.quelea.services.utils.QueleaProperties;
 import org.quelea.services.utils.Utils;
+import org.quelea.utils.RenderMetrics;
 import org.quelea.windows.main.DisplayableDrawer;
 import org.quelea.windows.main.QueleaApp;
 
@@ -40,6 +41,7 @@ public class ImageDrawer extends DisplayableDrawer {
 
     @Override
     public void draw(Displayable displayable) {
+        long startTime = System.nanoTime();
         clear();
         imageView = getCanvas().getNewImageView();
         imageView.setFitWidth(getCanvas().getWidth());
@@ -62,6 +64,7 @@ public class ImageDrawer extends DisplayableDrawer {
         getCanvas().pushLogoNoticeToFront();
         imageBox.setVisible(true);
         getCanvas().setOpacity(1);
+        RenderMetrics.get().recordSince("image." + getCanvas().getName() + ".draw", startTime);
     }
 
     @Override
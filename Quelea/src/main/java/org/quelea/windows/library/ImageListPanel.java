@@ -22,15 +22,15 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Level;
-import javafx.application.Platform;
-import javafx.geometry.Orientation;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
 import javafx.scene.control.ContextMenu;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
 import javafx.scene.control.MenuItem;
-import javafx.scene.control.ScrollPane;
 import javafx.scene.image.ImageView;
 import javafx.scene.input.Clipboard;
 import javafx.scene.input.ClipboardContent;
@@ -40,17 +40,19 @@ import javafx.scene.input.MouseEvent;
 import javafx.scene.input.TransferMode;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
-import javafx.scene.layout.TilePane;
 import org.javafx.dialog.Dialog;
 import org.quelea.data.displayable.ImageDisplayable;
 import org.quelea.services.languages.LabelGrabber;
-import org.quelea.services.utils.ImageManager;
+import org.quelea.services.utils.ImageThumbnails;
 import org.quelea.services.utils.LoggerUtils;
 import org.quelea.services.utils.Utils;
 import org.quelea.windows.main.QueleaApp;
 
 /**
- * The panel displayed on the library to select the list of images.
+ * The panel displayed on the library to select the list of images. The images
+ * are shown in rows of a list view, so only the rows that are scrolled into
+ * view have any nodes, and their thumbnails are loaded in the background as
+ * they're needed.
  * <p/>
  * @author Michael
  */
@@ -58,9 +60,16 @@ public class ImageListPanel extends BorderPane {
 
     private static final String BORDER_STYLE_SELECTED = "-fx-padding: 0.2em;-fx-border-color: #0093ff;-fx-border-radius: 5;-fx-border-width: 0.1em;";
     private static final String BORDER_STYLE_DESELECTED = "-fx-padding: 0.2em;-fx-border-color: rgb(0,0,0,0);-fx-border-radius: 5;-fx-border-width: 0.1em;";
-    private final TilePane imageList;
+    private static final int GAP = 15;
+    /**
+     * Room left for the scroll bar and tile borders when working out how many
+     * tiles fit in a row.
+     */
+    private static final int ROW_MARGIN = 30;
+    private final ListView<List<File>> imageList;
+    private final List<File> files = new ArrayList<>();
+    private int columns = 1;
     private String dir;
-    private Thread updateThread;
 
     /**
      * Create a new image list panel.
@@ -69,18 +78,24 @@ public class ImageListPanel extends BorderPane {
      */
     public ImageListPanel(String dir) {
         this.dir = dir;
-        imageList = new TilePane();
-        imageList.setAlignment(Pos.CENTER);
-        imageList.setHgap(15);
-        imageList.setVgap(15);
-        imageList.setOrientation(Orientation.HORIZONTAL);
+        imageList = new ListView<>();
+        imageList.setFocusTraversable(false);
+        imageList.setStyle("-fx-background-color: transparent;");
+        imageList.setCellFactory(list -> new ImageRowCell());
+        imageList.widthProperty().addListener((obs, oldVal, newVal) -> {
+            int newColumns = Math.max(1, (int) ((newVal.doubleValue() - ROW_MARGIN + GAP) / (ImageThumbnails.WIDTH + GAP)));
+            if(newColumns != columns) {
+                columns = newColumns;
+                updateRows();
+            }
+        });
         imageList.setOnDragOver(dragEvent -> dragEvent.acceptTransferModes(TransferMode.COPY_OR_MOVE));
         imageList.setOnDragDropped(dragEvent -> {
             if(dragEvent.getGestureSource() == null) {
                 Clipboard cb = dragEvent.getDragboard();
                 if(cb.hasFiles()) {
-                    List<File> files = cb.getFiles();
-                    for(File f : files) {
+                    List<File> droppedFiles = cb.getFiles();
+                    for(File f : droppedFiles) {
                         if(Utils.fileIsImage(f) && !f.isDirectory()) {
                             try {
                                 Files.copy(f.getAbsoluteFile().toPath(), Paths.get(getDir(), f.getName()), StandardCopyOption.COPY_ATTRIBUTES);
@@ -94,10 +109,7 @@ public class ImageListPanel extends BorderPane {
             }
         });
         updateImages();
-        ScrollPane scroll = new ScrollPane();
-        scroll.setFitToWidth(true);
-        scroll.setContent(imageList);
-        setCenter(scroll);
+        setCenter(imageList);
     }
 
     /**
@@ -112,6 +124,7 @@ public class ImageListPanel extends BorderPane {
      * Refresh the contents of this image list panel.
      */
     public void refresh() {
+        ImageThumbnails.INSTANCE.clearLoaded();
         updateImages();
     }
 
@@ -120,56 +133,76 @@ public class ImageListPanel extends BorderPane {
      * <p/>
      */
     private void updateImages() {
-        imageList.getChildren().clear();
-        final File[] files = new File(dir).listFiles();
-        if(updateThread != null && updateThread.isAlive()) {
-            return;
-        }
-        updateThread = new Thread(() -> {
-            for(final File file : files) {
+        files.clear();
+        File[] dirFiles = new File(dir).listFiles();
+        if(dirFiles != null) {
+            for(File file : dirFiles) {
                 if(Utils.fileIsImage(file) && !file.isDirectory()) {
-                    final HBox viewBox = new HBox();
-                    final ImageView view = new ImageView(ImageManager.INSTANCE.getImage(file.toURI().toString(), 160, 90, false));
-                    view.setPreserveRatio(true);
-                    view.setFitWidth(160);
-                    view.setFitHeight(90);
-                    view.setOnMouseClicked((MouseEvent t) -> {
-                        if(t.getButton() == MouseButton.PRIMARY && t.getClickCount() > 1) {
-                            QueleaApp.get().getMainWindow().getMainPanel().getSchedulePanel().getScheduleList().add(new ImageDisplayable(file));
-                        }
-                        else if(t.getButton() == MouseButton.SECONDARY) {
-                            ContextMenu removeMenu = new ContextMenu();
-                            MenuItem removeItem = new MenuItem(LabelGrabber.INSTANCE.getLabel("remove.image.text"));
-                            removeItem.setOnAction(actionEvent -> {
-                                final boolean[] reallyDelete = new boolean[]{false};
-                                Dialog.buildConfirmation(LabelGrabber.INSTANCE.getLabel("delete.image.title"),
-                                        LabelGrabber.INSTANCE.getLabel("delete.image.confirmation"))
-                                        .addYesButton(actionEvent1 -> reallyDelete[0] = true)
-                                        .addNoButton(actionEvent1 -> {
-                                        }).build().showAndWait();
-                                if(reallyDelete[0]) {
-                                    file.delete();
-                                    imageList.getChildren().remove(viewBox);
-                                }
-                            });
-                            removeMenu.getItems().add(removeItem);
-                            removeMenu.show(view, t.getScreenX(), t.getScreenY());
-                        }
-                    });
-                    view.setOnDragDetected(mouseEvent -> {
-                        Dragboard db = startDragAndDrop(TransferMode.ANY);
-                        ClipboardContent content = new ClipboardContent();
-                        content.putString(file.getAbsolutePath());
-                        db.setContent(content);
-                        mouseEvent.consume();
-                    });
-                    viewBox.getChildren().add(view);
-                    setupHover(viewBox);
-                    Platform.runLater(() -> imageList.getChildren().add(viewBox));
+                    files.add(file);
                 }
             }
+        }
+        updateRows();
+    }
+
+    /**
+     * Split the images into rows that fit the width of the panel.
+     */
+    private void updateRows() {
+        List<List<File>> rows = new ArrayList<>();
+        for(int i = 0; i < files.size(); i += columns) {
+            rows.add(new ArrayList<>(files.subList(i, Math.min(i + columns, files.size()))));
+        }
+        imageList.getItems().setAll(rows);
+    }
+
+    /**
+     * Create the tile showing an image.
+     * <p/>
+     * @param file the image.
+     * @return the tile.
+     */
+    private Node createTile(final File file) {
+        final HBox viewBox = new HBox();
+        final ImageView view = new ImageView();
+        view.setPreserveRatio(true);
+        view.setFitWidth(ImageThumbnails.WIDTH);
+        view.setFitHeight(ImageThumbnails.HEIGHT);
+        ImageThumbnails.INSTANCE.getThumbnail(file, view::setImage);
+        view.setOnMouseClicked((MouseEvent t) -> {
+            if(t.getButton() == MouseButton.PRIMARY && t.getClickCount() > 1) {
+                QueleaApp.get().getMainWindow().getMainPanel().getSchedulePanel().getScheduleList().add(new ImageDisplayable(file));
+            }
+            else if(t.getButton() == MouseButton.SECONDARY) {
+                ContextMenu removeMenu = new ContextMenu();
+                MenuItem removeItem = new MenuItem(LabelGrabber.INSTANCE.getLabel("remove.image.text"));
+                removeItem.setOnAction(actionEvent -> {
+                    final boolean[] reallyDelete = new boolean[]{false};
+                    Dialog.buildConfirmation(LabelGrabber.INSTANCE.getLabel("delete.image.title"),
+                            LabelGrabber.INSTANCE.getLabel("delete.image.confirmation"))
+                            .addYesButton(actionEvent1 -> reallyDelete[0] = true)
+                            .addNoButton(actionEvent1 -> {
+                            }).build().showAndWait();
+                    if(reallyDelete[0]) {
+                        file.delete();
+                        files.remove(file);
+                        updateRows();
+                    }
+                });
+                removeMenu.getItems().add(removeItem);
+                removeMenu.show(view, t.getScreenX(), t.getScreenY());
+            }
         });
-        updateThread.start();
+        view.setOnDragDetected(mouseEvent -> {
+            Dragboard db = startDragAndDrop(TransferMode.ANY);
+            ClipboardContent content = new ClipboardContent();
+            content.putString(file.getAbsolutePath());
+            db.setContent(content);
+            mouseEvent.consume();
+        });
+        viewBox.getChildren().add(view);
+        setupHover(viewBox);
+        return viewBox;
     }
 
     private void setupHover(final Node view) {
@@ -181,4 +214,32 @@ public class ImageListPanel extends BorderPane {
     public void changeDir(File absoluteFile) {
         dir = absoluteFile.getAbsolutePath();
     }
-}
\ No newline at end of file
+
+    /**
+     * A row of image tiles. The tiles are only created while the row is
+     * shown.
+     */
+    private class ImageRowCell extends ListCell<List<File>> {
+
+        private final HBox row = new HBox(GAP);
+
+        ImageRowCell() {
+            row.setAlignment(Pos.CENTER);
+            setStyle("-fx-background-color: transparent; -fx-padding: " + (GAP / 2) + " 0 " + (GAP / 2) + " 0;");
+        }
+
+        @Override
+        protected void updateItem(List<File> item, boolean empty) {
+            super.updateItem(item, empty);
+            row.getChildren().clear();
+            if(empty || item == null) {
+                setGraphic(null);
+                return;
+            }
+            for(File file : item) {
+                row.getChildren().add(createTile(file));
+            }
+            setGraphic(row);
+        }
+    }
+}
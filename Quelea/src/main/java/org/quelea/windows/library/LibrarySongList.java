@@ -17,7 +17,11 @@
  */
 package org.quelea.windows.library;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.TreeSet;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -45,7 +49,9 @@ import javafx.scene.text.Text;
 import javafx.util.Callback;
 import org.quelea.data.db.SongManager;
 import org.quelea.data.displayable.SongDisplayable;
+import org.quelea.services.lucene.SongSearchHit;
 import org.quelea.services.lucene.SongSearchIndex;
+import org.quelea.services.utils.DatabaseListener;
 import org.quelea.services.utils.LoggerUtils;
 import org.quelea.services.utils.QueleaProperties;
 import org.quelea.utils.SongDisplayableList;
@@ -67,6 +73,7 @@ public class LibrarySongList extends StackPane {
     private final LoadingPane loadingOverlay;
     private final LibrarySongPreviewCanvas previewCanvas;
     private final AddSongPromptOverlay addSongOverlay;
+    private volatile boolean showingAll;
 
     /**
      * Create a new library song list.
@@ -84,11 +91,7 @@ public class LibrarySongList extends StackPane {
         getChildren().add(addSongOverlay);
         addSongOverlay.show();
         songList.itemsProperty().addListener((val, oldList, newList) -> {
-            if (songList.getItems().isEmpty()) {
-                addSongOverlay.show();
-            } else {
-                addSongOverlay.hide();
-            }
+            updateAddSongOverlay();
         });
         getChildren().add(loadingOverlay);
             previewCanvas = new LibrarySongPreviewCanvas();
@@ -192,7 +195,31 @@ public class LibrarySongList extends StackPane {
             songList.setCellFactory(DisplayableListCell.forListView(popupMenu, callback, null));
         }
         new Thread(this::refresh).start();
-        SongManager.get().registerDatabaseListener(this::refresh);
+        SongManager.get().registerDatabaseListener(new DatabaseListener() {
+            @Override
+            public void databaseChanged() {
+                refresh();
+            }
+
+            @Override
+            public void songsAdded(Collection<SongDisplayable> songs) {
+                if (showingAll) {
+                    Platform.runLater(() -> addSongs(songs));
+                } else {
+                    refresh();
+                }
+            }
+
+            @Override
+            public void songsUpdated(Collection<SongDisplayable> songs) {
+                Platform.runLater(() -> replaceSongs(songs));
+            }
+
+            @Override
+            public void songsRemoved(Collection<SongDisplayable> songs) {
+                Platform.runLater(() -> removeSongs(songs));
+            }
+        });
     }
     private ExecutorService filterService = Executors.newSingleThreadExecutor();
     private Future<?> filterFuture;
@@ -215,6 +242,7 @@ public class LibrarySongList extends StackPane {
 
             // empty or null search strings do not need to be filtered - lest they get added twice
             if (search == null || search.trim().isEmpty() || Pattern.compile("[^\\w ]", Pattern.UNICODE_CHARACTER_CLASS).matcher(search).replaceAll("").isEmpty()) {
+                showingAll = true;
                 TreeSet<SongDisplayable> m = new TreeSet<>();
                 LOGGER.log(Level.INFO, "Empty song search performed");
                 for (SongDisplayable song : SongManager.get().getSongs()) {
@@ -224,37 +252,27 @@ public class LibrarySongList extends StackPane {
                 songs.addAll(m);
                 LOGGER.log(Level.INFO, "{0} songs in list", songs.size());
             } else {
-                TreeSet<SongDisplayable> m = new TreeSet<>();
-                LOGGER.log(Level.INFO, "Filtering songs by title");
-                SongDisplayable[] titleSongs = SongManager.get().getIndex().filter(search, SongSearchIndex.FilterType.TITLE);
-                LOGGER.log(Level.INFO, "Filtered songs by title");
-                for (SongDisplayable song : titleSongs) {
-                    song.setLastSearch(search);
-                    m.add(song);
-                }
-                songs.addAll(m);
-                m.clear();
-                LOGGER.log(Level.INFO, "{0} songs in list", songs.size());
-
-                LOGGER.log(Level.INFO, "Filtering songs by lyrics");
-                SongDisplayable[] lyricSongs = SongManager.get().getIndex().filter(search, SongSearchIndex.FilterType.BODY);
-                LOGGER.log(Level.INFO, "Filtered songs by lyrics");
-                for (SongDisplayable song : lyricSongs) {
-                    song.setLastSearch(null);
-                    m.add(song);
-                }
-                songs.addAll(m);
-                m.clear();
-                LOGGER.log(Level.INFO, "{0} songs in list", songs.size());
-
-                LOGGER.log(Level.INFO, "Filtering songs by author");
-                SongDisplayable[] authorSongs = SongManager.get().getIndex().filter(search, SongSearchIndex.FilterType.AUTHOR);
-                LOGGER.log(Level.INFO, "Filtered songs by author");
-                for (SongDisplayable song : authorSongs) {
-                    m.add(song);
+                showingAll = false;
+                TreeSet<SongDisplayable> titleSongs = new TreeSet<>();
+                TreeSet<SongDisplayable> lyricSongs = new TreeSet<>();
+                TreeSet<SongDisplayable> authorSongs = new TreeSet<>();
+                LOGGER.log(Level.INFO, "Filtering songs");
+                for (SongSearchHit hit : SongManager.get().getIndex().search(search)) {
+                    SongDisplayable song = hit.getSong();
+                    if (hit.getField() == SongSearchIndex.FilterType.TITLE) {
+                        song.setLastSearch(search);
+                        titleSongs.add(song);
+                    } else if (hit.getField() == SongSearchIndex.FilterType.BODY) {
+                        song.setLastSearch(null);
+                        lyricSongs.add(song);
+                    } else {
+                        authorSongs.add(song);
+                    }
                 }
-                songs.addAll(m);
-                m.clear();
+                LOGGER.log(Level.INFO, "Filtered songs");
+                songs.addAll(titleSongs);
+                songs.addAll(lyricSongs);
+                songs.addAll(authorSongs);
                 LOGGER.log(Level.INFO, "{0} songs in list", songs.size());
             }
 
@@ -307,11 +325,68 @@ public class LibrarySongList extends StackPane {
         });
         final ObservableList<SongDisplayable> songs = FXCollections.observableArrayList(SongManager.get().getSongs(loadingOverlay));
         Platform.runLater(() -> {
+            showingAll = true;
             songList.itemsProperty().set(songs);
             setLoading(false);
         });
     }
 
+    /**
+     * Add newly added songs to the list in their sorted position. Only used
+     * when the whole library is being shown.
+     * <p/>
+     * @param songs the songs to add.
+     */
+    private void addSongs(Collection<SongDisplayable> songs) {
+        List<SongDisplayable> items = songList.getItems();
+        for (SongDisplayable song : songs) {
+            song.setLastSearch(null);
+            int idx = Collections.binarySearch(items, song);
+            items.add(idx < 0 ? -idx - 1 : idx, song);
+        }
+        updateAddSongOverlay();
+    }
+
+    /**
+     * Replace any songs in the list that have been updated, leaving them in the
+     * same place.
+     * <p/>
+     * @param songs the updated songs.
+     */
+    private void replaceSongs(Collection<SongDisplayable> songs) {
+        List<SongDisplayable> items = songList.getItems();
+        for (SongDisplayable song : songs) {
+            for (int i = 0; i < items.size(); i++) {
+                if (items.get(i).getID() == song.getID()) {
+                    items.set(i, song);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Take any removed songs out of the list.
+     * <p/>
+     * @param songs the removed songs.
+     */
+    private void removeSongs(Collection<SongDisplayable> songs) {
+        Set<Long> ids = new HashSet<>();
+        for (SongDisplayable song : songs) {
+            ids.add(song.getID());
+        }
+        songList.getItems().removeIf(song -> ids.contains(song.getID()));
+        updateAddSongOverlay();
+    }
+
+    private void updateAddSongOverlay() {
+        if (songList.getItems().isEmpty()) {
+            addSongOverlay.show();
+        } else {
+            addSongOverlay.hide();
+        }
+    }
+
     private boolean hasMultipleSelected() {
         return songList.getSelectionModel().getSelectedItems().size() > 1;
     }
@@ -18,12 +18,12 @@
 package org.quelea.windows.library;
 
 import javafx.application.Platform;
-import javafx.embed.swing.SwingFXUtils;
 import javafx.event.ActionEvent;
 import javafx.geometry.Bounds;
 import javafx.geometry.Orientation;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
+import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.control.Label;
 import javafx.scene.control.MenuItem;
@@ -40,16 +40,17 @@ import org.quelea.services.languages.LabelGrabber;
 import org.quelea.services.utils.LoggerUtils;
 import org.quelea.services.utils.Utils;
 import org.quelea.windows.main.QueleaApp;
-import org.quelea.windows.video.VidPreviewDisplay;
+import org.quelea.windows.video.VidThumbnails;
 
-import java.awt.*;
-import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -65,9 +66,10 @@ public class VideoListPanel extends BorderPane {
     private static final String BORDER_STYLE_SELECTED = "-fx-padding: 0.2em;-fx-border-color: #0093ff;-fx-border-radius: 5;-fx-border-width: 0.1em;";
     private static final String BORDER_STYLE_DESELECTED = "-fx-padding: 0.2em;-fx-border-color: rgb(0,0,0,0);-fx-border-radius: 5;-fx-border-width: 0.1em;";
     private final TilePane videoList;
+    private final ScrollPane scroll;
     private final String dir;
-    private Thread updateThread;
-    private final VidPreviewDisplay vidPreviewDisplay;
+    private final Map<ImageView, File> unloadedThumbnails = new LinkedHashMap<>();
+    private boolean thumbnailCheckQueued;
     public static final Image BLANK = new Image("file:icons/vid preview.png");
     public static final Image UNSUPPORTED = new Image("file:icons/unsupported vid preview.png");
 
@@ -79,7 +81,6 @@ public class VideoListPanel extends BorderPane {
      */
     public VideoListPanel(String dir) {
         this.dir = dir;
-        vidPreviewDisplay = new VidPreviewDisplay();
         videoList = new TilePane();
         videoList.setAlignment(Pos.CENTER);
         videoList.setHgap(15);
@@ -104,11 +105,15 @@ public class VideoListPanel extends BorderPane {
                 }
             }
         });
-        updateVideos();
-        ScrollPane scroll = new ScrollPane();
+        scroll = new ScrollPane();
         scroll.setFitToWidth(true);
         scroll.setContent(videoList);
+        scroll.vvalueProperty().addListener((obs, oldVal, newVal) -> queueThumbnailCheck());
+        scroll.viewportBoundsProperty().addListener((obs, oldVal, newVal) -> queueThumbnailCheck());
+        videoList.heightProperty().addListener((obs, oldVal, newVal) -> queueThumbnailCheck());
+        sceneProperty().addListener((obs, oldVal, newVal) -> queueThumbnailCheck());
         setCenter(scroll);
+        updateVideos();
     }
 
     /**
@@ -133,69 +138,123 @@ public class VideoListPanel extends BorderPane {
     private void updateVideos() {
         LOGGER.log(Level.INFO, "Updating videos");
         videoList.getChildren().clear();
+        unloadedThumbnails.clear();
         final File[] files = new File(dir).listFiles();
-        if (updateThread != null && updateThread.isAlive()) {
+        if (files == null) {
             return;
         }
-        updateThread = new Thread(() -> {
-            for (int i = 0; i < files.length; i++) {
-                File file = files[i];
-                LOGGER.log(Level.INFO, "Checking file {0}", file);
-                if (Utils.fileIsVideo(file) && !file.isDirectory()) {
-                    addVideoFile(file);
-                }
+        for (File file : files) {
+            if (Utils.fileIsVideo(file) && !file.isDirectory()) {
+                addVideoFile(file);
             }
-        });
-        updateThread.start();
+        }
     }
 
+    /**
+     * Add a video to this panel. Its thumbnail is loaded once it's scrolled
+     * into view. Must be called on the FX thread.
+     * <p/>
+     *
+     * @param file the video to add.
+     */
     public void addVideoFile(File file) {
         LOGGER.log(Level.INFO, "Adding video file {0} to panel", file);
-        final ImageView view = new ImageView();
+        final ImageView view = new ImageView(BLANK);
         final Label fileLabel = new Label(trim17(file.getName()));
+        unloadedThumbnails.put(view, file);
+        final VBox viewBox = new VBox();
+        viewBox.setAlignment(Pos.CENTER);
+        view.setPreserveRatio(true);
+        view.setFitWidth(160);
+        view.setFitHeight(90);
+        view.setOnMouseClicked((MouseEvent t) -> {
+            if (t.getButton() == MouseButton.PRIMARY && t.getClickCount() > 1) {
+                QueleaApp.get().getMainWindow().getMainPanel().getSchedulePanel().getScheduleList().add(new VideoDisplayable(file.getAbsolutePath()));
+            } else if (t.getButton() == MouseButton.SECONDARY) {
+                ContextMenu removeMenu = new ContextMenu();
+                MenuItem removeItem = new MenuItem(LabelGrabber.INSTANCE.getLabel("remove.video.text"));
+                removeItem.setOnAction((ActionEvent t1) -> {
+                    final boolean[] reallyDelete = new boolean[]{false};
+                    Dialog.buildConfirmation(LabelGrabber.INSTANCE.getLabel("delete.video.title"),
+                            LabelGrabber.INSTANCE.getLabel("delete.video.confirmation")).addYesButton((ActionEvent t2) -> {
+                        reallyDelete[0] = true;
+                    }).addNoButton((ActionEvent t3) -> {
+                    }).build().showAndWait();
+                    if (reallyDelete[0]) {
+                        file.delete();
+                        videoList.getChildren().remove(viewBox);
+                    }
+                });
+                removeMenu.getItems().add(removeItem);
+                removeMenu.show(view, t.getScreenX(), t.getScreenY());
+            }
+        });
+        view.setOnDragDetected((MouseEvent t) -> {
+            Dragboard db = startDragAndDrop(TransferMode.ANY);
+            ClipboardContent content = new ClipboardContent();
+            content.putString(file.getAbsolutePath());
+            db.setContent(content);
+            t.consume();
+        });
+        viewBox.getChildren().add(view);
+        viewBox.getChildren().add(fileLabel);
+        setupHover(viewBox, file.getName());
+        videoList.getChildren().add(viewBox);
+        queueThumbnailCheck();
+    }
 
-        view.setImage(resize(vidPreviewDisplay.getPreviewImg(file.toURI())));
-
-        Platform.runLater(() -> {
-            final VBox viewBox = new VBox();
-            viewBox.setAlignment(Pos.CENTER);
-            view.setPreserveRatio(true);
-            view.setFitWidth(160);
-            view.setFitHeight(90);
-            view.setOnMouseClicked((MouseEvent t) -> {
-                if (t.getButton() == MouseButton.PRIMARY && t.getClickCount() > 1) {
-                    QueleaApp.get().getMainWindow().getMainPanel().getSchedulePanel().getScheduleList().add(new VideoDisplayable(file.getAbsolutePath()));
-                } else if (t.getButton() == MouseButton.SECONDARY) {
-                    ContextMenu removeMenu = new ContextMenu();
-                    MenuItem removeItem = new MenuItem(LabelGrabber.INSTANCE.getLabel("remove.video.text"));
-                    removeItem.setOnAction((ActionEvent t1) -> {
-                        final boolean[] reallyDelete = new boolean[]{false};
-                        Dialog.buildConfirmation(LabelGrabber.INSTANCE.getLabel("delete.video.title"),
-                                LabelGrabber.INSTANCE.getLabel("delete.video.confirmation")).addYesButton((ActionEvent t2) -> {
-                            reallyDelete[0] = true;
-                        }).addNoButton((ActionEvent t3) -> {
-                        }).build().showAndWait();
-                        if (reallyDelete[0]) {
-                            file.delete();
-                            videoList.getChildren().remove(viewBox);
-                        }
-                    });
-                    removeMenu.getItems().add(removeItem);
-                    removeMenu.show(view, t.getScreenX(), t.getScreenY());
-                }
-            });
-            view.setOnDragDetected((MouseEvent t) -> {
-                Dragboard db = startDragAndDrop(TransferMode.ANY);
-                ClipboardContent content = new ClipboardContent();
-                content.putString(file.getAbsolutePath());
-                db.setContent(content);
-                t.consume();
-            });
-            viewBox.getChildren().add(view);
-            viewBox.getChildren().add(fileLabel);
-            setupHover(viewBox, file.getName());
-            videoList.getChildren().add(viewBox);
+    /**
+     * Check which thumbnails are scrolled into view once the panel has next
+     * been laid out, so new tiles have their real positions by then. However
+     * many times this is called before that, the check is only done once.
+     */
+    private void queueThumbnailCheck() {
+        Scene scene = getScene();
+        if (thumbnailCheckQueued || scene == null || unloadedThumbnails.isEmpty()) {
+            return;
+        }
+        thumbnailCheckQueued = true;
+        scene.addPostLayoutPulseListener(new Runnable() {
+            @Override
+            public void run() {
+                scene.removePostLayoutPulseListener(this);
+                thumbnailCheckQueued = false;
+                loadVisibleThumbnails();
+            }
         });
+        Platform.requestNextPulse();
+    }
+
+    /**
+     * Start loading the thumbnails of the videos that are scrolled into view,
+     * if they haven't already been loaded. Tiles that haven't been laid out
+     * yet are skipped, since they'd all look like they're at the top.
+     */
+    private void loadVisibleThumbnails() {
+        if (unloadedThumbnails.isEmpty()) {
+            return;
+        }
+        Bounds viewport = scroll.localToScene(scroll.getLayoutBounds());
+        for (Iterator<Map.Entry<ImageView, File>> it = unloadedThumbnails.entrySet().iterator(); it.hasNext();) {
+            Map.Entry<ImageView, File> entry = it.next();
+            ImageView view = entry.getKey();
+            Node tile = view.getParent();
+            if (tile == null || tile.getParent() != videoList) {
+                it.remove();
+            } else if (tile.getLayoutBounds().getWidth() > 0 && overlaps(view.localToScene(view.getLayoutBounds()), viewport)) {
+                it.remove();
+                VidThumbnails.INSTANCE.getThumbnail(entry.getValue(), view::setImage);
+            }
+        }
+    }
+
+    /**
+     * Determine whether some bounds overlap the viewport, not counting bounds
+     * that only touch its edge.
+     */
+    private static boolean overlaps(Bounds bounds, Bounds viewport) {
+        return bounds.getMaxX() > viewport.getMinX() && bounds.getMinX() < viewport.getMaxX()
+                && bounds.getMaxY() > viewport.getMinY() && bounds.getMinY() < viewport.getMaxY();
     }
 
     private void setupHover(final Node view, String fileName) {
@@ -218,13 +277,4 @@ public class VideoListPanel extends BorderPane {
         }
         return toTrim;
     }
-
-    private Image resize(Image image) {
-        var sImg = SwingFXUtils.fromFXImage(image, null).getScaledInstance(160, 90, 0);
-        BufferedImage bimage = new BufferedImage(sImg.getWidth(null), sImg.getHeight(null), BufferedImage.TYPE_INT_ARGB);
-        Graphics2D bGr = bimage.createGraphics();
-        bGr.drawImage(sImg, 0, 0, null);
-        bGr.dispose();
-        return SwingFXUtils.toFXImage(bimage, null);
-    }
 }
@@ -20,13 +20,17 @@ package org.quelea.windows.lyrics;
 import java.awt.Dimension;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.logging.Level;
 
 import javafx.animation.FadeTransition;
-import javafx.animation.ParallelTransition;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Group;
@@ -45,6 +49,7 @@ import javafx.scene.text.FontPosture;
 import javafx.scene.text.FontWeight;
 import javafx.util.Duration;
 import org.quelea.data.ColourBackground;
+import org.quelea.data.GlobalThemeStore;
 import org.quelea.data.ImageBackground;
 import org.quelea.data.ThemeDTO;
 import org.quelea.data.VideoBackground;
@@ -58,12 +63,14 @@ import org.quelea.services.utils.LineTypeChecker.Type;
 import org.quelea.services.utils.LyricLine;
 import org.quelea.services.utils.QueleaProperties;
 import org.quelea.services.utils.Utils;
+import org.quelea.windows.main.DisplayCanvas;
 import org.quelea.windows.main.QueleaApp;
 import org.quelea.windows.main.WordDrawer;
 import org.quelea.windows.main.widgets.DisplayPositionSelector;
 import org.quelea.utils.FXFontMetrics;
+import org.quelea.utils.RenderMetrics;
 import org.quelea.utils.WrapTextResult;
-import org.quelea.windows.video.VidDisplay;
+import org.quelea.windows.video.VidBackgrounds;
 
 /**
  * Responsible for drawing lyrics and their background.
@@ -73,6 +80,12 @@ import org.quelea.windows.video.VidDisplay;
  */
 public class LyricDrawer extends WordDrawer {
 
+    private static final ExecutorService PRECOMPUTE_SERVICE = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "Uniform font size precompute");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final SlideTimings SLIDE_TIMINGS = new SlideTimings();
     private String[] text;
     private String[] translations;
     private Group textGroup;
@@ -84,7 +97,8 @@ public class LyricDrawer extends WordDrawer {
     private Group oldTextGroup;
     private String[] oldText;
     private boolean newItem;
-    private VidDisplay vidDisplay;
+    private final Map<DisplayCanvas, Map<List<Object>, PreparedText>> preparedText = new WeakHashMap<>();
+    private final Map<DisplayCanvas, Object> prepareRequests = new WeakHashMap<>();
 
     public LyricDrawer() {
         text = new String[]{};
@@ -92,18 +106,11 @@ public class LyricDrawer extends WordDrawer {
         textGroup = new Group();
         smallTextGroup = new Group();
         lastClearedState = new HashMap<>();
-        vidDisplay = new VidDisplay();
-        vidDisplay.setLoop(true);
     }
 
     protected void drawText(double defaultFontSize, boolean dumbWrap) {
         Utils.checkFXThread();
-        if (defaultFontSize < 1) {
-            defaultFontSize = QueleaProperties.get().getMaxFontSize();
-
-            // Scale the default font size for this canvas
-            defaultFontSize *= canvasScalingFactor();
-        }
+        long startTime = System.nanoTime();
         if (getCanvas().getCanvasBackground() != null) {
             if (!getCanvas().getChildren().contains(getCanvas().getCanvasBackground())
                     && !getCanvas().getChildren().contains(textGroup) && !getCanvas().getChildren().contains(smallTextGroup)) {
@@ -120,6 +127,105 @@ public class LyricDrawer extends WordDrawer {
             oldTextGroup = textGroup;
         }
 
+        List<Object> key = getPreparedTextKey(getCanvas(), theme, curDisplayable, text, translations, smallText, capitaliseFirst, defaultFontSize, dumbWrap);
+        Map<List<Object>, PreparedText> canvasPreparedText = preparedText.get(getCanvas());
+        PreparedText prepared = canvasPreparedText == null ? null : canvasPreparedText.remove(key);
+        boolean wasPrepared = prepared != null;
+        if (prepared == null) {
+            prepared = layoutText(getCanvas(), theme, curDisplayable, text, translations, smallText, capitaliseFirst, defaultFontSize, dumbWrap);
+        }
+        final Group newTextGroup = prepared.textGroup;
+        smallTextGroup = prepared.smallTextGroup;
+        getCanvas().getChildren().removeIf(node -> node instanceof Group);
+
+        getCanvas().getChildren().add(newTextGroup);
+        if (curDisplayable instanceof BiblePassage && QueleaProperties.get().getSmallBibleTextShow()) {
+            getCanvas().getChildren().add(smallTextGroup);
+        } else if (curDisplayable instanceof SongDisplayable && QueleaProperties.get().getSmallSongTextShow()) {
+            getCanvas().getChildren().add(smallTextGroup);
+        }
+        getCanvas().pushLogoNoticeToFront();
+
+        textGroup = newTextGroup;
+
+        if (getCanvas().isCleared() && !getLastClearedState()) {
+            setLastClearedState(true);
+            FadeTransition t = new FadeTransition(Duration.millis(QueleaProperties.get().getClearFadeDuration()), textGroup);
+            FadeTransition t2 = new FadeTransition(Duration.millis(QueleaProperties.get().getClearFadeDuration()), smallTextGroup);
+            t.setToValue(0);
+            t.play();
+            t2.setToValue(0);
+            t2.play();
+        } else if (getCanvas().isCleared()) {
+            textGroup.setOpacity(0);
+            smallTextGroup.setOpacity(0);
+        } else if (!getCanvas().isCleared() && getLastClearedState()) {
+            setLastClearedState(false);
+            FadeTransition t = new FadeTransition(Duration.millis(QueleaProperties.get().getClearFadeDuration()), textGroup);
+            FadeTransition t2 = new FadeTransition(Duration.millis(QueleaProperties.get().getClearFadeDuration()), smallTextGroup);
+            t.setFromValue(0);
+            t.setToValue(1);
+            t.play();
+            t2.setFromValue(0);
+            t2.setToValue(1);
+            t2.play();
+        } else if (QueleaProperties.get().getUseSlideTransition()
+                && !getCanvas().isBlacked() && !getCanvas().isCleared()
+                && !getCanvas().isShowingLogo()
+                && getCanvas().equals(QueleaApp.get().getProjectionWindow().getCanvas())) {
+            if (oldTextGroup != null) {
+                FadeTransition fadeOut = new FadeTransition(Duration.millis(QueleaProperties.get().getSlideTransitionOutDuration()), oldTextGroup);
+                fadeOut.setFromValue(1.0);
+                fadeOut.setToValue(0.0);
+                fadeOut.setOnFinished(e -> {
+                    if (getCanvas().getChildren().contains(oldTextGroup)) {
+                        getCanvas().getChildren().remove(oldTextGroup);
+                        oldTextGroup = null;
+                    }
+                });
+                getCanvas().getChildren().add(oldTextGroup);
+                fadeOut.play();
+            }
+            if (oldTextGroup == null && Arrays.deepToString(oldText).equals("[]") || newItem) {
+                FadeTransition fadeIn = new FadeTransition(Duration.millis(QueleaProperties.get().getSlideTransitionInDuration()), textGroup);
+                fadeIn.setFromValue(0.0);
+                fadeIn.setToValue(1.0);
+                fadeIn.play();
+            }
+        }
+        if (getCanvas().equals(QueleaApp.get().getProjectionWindow().getCanvas())) {
+            SLIDE_TIMINGS.record(getCanvas(), wasPrepared, startTime);
+        }
+    }
+
+    /**
+     * Lay out some text for a canvas, ready to be put on it. This doesn't
+     * change the canvas or depend on what this drawer is currently showing, so
+     * text can be laid out ahead of time for slides that aren't showing yet.
+     * <p/>
+     *
+     * @param canvas the canvas the text is for.
+     * @param theme the theme to use.
+     * @param displayable the displayable the text is from.
+     * @param text the lines of text.
+     * @param translations the lines of the translation, if any.
+     * @param smallText the small text.
+     * @param capitaliseFirst true if the first character of each line should
+     * be a capital, false otherwise.
+     * @param defaultFontSize the font size to use, or less than 1 to pick one
+     * that fits.
+     * @param dumbWrap true if the text should just be wrapped to fit, false if
+     * it should be split into lines sensibly.
+     * @return the laid out text.
+     */
+    private PreparedText layoutText(DisplayCanvas canvas, ThemeDTO theme, TextDisplayable displayable, String[] text,
+            String[] translations, String[] smallText, boolean capitaliseFirst, double defaultFontSize, boolean dumbWrap) {
+        if (defaultFontSize < 1) {
+            defaultFontSize = QueleaProperties.get().getMaxFontSize();
+
+            // Scale the default font size for this canvas
+            defaultFontSize *= canvasScalingFactor(canvas);
+        }
         Font font = Font.font(theme.getFont().getFamily(),
                 theme.isBold() ? FontWeight.BOLD : FontWeight.NORMAL,
                 theme.isItalic() ? FontPosture.ITALIC : FontPosture.REGULAR,
@@ -151,15 +257,16 @@ public class LyricDrawer extends WordDrawer {
                 fontSize = 1;
                 newText = new ArrayList<>();
             } else {
-                WrapTextResult result = normalWrapText(font, text[0], getCanvas().getWidth() * QueleaProperties.get().getLyricWidthBounds(), getCanvas().getHeight() * QueleaProperties.get().getLyricHeightBounds());
+                WrapTextResult result = normalWrapText(font, text[0], canvas.getWidth() * QueleaProperties.get().getLyricWidthBounds(), canvas.getHeight() * QueleaProperties.get().getLyricHeightBounds());
                 newText = result.getNewText();
                 fontSize = result.getFontSize();
             }
         } else {
-            newText = sanctifyText(text, translations);
+            newText = sanctifyText(text, translations, capitaliseFirst);
         }
         if (fontSize == -1) {
-            fontSize = pickFontSize(font, newText, getCanvas().getWidth() * QueleaProperties.get().getLyricWidthBounds(), getCanvas().getHeight() * QueleaProperties.get().getLyricHeightBounds());
+            fontSize = pickFontSize(font, newText, canvas.getWidth() * QueleaProperties.get().getLyricWidthBounds(), canvas.getHeight() * QueleaProperties.get().getLyricHeightBounds(),
+                    getLineSpacing(canvas.getHeight()));
         }
         font = Font.font(font.getFamily(),
                 theme.isBold() ? FontWeight.BOLD : FontWeight.NORMAL,
@@ -172,12 +279,12 @@ public class LyricDrawer extends WordDrawer {
         double smallFontSize;
         Font smallTextFont = Font.font("Arial", FontWeight.BOLD, FontPosture.REGULAR, 500);
 
-        if (curDisplayable instanceof BiblePassage) {
-            smallFontSize = pickSmallFontSize(smallTextFont, smallText, getCanvas().getWidth() * 0.8,
-                    (getCanvas().getHeight() * (QueleaProperties.get().getSmallBibleTextSize())) - 5); //-5 for insets
+        if (displayable instanceof BiblePassage) {
+            smallFontSize = pickSmallFontSize(smallTextFont, smallText, canvas.getWidth() * 0.8,
+                    (canvas.getHeight() * (QueleaProperties.get().getSmallBibleTextSize())) - 5, getLineSpacing(canvas.getHeight())); //-5 for insets
         } else {
-            smallFontSize = pickSmallFontSize(smallTextFont, smallText, getCanvas().getWidth() * 0.8,
-                    (getCanvas().getHeight() * (QueleaProperties.get().getSmallSongTextSize())) - 5); //-5 for insets
+            smallFontSize = pickSmallFontSize(smallTextFont, smallText, canvas.getWidth() * 0.8,
+                    (canvas.getHeight() * (QueleaProperties.get().getSmallSongTextSize())) - 5, getLineSpacing(canvas.getHeight())); //-5 for insets
         }
         smallTextFont = Font.font("Arial", FontWeight.BOLD, FontPosture.REGULAR, smallFontSize);
 
@@ -190,7 +297,7 @@ public class LyricDrawer extends WordDrawer {
         shadow.setRadius(shadow.getRadius() * metrics.getLineHeight() * 0.0015);
         newTextGroup.setEffect(shadow);
         StackPane.setAlignment(newTextGroup, Pos.CENTER);
-        smallTextGroup = new Group();
+        final Group smallTextGroup = new Group();
         DropShadow smallshadow = theme.getShadow().getDropShadow();
         if (smallshadow == null) {
             smallshadow = new DropShadow();
@@ -200,7 +307,7 @@ public class LyricDrawer extends WordDrawer {
         smallshadow.setRadius(shadow.getRadius() * smallTextMetrics.getLineHeight() * 0.015);
         smallTextGroup.setEffect(smallshadow);
 
-        if (curDisplayable instanceof BiblePassage) {
+        if (displayable instanceof BiblePassage) {
             if (QueleaProperties.get().getSmallBibleTextPositionV().equalsIgnoreCase("top")) {
                 if (QueleaProperties.get().getSmallBibleTextPositionH().equalsIgnoreCase("left")) {
                     StackPane.setAlignment(smallTextGroup, Pos.TOP_LEFT);
@@ -229,18 +336,8 @@ public class LyricDrawer extends WordDrawer {
                 }
             }
         }
-        getCanvas().getChildren().removeIf(node -> node instanceof Group);
-
-        getCanvas().getChildren().add(newTextGroup);
-        if (curDisplayable instanceof BiblePassage && QueleaProperties.get().getSmallBibleTextShow()) {
-            getCanvas().getChildren().add(smallTextGroup);
-        } else if (curDisplayable instanceof SongDisplayable && QueleaProperties.get().getSmallSongTextShow()) {
-            getCanvas().getChildren().add(smallTextGroup);
-        }
-        getCanvas().pushLogoNoticeToFront();
 
         int y = 0;
-        ParallelTransition paintTransition = new ParallelTransition();
         for (LyricLine line : newText) {
             FXFontMetrics loopMetrics;
             if (line.isTranslateLine()) {
@@ -261,7 +358,7 @@ public class LyricDrawer extends WordDrawer {
                 t.setFont(font);
             }
 
-            setPositionX(t, loopMetrics, line.getLine(), curDisplayable instanceof BiblePassage);
+            setPositionX(canvas, theme, t, loopMetrics, line.getLine());
             t.setLayoutY(y);
 
             Color lineColor;
@@ -275,7 +372,7 @@ public class LyricDrawer extends WordDrawer {
                 lineColor = ThemeDTO.DEFAULT_FONT_COLOR;
             }
             t.setFill(lineColor);
-            y += loopMetrics.getLineHeight() + getLineSpacing();
+            y += loopMetrics.getLineHeight() + getLineSpacing(canvas.getHeight());
 
             newTextGroup.getChildren().add(t);
         }
@@ -286,21 +383,21 @@ public class LyricDrawer extends WordDrawer {
             FormattedText ft = new FormattedText(stext);
             ft.setFont(smallTextFont);
             ft.setFill(theme.getFontPaint());
-            if (curDisplayable instanceof BiblePassage) {
+            if (displayable instanceof BiblePassage) {
                 if (QueleaProperties.get().getSmallBibleTextPositionH().equalsIgnoreCase("right")) {
-                    ft.setLayoutX(getCanvas().getWidth() - smallTextMetrics.computeStringWidth(stext));
+                    ft.setLayoutX(canvas.getWidth() - smallTextMetrics.computeStringWidth(stext));
                 }
                 if (QueleaProperties.get().getSmallBibleTextPositionV().equalsIgnoreCase("top")) {
-                    ft.setLayoutY(getCanvas().getHeight() - sy);
+                    ft.setLayoutY(canvas.getHeight() - sy);
                 } else {
                     ft.setLayoutY(sy);
                 }
             } else {
                 if (QueleaProperties.get().getSmallSongTextPositionH().equalsIgnoreCase("right")) {
-                    ft.setLayoutX(getCanvas().getWidth() - smallTextMetrics.computeStringWidth(stext));
+                    ft.setLayoutX(canvas.getWidth() - smallTextMetrics.computeStringWidth(stext));
                 }
                 if (QueleaProperties.get().getSmallSongTextPositionV().equalsIgnoreCase("top")) {
-                    ft.setLayoutY(getCanvas().getHeight() - sy);
+                    ft.setLayoutY(canvas.getHeight() - sy);
                 } else {
                     ft.setLayoutY(sy);
                 }
@@ -308,69 +405,21 @@ public class LyricDrawer extends WordDrawer {
             smallTextGroup.getChildren().add(ft);
             sy += smallTextMetrics.getLineHeight() + 2;
         }
-        if (!paintTransition.getChildren().isEmpty()) {
-            paintTransition.play();
-        }
-        textGroup = newTextGroup;
-        StackPane.setMargin(textGroup, new Insets(10));
-        StackPane.setAlignment(textGroup, DisplayPositionSelector.getPosFromIndex(theme.getTextPosition()));
 
-        StackPane.setMargin(smallTextGroup, new Insets(5));
+        StackPane.setMargin(newTextGroup, new Insets(10));
+        StackPane.setAlignment(newTextGroup, DisplayPositionSelector.getPosFromIndex(theme.getTextPosition()));
 
-        if (getCanvas().isCleared() && !getLastClearedState()) {
-            setLastClearedState(true);
-            FadeTransition t = new FadeTransition(Duration.millis(QueleaProperties.get().getClearFadeDuration()), textGroup);
-            FadeTransition t2 = new FadeTransition(Duration.millis(QueleaProperties.get().getClearFadeDuration()), smallTextGroup);
-            t.setToValue(0);
-            t.play();
-            t2.setToValue(0);
-            t2.play();
-        } else if (getCanvas().isCleared()) {
-            textGroup.setOpacity(0);
-            smallTextGroup.setOpacity(0);
-        } else if (!getCanvas().isCleared() && getLastClearedState()) {
-            setLastClearedState(false);
-            FadeTransition t = new FadeTransition(Duration.millis(QueleaProperties.get().getClearFadeDuration()), textGroup);
-            FadeTransition t2 = new FadeTransition(Duration.millis(QueleaProperties.get().getClearFadeDuration()), smallTextGroup);
-            t.setFromValue(0);
-            t.setToValue(1);
-            t.play();
-            t2.setFromValue(0);
-            t2.setToValue(1);
-            t2.play();
-        } else if (QueleaProperties.get().getUseSlideTransition()
-                && !getCanvas().isBlacked() && !getCanvas().isCleared()
-                && !getCanvas().isShowingLogo()
-                && getCanvas().equals(QueleaApp.get().getProjectionWindow().getCanvas())) {
-            if (oldTextGroup != null) {
-                FadeTransition fadeOut = new FadeTransition(Duration.millis(QueleaProperties.get().getSlideTransitionOutDuration()), oldTextGroup);
-                fadeOut.setFromValue(1.0);
-                fadeOut.setToValue(0.0);
-                fadeOut.setOnFinished(e -> {
-                    if (getCanvas().getChildren().contains(oldTextGroup)) {
-                        getCanvas().getChildren().remove(oldTextGroup);
-                        oldTextGroup = null;
-                    }
-                });
-                getCanvas().getChildren().add(oldTextGroup);
-                fadeOut.play();
-            }
-            if (oldTextGroup == null && Arrays.deepToString(oldText).equals("[]") || newItem) {
-                FadeTransition fadeIn = new FadeTransition(Duration.millis(QueleaProperties.get().getSlideTransitionInDuration()), textGroup);
-                fadeIn.setFromValue(0.0);
-                fadeIn.setToValue(1.0);
-                fadeIn.play();
-            }
-        }
+        StackPane.setMargin(smallTextGroup, new Insets(5));
+        return new PreparedText(newTextGroup, smallTextGroup);
     }
 
-    private void setPositionX(FormattedText t, FXFontMetrics metrics, String line, boolean biblePassage) {
+    private static void setPositionX(DisplayCanvas canvas, ThemeDTO theme, FormattedText t, FXFontMetrics metrics, String line) {
         Utils.checkFXThread();
         String strippedLine = line.replaceAll("\\<\\/?sup\\>", "");
         double width = metrics.computeStringWidth(strippedLine);
         double leftOffset = 0;
-        double centreOffset = (getCanvas().getWidth() - width) / 2;
-        double rightOffset = (getCanvas().getWidth() - width);
+        double centreOffset = (canvas.getWidth() - width) / 2;
+        double rightOffset = (canvas.getWidth() - width);
         if (theme.getTextAlignment() == -1) {
             t.setLayoutX(leftOffset);
         } else if (theme.getTextAlignment() == 0) {
@@ -403,14 +452,7 @@ public class LyricDrawer extends WordDrawer {
             Color color = ((ColourBackground) theme.getBackground()).getColour();
             image = Utils.getImageFromColour(color);
         } else if (theme.getBackground() instanceof VideoBackground) {
-            var uri = ((VideoBackground) theme.getBackground()).getVideoFile().toURI();
-            if(!Objects.equals(vidDisplay.getUri(), uri)) {
-                vidDisplay.stop();
-                vidDisplay.setURI(uri);
-                vidDisplay.play();
-            }
-            newImageView.imageProperty().bind(vidDisplay.imageProperty());
-
+            VidBackgrounds.bind(newImageView, ((VideoBackground) theme.getBackground()).getVideoFile().toURI());
         } else {
             LOGGER.log(Level.SEVERE, "Bug: Unhandled theme background case, trying to use default background: " + theme.getBackground(), new RuntimeException("DEBUG EXCEPTION FOR STACK TRACE"));
             image = Utils.getImageFromColour(ThemeDTO.DEFAULT_BACKGROUND.getColour());
@@ -464,21 +506,23 @@ public class LyricDrawer extends WordDrawer {
      * lines aren't more than the maximum length.
      * <p/>
      *
+     * @param capitaliseFirst true if the first character of each line should
+     * be a capital, false otherwise.
      * @return processed, sanctified text that can be displayed nicely.
      */
-    private List<LyricLine> sanctifyText(String[] linesArr, String[] translationArr) {
+    private static List<LyricLine> sanctifyText(String[] linesArr, String[] translationArr, boolean capitaliseFirst) {
         List<LyricLine> finalLines = new ArrayList<>();
         int translationOffset = 0;
         for (int i = 0; i < linesArr.length; i++) {
             finalLines.add(new LyricLine(linesArr[i]));
-            if (new LineTypeChecker(linesArr[i]).getLineType() == Type.NONBREAK) {
+            if (LineTypeChecker.getLineType(linesArr[i]) == Type.NONBREAK) {
                 continue;
             }
             if (translationArr != null && i < translationArr.length) {
-                while (i + translationOffset < translationArr.length && new LineTypeChecker(translationArr[i + translationOffset]).getLineType() != Type.NORMAL) {
+                while (i + translationOffset < translationArr.length && LineTypeChecker.getLineType(translationArr[i + translationOffset]) != Type.NORMAL) {
                     translationOffset++;
                 }
-                if (i + translationOffset < translationArr.length && new LineTypeChecker(translationArr[i + translationOffset]).getLineType() == Type.NORMAL) {
+                if (i + translationOffset < translationArr.length && LineTypeChecker.getLineType(translationArr[i + translationOffset]) == Type.NORMAL) {
                     finalLines.add(new LyricLine(true, translationArr[i + translationOffset]));
                 }
             }
@@ -490,7 +534,7 @@ public class LyricDrawer extends WordDrawer {
             if ((translationArr != null && translationArr.length > 0)) {
                 ret.add(line);
             } else {
-                List<String> splits = splitLine(line.getLine(), maxLength);
+                List<String> splits = splitLine(line.getLine(), maxLength, capitaliseFirst);
                 for (String split : splits) {
                     ret.add(new LyricLine(split));
                 }
@@ -504,26 +548,28 @@ public class LyricDrawer extends WordDrawer {
      * <p/>
      *
      * @param line the line to split.
+     * @param capitaliseFirst true if the first character of each line should
+     * be a capital, false otherwise.
      * @return the split line (or the unaltered line if it is less than or equal
      * to the allowed length.
      */
-    private List<String> splitLine(String line, int maxLength) {
+    private static List<String> splitLine(String line, int maxLength, boolean capitaliseFirst) {
         List<String> sections = new ArrayList<>();
         if (line.length() > maxLength) {
             if (containsNotAtEnd(line, ";")) {
                 for (String s : splitMiddle(line, ';')) {
-                    sections.addAll(splitLine(s, maxLength));
+                    sections.addAll(splitLine(s, maxLength, capitaliseFirst));
                 }
             } else if (containsNotAtEnd(line, ",")) {
                 for (String s : splitMiddle(line, ',')) {
-                    sections.addAll(splitLine(s, maxLength));
+                    sections.addAll(splitLine(s, maxLength, capitaliseFirst));
                 }
             } else if (containsNotAtEnd(line, " ")) {
                 for (String s : splitMiddle(line, ' ')) {
-                    sections.addAll(splitLine(s, maxLength));
+                    sections.addAll(splitLine(s, maxLength, capitaliseFirst));
                 }
             } else {
-                sections.addAll(splitLine(new StringBuilder(line).insert(line.length() / 2, " ").toString(), maxLength));
+                sections.addAll(splitLine(new StringBuilder(line).insert(line.length() / 2, " ").toString(), maxLength, capitaliseFirst));
             }
         } else {
             line = line.trim();
@@ -547,13 +593,37 @@ public class LyricDrawer extends WordDrawer {
         if (!QueleaProperties.get().getUseUniformFontSize()) {
             return -1;
         }
+        return getUniformFontSize(displayable, theme, capitaliseFirst, getCanvas().getWidth(), getCanvas().getHeight(),
+                canvasScalingFactor(), getLineSpacing());
+    }
 
+    /**
+     * Determine the largest font size we can safely use for every section of a
+     * text displayable on a canvas of a given size. The result is cached on
+     * the displayable. Everything this depends on is passed in rather than
+     * read from the drawer or its canvas, so it's safe to call off the FX
+     * thread.
+     * <p>
+     *
+     * @param displayable the displayable to check.
+     * @param theme the theme the displayable is shown with.
+     * @param capitaliseFirst true if the first character of each line should
+     * be a capital, false otherwise.
+     * @param canvasWidth the width of the canvas.
+     * @param canvasHeight the height of the canvas.
+     * @param scalingFactor the scale of the canvas compared to the projection
+     * window.
+     * @param lineSpacing the extra space between lines on the canvas.
+     * @return the font size to use
+     */
+    private double getUniformFontSize(TextDisplayable displayable, ThemeDTO theme, boolean capitaliseFirst,
+            double canvasWidth, double canvasHeight, double scalingFactor, double lineSpacing) {
         // Retrieve and scale the max font size for this canvas
         double maxFontSizeForCanvas = QueleaProperties.get().getMaxFontSize();
-        maxFontSizeForCanvas *= canvasScalingFactor();
+        maxFontSizeForCanvas *= scalingFactor;
 
-        int width = (int) (getCanvas().getWidth() * QueleaProperties.get().getLyricWidthBounds());
-        int height = (int) (getCanvas().getHeight() * QueleaProperties.get().getLyricHeightBounds());
+        int width = (int) (canvasWidth * QueleaProperties.get().getLyricWidthBounds());
+        int height = (int) (canvasHeight * QueleaProperties.get().getLyricHeightBounds());
 
         if (displayable instanceof BiblePassage) {
             height *= 1 - QueleaProperties.get().getSmallBibleTextSize();
@@ -571,8 +641,9 @@ public class LyricDrawer extends WordDrawer {
                 theme.isItalic() ? FontPosture.ITALIC : FontPosture.REGULAR,
                 maxFontSizeForCanvas);
         double fontSize = Double.POSITIVE_INFINITY;
-        for (int i = 0; i < displayable.getSections().length; i++) {
-            TextSection section = displayable.getSections()[i];
+        TextSection[] sections = displayable.getSections();
+        for (int i = 0; i < sections.length; i++) {
+            TextSection section = sections[i];
             String[] textArr;
             textArr = section.getText(false, false);
             List<LyricLine> processedText;
@@ -588,8 +659,8 @@ public class LyricDrawer extends WordDrawer {
                 if (translationLyrics != null) {
                     translationArr = translationLyrics.split("\n");
                 }
-                processedText = sanctifyText(textArr, translationArr);
-                newSize = pickFontSize(font, processedText, width, height);
+                processedText = sanctifyText(textArr, translationArr, capitaliseFirst);
+                newSize = pickFontSize(font, processedText, width, height, lineSpacing);
                 if (newSize < fontSize) {
                     fontSize = newSize;
                 }
@@ -598,17 +669,71 @@ public class LyricDrawer extends WordDrawer {
         if (fontSize == Double.POSITIVE_INFINITY) {
             fontSize = -1;
         }
+        if (!Arrays.equals(sections, displayable.getSections())) {
+            // The text changed while we were working - what we've got is stale
+            return fontSize;
+        }
         displayable.setCachedUniformFontSize(new Dimension(width, height), fontSize);
         return fontSize;
     }
 
+    /**
+     * Work out the uniform font size of a text displayable on a canvas in the
+     * background, so it's already cached by the time the displayable is shown
+     * there. The canvas is only looked at here, on the FX thread; the sizing
+     * itself (which also fills the font measurer's cache with the widths of
+     * the displayable's words) is done on a background thread.
+     * <p>
+     *
+     * @param displayable the displayable to work out the font size of.
+     * @param canvas the canvas it'll be shown on.
+     * @param themeStore the store the displayable's theme comes from.
+     */
+    public void precomputeUniformFontSize(TextDisplayable displayable, DisplayCanvas canvas, GlobalThemeStore themeStore) {
+        Utils.checkFXThread();
+        if (!QueleaProperties.get().getUseUniformFontSize() || canvas.getWidth() <= 0 || canvas.getHeight() <= 0) {
+            return;
+        }
+        double canvasWidth = canvas.getWidth();
+        double canvasHeight = canvas.getHeight();
+        double scalingFactor = canvasScalingFactor(canvas);
+        double lineSpacing = getLineSpacing(canvasHeight);
+        PRECOMPUTE_SERVICE.submit(() -> {
+            try {
+                TextSection[] sections = displayable.getSections();
+                if (sections.length == 0) {
+                    return;
+                }
+                getUniformFontSize(displayable, themeStore.getTheme(displayable, sections[0]), sections[0].shouldCapitaliseFirst(),
+                        canvasWidth, canvasHeight, scalingFactor, lineSpacing);
+            } catch (RuntimeException ex) {
+                LOGGER.log(Level.WARNING, "Couldn't work out uniform font size in the background", ex);
+            }
+        });
+    }
+
     @Override
     public void setText(TextDisplayable displayable, int index) {
+        long startTime = System.nanoTime();
         boolean fade = curDisplayable != displayable;
         double uniformFontSize = getUniformFontSize(displayable);
         curDisplayable = displayable;
         String[] bigText;
         bigText = displayable.getSections()[index].getText(false, false);
+        setText(bigText, getTranslation(displayable, index), getSmallText(displayable, index), fade, uniformFontSize);
+        RenderMetrics.get().recordSince("lyrics." + getCanvas().getName() + ".setText", startTime);
+        prepareNeighbours(displayable, index);
+    }
+
+    /**
+     * Get the lines of the translation of a section of a displayable.
+     * <p/>
+     *
+     * @param displayable the displayable.
+     * @param index the index of the section.
+     * @return the lines of the translation, or null if there isn't one.
+     */
+    private static String[] getTranslation(TextDisplayable displayable, int index) {
         String[] translationArr = null;
         if (displayable instanceof SongDisplayable) {
             String translationText = ((SongDisplayable) displayable).getCurrentTranslationSection(index);
@@ -616,7 +741,18 @@ public class LyricDrawer extends WordDrawer {
                 translationArr = translationText.split("\n");
             }
         }
+        return translationArr;
+    }
 
+    /**
+     * Get the small text to show with a section of a displayable.
+     * <p/>
+     *
+     * @param displayable the displayable.
+     * @param index the index of the section.
+     * @return the small text to show.
+     */
+    private static String[] getSmallText(TextDisplayable displayable, int index) {
         String[] smallText = displayable.getSections()[index].getSmallText();
         if (QueleaProperties.get().getSmallSongTextShowOnSlides().equals("first") && index > 0) {
             smallText = new String[0];
@@ -624,8 +760,82 @@ public class LyricDrawer extends WordDrawer {
         if (QueleaProperties.get().getSmallSongTextShowOnSlides().equals("last") && index < displayable.getSections().length - 1) {
             smallText = new String[0];
         }
+        return smallText;
+    }
 
-        setText(bigText, translationArr, smallText, fade, uniformFontSize);
+    /**
+     * Lay out the sections either side of the one that's just been shown on
+     * the current canvas, so moving to the next or previous slide just has to
+     * put the prepared text on the canvas. This is done after the current
+     * pulse, so it doesn't hold up the slide that's being shown now. Anything
+     * that was prepared for the canvas before is thrown away.
+     * <p/>
+     *
+     * @param displayable the displayable being shown.
+     * @param index the index of the section being shown.
+     */
+    private void prepareNeighbours(TextDisplayable displayable, int index) {
+        DisplayCanvas canvas = getCanvas();
+        Object request = new Object();
+        prepareRequests.put(canvas, request);
+        Platform.runLater(() -> {
+            if (prepareRequests.get(canvas) != request || curDisplayable != displayable) {
+                return;
+            }
+            Map<List<Object>, PreparedText> prepared = new HashMap<>();
+            TextSection[] sections = displayable.getSections();
+            GlobalThemeStore themeStore = QueleaApp.get().getMainWindow().getGlobalThemeStore();
+            for (int neighbour : new int[]{index + 1, index - 1}) {
+                if (neighbour < 0 || neighbour >= sections.length) {
+                    continue;
+                }
+                ThemeDTO neighbourTheme = themeStore.getTheme(displayable, sections[neighbour]);
+                if (neighbourTheme == null) {
+                    neighbourTheme = ThemeDTO.DEFAULT_THEME;
+                }
+                boolean neighbourCapitaliseFirst = sections[neighbour].shouldCapitaliseFirst();
+                double fontSize = -1;
+                if (QueleaProperties.get().getUseUniformFontSize()) {
+                    fontSize = getUniformFontSize(displayable, neighbourTheme, neighbourCapitaliseFirst, canvas.getWidth(), canvas.getHeight(),
+                            canvasScalingFactor(canvas), getLineSpacing(canvas.getHeight()));
+                }
+                String[] neighbourText = sections[neighbour].getText(false, false);
+                String[] neighbourTranslation = getTranslation(displayable, neighbour);
+                if (neighbourTranslation == null) {
+                    neighbourTranslation = new String[0];
+                }
+                String[] neighbourSmallText = getSmallText(displayable, neighbour);
+                boolean dumbWrap = displayable instanceof BiblePassage;
+                prepared.put(getPreparedTextKey(canvas, neighbourTheme, displayable, neighbourText, neighbourTranslation, neighbourSmallText,
+                        neighbourCapitaliseFirst, fontSize, dumbWrap),
+                        layoutText(canvas, neighbourTheme, displayable, neighbourText, neighbourTranslation, neighbourSmallText,
+                                neighbourCapitaliseFirst, fontSize, dumbWrap));
+            }
+            preparedText.put(canvas, prepared);
+        });
+    }
+
+    /**
+     * Get the key that text laid out with the given details is prepared
+     * under. Text is only used if everything it was laid out with is the same
+     * as what's being drawn.
+     * <p/>
+     *
+     * @return the key for the prepared text.
+     */
+    private static List<Object> getPreparedTextKey(DisplayCanvas canvas, ThemeDTO theme, TextDisplayable displayable, String[] text,
+            String[] translations, String[] smallText, boolean capitaliseFirst, double defaultFontSize, boolean dumbWrap) {
+        return Arrays.asList(canvas.getWidth(), canvas.getHeight(), theme,
+                displayable instanceof BiblePassage, displayable instanceof SongDisplayable,
+                asList(text), asList(translations), asList(smallText),
+                capitaliseFirst, defaultFontSize, dumbWrap);
+    }
+
+    private static List<String> asList(String[] arr) {
+        if (arr == null) {
+            return Collections.emptyList();
+        }
+        return Arrays.asList(arr);
     }
 
     /**
@@ -689,10 +899,26 @@ public class LyricDrawer extends WordDrawer {
 
     @Override
     public void clear() {
+        preparedText.remove(getCanvas());
+        prepareRequests.remove(getCanvas());
         if (getCanvas().getChildren() != null) {
             getCanvas().clearNonPermanentChildren();
         }
         setTheme(ThemeDTO.DEFAULT_THEME);
         eraseText();
     }
+
+    /**
+     * Text that's been laid out for a canvas, ready to be put on it.
+     */
+    private static final class PreparedText {
+
+        private final Group textGroup;
+        private final Group smallTextGroup;
+
+        private PreparedText(Group textGroup, Group smallTextGroup) {
+            this.textGroup = textGroup;
+            this.smallTextGroup = smallTextGroup;
+        }
+    }
 }
@@ -84,24 +84,24 @@ public class LyricsTextArea extends StackPane {
             if (oldLines != null && i < oldLines.length) {
                 oldLine = oldLines[i];
             }
-            if (new LineTypeChecker(line).getLineType() == Type.TITLE) {
+            if (LineTypeChecker.getLineType(line) == Type.TITLE) {
                 textArea.clearStyle(charPos, charPos + line.length());
                 if (QueleaProperties.get().getUseDarkTheme()) {
                     textArea.setStyle(charPos, charPos + line.length(), "-fx-fill: rgb(50,160,255); -fx-font-weight: bold;");
                 } else {
                     textArea.setStyle(charPos, charPos + line.length(), "-fx-fill: blue; -fx-font-weight: bold;");
                 }
-            } else if (new LineTypeChecker(line).getLineType() == Type.CHORDS) {
+            } else if (LineTypeChecker.getLineType(line) == Type.CHORDS) {
                 textArea.clearStyle(charPos, charPos + line.length());
                 if (QueleaProperties.get().getUseDarkTheme()) {
                     textArea.setStyle(charPos, charPos + line.length(), "-fx-fill: rgb(200,200,200); -fx-font-style: italic;");
                 } else {
                     textArea.setStyle(charPos, charPos + line.length(), "-fx-fill: grey; -fx-font-style: italic;");
                 }
-            } else if (new LineTypeChecker(line).getLineType() == Type.NONBREAK) {
+            } else if (LineTypeChecker.getLineType(line) == Type.NONBREAK) {
                 textArea.clearStyle(charPos, charPos + line.length());
                 textArea.setStyle(charPos, charPos + line.length(), "-fx-fill: red; -fx-font-weight: bold;");
-            } else if (new LineTypeChecker(line).getLineType() != new LineTypeChecker(oldLine).getLineType()) {
+            } else if (LineTypeChecker.getLineType(line) != LineTypeChecker.getLineType(oldLine)) {
                 textArea.clearStyle(charPos, charPos + line.length());
                 textArea.setStyle(charPos, charPos + line.length(), "");
             }
@@ -133,6 +133,23 @@ public class SelectLyricsPanel extends AbstractPanel {
         lyricsList.scrollTo(index);
     }
 
+    /**
+     * Start working out the uniform font size of a text displayable on each of
+     * this panel's lyric canvases in the background, so it's ready by the time
+     * the displayable is shown on this panel.
+     * <p/>
+     *
+     * @param displayable the displayable to work out the font sizes of.
+     */
+    public void precomputeUniformFontSizes(TextDisplayable displayable) {
+        GlobalThemeStore themeStore = QueleaApp.get().getMainWindow().getGlobalThemeStore();
+        for (DisplayCanvas canvas : getCanvases()) {
+            if (!canvas.isStageView()) {
+                lyricDrawer.precomputeUniformFontSize(displayable, canvas, themeStore);
+            }
+        }
+    }
+
     /**
      * Get the current displayed index.
      * <p/>
@@ -0,0 +1,115 @@
+/*
+ * This file is part of Quelea, free projection software for churches.
+ *
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.quelea.windows.lyrics;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javafx.application.Platform;
+import javafx.scene.Scene;
+import org.quelea.services.utils.LoggerUtils;
+import org.quelea.utils.RenderMetrics;
+import org.quelea.windows.main.DisplayCanvas;
+
+/**
+ * Keeps track of how long slide changes take: how long drawing the new text
+ * takes, and how long it is until the pulse that lays it out ready to render
+ * has finished (the frame the change appears in.) Slides that were laid out
+ * ahead of time are counted separately from those that weren't, so the two
+ * can be compared. A summary of each is logged every so often, and the
+ * timings also go into the {@link RenderMetrics}.
+ * <p/>
+ * @author Michael
+ */
+final class SlideTimings {
+
+    private static final Logger LOGGER = LoggerUtils.getLogger();
+    private static final int LOG_EVERY = 20;
+    private final Timing prepared = new Timing("prepared ahead", "lyrics.slide.prepared");
+    private final Timing laidOut = new Timing("laid out on change", "lyrics.slide.laidout");
+
+    /**
+     * Record a slide change on a canvas. Must be called on the FX thread once
+     * the new text has been put on the canvas.
+     * <p/>
+     * @param canvas the canvas the slide was changed on.
+     * @param wasPrepared true if the slide was laid out ahead of time, false
+     * otherwise.
+     * @param startTime the value of System.nanoTime() when the change started.
+     */
+    void record(DisplayCanvas canvas, boolean wasPrepared, long startTime) {
+        Timing timing = wasPrepared ? prepared : laidOut;
+        long drawTime = System.nanoTime() - startTime;
+        Scene scene = canvas.getScene();
+        if (scene == null) {
+            timing.add(drawTime, drawTime);
+            return;
+        }
+        Runnable listener = new Runnable() {
+            private boolean done;
+
+            @Override
+            public void run() {
+                if (done) {
+                    return;
+                }
+                done = true;
+                timing.add(drawTime, System.nanoTime() - startTime);
+                Platform.runLater(() -> scene.removePostLayoutPulseListener(this));
+            }
+        };
+        scene.addPostLayoutPulseListener(listener);
+    }
+
+    /**
+     * Timings of one kind of slide change.
+     */
+    private static final class Timing {
+
+        private final String name;
+        private final String metricName;
+        private int count;
+        private long totalDraw;
+        private long maxDraw;
+        private long totalFrame;
+        private long maxFrame;
+
+        private Timing(String name, String metricName) {
+            this.name = name;
+            this.metricName = metricName;
+        }
+
+        private void add(long drawTime, long frameTime) {
+            RenderMetrics.get().record(metricName + ".draw", drawTime);
+            RenderMetrics.get().record(metricName + ".frame", frameTime);
+            count++;
+            totalDraw += drawTime;
+            maxDraw = Math.max(maxDraw, drawTime);
+            totalFrame += frameTime;
+            maxFrame = Math.max(maxFrame, frameTime);
+            if (count == LOG_EVERY) {
+                LOGGER.log(Level.INFO, String.format("Last %d slide changes %s: draw avg %.2fms max %.2fms, to frame avg %.2fms max %.2fms",
+                        count, name, totalDraw / 1e6 / count, maxDraw / 1e6, totalFrame / 1e6 / count, maxFrame / 1e6));
+                count = 0;
+                totalDraw = 0;
+                maxDraw = 0;
+                totalFrame = 0;
+                maxFrame = 0;
+            }
+        }
+    }
+}
@@ -37,6 +37,7 @@ import org.quelea.services.notice.NoticeOverlay;
 import org.quelea.services.utils.LoggerUtils;
 import org.quelea.services.utils.QueleaProperties;
 import org.quelea.services.utils.Utils;
+import org.quelea.utils.RenderMetrics;
 import org.quelea.windows.main.widgets.LogoImage;
 
 /**
@@ -200,11 +201,33 @@ public class DisplayCanvas extends StackPane {
     private void updateCanvas(final CanvasUpdater updater) {
         Platform.runLater(() -> {
             if (isVisibleInScene() && updater != null) {
+                long startTime = System.nanoTime();
                 updater.updateCallback();
+                RenderMetrics.get().recordSince("canvas." + getName() + ".update", startTime);
             }
         });
     }
 
+    /**
+     * Get a name for this canvas that says what it's used for, to record
+     * metrics under.
+     * <p/>
+     *
+     * @return "projection" or "stage" for the canvases on the projection and
+     * stage windows, otherwise "preview" or "stagepreview".
+     */
+    public String getName() {
+        DisplayStage projectionWindow = QueleaApp.get().getProjectionWindow();
+        DisplayStage stageWindow = QueleaApp.get().getStageWindow();
+        if (projectionWindow != null && projectionWindow.getCanvas() == this) {
+            return "projection";
+        }
+        if (stageWindow != null && stageWindow.getCanvas() == this) {
+            return "stage";
+        }
+        return stageView ? "stagepreview" : "preview";
+    }
+
     private boolean isVisibleInScene() {
         Node parent = DisplayCanvas.this;
         boolean visible = isVisible();
@@ -28,10 +28,13 @@ import javafx.stage.Stage;
 import javafx.stage.StageStyle;
 import org.quelea.services.languages.LabelGrabber;
 import org.quelea.services.utils.LoggerUtils;
+import org.quelea.services.utils.QueleaProperties;
 import org.quelea.services.utils.Utils;
 import org.quelea.utils.PlatformUtils;
+import org.quelea.utils.RenderMetrics;
 import org.quelea.windows.main.DisplayCanvas.Priority;
 import org.quelea.windows.main.widgets.Clock;
+import org.quelea.windows.main.widgets.RenderMetricsOverlay;
 import org.quelea.windows.main.widgets.TestImage;
 
 import java.util.logging.Logger;
@@ -94,10 +97,16 @@ public class DisplayStage extends Stage {
         scenePane.getChildren().add(testImage);
         testImage.setVisible(false);
         testImage.toFront();
+        if (QueleaProperties.get().getShowRenderMetrics()) {
+            RenderMetricsOverlay metricsOverlay = new RenderMetricsOverlay();
+            StackPane.setAlignment(metricsOverlay, Pos.TOP_LEFT);
+            scenePane.getChildren().add(metricsOverlay);
+        }
         Scene scene = new Scene(scenePane);
         if (!stageView) {
             scene.setFill(null);
         }
+        RenderMetrics.get().watchPulses(stageView ? "stage" : "projection", scene);
         setScene(scene);
     }
 
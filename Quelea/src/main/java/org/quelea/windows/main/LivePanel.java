@@ -27,6 +27,7 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import javafx.application.Platform;
+import javafx.beans.Observable;
 import javafx.collections.ObservableList;
 import javafx.embed.swing.SwingFXUtils;
 import javafx.event.EventHandler;
@@ -155,6 +156,12 @@ public class LivePanel extends LivePreviewPanel {
         logoIV.setFitHeight(16);
         logoIV.setFitWidth(16);
         ToggleGroup group = new ToggleGroup();
+        group.selectedToggleProperty().addListener((obs, oldVal, newVal) -> QueleaApp.get().liveChanged());
+        getLyricsPanel().getLyricsList().getSelectionModel().selectedIndexProperty().addListener((obs, oldVal, newVal) -> QueleaApp.get().liveChanged());
+        getLyricsPanel().getLyricsList().getItems().addListener((Observable obs) -> QueleaApp.get().liveChanged());
+        getPresentationPanel().getPresentationPreview().addSlideChangedListener(newSlide -> QueleaApp.get().liveChanged());
+        getPdfPanel().getPresentationPreview().addSlideChangedListener(newSlide -> QueleaApp.get().liveChanged());
+        getImageGroupPanel().getPresentationPreview().addSlideChangedListener(newSlide -> QueleaApp.get().liveChanged());
         logo = new ToggleButton("", logoIV);
         logo.setToggleGroup(group);
         Utils.setToolbarButtonStyle(logo);
@@ -495,6 +502,7 @@ public class LivePanel extends LivePreviewPanel {
             }
         }
         oldD = d;
+        QueleaApp.get().liveChanged();
     }
 
     /**
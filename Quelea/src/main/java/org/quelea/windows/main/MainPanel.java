@@ -19,6 +19,7 @@ package org.quelea.windows.main;
 
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import javafx.beans.Observable;
 import javafx.geometry.Orientation;
 import javafx.scene.control.SplitPane;
 import javafx.scene.layout.BorderPane;
@@ -56,6 +57,8 @@ public class MainPanel extends BorderPane {
         previewPanel = new PreviewPanel();
         LOGGER.log(Level.INFO, "Creating live panel");
         livePanel = new LivePanel();
+        schedulePanel.getScheduleList().getItems().addListener((Observable obs) -> QueleaApp.get().liveChanged());
+        schedulePanel.getScheduleList().getSelectionModel().selectedItemProperty().addListener((obs, oldVal, newVal) -> QueleaApp.get().liveChanged());
 
         LOGGER.log(Level.INFO, "Creating split panels");
         scheduleAndLibrary = new SplitPane();
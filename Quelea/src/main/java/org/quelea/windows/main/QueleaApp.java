@@ -20,6 +20,8 @@ package org.quelea.windows.main;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javafx.application.Platform;
 import org.javafx.dialog.Dialog;
 import org.quelea.data.Schedule;
 import org.quelea.server.AutoDetectServer;
@@ -43,6 +45,7 @@ public class QueleaApp {
     private AutoDetectServer ads;
     private List<Runnable> runnables = new ArrayList<>();
     private volatile boolean loaded;
+    private final AtomicBoolean liveChangePending = new AtomicBoolean();
 
     /**
      * Get the singleton instance.
@@ -187,4 +190,25 @@ public class QueleaApp {
     public void setAutoDetectServer(AutoDetectServer ads) {
         this.ads = ads;
     }
+
+    /**
+     * Let the mobile lyrics and remote control servers know that what's live
+     * (or the schedule) may have changed, so they can update what they serve.
+     * Changes made together (such as a new item and its first section being
+     * selected) are only passed on once. May be called from any thread.
+     */
+    public void liveChanged() {
+        if (!liveChangePending.compareAndSet(false, true)) {
+            return;
+        }
+        Platform.runLater(() -> {
+            liveChangePending.set(false);
+            if (mls != null) {
+                mls.liveChanged();
+            }
+            if (rcs != null) {
+                rcs.liveChanged();
+            }
+        });
+    }
 }
@@ -17,12 +17,10 @@
  */
 package org.quelea.windows.main;
 
-import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import javafx.embed.swing.SwingFXUtils;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
 import javafx.geometry.Insets;
@@ -213,12 +211,15 @@ public class ThemePreviewPanel extends VBox {
         drawer.setText(ThemePanel.SAMPLE_LYRICS, new String[0], new String[0], false, -1);
     }
 
+    /**
+     * Take a snapshot of the preview of this theme. Must be called on the FX
+     * thread.
+     * <p/>
+     * @return the preview of this theme.
+     */
     public Image getThemePreviewImage() {
         previewImage = new WritableImage(200, 150);
         canvas.snapshot(new SnapshotParameters(), previewImage);
-        BufferedImage bi = SwingFXUtils.fromFXImage((WritableImage) previewImage, null);
-        SwingFXUtils.toFXImage(bi, previewImage);
-
         return previewImage;
     }
 
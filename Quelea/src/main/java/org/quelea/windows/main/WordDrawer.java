@@ -21,6 +21,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.function.ToDoubleFunction;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javafx.scene.image.ImageView;
@@ -35,6 +36,7 @@ import org.quelea.services.utils.LyricLine;
 import org.quelea.services.utils.QueleaProperties;
 import org.quelea.utils.Chord;
 import org.quelea.utils.FXFontMetrics;
+import org.quelea.utils.TextMeasurer;
 import org.quelea.utils.WrapTextResult;
 
 /**
@@ -68,35 +70,45 @@ public abstract class WordDrawer extends DisplayableDrawer {
         lastClearedState.put(getCanvas(), val);
     }
     
-    private WrapTextResult getWrapTextProps(Font font, String lineToWrap, double width) {
-        FXFontMetrics metrics = new FXFontMetrics(font);
+    /**
+     * Wrap a line of text into lines that fit into the given width.
+     * <p>
+     * @param measurer the measurer for the font to use.
+     * @param lineToWrap the line to wrap.
+     * @param width the width to fit the lines into.
+     * @param size the font size.
+     * @return the wrapped lines, with their total height in place of the font
+     * size.
+     */
+    private WrapTextResult getWrapTextProps(TextMeasurer measurer, String lineToWrap, double width, double size) {
         String[] words = lineToWrap.split(" ");
         StringBuilder lineBuilder = new StringBuilder();
+        double lineWidth = 0;
         List<LyricLine> lines = new ArrayList<>();
         for (int i = 0; i < words.length; i++) {
             String word = words[i];
-            String potentialStr = lineBuilder.toString() + word;
-            if (metrics.computeStringWidth(potentialStr.replace("<sup>", "").replace("</sup>", "")) > width) {
+            String measuredWord = word.replace("<sup>", "").replace("</sup>", "");
+            if (lineWidth + measurer.getWidth(measuredWord, size) > width) {
                 lines.add(new LyricLine(lineBuilder.toString()));
-                lineBuilder = new StringBuilder(word + " ");
-            }
-            else {
-                lineBuilder.append(word).append(" ");
+                lineBuilder.setLength(0);
+                lineWidth = 0;
             }
+            lineBuilder.append(word).append(" ");
+            lineWidth += measurer.getWidth(measuredWord + " ", size);
         }
         lines.add(new LyricLine(lineBuilder.toString()));
         //We're using the "fontsize" part of wraptextresult here as the height instead to reuse the same class, bit of a fudge...
-        return new WrapTextResult(lines, metrics.getLineHeight() * lines.size());
+        return new WrapTextResult(lines, measurer.getLineHeight(size) * lines.size());
     }
     
     protected WrapTextResult normalWrapText(Font font, String lineToWrap, double width, double height) {
+        TextMeasurer measurer = TextMeasurer.get(font);
         double min = 1;
         double max = font.getSize();
         
         double cur = (max-min)/2;
         
-        font = new Font(font.getName(), cur);
-        WrapTextResult result = getWrapTextProps(font, lineToWrap, width);
+        WrapTextResult result = getWrapTextProps(measurer, lineToWrap, width, cur);
         
         int i=0;
         while(result.getFontSize()>height || result.getFontSize()<height-50) {
@@ -112,15 +124,17 @@ public abstract class WordDrawer extends DisplayableDrawer {
                 throw new AssertionError("Shouldn't be here");
             }
             cur = ((max-min)/2)+min;
-            font = new Font(font.getName(), cur);
-            result = getWrapTextProps(font, lineToWrap, width);
+            result = getWrapTextProps(measurer, lineToWrap, width, cur);
         }
         return new WrapTextResult(result.getNewText(), cur);
     }
 
     /**
      * Pick a font size for the specified font that fits the given text into the
-     * width and height provided.
+     * width and height provided. The size is the font's size less as many half
+     * points as it takes for the text to fit, worked out directly from the
+     * size of the text rather than by trying each size in turn, then checked
+     * by measuring the text at that size.
      * <p>
      * @param font the font to use for calculations.
      * @param text the text to fit.
@@ -130,26 +144,40 @@ public abstract class WordDrawer extends DisplayableDrawer {
      * width and height provided.
      */
     protected double pickFontSize(Font font, List<LyricLine> text, double width, double height) {
-        FXFontMetrics metrics = new FXFontMetrics(font);
-        double totalHeight = ((metrics.getLineHeight() + getLineSpacing()) * text.size());
-        while (totalHeight > height) {
-            font = new Font(font.getName(), font.getSize() - 0.5);
-            if (font.getSize() < 1) {
-                return 1;
-            }
-            metrics = new FXFontMetrics(font);
-            totalHeight = (metrics.getLineHeight() + getLineSpacing()) * text.size();
-        }
+        return pickFontSize(font, text, width, height, getLineSpacing());
+    }
 
-        double totalWidth = longestLine(font, text);
-        while (totalWidth > width) {
-            font = new Font(font.getName(), font.getSize() - 0.5);
-            if (font.getSize() < 1) {
-                return 1;
+    /**
+     * Pick a font size for the specified font that fits the given text into the
+     * width and height provided, with a given amount of space between lines.
+     * This doesn't touch the canvas, so it's safe to call off the FX thread.
+     * <p>
+     * @param font the font to use for calculations.
+     * @param text the text to fit.
+     * @param width the fit width.
+     * @param height the fit height.
+     * @param lineSpacing the extra space between each line.
+     * @return a font size for the specified font that fits the text into the
+     * width and height provided.
+     */
+    protected static double pickFontSize(Font font, List<LyricLine> text, double width, double height, double lineSpacing) {
+        TextMeasurer measurer = TextMeasurer.get(font);
+        double textHeight = height - lineSpacing * text.size();
+        double size = TextMeasurer.fitSize(font.getSize(), measurer.getLineHeight(1) * text.size(), textHeight);
+        size = TextMeasurer.fitSize(size, longestLineWidth(text, line -> measurer.getWidth(line, 1)), width);
+        while (size >= 1.5) {
+            //Hinting means the scaled measurements can be a touch out, so check the size for real
+            double checkSize = size;
+            if (measurer.measureLineHeight(checkSize) * text.size() <= textHeight
+                    && longestLineWidth(text, line -> measurer.measureWidth(line, checkSize)) <= width) {
+                break;
             }
-            totalWidth = longestLine(font, text);
+            size -= 0.5;
         }
-        return font.getSize();
+        if (size < 1) {
+            return 1;
+        }
+        return size;
     }
 
     /**
@@ -160,17 +188,40 @@ public abstract class WordDrawer extends DisplayableDrawer {
     }
 
     protected double getLineSpacing() {
+        return getLineSpacing(getCanvas().getHeight());
+    }
+
+    /**
+     * Get the extra space to leave between lines on a canvas of a given
+     * height.
+     * <p>
+     * @param canvasHeight the height of the canvas.
+     * @return the space between lines.
+     */
+    protected static double getLineSpacing(double canvasHeight) {
         double space = QueleaProperties.get().getAdditionalLineSpacing();
-        double factor = getCanvas().getHeight() / 1000.0;
+        double factor = canvasHeight / 1000.0;
         return space * factor;
     }
 
     protected int longestLine(Font font, List<LyricLine> text) {
-        FXFontMetrics metrics = new FXFontMetrics(font);
-        int longestLine = 0;
+        TextMeasurer measurer = TextMeasurer.get(font);
+        return (int) longestLineWidth(text, line -> measurer.getWidth(line, font.getSize()));
+    }
+
+    /**
+     * Get the width of the longest line of some text, taking account of chords
+     * that stick out past the end of the line below them.
+     * <p>
+     * @param text the text.
+     * @param width the function to measure the width of a string with.
+     * @return the width of the longest line.
+     */
+    private static double longestLineWidth(List<LyricLine> text, ToDoubleFunction<String> width) {
+        double longestLine = 0;
         for (int i = 0; i < text.size(); i++) {
             LyricLine line = text.get(i);
-            if (new LineTypeChecker(line.getLine()).getLineType() == LineTypeChecker.Type.CHORDS && i < text.size() - 1) {
+            if (LineTypeChecker.getLineType(line.getLine()) == LineTypeChecker.Type.CHORDS && i < text.size() - 1) {
                 List<Chord> chords = Chord.getChordsFromLine(line.getLine());
                 String nextLine = text.get(i + 1).getLine();
 
@@ -178,9 +229,9 @@ public abstract class WordDrawer extends DisplayableDrawer {
                     nextLine += " ";
                 }
 
-                int maxX = 0;
+                double maxX = 0;
                 for (Chord chord : chords) {
-                    int x = (int) metrics.computeStringWidth(nextLine.substring(0, chord.getIdx())) + (int) metrics.computeStringWidth(chord.getChord());
+                    double x = width.applyAsDouble(nextLine.substring(0, chord.getIdx())) + width.applyAsDouble(chord.getChord());
                     if (x > maxX) {
                         maxX = x;
                     }
@@ -190,7 +241,7 @@ public abstract class WordDrawer extends DisplayableDrawer {
                 }
 
             } else {
-                int lineWidth = (int)metrics.computeStringWidth(line.getLine());
+                double lineWidth = width.applyAsDouble(line.getLine());
                 if(lineWidth>longestLine) {
                     longestLine = lineWidth;
                 }
@@ -270,7 +321,11 @@ public abstract class WordDrawer extends DisplayableDrawer {
     }
 
     protected double pickSmallFontSize(Font font, String[] text, double width, double height) {
-        FXFontMetrics metrics = new FXFontMetrics(font);
+        return pickSmallFontSize(font, text, width, height, getLineSpacing());
+    }
+
+    protected double pickSmallFontSize(Font font, String[] text, double width, double height, double lineSpacing) {
+        TextMeasurer measurer = TextMeasurer.get(font);
         ArrayList<String> al = new ArrayList<>();
         for (String te : text) {
             if (al.contains("\n")) {
@@ -280,28 +335,20 @@ public abstract class WordDrawer extends DisplayableDrawer {
                 al.add(te);
             }
         }
-        double totalHeight = ((metrics.getLineHeight() + getLineSpacing()) * al.size());
-        while (totalHeight > height) {
-            font = new Font(font.getName(), font.getSize() - 0.5);
-            if (font.getSize() < 1) {
-                return 1;
-            }
-            metrics = new FXFontMetrics(font);
-            totalHeight = (metrics.getLineHeight() + getLineSpacing()) * al.size();
-        }
-
+        double textHeight = height - lineSpacing * al.size();
+        double size = TextMeasurer.fitSize(font.getSize(), measurer.getLineHeight(1) * al.size(), textHeight);
         String longestLine = longestLine(font, al);
-        double totalWidth = metrics.computeStringWidth(longestLine);
-        while (totalWidth > width) {
-            font = new Font(font.getName(), font.getSize() - 0.5);
-            if (font.getSize() < 1) {
-                return 1;
-            }
-            metrics = new FXFontMetrics(font);
-            totalWidth = metrics.computeStringWidth(longestLine);
+        if (longestLine != null) {
+            size = TextMeasurer.fitSize(size, measurer.getWidth(longestLine, 1), width);
         }
-
-        return font.getSize();
+        while (size >= 1.5 && (measurer.measureLineHeight(size) * al.size() > textHeight
+                || (longestLine != null && measurer.measureWidth(longestLine, size) > width))) {
+            size -= 0.5;
+        }
+        if (size < 1) {
+            return 1;
+        }
+        return size;
     }
 
     /**
@@ -313,11 +360,22 @@ public abstract class WordDrawer extends DisplayableDrawer {
      * @return The scaling factor for this canvas
      */
     protected double canvasScalingFactor() {
+        return canvasScalingFactor(getCanvas());
+    }
+
+    /**
+     * Returns the scaling factor for a given canvas, compared to the canvas of
+     * the Projection Window.
+     * <p>
+     * @param canvas the canvas.
+     * @return The scaling factor for the canvas
+     */
+    protected static double canvasScalingFactor(DisplayCanvas canvas) {
         double scalingFactor = 1;
 
         // If there is a projection window, and it has some size (avoid divide by zero errors!)
         if (QueleaApp.get().getProjectionWindow() != null && QueleaApp.get().getProjectionWindow().getWidth() != 0) {
-            scalingFactor = getCanvas().getWidth() / QueleaApp.get().getProjectionWindow().getWidth();
+            scalingFactor = canvas.getWidth() / QueleaApp.get().getProjectionWindow().getWidth();
         }
 
         return scalingFactor;
@@ -54,6 +54,7 @@ import org.quelea.services.utils.Utils;
 import org.quelea.utils.SongDisplayableList;
 import org.quelea.windows.library.DisplayableListCell;
 import org.quelea.windows.lyrics.LyricDrawer;
+import org.quelea.windows.main.MainPanel;
 import org.quelea.windows.main.QueleaApp;
 import org.quelea.windows.main.WordDrawer;
 import org.quelea.windows.main.actionhandlers.AddPdfActionHandler;
@@ -254,6 +255,24 @@ public class ScheduleList extends StackPane {
             LOGGER.log(Level.WARNING, "Not on the platform thread!", new RuntimeException("DEBUG EX"));
         }
         listView.itemsProperty().get().add(displayable);
+        precomputeFontSizes(displayable);
+    }
+
+    /**
+     * Start working out the uniform font size of a displayable on the preview
+     * and live canvases in the background, so showing it doesn't have to.
+     * <p/>
+     *
+     * @param displayable the displayable that's been added to the schedule.
+     */
+    private void precomputeFontSizes(Displayable displayable) {
+        if (!(displayable instanceof TextDisplayable) || QueleaApp.get().getMainWindow() == null
+                || QueleaApp.get().getMainWindow().getMainPanel() == null) {
+            return;
+        }
+        MainPanel mainPanel = QueleaApp.get().getMainWindow().getMainPanel();
+        mainPanel.getPreviewPanel().getLyricsPanel().precomputeUniformFontSizes((TextDisplayable) displayable);
+        mainPanel.getLivePanel().getLyricsPanel().precomputeUniformFontSizes((TextDisplayable) displayable);
     }
 
     private void dragDropped(DragEvent event, ListCell<Displayable> listCell) {
@@ -457,6 +476,7 @@ public class ScheduleList extends StackPane {
                 ((SongDisplayable) displayable).matchID();
             }
             listView.itemsProperty().get().add(displayable);
+            precomputeFontSizes(displayable);
         }
         this.schedule = schedule;
     }
@@ -22,8 +22,10 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import javafx.application.Platform;
 import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -41,6 +43,7 @@ import javafx.scene.layout.VBox;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 import org.quelea.data.ThemeDTO;
+import org.quelea.server.ThemeThumbnails;
 import org.quelea.services.languages.LabelGrabber;
 import org.quelea.services.utils.LoggerUtils;
 import org.quelea.services.utils.QueleaProperties;
@@ -235,6 +238,9 @@ public class ScheduleThemeNode extends BorderPane {
         buttonPanel.getChildren().add(newThemeButton);
         contentPanel.getChildren().add(themePreviews);
         contentPanel.getChildren().add(buttonPanel);
+        final FlowPane previews = themePreviews;
+        previews.getChildren().addListener((ListChangeListener.Change<? extends Node> change) -> ThemeThumbnails.INSTANCE.update(previews.getChildren()));
+        Platform.runLater(() -> ThemeThumbnails.INSTANCE.update(previews.getChildren()));
     }
 
     public void setSongTheme(ThemeDTO songTempTheme) {
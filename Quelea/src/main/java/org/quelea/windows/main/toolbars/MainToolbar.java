@@ -475,6 +475,7 @@ public class MainToolbar extends ToolBar {
             setTime(recTime, recordAudioButton);
         });
         recCount.start();
+        QueleaApp.get().liveChanged();
     }
 
     public void stopRecording() {
@@ -487,6 +488,7 @@ public class MainToolbar extends ToolBar {
         recordAudioButton.setText("");
         recordAudioButton.setSelected(false);
         recTime = 0;
+        QueleaApp.get().liveChanged();
     }
 
     public RecordButtonHandler getRecordButtonHandler() {
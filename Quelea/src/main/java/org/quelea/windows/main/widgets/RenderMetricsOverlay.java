@@ -0,0 +1,51 @@
+/*
+ * This file is part of Quelea, free projection software for churches.
+ *
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.quelea.windows.main.widgets;
+
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.event.ActionEvent;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+import javafx.util.Duration;
+import org.quelea.utils.RenderMetrics;
+
+/**
+ * A debug overlay showing a summary of the render metrics, updated every
+ * second.
+ * <p>
+ * @author Michael
+ */
+public class RenderMetricsOverlay extends Text {
+
+    public RenderMetricsOverlay() {
+        setFont(Font.font("Monospaced", 12));
+        setFill(Color.LIME);
+        setStroke(Color.BLACK);
+        setStrokeWidth(0.3);
+        setMouseTransparent(true);
+        Timeline timeline = new Timeline(
+                new KeyFrame(Duration.seconds(0), (ActionEvent actionEvent) -> setText(RenderMetrics.get().getSummary())),
+                new KeyFrame(Duration.seconds(1))
+        );
+        timeline.setCycleCount(Animation.INDEFINITE);
+        timeline.play();
+    }
+}
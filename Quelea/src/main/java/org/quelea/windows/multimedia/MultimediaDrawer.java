@@ -6,6 +6,7 @@ import org.quelea.data.displayable.Displayable;
 import org.quelea.data.displayable.MultimediaDisplayable;
 import org.quelea.services.utils.QueleaProperties;
 import org.quelea.services.utils.Utils;
+import org.quelea.utils.RenderMetrics;
 import org.quelea.windows.main.DisplayableDrawer;
 import org.quelea.windows.video.VidDisplay;
 
@@ -28,6 +29,7 @@ public class MultimediaDrawer extends DisplayableDrawer {
 
     @Override
     public void draw(Displayable displayable) {
+        long startTime = System.nanoTime();
         MultimediaDisplayable multimediaDisplayable = (MultimediaDisplayable) displayable;
         URI uri = new File(multimediaDisplayable.getLocation()).toURI();
 
@@ -54,7 +56,7 @@ public class MultimediaDrawer extends DisplayableDrawer {
             vidDisplay.setOnPosChanged(controlPanel::setPosition);
             vidDisplay.setOnFinished(controlPanel::reset);
         }
-
+        RenderMetrics.get().recordSince("multimedia." + getCanvas().getName() + ".draw", startTime);
     }
 
     public void setPlayVideo() {
@@ -327,7 +327,7 @@ public class BasicSongPanel extends BorderPane {
         String key = keyField.getText();
         if (key == null || key.isEmpty()) {
             for (String line : getLyricsField().getTextArea().getText().split("\n")) {
-                if (new LineTypeChecker(line).getLineType() == LineTypeChecker.Type.CHORDS) {
+                if (LineTypeChecker.getLineType(line) == LineTypeChecker.Type.CHORDS) {
                     String first;
                     int i = 0;
                     do {
@@ -516,7 +516,7 @@ public class BasicSongPanel extends BorderPane {
 
         StringBuilder newText = new StringBuilder(getLyricsField().getTextArea().getText().length());
         for (String line : getLyricsField().getTextArea().getText().split("\n")) {
-            if (new LineTypeChecker(line).getLineType() == LineTypeChecker.Type.CHORDS) {
+            if (LineTypeChecker.getLineType(line) == LineTypeChecker.Type.CHORDS) {
                 newText.append(new ChordLineTransposer(line).transpose(semitones, key));
             } else {
                 newText.append(line);
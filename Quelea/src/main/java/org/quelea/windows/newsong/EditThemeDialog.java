@@ -75,8 +75,7 @@ public class EditThemeDialog extends Stage {
         themeCombo = new ComboBox<>();
         themeCombo.setOnAction(event -> setTheme(themeCombo.getSelectionModel().getSelectedItem()));
         themeCombo.setItems(ThemeUtils.getThemes());
-        ThemeDTO newTheme = ThemeDTO.DEFAULT_THEME;
-        newTheme.setThemeName("New...");
+        ThemeDTO newTheme = ThemeDTO.DEFAULT_THEME.withThemeName("New...");
         themeCombo.getItems().add(newTheme);
         themeSelectPanel.getChildren().addAll(themeSelectLabel, themeCombo);
 
@@ -99,9 +98,7 @@ public class EditThemeDialog extends Stage {
             } else {
                 themeName = nameField.getText();
             }
-            theme = panel.getTheme();
-            theme.setFile(themeFile);
-            theme.setThemeName(themeName);
+            theme = panel.getTheme().withFile(themeFile).withThemeName(themeName);
             hide();
         });
         cancelButton = new Button(LabelGrabber.INSTANCE.getLabel("cancel.button"), new ImageView(new Image("file:icons/cross.png")));
@@ -142,7 +139,6 @@ public class EditThemeDialog extends Stage {
         if (theme == null) {
             theme = new ThemeDTO(ThemeDTO.DEFAULT_FONT, ThemeDTO.DEFAULT_FONT_COLOR, ThemeDTO.DEFAULT_FONT, ThemeDTO.DEFAULT_TRANSLATE_FONT_COLOR,
                     ThemeDTO.DEFAULT_BACKGROUND, ThemeDTO.DEFAULT_SHADOW, false, false, false, true, -1, 0);
-            theme.setThemeName("");
         }
         if (theme.getFile() == null) {
             File file;
@@ -151,7 +147,7 @@ public class EditThemeDialog extends Stage {
                 file = new File(new File(QueleaProperties.get().getQueleaUserHome(), "themes"), "theme" + filenum + ".th");
                 filenum++;
             } while (file.exists());
-            theme.setFile(file);
+            theme = theme.withFile(file);
         }
         if (!theme.equals(themeCombo.getValue())) {
             themeCombo.setValue(theme);
@@ -372,7 +372,7 @@ public final class SequenceSelectionDialog extends Stage {
         String lyrics = QueleaApp.get().getMainWindow().getSongEntryWindow().getBasicSongPanel().getLyricsField().getTextArea().getText();
         List<String> list = new ArrayList<>();
         for (String s : lyrics.split("\n")) {
-            if (new LineTypeChecker(s).getLineType() == LineTypeChecker.Type.TITLE && !list.contains(s)) {
+            if (LineTypeChecker.getLineType(s) == LineTypeChecker.Type.TITLE && !list.contains(s)) {
                 list.add(s);
             }
         }
@@ -243,8 +243,6 @@ public class ThemePanel extends BorderPane {
         if (themeToolbar == null) {
             return ThemeDTO.DEFAULT_THEME;
         }
-        ThemeDTO ret = themeToolbar.getTheme();
-        ret.setTextPosition(positionSelector.getSelectedButtonIndex());
-        return ret;
+        return themeToolbar.getTheme().withTextPosition(positionSelector.getSelectedButtonIndex());
     }
 }
@@ -146,7 +146,7 @@ public class StageDrawer extends WordDrawer {
         for (int i = 0; i < newText.size(); i++) {
             LyricLine line = newText.get(i);
 
-            if (new LineTypeChecker(line.getLine()).getLineType() == LineTypeChecker.Type.CHORDS && i < newText.size() - 1) {
+            if (LineTypeChecker.getLineType(line.getLine()) == LineTypeChecker.Type.CHORDS && i < newText.size() - 1) {
                 List<Chord> chords = Chord.getChordsFromLine(line.getLine());
                 String nextLine = widenInitialSpaces(newText.get(i + 1).getLine());
 
@@ -174,7 +174,7 @@ public class StageDrawer extends WordDrawer {
                 t.setLayoutY(y);
 
                 Color lineColor;
-                if (new LineTypeChecker(line.getLine()).getLineType() == LineTypeChecker.Type.CHORDS) {
+                if (LineTypeChecker.getLineType(line.getLine()) == LineTypeChecker.Type.CHORDS) {
                     lineColor = QueleaProperties.get().getStageChordColor();
                 } else {
                     lineColor = QueleaProperties.get().getStageLyricsColor();
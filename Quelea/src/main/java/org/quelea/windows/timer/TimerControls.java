@@ -30,6 +30,7 @@ import javafx.scene.paint.CycleMethod;
 import javafx.scene.paint.LinearGradient;
 import javafx.scene.paint.Stop;
 import javafx.scene.shape.Rectangle;
+import org.quelea.windows.main.QueleaApp;
 import org.quelea.windows.main.widgets.Timer;
 
 import java.util.ArrayList;
@@ -136,6 +137,7 @@ public class TimerControls extends StackPane {
             }
             timers.forEach(Timer::play);
         }
+        QueleaApp.get().liveChanged();
     }
 
     public void reset() {
@@ -148,6 +150,7 @@ public class TimerControls extends StackPane {
 
         }
         playpause = false;
+        QueleaApp.get().liveChanged();
     }
 
     private void setButtonParams(final ImageView button) {
@@ -20,7 +20,7 @@ import org.quelea.windows.main.DisplayCanvas;
 import org.quelea.windows.main.DisplayableDrawer;
 import org.quelea.windows.main.widgets.Timer;
 import org.quelea.utils.FXFontMetrics;
-import org.quelea.windows.video.VidDisplay;
+import org.quelea.windows.video.VidBackgrounds;
 
 /**
  * @author tomaszpio@gmail.com, Michael, Ben
@@ -33,11 +33,9 @@ public class TimerDrawer extends DisplayableDrawer {
     private DisplayCanvas mainCanvas;
     private DisplayCanvas stageCanvas;
     private StackPane stack;
-    private VidDisplay vidDisplay;
 
     public TimerDrawer(TimerControls controlPanel) {
         this.controlPanel = controlPanel;
-        this.vidDisplay = new VidDisplay();
     }
 
     @Override
@@ -81,11 +79,8 @@ public class TimerDrawer extends DisplayableDrawer {
                 controlPanel.reset();
 
                 ImageView imageView = mainCanvas.getNewImageView();
-                imageView.imageProperty().bind(vidDisplay.imageProperty());
+                VidBackgrounds.bind(imageView, new File(url).toURI());
                 imageView.setPreserveRatio(true);
-                vidDisplay.setURI(new File(url).toURI());
-                vidDisplay.setLoop(true);
-                vidDisplay.play();
                 mainCanvas.getChildren().add(0, imageView);
             } else if (td.getTheme().getBackground() instanceof ImageBackground) {
                 ImageView imageView = mainCanvas.getNewImageView();
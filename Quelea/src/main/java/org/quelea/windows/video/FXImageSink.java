@@ -32,6 +32,7 @@ import org.freedesktop.gstreamer.FlowReturn;
 import org.freedesktop.gstreamer.Sample;
 import org.freedesktop.gstreamer.Structure;
 import org.freedesktop.gstreamer.elements.AppSink;
+import org.quelea.utils.RenderMetrics;
 
 import java.lang.reflect.Field;
 import java.nio.ByteBuffer;
@@ -39,6 +40,8 @@ import java.nio.ByteOrder;
 import java.nio.IntBuffer;
 import java.util.Queue;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * A wrapper connecting a GStreamer AppSink and a JavaFX Image, making use of
@@ -87,6 +90,10 @@ public class FXImageSink {
     private Sample activeSample;
     private Buffer activeBuffer;
     private final Queue<Sample> oldSamples;
+    private final AtomicReference<PendingFrame> pendingFrame = new AtomicReference<>();
+    private final AtomicLong framesDelivered = new AtomicLong();
+    private final AtomicLong framesDropped = new AtomicLong();
+    private final AtomicLong framesShown = new AtomicLong();
 
     /**
      * Create an FXImageSink. A new AppSink element will be created that can be
@@ -108,13 +115,13 @@ public class FXImageSink {
         sink.connect((AppSink.NEW_SAMPLE) elem -> {
             Sample s = elem.pullSample();
             if (s == null) throw new IllegalStateException();
-            Platform.runLater(() -> updateImage(s));
+            deliver(s);
             return FlowReturn.OK;
         });
         sink.connect((AppSink.NEW_PREROLL) appsink -> {
             Sample s = appsink.pullPreroll();
             if (s == null) throw new IllegalStateException();
-            Platform.runLater(() -> updateImage(s));
+            deliver(s);
             return FlowReturn.OK;
         });
         sink.setCaps(Caps.fromString(DEFAULT_CAPS));
@@ -145,19 +152,72 @@ public class FXImageSink {
         return sink;
     }
 
-    long lastTs = 0;
-    int frames = 0;
+    /**
+     * Get the number of frames GStreamer has delivered to this sink.
+     *
+     * @return the number of frames delivered
+     */
+    public long getFramesDelivered() {
+        return framesDelivered.get();
+    }
 
-    private void updateImage(Sample newSample) {
-        long ts = System.currentTimeMillis();
-        if(ts-lastTs>1000) {
-            System.out.println(frames);
-            frames = 1;
-            lastTs= ts;
+    /**
+     * Get the number of frames that were dropped because a newer frame
+     * arrived before the FX thread got round to showing them.
+     *
+     * @return the number of frames dropped
+     */
+    public long getFramesDropped() {
+        return framesDropped.get();
+    }
+
+    /**
+     * Get the number of frames that have been shown.
+     *
+     * @return the number of frames shown
+     */
+    public long getFramesShown() {
+        return framesShown.get();
+    }
+
+    /**
+     * Hand a frame from GStreamer over to the FX thread. Only the latest frame
+     * is ever waiting: if the FX thread hasn't taken the previous one yet, it's
+     * dropped and disposed of straight away, and only one update is ever
+     * queued on the FX thread. So however far the FX thread falls behind,
+     * neither samples nor runnables pile up.
+     *
+     * @param sample the frame.
+     */
+    private void deliver(Sample sample) {
+        framesDelivered.incrementAndGet();
+        RenderMetrics.get().increment("video.frames.delivered");
+        PendingFrame superseded = pendingFrame.getAndSet(new PendingFrame(sample, System.nanoTime()));
+        if (superseded == null) {
+            Platform.runLater(this::showPendingFrame);
+        } else {
+            superseded.sample.dispose();
+            framesDropped.incrementAndGet();
+            RenderMetrics.get().increment("video.frames.dropped");
         }
-        else {
-            frames++;
+    }
+
+    /**
+     * Show the latest frame delivered, if there is one.
+     */
+    private void showPendingFrame() {
+        PendingFrame frame = pendingFrame.getAndSet(null);
+        if (frame == null) {
+            return;
         }
+        RenderMetrics.get().recordSince("video.frame.wait", frame.deliveredTime);
+        long startTime = System.nanoTime();
+        updateImage(frame.sample);
+        framesShown.incrementAndGet();
+        RenderMetrics.get().recordSince("video.updateImage", startTime);
+    }
+
+    private void updateImage(Sample newSample) {
         if (!Platform.isFxApplicationThread()) {
             throw new IllegalStateException("Not on FX application thread");
         }
@@ -244,6 +304,10 @@ public class FXImageSink {
         if (!Platform.isFxApplicationThread()) {
             throw new IllegalStateException("Not on FX application thread");
         }
+        PendingFrame pending = pendingFrame.getAndSet(null);
+        if (pending != null) {
+            pending.sample.dispose();
+        }
         image.set(new WritableImage(1, 1));
         if (activeBuffer != null) {
             activeBuffer.unmap();
@@ -254,4 +318,18 @@ public class FXImageSink {
             activeSample = null;
         }
     }
+
+    /**
+     * A frame waiting to be shown, with the time it was delivered.
+     */
+    private static final class PendingFrame {
+
+        private final Sample sample;
+        private final long deliveredTime;
+
+        private PendingFrame(Sample sample, long deliveredTime) {
+            this.sample = sample;
+            this.deliveredTime = deliveredTime;
+        }
+    }
 }
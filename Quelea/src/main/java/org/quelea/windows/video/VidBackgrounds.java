@@ -0,0 +1,178 @@
+/*
+ * This file is part of Quelea, free projection software for churches.
+ *
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.quelea.windows.video;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
+import javafx.scene.Scene;
+import javafx.scene.image.ImageView;
+import javafx.stage.Window;
+import org.quelea.services.utils.LoggerUtils;
+import org.quelea.services.utils.Utils;
+
+/**
+ * Hands out the video displays used for looping video backgrounds. Everything
+ * showing the same background video shares a single display, so the video is
+ * only decoded once, into one image, however many canvases (the projector and
+ * the previews) it's shown on. Each canvas just binds its image view to that
+ * image.
+ * <p/>
+ * Each background is played from when it's first shown, and stopped once
+ * nothing on screen shows it any more, so canvases that are cleared, thrown
+ * away or never put on screen don't keep it playing. All the methods here must
+ * be called on the FX thread.
+ * <p/>
+ * @author Michael
+ */
+public final class VidBackgrounds {
+
+    private static final Logger LOGGER = LoggerUtils.getLogger();
+    private static final Map<URI, Background> BACKGROUNDS = new HashMap<>();
+
+    private VidBackgrounds() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Show a background video on an image view. The video is only held while
+     * the view is in a showing window: it's released when the view is taken
+     * out (when its canvas is cleared, gets a new background, or is itself
+     * taken off screen) or its window is hidden, and acquired again if it's
+     * shown again. A view that's never put on screen never holds it at all.
+     * <p/>
+     * @param view the image view to show the video on.
+     * @param uri the video to show.
+     */
+    public static void bind(ImageView view, URI uri) {
+        Utils.checkFXThread();
+        Showing showing = new Showing(view, uri);
+        view.sceneProperty().addListener(showing);
+        showing.invalidated(view.sceneProperty());
+    }
+
+    /**
+     * Get the display playing a background video, starting it if it isn't
+     * already playing. Every call should be matched by a call to
+     * {@link #release(URI)} once the background is no longer shown.
+     * <p/>
+     * @param uri the video to play.
+     * @return the display playing the video.
+     */
+    private static VidDisplay acquire(URI uri) {
+        Utils.checkFXThread();
+        Background background = BACKGROUNDS.get(uri);
+        if (background == null) {
+            LOGGER.log(Level.INFO, "Starting video background {0}", uri);
+            VidDisplay display = new VidDisplay();
+            display.setLoop(true);
+            display.setURI(uri);
+            display.play();
+            background = new Background(display);
+            BACKGROUNDS.put(uri, background);
+        }
+        background.users++;
+        return background.display;
+    }
+
+    /**
+     * Release a background video acquired with {@link #acquire(URI)}. When
+     * nothing is using it any more it's stopped.
+     * <p/>
+     * @param uri the video to release.
+     */
+    private static void release(URI uri) {
+        Utils.checkFXThread();
+        Background background = BACKGROUNDS.get(uri);
+        if (background != null && --background.users <= 0) {
+            LOGGER.log(Level.INFO, "Stopping video background {0}", uri);
+            BACKGROUNDS.remove(uri);
+            background.display.dispose();
+        }
+    }
+
+    /**
+     * Follows whether an image view is on screen, through its scene and that
+     * scene's window, and acquires or releases its background video to match.
+     * It only listens to the scene and window the view is currently in, so it
+     * doesn't keep the view from being garbage collected once it's taken out.
+     */
+    private static final class Showing implements InvalidationListener {
+
+        private final ImageView view;
+        private final URI uri;
+        private VidDisplay display;
+        private Scene scene;
+        private Window window;
+
+        private Showing(ImageView view, URI uri) {
+            this.view = view;
+            this.uri = uri;
+        }
+
+        @Override
+        public void invalidated(Observable observable) {
+            Scene newScene = view.getScene();
+            if (newScene != scene) {
+                if (scene != null) {
+                    scene.windowProperty().removeListener(this);
+                }
+                if (newScene != null) {
+                    newScene.windowProperty().addListener(this);
+                }
+                scene = newScene;
+            }
+            Window newWindow = scene == null ? null : scene.getWindow();
+            if (newWindow != window) {
+                if (window != null) {
+                    window.showingProperty().removeListener(this);
+                }
+                if (newWindow != null) {
+                    newWindow.showingProperty().addListener(this);
+                }
+                window = newWindow;
+            }
+            if (window != null && window.isShowing()) {
+                if (display == null) {
+                    display = acquire(uri);
+                    view.imageProperty().bind(display.imageProperty());
+                }
+            } else if (display != null) {
+                display = null;
+                release(uri);
+            }
+        }
+    }
+
+    /**
+     * A playing background, and how many things are using it.
+     */
+    private static final class Background {
+
+        private final VidDisplay display;
+        private int users;
+
+        private Background(VidDisplay display) {
+            this.display = display;
+        }
+    }
+}
@@ -31,6 +31,7 @@ public class VidDisplay {
     private URI uri;
     private Consumer<Double> posChanged;
     private Runnable onFinished;
+    private Timeline timer;
     private static final Image BLANK_IMG;
 
     static {
@@ -49,13 +50,17 @@ public class VidDisplay {
             playBin = new PlayBin("playbin " + id);
             playBin.setVideoSink(fxImageSink.getSinkElement());
             playBin.getBus().connect((Bus.EOS) source -> {
+                PlayBin bin = playBin;
+                if (bin == null) {
+                    return;
+                }
                 if (loop) {
-                    playBin.seekSimple(Format.TIME, EnumSet.of(SeekFlags.FLUSH), 0);
+                    bin.seekSimple(Format.TIME, EnumSet.of(SeekFlags.FLUSH), 0);
                 } else {
                     onFinished.run();
                 }
             });
-            Timeline timer = new Timeline(new KeyFrame(Duration.millis(100), e -> {
+            timer = new Timeline(new KeyFrame(Duration.millis(100), e -> {
                 long dur = playBin.queryDuration(Format.TIME);
                 long pos = playBin.queryPosition(Format.TIME);
                 if (dur > 0) {
@@ -94,6 +99,19 @@ public class VidDisplay {
         }
     }
 
+    /**
+     * Stop playing for good, freeing the decoder and the pipeline. The display
+     * shouldn't be used again afterwards.
+     */
+    public void dispose() {
+        if (playBin != null) {
+            timer.stop();
+            stop();
+            playBin.dispose();
+            playBin = null;
+        }
+    }
+
     public void setURI(URI uri) {
         if (!Objects.equals(this.uri, uri)) {
             this.uri = uri;
@@ -134,6 +152,9 @@ public class VidDisplay {
     }
 
     public void seek(double seekPos) {
+        if (playBin == null) {
+            return;
+        }
         long dur = playBin.queryDuration(Format.TIME);
         if (dur > 0) {
             playBin.seekSimple(Format.TIME, EnumSet.of(SeekFlags.FLUSH), (long) (seekPos * dur));
@@ -0,0 +1,115 @@
+/*
+ * This file is part of Quelea, free projection software for churches.
+ *
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.quelea.windows.video;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javafx.application.Platform;
+import javafx.embed.swing.SwingFXUtils;
+import javafx.scene.image.Image;
+import org.quelea.services.utils.LoggerUtils;
+import org.quelea.services.utils.ThumbnailCache;
+import org.quelea.windows.library.VideoListPanel;
+
+/**
+ * Makes the thumbnails shown for videos in the library. Grabbing a frame from
+ * a video means starting a pipeline and waiting for it to preroll, so this is
+ * done in the background on a few threads at once, each with its own
+ * pipeline. Thumbnails are cached on disk, so each video only has to be
+ * opened the first time it's shown.
+ * <p/>
+ * @author Michael
+ */
+public final class VidThumbnails {
+
+    public static final VidThumbnails INSTANCE = new VidThumbnails();
+    public static final int WIDTH = 160;
+    public static final int HEIGHT = 90;
+    private static final Logger LOGGER = LoggerUtils.getLogger();
+    private final ThumbnailCache cache = new ThumbnailCache("vid", WIDTH, HEIGHT);
+    private final ThreadLocal<VidPreviewDisplay> previewDisplay = ThreadLocal.withInitial(VidPreviewDisplay::new);
+    private final ExecutorService service;
+
+    private VidThumbnails() {
+        int threads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+        AtomicInteger threadCount = new AtomicInteger();
+        service = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "Video thumbnails " + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Get the thumbnail of a video in the background.
+     * <p/>
+     * @param file the video.
+     * @param callback the callback that's given the thumbnail, called on the
+     * FX thread.
+     */
+    public void getThumbnail(File file, Consumer<Image> callback) {
+        service.submit(() -> {
+            Image thumbnail;
+            try {
+                thumbnail = makeThumbnail(file);
+            } catch (RuntimeException ex) {
+                LOGGER.log(Level.WARNING, "Couldn't make thumbnail of " + file, ex);
+                thumbnail = VideoListPanel.UNSUPPORTED;
+            }
+            Image result = thumbnail;
+            Platform.runLater(() -> callback.accept(result));
+        });
+    }
+
+    /**
+     * Get the thumbnail of a video from the cache, or grab a frame from the
+     * video and cache it if it isn't there.
+     * <p/>
+     * @param file the video.
+     * @return the thumbnail.
+     */
+    private Image makeThumbnail(File file) {
+        Image cached = cache.get(file);
+        if (cached != null) {
+            return cached;
+        }
+        Image preview = previewDisplay.get().getPreviewImg(file.toURI());
+        if (preview == VideoListPanel.BLANK || preview == VideoListPanel.UNSUPPORTED) {
+            return preview;
+        }
+        BufferedImage thumbnail = resize(preview);
+        cache.put(file, thumbnail);
+        return SwingFXUtils.toFXImage(thumbnail, null);
+    }
+
+    private static BufferedImage resize(Image image) {
+        java.awt.Image sImg = SwingFXUtils.fromFXImage(image, null).getScaledInstance(WIDTH, HEIGHT, 0);
+        BufferedImage bimage = new BufferedImage(sImg.getWidth(null), sImg.getHeight(null), BufferedImage.TYPE_INT_ARGB);
+        Graphics2D bGr = bimage.createGraphics();
+        bGr.drawImage(sImg, 0, 0, null);
+        bGr.dispose();
+        return bimage;
+    }
+}
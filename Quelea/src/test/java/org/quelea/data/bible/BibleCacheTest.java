@@ -0,0 +1,82 @@
+package org.quelea.data.bible;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the binary bible cache.
+ */
+public class BibleCacheTest {
+
+    private static final String BIBLE = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<XMLBIBLE biblename=\"Test Bible\">\n"
+            + "  <BIBLEBOOK bnumber=\"1\" bname=\"Genesis\" bsname=\"Gen\">\n"
+            + "    <CHAPTER cnumber=\"1\">\n"
+            + "      <CAPTION>The creation</CAPTION>\n"
+            + "      <VERS vnumber=\"1\">In the beginning God created the heaven and the earth.</VERS>\n"
+            + "      <VERS vnumber=\"2\">Und die Erde war wüst und leer.</VERS>\n"
+            + "    </CHAPTER>\n"
+            + "    <CHAPTER cnumber=\"2\">\n"
+            + "      <VERS vnumber=\"1\">Thus the heavens and the earth were finished.</VERS>\n"
+            + "    </CHAPTER>\n"
+            + "  </BIBLEBOOK>\n"
+            + "  <BIBLEBOOK bnumber=\"2\">\n"
+            + "    <CHAPTER cnumber=\"1\"><VERS vnumber=\"1\">Now these are the names</VERS></CHAPTER>\n"
+            + "  </BIBLEBOOK>\n"
+            + "</XMLBIBLE>\n";
+
+    @TempDir
+    File tempDir;
+
+    @Test
+    public void testCacheMatchesXml() throws IOException {
+        File file = write("test.xml", BIBLE);
+        Bible parsed = Bible.parseBible(file);
+        Bible built = BibleCache.load(file);
+        assertTrue(BibleCache.getCacheFile(file).exists());
+        Bible cached = BibleCache.load(file);
+
+        assertEquals(parsed, built);
+        assertEquals(parsed, cached);
+        assertEquals("Test Bible", cached.getName());
+        assertEquals("Gen", cached.getBooks()[0].getBSName());
+        assertNull(cached.getBooks()[1].getBookName());
+        BibleChapter chapter = cached.getBooks()[0].getChapter(0);
+        assertArrayEquals(new String[]{"The creation"}, chapter.getCaptions());
+        assertEquals("Und die Erde war wüst und leer.", chapter.getVerse(2).getVerseText());
+        assertSame(chapter, chapter.getVerse(2).getChapter());
+        assertSame(cached, chapter.getBook().getBible());
+    }
+
+    @Test
+    public void testCacheRebuiltWhenXmlChanges() throws IOException {
+        File file = write("test.xml", BIBLE);
+        BibleCache.load(file);
+        write("test.xml", BIBLE.replace("Now these are the names", "These are the names"));
+        file.setLastModified(file.lastModified() + 2000);
+        Bible cached = BibleCache.load(file);
+        assertEquals("These are the names", cached.getBooks()[1].getChapter(0).getVerse(1).getVerseText());
+    }
+
+    @Test
+    public void testOrphanedCache() throws IOException {
+        File file = write("test.xml", BIBLE);
+        BibleCache.load(file);
+        File cacheFile = BibleCache.getCacheFile(file);
+        assertFalse(BibleCache.isOrphan(file));
+        assertFalse(BibleCache.isOrphan(cacheFile));
+        assertTrue(file.delete());
+        assertTrue(BibleCache.isOrphan(cacheFile));
+    }
+
+    private File write(String name, String content) throws IOException {
+        File file = new File(tempDir, name);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
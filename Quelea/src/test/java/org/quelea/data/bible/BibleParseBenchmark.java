@@ -0,0 +1,74 @@
+package org.quelea.data.bible;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.List;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import org.quelea.services.utils.UnicodeReader;
+import org.quelea.services.utils.Utils;
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
+
+/**
+ * Compares loading bibles with the old DOM parser against the streaming
+ * parser. Every bible XML file in the directory given as the argument is
+ * parsed both ways, and the load time and peak heap used by each are
+ * reported, averaged over a few rounds.
+ */
+public class BibleParseBenchmark {
+
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 1) {
+            System.err.println("Usage: BibleParseBenchmark <bible directory>");
+            return;
+        }
+        List<File> files = new ArrayList<>();
+        for (File file : new File(args[0]).listFiles()) {
+            if (file.getName().toLowerCase().endsWith(".xml") || file.getName().toLowerCase().endsWith(".xmm")) {
+                files.add(file);
+            }
+        }
+        System.out.printf("%d bibles%n", files.size());
+        for (int i = 0; i < ROUNDS; i++) {
+            measure("DOM", files, true);
+            measure("StAX", files, false);
+        }
+    }
+
+    private static void measure(String name, List<File> files, boolean dom) throws Exception {
+        System.gc();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            pool.resetPeakUsage();
+        }
+        long start = System.nanoTime();
+        List<Bible> bibles = new ArrayList<>();
+        for (File file : files) {
+            bibles.add(dom ? parseDom(file) : Bible.parseBible(file));
+        }
+        long time = (System.nanoTime() - start) / 1000000;
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        System.out.printf("%s: %d bibles in %d ms, peak heap %d MB%n", name, bibles.size(), time, peak / (1024 * 1024));
+    }
+
+    private static Bible parseDom(File file) throws Exception {
+        DocumentBuilder builder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+        Document doc = builder.parse(new InputSource(new UnicodeReader(new FileInputStream(file), Utils.getEncoding(file))));
+        String name = doc.getDocumentElement().getNodeName();
+        if (name.equalsIgnoreCase("osis")) {
+            return Bible.parseXML(doc.getElementsByTagName("osisText").item(0), Utils.getFileNameWithoutExtension(file.getName()));
+        }
+        return Bible.parseXML(doc.getDocumentElement(), Utils.getFileNameWithoutExtension(file.getName()));
+    }
+}
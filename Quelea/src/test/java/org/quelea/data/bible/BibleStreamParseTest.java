@@ -0,0 +1,106 @@
+package org.quelea.data.bible;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for parsing bibles with the streaming parser.
+ */
+public class BibleStreamParseTest {
+
+    private static final String ZEFANIA = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<XMLBIBLE biblename=\"Test Bible\">\n"
+            + "  <BIBLEBOOK bnumber=\"1\" bname=\"Genesis\">\n"
+            + "    <CHAPTER cnumber=\"1\">\n"
+            + "      <CAPTION>The creation</CAPTION>\n"
+            + "      <VERS vnumber=\"1\">In the beginning God created\n the heaven and the earth.</VERS>\n"
+            + "      <VERS vnumber=\"2\">And the earth was <STYLE>without form</STYLE>, and void.</VERS>\n"
+            + "      <VERS vnumber=\"x\">Not a verse.</VERS>\n"
+            + "    </CHAPTER>\n"
+            + "    <!-- comment -->\n"
+            + "    <CHAPTER>\n"
+            + "      <VERS vnumber=\"1\">Thus the heavens and the earth were finished.</VERS>\n"
+            + "    </CHAPTER>\n"
+            + "  </BIBLEBOOK>\n"
+            + "  <BIBLEBOOK bnumber=\"2\" bname=\"Exodus\">\n"
+            + "    <CHAPTER cnumber=\"1\"><VERS vnumber=\"1\"><![CDATA[Now these are the names]]></VERS></CHAPTER>\n"
+            + "  </BIBLEBOOK>\n"
+            + "</XMLBIBLE>\n";
+
+    private static final String OSIS = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<osis><osisText>\n"
+            + "  <header><work osisWork=\"test\"/></header>\n"
+            + "  <testament>\n"
+            + "    <div type=\"book\" osisID=\"Gen\">\n"
+            + "      <chapter osisID=\"Gen.1\" n=\"1\">\n"
+            + "        <verse osisID=\"Gen.1.1\">In the beginning</verse>\n"
+            + "        <verse osisID=\"Gen.1.2\">And the earth</verse>\n"
+            + "      </chapter>\n"
+            + "    </div>\n"
+            + "  </testament>\n"
+            + "  <div type=\"book\" osisID=\"Exod\">\n"
+            + "    <chapter n=\"1\"><verse osisID=\"Exod.1.1\">Now these</verse></chapter>\n"
+            + "  </div>\n"
+            + "</osisText></osis>\n";
+
+    @TempDir
+    File tempDir;
+
+    @Test
+    public void testZefania() throws IOException {
+        Bible bible = Bible.parseBible(write("zefania.xml", ZEFANIA));
+        assertNotNull(bible);
+        assertEquals("Test Bible", bible.getName());
+        assertEquals(2, bible.getBooks().length);
+
+        BibleBook genesis = bible.getBooks()[0];
+        assertEquals("Genesis", genesis.getBookName());
+        assertEquals(1, genesis.getBookNumber());
+        assertSame(bible, genesis.getBible());
+        assertEquals(2, genesis.getChapters().length);
+
+        BibleChapter first = genesis.getChapter(0);
+        assertEquals(1, first.getNum());
+        assertArrayEquals(new String[]{"The creation"}, first.getCaptions());
+        assertEquals(2, first.getVerses().length, "Verses with a bad number should be dropped");
+        assertEquals("In the beginning God created  the heaven and the earth.", first.getVerse(1).getVerseText());
+        assertEquals("And the earth was without form, and void.", first.getVerse(2).getVerseText());
+        assertSame(first, first.getVerse(1).getChapter());
+
+        // As with the DOM parser, an unnumbered chapter is numbered by its position among the book's child nodes
+        assertEquals(5, genesis.getChapter(1).getNum());
+
+        BibleBook exodus = bible.getBooks()[1];
+        assertEquals("Exodus", exodus.getBookName());
+        assertEquals("Now these are the names", exodus.getChapter(0).getVerse(1).getVerseText());
+    }
+
+    @Test
+    public void testOsis() throws IOException {
+        Bible bible = Bible.parseBible(write("osis.xml", OSIS));
+        assertNotNull(bible);
+        assertEquals("osis", bible.getName());
+        assertEquals(2, bible.getBooks().length);
+        assertEquals("Gen", bible.getBooks()[0].getBookName());
+        assertEquals(0, bible.getBooks()[0].getBookNumber());
+        assertEquals(1, bible.getBooks()[1].getBookNumber());
+        assertEquals("And the earth", bible.getBooks()[0].getChapter(0).getVerse(2).getVerseText());
+        assertEquals("Now these", bible.getBooks()[1].getChapter(0).getVerse(1).getVerseText());
+    }
+
+    @Test
+    public void testNoBibleRoot() throws IOException {
+        assertNull(Bible.parseBible(write("notabible.xml", "<?xml version=\"1.0\"?><songs><song/></songs>")));
+    }
+
+    private File write(String name, String content) throws IOException {
+        File file = new File(tempDir, name);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
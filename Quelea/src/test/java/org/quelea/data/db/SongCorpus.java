@@ -0,0 +1,88 @@
+package org.quelea.data.db;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The lyrics of the songs in the database bundled with Quelea, for use by
+ * benchmarks that want real song text rather than generated words. The songs
+ * are read straight out of the HSQL log, so no database needs to be started.
+ */
+public class SongCorpus {
+
+    private static final String INSERT = "INSERT INTO SONGS VALUES(";
+
+    /**
+     * Don't make me...
+     */
+    private SongCorpus() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Load the lyrics of every song in the bundled database.
+     *
+     * @return the lyrics of each song.
+     * @throws IOException if the database log couldn't be read.
+     */
+    public static List<String> loadLyrics() throws IOException {
+        List<String> ret = new ArrayList<>();
+        for (String line : Files.readAllLines(new File("database", "quelea.log").toPath(), StandardCharsets.UTF_8)) {
+            if (line.startsWith(INSERT)) {
+                List<String> values = parseValues(line.substring(INSERT.length()));
+                if (values.size() > 3 && values.get(3) != null) {
+                    ret.add(values.get(3));
+                }
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Parse the values of an HSQL insert statement. Strings are unquoted and
+     * unescaped, anything else is returned as it appears.
+     */
+    private static List<String> parseValues(String str) {
+        List<String> ret = new ArrayList<>();
+        int i = 0;
+        while (i < str.length() && str.charAt(i) != ')') {
+            if (str.charAt(i) == '\'') {
+                StringBuilder value = new StringBuilder();
+                i++;
+                while (i < str.length()) {
+                    char c = str.charAt(i);
+                    if (c == '\'' && i + 1 < str.length() && str.charAt(i + 1) == '\'') {
+                        value.append('\'');
+                        i += 2;
+                    } else if (c == '\'') {
+                        i++;
+                        break;
+                    } else if (c == '\\' && i + 5 < str.length() && str.charAt(i + 1) == 'u') {
+                        value.append((char) Integer.parseInt(str.substring(i + 2, i + 6), 16));
+                        i += 6;
+                    } else {
+                        value.append(c);
+                        i++;
+                    }
+                }
+                ret.add(value.toString());
+            } else {
+                int end = i;
+                while (end < str.length() && str.charAt(end) != ',' && str.charAt(end) != ')') {
+                    end++;
+                }
+                String value = str.substring(i, end);
+                ret.add(value.equals("NULL") ? null : value);
+                i = end;
+            }
+            if (i < str.length() && str.charAt(i) == ',') {
+                i++;
+            }
+        }
+        return ret;
+    }
+}
@@ -0,0 +1,42 @@
+package org.quelea.data.db;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import org.quelea.data.displayable.GeneratedSongs;
+import org.quelea.data.displayable.SongDisplayable;
+import org.quelea.services.utils.QueleaProperties;
+
+/**
+ * Measures bulk import throughput in songs per second. Batches of 500, 2000
+ * and 5000 generated songs are added one after another to a fresh database in
+ * a temporary directory, so later batches show the cost of inserting into a
+ * library that already has songs in it. The optional argument sets the JDBC
+ * batch size to compare.
+ */
+public class SongImportBenchmark {
+
+    private static final int[] IMPORT_SIZES = {500, 2000, 5000};
+
+    public static void main(String[] args) throws IOException {
+        QueleaProperties.init(Files.createTempDirectory("quelea-bench-import").toString());
+        if (args.length > 0) {
+            QueleaProperties.get().setProperty("database.batch.size", args[0]);
+        }
+        SongManager manager = SongManager.get();
+        if (manager == null) {
+            System.err.println("Couldn't initialise the database");
+            return;
+        }
+        manager.getSongs();
+        System.out.printf("Batch size %d%n", HibernateUtil.getBatchSize());
+        for (int size : IMPORT_SIZES) {
+            List<SongDisplayable> songs = GeneratedSongs.generate(size);
+            long start = System.nanoTime();
+            manager.addSong(songs, false);
+            double seconds = (System.nanoTime() - start) / 1000000000.0;
+            System.out.printf("%d songs: imported in %.2f s (%.0f songs/s), %d songs in library%n",
+                    size, seconds, size / seconds, manager.getSongs().length);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package org.quelea.data.displayable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates libraries of made up songs for the benchmarks. Songs have four
+ * sections of four lines, drawn from a small vocabulary of worship words so
+ * searches have plenty to match. The same count always gives the same songs.
+ */
+public final class GeneratedSongs {
+
+    private static final String[] WORDS = {"amazing", "grace", "how", "sweet", "the", "sound", "lord", "holy",
+        "king", "glory", "praise", "love", "light", "heart", "mercy", "shine", "spirit", "hallelujah", "name", "jesus"};
+
+    private GeneratedSongs() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Generate a number of songs. Each has a different title, so they can all
+     * be added to the same database. None of them have an ID.
+     *
+     * @param count the number of songs.
+     * @return the songs.
+     */
+    public static List<SongDisplayable> generate(int count) {
+        Random random = new Random(count);
+        List<SongDisplayable> ret = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            StringBuilder lyrics = new StringBuilder();
+            for (int section = 0; section < 4; section++) {
+                for (int line = 0; line < 4; line++) {
+                    lyrics.append(words(random, 6)).append("\n");
+                }
+                lyrics.append("\n");
+            }
+            ret.add(new SongDisplayable.Builder(words(random, 3) + " " + count + "-" + i, words(random, 2))
+                    .lyrics(lyrics.toString())
+                    .get());
+        }
+        return ret;
+    }
+
+    private static String words(Random random, int count) {
+        StringBuilder ret = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                ret.append(' ');
+            }
+            ret.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return ret.toString();
+    }
+}
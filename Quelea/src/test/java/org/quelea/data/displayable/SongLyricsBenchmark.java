@@ -0,0 +1,105 @@
+package org.quelea.data.displayable;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.quelea.data.db.SongCorpus;
+import org.quelea.services.utils.QueleaProperties;
+
+/**
+ * Times parsing, refreshing and reading song lyrics over every song in the
+ * bundled database, so must be run from the Quelea directory. Refreshing a
+ * song after its details change is timed against the old approach of turning
+ * the lyrics back into a string and parsing them again, and getting the
+ * lyrics as a string is timed on the first and on later calls.
+ */
+public class SongLyricsBenchmark {
+
+    private static final int WARMUP_ROUNDS = 10;
+    private static final int ROUNDS = 30;
+
+    public static void main(String[] args) throws Exception {
+        QueleaProperties.init("");
+        List<String> corpus = SongCorpus.loadLyrics();
+        System.out.printf("%d songs%n", corpus.size());
+        List<SongDisplayable> songs = parse(corpus);
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            parse(corpus);
+            refresh(songs);
+            reparse(songs);
+            getLyrics(copy(songs));
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            parse(corpus);
+        }
+        report("parse lyrics", start, corpus.size());
+
+        start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            reparse(songs);
+        }
+        report("refresh by reparsing lyrics", start, songs.size());
+
+        start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            refresh(songs);
+        }
+        report("refresh (setAuthor)", start, songs.size());
+
+        long time = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            List<SongDisplayable> copies = copy(songs);
+            start = System.nanoTime();
+            getLyrics(copies);
+            time += System.nanoTime() - start;
+        }
+        System.out.printf("first getLyrics: %.1f us/song%n", time / 1000.0 / (ROUNDS * songs.size()));
+
+        start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            getLyrics(songs);
+        }
+        report("repeated getLyrics", start, songs.size());
+    }
+
+    private static void report(String name, long start, int songs) {
+        System.out.printf("%s: %.1f us/song%n", name, (System.nanoTime() - start) / 1000.0 / (ROUNDS * songs));
+    }
+
+    private static List<SongDisplayable> parse(List<String> corpus) {
+        List<SongDisplayable> ret = new ArrayList<>(corpus.size());
+        for (String lyrics : corpus) {
+            ret.add(new SongDisplayable.Builder("Title", "Author").lyrics(lyrics).get());
+        }
+        return ret;
+    }
+
+    private static List<SongDisplayable> copy(List<SongDisplayable> songs) {
+        List<SongDisplayable> ret = new ArrayList<>(songs.size());
+        for (SongDisplayable song : songs) {
+            ret.add(new SongDisplayable(song));
+        }
+        return ret;
+    }
+
+    private static void refresh(List<SongDisplayable> songs) {
+        for (SongDisplayable song : songs) {
+            song.setAuthor(song.getAuthor());
+        }
+    }
+
+    private static void reparse(List<SongDisplayable> songs) {
+        for (SongDisplayable song : songs) {
+            song.setLyrics(song.getLyrics(true, true, false));
+        }
+    }
+
+    private static int getLyrics(List<SongDisplayable> songs) {
+        int length = 0;
+        for (SongDisplayable song : songs) {
+            length += song.getLyrics(false, false, false).length();
+        }
+        return length;
+    }
+}
@@ -0,0 +1,98 @@
+package org.quelea.server;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("LiveSnapshotTest")
+public class LiveSnapshotTest {
+
+    private HttpServer server;
+    private volatile LiveSnapshot snapshot = LiveSnapshot.EMPTY;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/lyrics", he -> snapshot.send(he, "lyrics"));
+        server.createContext("/title", he -> snapshot.send(he, "title"));
+        server.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("Test Versions Increase")
+    public void testVersionsIncrease() {
+        LiveSnapshot next = LiveSnapshot.EMPTY.next(bodies("a", "b"));
+        Assertions.assertEquals(0, LiveSnapshot.EMPTY.getVersion());
+        Assertions.assertEquals(1, next.getVersion());
+        Assertions.assertEquals(2, next.next(bodies("a", "b")).getVersion());
+    }
+
+    @Test
+    @DisplayName("Test Unchanged Response Is Not Sent Again")
+    public void testUnchangedResponseIsNotSentAgain() throws IOException {
+        snapshot = snapshot.next(bodies("Amazing grace", "Song"));
+        HttpURLConnection first = get("/lyrics", null);
+        Assertions.assertEquals(200, first.getResponseCode());
+        Assertions.assertEquals("Amazing grace", read(first));
+        String tag = first.getHeaderField("ETag");
+        Assertions.assertNotNull(tag);
+
+        Assertions.assertEquals(304, get("/lyrics", tag).getResponseCode());
+
+        snapshot = snapshot.next(bodies("Amazing grace", "Another song"));
+        Assertions.assertEquals(304, get("/lyrics", tag).getResponseCode());
+
+        snapshot = snapshot.next(bodies("How sweet the sound", "Another song"));
+        HttpURLConnection changed = get("/lyrics", tag);
+        Assertions.assertEquals(200, changed.getResponseCode());
+        Assertions.assertEquals("How sweet the sound", read(changed));
+        Assertions.assertNotEquals(tag, changed.getHeaderField("ETag"));
+    }
+
+    @Test
+    @DisplayName("Test Missing Response Is Empty")
+    public void testMissingResponseIsEmpty() throws IOException {
+        HttpURLConnection connection = get("/title", null);
+        Assertions.assertEquals(200, connection.getResponseCode());
+        Assertions.assertEquals("", read(connection));
+    }
+
+    private static Map<String, String> bodies(String lyrics, String title) {
+        Map<String, String> bodies = new HashMap<>();
+        bodies.put("lyrics", lyrics);
+        bodies.put("title", title);
+        return bodies;
+    }
+
+    private HttpURLConnection get(String path, String ifNoneMatch) throws IOException {
+        URL url = new URL("http://127.0.0.1:" + server.getAddress().getPort() + path);
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setUseCaches(false);
+        if (ifNoneMatch != null) {
+            connection.setRequestProperty("If-None-Match", ifNoneMatch);
+        }
+        return connection;
+    }
+
+    private static String read(HttpURLConnection connection) throws IOException {
+        try (InputStream in = connection.getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package org.quelea.server;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.quelea.utils.RenderMetrics;
+
+/**
+ * Load tests the mobile lyrics endpoints, for sizing the server executor and
+ * the per-client request limit. It reports throughput, the count of 200, 304,
+ * 429 and failed responses, poll latency percentiles and how long events take
+ * to reach listeners. The server is set up the way MobileLyricsServer is (same
+ * executor, limiter, snapshot and event stream), with a stand-in live panel
+ * that moves on to the next section of a song every couple of seconds. Most
+ * simulated phones poll /lyrics and /songtranslations every 500ms as the
+ * mobile page does; the rest listen on /events.
+ * <p/>
+ * Arguments (all optional): clients, seconds, server threads, "virtual" or
+ * "pool", requests per second per client. Each client connects from its own
+ * loopback address (127.0.x.y) so the per-client limit applies as it would on
+ * a real network. That works on Linux; elsewhere pass a limit of 0.
+ */
+public class MobileClientsBenchmark {
+
+    private static final int POLL_MILLIS = 500;
+    private static final int SECTION_MILLIS = 2000;
+    private static final double LISTENER_FRACTION = 0.25;
+    private static final long[] LATENCY_BOUNDS_MICROS = {500, 1_000, 2_000, 5_000, 10_000, 20_000, 50_000, 100_000, 250_000, 1_000_000};
+    private static final String[] VERSES = {
+        "Amazing grace how sweet the sound\nThat saved a wretch like me\nI once was lost but now am found\nWas blind but now I see",
+        "'Twas grace that taught my heart to fear\nAnd grace my fears relieved\nHow precious did that grace appear\nThe hour I first believed",
+        "Through many dangers, toils and snares\nI have already come\n'Tis grace hath brought me safe thus far\nAnd grace will lead me home",
+        "When we've been there ten thousand years\nBright shining as the sun\nWe've no less days to sing God's praise\nThan when we'd first begun"
+    };
+    private static volatile LiveSnapshot snapshot = LiveSnapshot.EMPTY;
+    private static volatile long sectionChanged;
+    private static final AtomicLong ok = new AtomicLong();
+    private static final AtomicLong notModified = new AtomicLong();
+    private static final AtomicLong limited = new AtomicLong();
+    private static final AtomicLong failed = new AtomicLong();
+    private static final AtomicLong events = new AtomicLong();
+    private static final AtomicLongArray requestLatencies = new AtomicLongArray(LATENCY_BOUNDS_MICROS.length + 1);
+    private static final AtomicLongArray eventLatencies = new AtomicLongArray(LATENCY_BOUNDS_MICROS.length + 1);
+    private static volatile boolean running = true;
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+        boolean virtual = args.length <= 3 || args[3].equals("virtual");
+        int perSecond = args.length > 4 ? Integer.parseInt(args[4]) : 20;
+
+        EventStream liveEvents = new EventStream("Benchmark");
+        RequestLimiter limiter = new RequestLimiter("benchmark", perSecond);
+        ExecutorService executor = ServerExecutors.create("Benchmark", threads, virtual);
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/lyrics", he -> snapshot.send(he, "lyrics")).getFilters().add(limiter);
+        server.createContext("/title", he -> snapshot.send(he, "title")).getFilters().add(limiter);
+        server.createContext("/songtranslations", he -> snapshot.send(he, "songtranslations")).getFilters().add(limiter);
+        server.createContext("/events", liveEvents).getFilters().add(limiter);
+        server.setExecutor(executor);
+        server.start();
+        int port = server.getAddress().getPort();
+
+        ScheduledExecutorService livePanel = Executors.newSingleThreadScheduledExecutor();
+        int[] section = {0};
+        livePanel.scheduleAtFixedRate(() -> {
+            String lyrics = VERSES[section[0]++ % VERSES.length].replace("\n", "<br/>");
+            Map<String, String> bodies = new HashMap<>();
+            bodies.put("lyrics", lyrics);
+            bodies.put("title", "Amazing Grace");
+            bodies.put("songtranslations", "None");
+            sectionChanged = System.nanoTime();
+            snapshot = snapshot.next(bodies);
+            liveEvents.publish("live", sectionChanged + "\n" + lyrics);
+        }, 0, SECTION_MILLIS, TimeUnit.MILLISECONDS);
+
+        int listeners = (int) (clients * LISTENER_FRACTION);
+        System.out.printf("%d clients (%d listening for events), %d seconds, %s, %d requests/s per client%n",
+                clients, listeners, seconds, virtual ? "virtual threads if supported" : threads + " threads", perSecond);
+        List<Thread> clientThreads = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            InetAddress address = InetAddress.getByAddress(new byte[]{127, 0, (byte) (i / 250), (byte) (i % 250 + 2)});
+            boolean listener = i < listeners;
+            Thread thread = new Thread(() -> {
+                try {
+                    if (listener) {
+                        listen(address, port);
+                    } else {
+                        poll(address, port);
+                    }
+                } catch (IOException | InterruptedException ex) {
+                    if (running) {
+                        failed.incrementAndGet();
+                    }
+                }
+            });
+            thread.setDaemon(true);
+            clientThreads.add(thread);
+        }
+        long start = System.nanoTime();
+        clientThreads.forEach(Thread::start);
+        Thread.sleep(TimeUnit.SECONDS.toMillis(seconds));
+        running = false;
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        long requests = ok.get() + notModified.get() + limited.get();
+        System.out.printf("%.0f requests/s: %d ok, %d not modified, %d limited, %d failed%n",
+                requests / elapsed, ok.get(), notModified.get(), limited.get(), failed.get());
+        System.out.println("request latency: " + summarise(requestLatencies));
+        System.out.printf("%d events received%n", events.get());
+        System.out.println("event latency: " + summarise(eventLatencies));
+        System.out.print(RenderMetrics.get().toText());
+
+        livePanel.shutdownNow();
+        liveEvents.close();
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Poll the way the mobile page does, over one kept-alive connection,
+     * sending back the tag of the last response so unchanged responses come
+     * back as a 304.
+     */
+    private static void poll(InetAddress address, int port) throws IOException, InterruptedException {
+        Thread.sleep((long) (Math.random() * POLL_MILLIS));
+        Map<String, String> tags = new HashMap<>();
+        Socket socket = null;
+        while (running) {
+            long pollStart = System.nanoTime();
+            for (String path : new String[]{"/lyrics", "/songtranslations"}) {
+                if (socket == null) {
+                    socket = new Socket();
+                    socket.bind(new InetSocketAddress(address, 0));
+                    socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+                }
+                long requestStart = System.nanoTime();
+                Response response = get(socket, path, tags.get(path));
+                record(requestLatencies, System.nanoTime() - requestStart);
+                if (response.status == 200) {
+                    ok.incrementAndGet();
+                    tags.put(path, response.tag);
+                } else if (response.status == 304) {
+                    notModified.incrementAndGet();
+                } else if (response.status == 429) {
+                    limited.incrementAndGet();
+                } else {
+                    failed.incrementAndGet();
+                }
+                if (response.close) {
+                    socket.close();
+                    socket = null;
+                }
+            }
+            long wait = POLL_MILLIS - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - pollStart);
+            if (wait > 0) {
+                Thread.sleep(wait);
+            }
+        }
+        if (socket != null) {
+            socket.close();
+        }
+    }
+
+    /**
+     * Listen for events, recording how long after the section changed each
+     * one arrives.
+     */
+    private static void listen(InetAddress address, int port) throws IOException {
+        try (Socket socket = new Socket()) {
+            socket.bind(new InetSocketAddress(address, 0));
+            socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+            socket.getOutputStream().write(request("/events", null));
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            String line;
+            boolean first = true;
+            while (running && (line = readLine(in)) != null) {
+                if (line.startsWith("data: ") && line.length() > 6 && Character.isDigit(line.charAt(6))) {
+                    long sent = Long.parseLong(line.substring(6));
+                    if (first) {
+                        first = false;
+                    } else {
+                        record(eventLatencies, System.nanoTime() - sent);
+                    }
+                    events.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    private static Response get(Socket socket, String path, String tag) throws IOException {
+        OutputStream out = socket.getOutputStream();
+        out.write(request(path, tag));
+        out.flush();
+        InputStream in = socket.getInputStream();
+        String statusLine = readLine(in);
+        if (statusLine == null) {
+            throw new IOException("Connection closed");
+        }
+        Response response = new Response();
+        response.status = Integer.parseInt(statusLine.split(" ")[1]);
+        int length = 0;
+        String line;
+        while ((line = readLine(in)) != null && !line.isEmpty()) {
+            String header = line.toLowerCase(Locale.ROOT);
+            if (header.startsWith("content-length:")) {
+                length = Integer.parseInt(line.substring(15).trim());
+            } else if (header.startsWith("etag:")) {
+                response.tag = line.substring(5).trim();
+            } else if (header.startsWith("connection:") && header.contains("close")) {
+                response.close = true;
+            }
+        }
+        //The JDK server closes the connection after a 304
+        response.close |= response.status == 304;
+        in.readNBytes(length);
+        return response;
+    }
+
+    private static byte[] request(String path, String tag) {
+        StringBuilder request = new StringBuilder();
+        request.append("GET ").append(path).append(" HTTP/1.1\r\nHost: localhost\r\n");
+        if (tag != null) {
+            request.append("If-None-Match: ").append(tag).append("\r\n");
+        }
+        return request.append("\r\n").toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Read a line without buffering past its end, so what follows can still
+     * be read from the stream.
+     */
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != -1 && b != '\n') {
+            if (b != '\r') {
+                line.write(b);
+            }
+        }
+        if (b == -1 && line.size() == 0) {
+            return null;
+        }
+        return line.toString(StandardCharsets.UTF_8);
+    }
+
+    private static void record(AtomicLongArray histogram, long nanos) {
+        long micros = nanos / 1000;
+        int bucket = 0;
+        while (bucket < LATENCY_BOUNDS_MICROS.length && micros > LATENCY_BOUNDS_MICROS[bucket]) {
+            bucket++;
+        }
+        histogram.incrementAndGet(bucket);
+    }
+
+    private static String summarise(AtomicLongArray histogram) {
+        long total = 0;
+        for (int i = 0; i < histogram.length(); i++) {
+            total += histogram.get(i);
+        }
+        StringBuilder ret = new StringBuilder();
+        for (double percentile : new double[]{0.5, 0.9, 0.99}) {
+            long seen = 0;
+            for (int i = 0; i < histogram.length(); i++) {
+                seen += histogram.get(i);
+                if (seen >= total * percentile) {
+                    ret.append(String.format(Locale.ROOT, "p%.0f<=%s ", percentile * 100,
+                            i < LATENCY_BOUNDS_MICROS.length ? String.format(Locale.ROOT, "%.1fms", LATENCY_BOUNDS_MICROS[i] / 1000.0) : "inf"));
+                    break;
+                }
+            }
+        }
+        return total == 0 ? "none" : ret.append("(").append(total).append(")").toString().trim();
+    }
+
+    private static final class Response {
+
+        private int status;
+        private String tag;
+        private boolean close;
+    }
+}
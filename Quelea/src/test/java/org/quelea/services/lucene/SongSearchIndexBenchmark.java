@@ -0,0 +1,55 @@
+package org.quelea.services.lucene;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import org.apache.lucene.store.MMapDirectory;
+import org.quelea.data.displayable.GeneratedSongs;
+import org.quelea.data.displayable.SongDisplayable;
+import org.quelea.services.utils.QueleaProperties;
+
+/**
+ * Measures how long a library search takes as the library grows. For
+ * libraries of 1000, 5000 and 20000 generated songs it reports the time to
+ * build the index, then the average time per query for each filter type,
+ * over the partial queries someone typing "grace" or "king of glory" into the
+ * search box would make.
+ */
+public class SongSearchIndexBenchmark {
+
+    private static final int[] LIBRARY_SIZES = {1000, 5000, 20000};
+    private static final String[] QUERIES = {"g", "gr", "gra", "grac", "grace", "amazing gr", "holy spirit", "king of gl"};
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int ROUNDS = 100;
+
+    public static void main(String[] args) throws IOException {
+        QueleaProperties.init("");
+        for (int size : LIBRARY_SIZES) {
+            SongSearchIndex index = new SongSearchIndex(new MMapDirectory(Files.createTempDirectory("quelea-bench-song")));
+            List<SongDisplayable> songs = GeneratedSongs.generate(size);
+            for (int i = 0; i < songs.size(); i++) {
+                songs.get(i).setID(i);
+            }
+            long start = System.nanoTime();
+            index.addAll(songs);
+            System.out.printf("%d songs: indexed in %d ms%n", size, (System.nanoTime() - start) / 1000000);
+            for (SearchIndex.FilterType type : SearchIndex.FilterType.values()) {
+                for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                    runQueries(index, type);
+                }
+                start = System.nanoTime();
+                for (int i = 0; i < ROUNDS; i++) {
+                    runQueries(index, type);
+                }
+                double perQuery = (System.nanoTime() - start) / 1000000.0 / (ROUNDS * QUERIES.length);
+                System.out.printf("%d songs: %s filter %.3f ms/query%n", size, type, perQuery);
+            }
+        }
+    }
+
+    private static void runQueries(SongSearchIndex index, SearchIndex.FilterType type) {
+        for (String query : QUERIES) {
+            index.filter(query, type);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package org.quelea.services.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.quelea.data.db.SongCorpus;
+import org.quelea.data.displayable.TextSection;
+
+/**
+ * Times classifying lines as chords or lyrics over every song in the bundled
+ * database, so must be run from the Quelea directory. The old regex based
+ * chord check is timed against the current checker, followed by asking text
+ * sections for their lyrics without chords, which used to classify every line
+ * again on every call.
+ */
+public class LineTypeCheckerBenchmark {
+
+    private static final String[] CHORD_LINES = {"G D/F# Em C", "Am7 Dsus4 D", "C  G/B  Am  Fmaj7", "Bb F/A Gm7 Eb", "E B C#m A x2"};
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int ROUNDS = 50;
+
+    public static void main(String[] args) throws Exception {
+        List<String> lines = new ArrayList<>();
+        List<TextSection> sections = new ArrayList<>();
+        int chordIdx = 0;
+        for (String lyrics : SongCorpus.loadLyrics()) {
+            for (String section : lyrics.split("\n\n")) {
+                List<String> sectionLines = new ArrayList<>();
+                for (String line : section.split("\n")) {
+                    sectionLines.add(CHORD_LINES[chordIdx++ % CHORD_LINES.length]);
+                    sectionLines.add(line);
+                }
+                lines.addAll(sectionLines);
+                sections.add(new TextSection("", sectionLines.toArray(new String[0]), null, true));
+            }
+        }
+        System.out.printf("%d lines in %d sections%n", lines.size(), sections.size());
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            classifyRegex(lines);
+            classify(lines);
+            getText(sections);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            classifyRegex(lines);
+        }
+        report("regex chord check", start, lines.size());
+        start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            classify(lines);
+        }
+        report("getLineType", start, lines.size());
+        start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            getText(sections);
+        }
+        report("getText(false, false)", start, lines.size());
+    }
+
+    private static void report(String name, long start, int lines) {
+        double perLine = (System.nanoTime() - start) / (double) (ROUNDS * lines);
+        System.out.printf("%s: %.1f ns/line%n", name, perLine);
+    }
+
+    private static int classify(List<String> lines) {
+        int chords = 0;
+        for (String line : lines) {
+            if (LineTypeChecker.getLineType(line) == LineTypeChecker.Type.CHORDS) {
+                chords++;
+            }
+        }
+        return chords;
+    }
+
+    private static int getText(List<TextSection> sections) {
+        int count = 0;
+        for (TextSection section : sections) {
+            count += section.getText(false, false).length;
+        }
+        return count;
+    }
+
+    /**
+     * The chord check as it used to be, compiling the chord regex for every
+     * word.
+     */
+    private static int classifyRegex(List<String> lines) {
+        int chords = 0;
+        for (String line : lines) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            String checkLine = line.replace('-', ' ').replace('(', ' ').replace(')', ' ');
+            checkLine = checkLine.replaceAll("[xX][0-9]+", "");
+            checkLine = checkLine.replaceAll("[0-9]+[xX]", "");
+            boolean chord = true;
+            for (String s : checkLine.split("\\s")) {
+                if (!s.trim().isEmpty() && !s.matches("^" + LineTypeChecker.CHORD_REGEX + "$")) {
+                    chord = false;
+                    break;
+                }
+            }
+            if (chord) {
+                chords++;
+            }
+        }
+        return chords;
+    }
+}
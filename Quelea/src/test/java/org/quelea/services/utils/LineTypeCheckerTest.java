@@ -0,0 +1,39 @@
+package org.quelea.services.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("LineTypeCheckerTest")
+public class LineTypeCheckerTest {
+
+    private static final String[] WORDS = {"G", "D/F#", "Em7", "Cmaj7", "Dsus4", "Bbm", "F♯m", "E♭", "Aaug", "Cdim",
+        "Gadd9", "Bº", "Cø", "C+", "Ddom7", "Amin", "H", "/", "7", "mM", "sus", "Gsusus", "Amaj", "Amajj", "the",
+        "Lord", "and", "bad", "cab", "I", "Gm/Bb", "Hallelujah", "x", "dom", "Dmi", "Gsu", "Cdi", "Ama"};
+
+    @Test
+    @DisplayName("Test Chord Words Match The Chord Regex")
+    public void testChordWordsMatchRegex() {
+        for (String word : WORDS) {
+            boolean regex = word.matches("^" + LineTypeChecker.CHORD_REGEX + "$");
+            Assertions.assertEquals(regex ? LineTypeChecker.Type.CHORDS : LineTypeChecker.Type.NORMAL,
+                    LineTypeChecker.getLineType(word), word);
+        }
+    }
+
+    @Test
+    @DisplayName("Test Line Types")
+    public void testLineTypes() {
+        Assertions.assertEquals(LineTypeChecker.Type.TITLE, LineTypeChecker.getLineType("Verse 1"));
+        Assertions.assertEquals(LineTypeChecker.Type.TITLE, LineTypeChecker.getLineType("[Chorus]"));
+        Assertions.assertEquals(LineTypeChecker.Type.TITLE, LineTypeChecker.getLineType("Ending//title"));
+        Assertions.assertEquals(LineTypeChecker.Type.CHORDS, LineTypeChecker.getLineType("G  D/F#  Em  C (x2)"));
+        Assertions.assertEquals(LineTypeChecker.Type.CHORDS, LineTypeChecker.getLineType("Be still//chords"));
+        Assertions.assertEquals(LineTypeChecker.Type.NORMAL, LineTypeChecker.getLineType("A B C//lyrics"));
+        Assertions.assertEquals(LineTypeChecker.Type.NORMAL, LineTypeChecker.getLineType("Amazing grace how sweet the sound"));
+        Assertions.assertEquals(LineTypeChecker.Type.NONBREAK, LineTypeChecker.getLineType("<>"));
+        Assertions.assertEquals(LineTypeChecker.Type.NONBREAK, LineTypeChecker.getLineType("\u00A0"));
+        Assertions.assertEquals(LineTypeChecker.Type.NORMAL, LineTypeChecker.getLineType("   "));
+        Assertions.assertNull(LineTypeChecker.getLineType(null));
+    }
+}
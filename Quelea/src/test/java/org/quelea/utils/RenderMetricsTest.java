@@ -0,0 +1,43 @@
+package org.quelea.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("RenderMetricsTest")
+public class RenderMetricsTest {
+
+    @BeforeEach
+    public void setUp() {
+        RenderMetrics.get().reset();
+    }
+
+    @Test
+    @DisplayName("Test Timings Are Summarised")
+    public void testTimingsAreSummarised() {
+        for (int i = 0; i < 99; i++) {
+            RenderMetrics.get().record("draw", 500_000);
+        }
+        RenderMetrics.get().record("draw", 40_000_000);
+        String text = RenderMetrics.get().toText();
+        Assertions.assertTrue(text.contains("draw count=100"), text);
+        Assertions.assertTrue(text.contains("max=40.0"), text);
+        Assertions.assertTrue(text.contains("p50<=1.0"), text);
+        Assertions.assertTrue(text.contains("p99<=1.0"), text);
+        Assertions.assertTrue(text.contains("le1.0:99"), text);
+        Assertions.assertTrue(text.contains("le50.0:1"), text);
+    }
+
+    @Test
+    @DisplayName("Test Counters")
+    public void testCounters() {
+        Assertions.assertEquals(0, RenderMetrics.get().getCount("frames"));
+        RenderMetrics.get().increment("frames");
+        RenderMetrics.get().increment("frames");
+        Assertions.assertEquals(2, RenderMetrics.get().getCount("frames"));
+        Assertions.assertTrue(RenderMetrics.get().toText().contains("frames count=2"));
+        RenderMetrics.get().reset();
+        Assertions.assertEquals(0, RenderMetrics.get().getCount("frames"));
+    }
+}
@@ -0,0 +1,30 @@
+package org.quelea.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("TextMeasurerTest")
+public class TextMeasurerTest {
+
+    @Test
+    @DisplayName("Test Fit Size Matches Stepping Down")
+    public void testFitSizeMatchesSteppingDown() {
+        double[] amounts = {0.3, 1, 2.7, 13.1, 55.5};
+        double[] available = {-10, 0, 17, 100, 999.9, 5000};
+        for (double amount : amounts) {
+            for (double space : available) {
+                double size = 72;
+                while (amount * size > space && size >= 1) {
+                    size -= 0.5;
+                }
+                double fit = TextMeasurer.fitSize(72, amount, space);
+                if (size < 1) {
+                    Assertions.assertTrue(fit < 1, amount + " in " + space);
+                } else {
+                    Assertions.assertEquals(size, fit, 1e-9, amount + " in " + space);
+                }
+            }
+        }
+    }
+}